@@ -16,6 +16,9 @@
 package org.eclipse.jdt.core.groovy.tests.builder;
 
 import java.io.File;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.StringTokenizer;
@@ -32,7 +35,10 @@ import org.codehaus.groovy.ast.PropertyNode;
 import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
 import org.codehaus.groovy.ast.expr.Expression;
 import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.eclipse.CompilationProfile;
 import org.codehaus.groovy.vmplugin.VMPluginFactory;
+import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTClassNode;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
@@ -427,6 +433,136 @@ public class BasicGroovyBuildTests extends GroovierBuilderTests {
         }
     }
 
+    private static List<String> names(List<CompilationProfile.Entry> entries) {
+        List<String> names = new ArrayList<String>();
+        for (CompilationProfile.Entry entry : entries) {
+            names.add(entry.phase != null ? entry.phase + ": " + entry.name : entry.name);
+        }
+        return names;
+    }
+
+    public void testCompilationProfile() throws Exception {
+        try {
+            GroovyParser.profileBuilds = true;
+            IPath projectPath = env.addProject("Project","1.6");
+            env.addExternalJars(projectPath, Util.getJavaClassLibs());
+            env.addGroovyJars(projectPath);
+            env.removePackageFragmentRoot(projectPath, "");
+            IPath root = env.addPackageFragmentRoot(projectPath, "src");
+            env.setOutputFolder(projectPath, "bin");
+
+            env.addGroovyClass(root, "p", "Hello",
+                    "package p\n" +
+                    "@groovy.transform.ToString\n" +
+                    "class Hello {\n" +
+                    "  String name\n" +
+                    "}\n");
+            fullBuild(projectPath);
+            expectingNoProblems();
+
+            CompilationProfile profile = GroovyParser.getProjectProfile("Project");
+            assertNotNull("Should have profiled the build", profile);
+            String semanticAnalysis = Phases.getDescription(Phases.SEMANTIC_ANALYSIS);
+            assertTrue(names(profile.getPhases()).contains(semanticAnalysis));
+            assertTrue(names(profile.getOperations()).contains(semanticAnalysis + ": resolve"));
+            assertTrue(names(profile.getTransforms()).contains("org.codehaus.groovy.transform.ToStringASTTransformation"));
+            List<String> files = names(profile.getFiles());
+            assertEquals(files.toString(), 1, files.size());
+            assertTrue(files.get(0), files.get(0).endsWith("Hello.groovy"));
+
+            long phaseTime = 0, operationTime = 0;
+            for (CompilationProfile.Entry phase : profile.getPhases()) {
+                phaseTime += phase.getNanos();
+            }
+            for (CompilationProfile.Entry operation : profile.getOperations()) {
+                operationTime += operation.getNanos();
+            }
+            assertEquals("Phase times should add up the operation times", phaseTime, operationTime);
+
+            StringWriter json = new StringWriter();
+            profile.writeJSON(json);
+            assertTrue(json.toString(), json.toString().contains("\"name\": \"org.codehaus.groovy.transform.ToStringASTTransformation\""));
+
+            // a full build cleans the project, which starts its profile afresh
+            int fileCount = profile.getFiles().get(0).getCount();
+            fullBuild(projectPath);
+            expectingNoProblems();
+            profile = GroovyParser.getProjectProfile("Project");
+            assertNotNull("Should have profiled the build", profile);
+            assertEquals(fileCount, profile.getFiles().get(0).getCount());
+        } finally {
+            GroovyParser.profileBuilds = false;
+            CompilationProfile profile = GroovyParser.getProjectProfile("Project");
+            if (profile != null) {
+                profile.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the method nodes that have been made for the class so far, without making any more
+     */
+    @SuppressWarnings("unchecked")
+    private static List<MethodNode> convertedMethods(ClassNode node) throws Exception {
+        Field methodsList = ClassNode.class.getDeclaredField("methodsList");
+        methodsList.setAccessible(true);
+        return (List<MethodNode>) methodsList.get(node);
+    }
+
+    public void testLazyMemberInitialization() throws Exception {
+        try {
+            IPath projectPath = env.addProject("Project","1.6");
+            env.addExternalJars(projectPath, Util.getJavaClassLibs());
+            env.addGroovyJars(projectPath);
+            fullBuild(projectPath);
+            // remove old package fragment root so that names don't collide
+            env.removePackageFragmentRoot(projectPath, "");
+
+            IPath root = env.addPackageFragmentRoot(projectPath, "src");
+            env.setOutputFolder(projectPath, "bin");
+
+            JDTResolver.recordInstances = true;
+
+            env.addGroovyClass(root, "", "Foo",
+                    "void method(Collection<String> cs) {\n"+
+                    "   cs.add('abc')\n"+
+                    "}\n");
+
+            incrementalBuild(projectPath);
+            expectingNoProblems();
+
+            JDTClassNode jcn = JDTResolver.getCachedNode("java.util.Collection<E>");
+            assertNotNull(jcn);
+
+            // start from a fresh node so that nothing has been converted yet
+            JDTClassNode node = new JDTClassNode(jcn.getJdtBinding(), JDTResolver.instances.get(0));
+
+            assertTrue("nothing should be converted before it is asked for", convertedMethods(node).isEmpty());
+
+            List<MethodNode> adds = node.getDeclaredMethods("add");
+            assertEquals(1, adds.size());
+            assertSame("conversion by name should be stable", adds.get(0), node.getDeclaredMethods("add").get(0));
+            assertEquals("only 'add' should have been converted", adds, convertedMethods(node));
+            assertNull(node.getDeclaredField("nothing"));
+            assertEquals("looking up a field should not convert methods", adds, convertedMethods(node));
+
+            List<MethodNode> methods = node.getMethods();
+
+            int count = 0;
+            for (MethodNode method : methods) {
+                if (method.getName().equals("add")) {
+                    assertSame("method converted by name should be reused", adds.get(0), method);
+                    count += 1;
+                }
+            }
+            assertEquals(1, count);
+            assertEquals(jcn.getJdtBinding().methods().length, methods.size());
+            assertEquals(1, node.getDeclaredMethods("add").size());
+        } finally {
+            JDTResolver.recordInstances = false;
+        }
+    }
+
 //	public void testCompileStatic_1506() throws Exception {
 //		try {
 //			if (GroovyUtils.GROOVY_LEVEL < 20) {
@@ -2574,6 +2710,51 @@ public class BasicGroovyBuildTests extends GroovierBuilderTests {
 
     }
 
+    public void testIncrementalCompilationIgnoresGeneratedMembers() throws Exception {
+        IPath projectPath = env.addProject("Project");
+        env.addExternalJars(projectPath, Util.getJavaClassLibs());
+        env.addGroovyJars(projectPath);
+        fullBuild(projectPath);
+
+        // remove old package fragment root so that names don't collide
+        env.removePackageFragmentRoot(projectPath, "");
+
+        IPath root = env.addPackageFragmentRoot(projectPath, "src");
+        env.setOutputFolder(projectPath, "bin");
+
+        env.addClass(root, "pkg", "Hello", "package pkg;\n"
+                + "public class Hello {\n"
+                + "   public static void main(String[] args) {\n"
+                + "      System.out.println(new GHello().run());\n" + "   }\n"
+                + "}\n");
+
+        env.addGroovyClass(root, "pkg", "GHello", "package pkg;\n"
+                + "public class GHello {\n"
+                + "   public int run() { return 12; }\n" + "}\n");
+
+        incrementalBuild(projectPath);
+        expectingCompiledClassesV("pkg.Hello", "pkg.GHello");
+        expectingNoProblems();
+
+        // closure and dynamic call add call site and closure class members only
+        env.addGroovyClass(root, "pkg", "GHello", "package pkg;\n"
+                + "public class GHello {\n"
+                + "   public int run() { def c = { 12 }; return c() }\n" + "}\n");
+        incrementalBuild(projectPath);
+        expectingCompiledClassesV("pkg.GHello", "pkg.GHello$_run_closure1");
+        expectingNoProblems();
+        executeClass(projectPath, "pkg.Hello", "12", "");
+
+        // a new public method is still a structural change
+        env.addGroovyClass(root, "pkg", "GHello", "package pkg;\n"
+                + "public class GHello {\n"
+                + "   public int run() { def c = { 12 }; return c() }\n"
+                + "   public int walk() { return 3; }\n" + "}\n");
+        incrementalBuild(projectPath);
+        expectingCompiledClassesV("pkg.GHello", "pkg.GHello$_run_closure1", "pkg.Hello");
+        expectingNoProblems();
+    }
+
     public void testIncrementalCompilation1594() throws Exception {
         IPath projectPath = env.addProject("Project");
         env.addExternalJars(projectPath, Util.getJavaClassLibs());
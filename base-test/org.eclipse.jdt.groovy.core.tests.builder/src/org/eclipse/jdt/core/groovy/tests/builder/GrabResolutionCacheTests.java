@@ -0,0 +1,147 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.builder;
+
+import groovy.grape.GrapeEngine;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.codehaus.jdt.groovy.internal.compiler.ast.GrabResolutionCache;
+
+/**
+ * Grabs resolved during reconcile must be resolved once per set of coordinates,
+ * from the local grape cache only, and failures must not stick.
+ */
+public class GrabResolutionCacheTests extends TestCase {
+
+    public GrabResolutionCacheTests(String name) {
+        super(name);
+    }
+
+    /**
+     * Resolves every dependency to one jar, or fails while {@link #failures} is positive.
+     */
+    private static class FakeGrapeEngine implements GrapeEngine {
+        final List<Map<?, ?>> resolveArgs = new ArrayList<Map<?, ?>>();
+        int failures;
+
+        public URI[] resolve(Map args, Map... dependencies) {
+            resolveArgs.add(args);
+            if (failures > 0) {
+                failures -= 1;
+                throw new RuntimeException("Error grabbing Grapes -- [unresolved dependency: " + dependencies[0] + "]");
+            }
+            URI[] uris = new URI[dependencies.length];
+            for (int i = 0; i < dependencies.length; i += 1) {
+                uris[i] = URI.create("file:/grapes/" + dependencies[i].get("module") + ".jar");
+            }
+            return uris;
+        }
+
+        public URI[] resolve(Map args, List depsInfo, Map... dependencies) {
+            return resolve(args, dependencies);
+        }
+
+        public Object grab(Map args, Map... dependencies) {
+            throw new UnsupportedOperationException();
+        }
+
+        public Object grab(String endorsedModule) {
+            throw new UnsupportedOperationException();
+        }
+
+        public Object grab(Map args) {
+            throw new UnsupportedOperationException();
+        }
+
+        public Map<String, Map<String, List<String>>> enumerateGrapes() {
+            return Collections.emptyMap();
+        }
+
+        public Map[] listDependencies(ClassLoader classLoader) {
+            return new Map[0];
+        }
+
+        public void addResolver(Map<String, Object> args) {
+        }
+    }
+
+    private final FakeGrapeEngine engine = new FakeGrapeEngine();
+
+    private final GrabResolutionCache cache = new GrabResolutionCache(getClass().getClassLoader());
+
+    @Override
+    protected void tearDown() throws Exception {
+        cache.close();
+        super.tearDown();
+    }
+
+    private static Map<?, ?>[] dependency(String module) {
+        Map<String, Object> dependency = new HashMap<String, Object>();
+        dependency.put("group", "org.example");
+        dependency.put("module", module);
+        dependency.put("version", "1.0");
+        return new Map<?, ?>[] {dependency};
+    }
+
+    private GrabResolutionCache.Resolution resolve(String module) {
+        Map<String, Object> args = new HashMap<String, Object>();
+        Map<?, ?>[] dependencies = dependency(module);
+        return cache.resolve(GrabResolutionCache.keyFor(args, dependencies), engine, args, dependencies);
+    }
+
+    public void testHit() throws Exception {
+        GrabResolutionCache.Resolution first = resolve("lib");
+        GrabResolutionCache.Resolution second = resolve("lib");
+
+        assertNull(first.failure);
+        assertEquals(1, first.uris.length);
+        assertSame(first, second);
+        assertEquals("Should have resolved only once", 1, engine.resolveArgs.size());
+        assertEquals("Should not download while reconciling", Boolean.FALSE, engine.resolveArgs.get(0).get("autoDownload"));
+    }
+
+    public void testMiss() throws Exception {
+        GrabResolutionCache.Resolution lib = resolve("lib");
+        GrabResolutionCache.Resolution other = resolve("other");
+
+        assertEquals(2, engine.resolveArgs.size());
+        assertFalse(lib.uris[0].equals(other.uris[0]));
+    }
+
+    public void testFailureThenSuccess() throws Exception {
+        engine.failures = 1;
+        GrabResolutionCache.Resolution failed = resolve("lib");
+        assertNotNull(failed.failure);
+        assertNull(failed.uris);
+
+        // e.g. a build has downloaded the jar into the grape cache since
+        GrabResolutionCache.Resolution resolved = resolve("lib");
+        assertNull(resolved.failure);
+        assertEquals(1, resolved.uris.length);
+        assertEquals(2, engine.resolveArgs.size());
+
+        assertSame(resolved, resolve("lib"));
+        assertEquals(2, engine.resolveArgs.size());
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.builder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Test;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.codehaus.jdt.groovy.model.ModuleNodeMapper.ModuleNodeInfo;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.tests.util.GroovyUtils;
+import org.eclipse.jdt.core.tests.util.Util;
+
+/**
+ * Builds and reconciles many Groovy projects at the same time.  Every project
+ * has its own <code>p.Shared</code> with a method that only that project
+ * declares, so a loader, resolver or module node that leaks from one project
+ * into another shows up as an unresolved method.
+ */
+public class ParallelBuildTests extends GroovierBuilderTests {
+
+    private static final int PROJECTS = 6;
+
+    private static final int ROUNDS = 4;
+
+    public ParallelBuildTests(String name) {
+        super(name);
+    }
+
+    public static Test suite() {
+        return buildTestSuite(ParallelBuildTests.class);
+    }
+
+    private IPath[] projects;
+
+    /** path of p/Uses.groovy of each project */
+    private IPath[] uses;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        projects = new IPath[PROJECTS];
+        uses = new IPath[PROJECTS];
+        for (int i = 0; i < PROJECTS; i += 1) {
+            IPath projectPath = env.addProject("Parallel" + i);
+            env.addExternalJars(projectPath, Util.getJavaClassLibs());
+            env.addGroovyJars(projectPath);
+            env.removePackageFragmentRoot(projectPath, "");
+            IPath root = env.addPackageFragmentRoot(projectPath, "src");
+            env.setOutputFolder(projectPath, "bin");
+
+            env.addGroovyClass(root, "p", "Shared",
+                    "package p\n" +
+                    "@groovy.transform.ToString\n" +
+                    "class Shared {\n" +
+                    "  String onlyIn" + i + "() { '" + i + "' }\n" +
+                    "}\n");
+            uses[i] = env.addGroovyClass(root, "p", "Uses",
+                    "package p\n" +
+                    "@groovy.transform.CompileStatic\n" +
+                    "class Uses {\n" +
+                    "  Shared shared = new Shared()\n" +
+                    "  String run() { shared.onlyIn" + i + "() }\n" +
+                    "}\n");
+            if (GroovyUtils.GROOVY_LEVEL >= 23) {
+                // compiling a trait discards the transform loaders of all projects
+                env.addGroovyClass(root, "p", "Named",
+                        "package p\n" +
+                        "trait Named {\n" +
+                        "  String name() { 'Named" + i + "' }\n" +
+                        "}\n" +
+                        "class Person implements Named {}\n");
+            }
+            projects[i] = projectPath;
+        }
+    }
+
+    private static void runConcurrently(List<Callable<Void>> tasks) throws Throwable {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks, 5, TimeUnit.MINUTES)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Callable<Void> build(final IPath projectPath) {
+        return new Callable<Void>() {
+            public Void call() throws Exception {
+                for (int round = 0; round < ROUNDS; round += 1) {
+                    env.fullBuild(projectPath);
+                }
+                return null;
+            }
+        };
+    }
+
+    private Callable<Void> reconcile(final int project) {
+        return new Callable<Void>() {
+            public Void call() throws Exception {
+                GroovyCompilationUnit unit = (GroovyCompilationUnit) JavaCore.createCompilationUnitFrom(
+                        ResourcesPlugin.getWorkspace().getRoot().getFile(uses[project]));
+                unit.becomeWorkingCopy(null);
+                try {
+                    for (int round = 0; round < ROUNDS; round += 1) {
+                        ModuleNodeInfo info = unit.getNewModuleInfo();
+                        assertNotNull("Should have a module node for " + unit.getPath(), info);
+                        assertFalse("Should reconcile " + unit.getPath() + " without errors", info.result.hasErrors());
+                        ClassNode usesType = null;
+                        for (ClassNode type : info.module.getClasses()) {
+                            if (type.getName().equals("p.Uses")) {
+                                usesType = type;
+                            }
+                        }
+                        assertNotNull(usesType);
+                        FieldNode shared = usesType.getField("shared");
+                        assertFalse("p.Shared of " + unit.getPath() + " should be the one of its own project",
+                                shared.getType().getMethods("onlyIn" + project).isEmpty());
+                    }
+                } finally {
+                    unit.discardWorkingCopy();
+                }
+                return null;
+            }
+        };
+    }
+
+    public void testConcurrentFullBuilds() throws Throwable {
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (IPath projectPath : projects) {
+            tasks.add(build(projectPath));
+        }
+        runConcurrently(tasks);
+
+        for (IPath projectPath : projects) {
+            expectingNoProblemsFor(projectPath);
+        }
+    }
+
+    public void testConcurrentReconcilesDuringBuilds() throws Throwable {
+        env.fullBuild();
+        expectingNoProblems();
+
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < PROJECTS; i += 1) {
+            tasks.add(reconcile(i));
+            tasks.add(build(projects[i]));
+        }
+        runConcurrently(tasks);
+
+        for (IPath projectPath : projects) {
+            expectingNoProblemsFor(projectPath);
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.eclipse.jdt.core.groovy.tests.locations;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -23,6 +24,7 @@ import junit.framework.TestCase;
 import groovy.lang.GroovyClassLoader;
 
 import org.codehaus.groovy.antlr.LocationSupport;
+import org.codehaus.groovy.antlr.SourceBuffer;
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.ast.expr.DeclarationExpression;
@@ -296,4 +298,78 @@ public class LocationSupportTests extends TestCase {
         assertEquals(content.indexOf('7'), decl.getRightExpression().getStart());
         assertEquals(content.indexOf('7')+1, decl.getRightExpression().getEnd());
     }
+
+    public void testUnicodeEscapesFromContents() throws Exception {
+        String escapeSequence = "/*\\u00E9\\u00E9\\u00E9\\u00E9\\u00E9\\u00E9\\u00E9\\u00E9\\u00E9*/";
+        String content = escapeSequence + "\r\n\n\rdef /*\\u00E9*/x = /*\\u00E9*/7";
+
+        SourceUnit sourceUnit = createSourceUnitWithContents(content);
+        sourceUnit.parse();
+        sourceUnit.completePhase();
+        sourceUnit.convert();
+        ModuleNode module = sourceUnit.getAST();
+
+        assertEquals(0, module.getStart());
+        assertEquals(content.length(), module.getEnd());
+        DeclarationExpression decl = (DeclarationExpression) ((ExpressionStatement) module.getStatementBlock().getStatements().get(0)).getExpression();
+        assertEquals(content.indexOf('x'), decl.getLeftExpression().getStart());
+        assertEquals(content.indexOf('x')+1, decl.getLeftExpression().getEnd());
+        assertEquals(content.indexOf('7'), decl.getRightExpression().getStart());
+        assertEquals(content.indexOf('7')+1, decl.getRightExpression().getEnd());
+    }
+
+    public void testSourceBufferFromContents() throws Exception {
+        String[] contents = { "", "a", "\n", "a\n", "a\nb", "a\nbc\n", "a\r\nb\r\n", "a\rb\r", "\r\n\r\n\n\r", "a\n\rb\r\r\nc" };
+        for (String content : contents) {
+            SourceBuffer streamed = new SourceBuffer();
+            for (int i = 0; i < content.length(); i += 1) {
+                streamed.write(content.charAt(i));
+            }
+            streamed.write(-1);
+            LocationSupport expected = streamed.getLocationSupport();
+            LocationSupport actual = new SourceBuffer(content.toCharArray()).getLocationSupport();
+
+            assertEquals(content, expected.getEnd(), actual.getEnd());
+            assertEquals(content, expected.getEndLine(), actual.getEndLine());
+            assertEquals(content, expected.getEndColumn(), actual.getEndColumn());
+            for (int line = 1; line <= expected.getEndLine() + 1; line += 1) {
+                assertEquals(content, expected.findOffset(line, 1), actual.findOffset(line, 1));
+            }
+        }
+    }
+
+    public void testParseFromContents() throws Exception {
+        String content = "def x = 1\r\ndef y = 2\r\n\r\ndef z = 3";
+        char[] chars = content.toCharArray();
+
+        ModuleNode viaContents = parse(createSourceUnitWithContents(content));
+        ModuleNode viaReader = parse(new SourceUnit("Foo", content, new CompilerConfiguration(), new GroovyClassLoader(), new ErrorCollector(new CompilerConfiguration())));
+        assertEquals(viaReader.getEnd(), viaContents.getEnd());
+        assertEquals(viaReader.getStatementBlock().getStatements().size(), viaContents.getStatementBlock().getStatements().size());
+
+        SourceBuffer buffer = new SourceBuffer(chars);
+        assertSame(chars, buffer.getSource());
+        assertEquals(int[].class, SourceBuffer.class.getDeclaredField("lineStarts").getType());
+        assertEquals(int[].class, SourceBuffer.class.getDeclaredField("lineEndings").getType());
+
+        int[] lineEndings = (int[]) ReflectionUtils.getPrivateField(LocationSupport.class, "lineEndings", buffer.getLocationSupport());
+        assertTrue(Arrays.toString(lineEndings), Arrays.equals(new int[] {0, 11, 22, 24, content.length()}, lineEndings));
+    }
+
+    private static ModuleNode parse(SourceUnit sourceUnit) {
+        sourceUnit.parse();
+        sourceUnit.completePhase();
+        sourceUnit.convert();
+        return sourceUnit.getAST();
+    }
+
+    private static SourceUnit createSourceUnitWithContents(final String content) {
+        final char[] chars = content.toCharArray();
+        return new SourceUnit("Foo", content, new CompilerConfiguration(), new GroovyClassLoader(), new ErrorCollector(new CompilerConfiguration())) {
+            @Override
+            public char[] getContents() {
+                return chars;
+            }
+        };
+    }
 }
@@ -21,6 +21,7 @@ import java.util.HashMap;
 import junit.framework.Test;
 
 import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.codehaus.jdt.groovy.model.ModuleNodeMapper;
 import org.eclipse.core.resources.IFile;
@@ -218,6 +219,58 @@ public class GroovyCompilationUnitTests extends AbstractGroovyTypeRootTests {
         assertTrue("getNewModuleNode() should have forced creation of a new module node", module1 != module2);
     }
 
+    public void testStructureOnlyWorkingCopy() throws Exception {
+        IFile groovyFile = createSimpleGroovyProject();
+        GroovyCompilationUnit unit1 = (GroovyCompilationUnit) JavaCore.createCompilationUnitFrom(groovyFile);
+        unit1.becomeWorkingCopy(null);
+        try {
+            // working copy without a problem requestor only has its structure built
+            IType type = unit1.getType("Hello");
+            assertTrue(type.exists());
+            assertEquals(1, type.getMethods().length);
+
+            // module node is resolved when asked for
+            ModuleNode node1 = unit1.getModuleNode();
+            Parameter parameter = node1.getClasses().get(0).getMethods("main").get(0).getParameters()[0];
+            assertEquals("Module node should have been resolved", "java.lang.String", parameter.getType().getComponentType().getName());
+            assertFalse(unit1.getModuleInfo(false).structureOnly);
+            assertTrue("Multiple calls to getModuleNode should return the same object if nothing has changed underneath", node1 == unit1.getModuleNode());
+        } finally {
+            unit1.discardWorkingCopy();
+        }
+    }
+
+    public void testCompactModuleNode() throws Exception {
+        IFile groovyFile = createSimpleGroovyProject();
+        GroovyCompilationUnit unit1 = (GroovyCompilationUnit) JavaCore.createCompilationUnitFrom(groovyFile);
+        unit1.becomeWorkingCopy(null);
+        try {
+            ModuleNode node1 = unit1.getModuleNode();
+            assertNull(unit1.getCompactModuleInfo());
+            assertTrue("Module node should have been compacted", unit1.compactModuleNode());
+            assertFalse("Module node should only be compacted once", unit1.compactModuleNode());
+
+            ModuleNodeMapper.CompactModuleInfo compact = unit1.getCompactModuleInfo();
+            assertNotNull(compact);
+            assertTrue(compact.fullSize > 0);
+            String contents = new String(unit1.getContents());
+            assertEquals("p1.Hello.main", compact.getDeclarationAt(contents.indexOf("print")));
+            assertEquals("p1.Hello", compact.getDeclarationAt(contents.indexOf("class")));
+            assertTrue(ModuleNodeMapper.getMemoryReport(), ModuleNodeMapper.getMemoryReport().contains("compact "));
+            assertNotNull("Asking for declarations should not parse again", unit1.getCompactModuleInfo());
+
+            ModuleNode node2 = unit1.getModuleNode();
+            assertNotNull("Module node should have been parsed again", node2);
+            assertTrue("Module node should have been parsed again", node1 != node2);
+            assertNull(unit1.getCompactModuleInfo());
+            assertTrue("Rehydrated module node should be cached", node2 == unit1.getModuleNode());
+            assertTrue(ModuleNodeMapper.getMemoryReport(), ModuleNodeMapper.getMemoryReport().contains("full "));
+        } finally {
+            unit1.discardWorkingCopy();
+        }
+        assertTrue("ModuleNodeMapper should be empty when there are no working copies", getInitialModuleNodeMapperSize() >= ModuleNodeMapper.size());
+    }
+
     public void testMarkerAnnotation_1() throws Exception {
         IPath root = createAnnotationGroovyProject();
         env.addGroovyClass(root, "p", "X",
@@ -27,6 +27,7 @@ public class AllSearchTests {
         TestSuite suite = new TestSuite(AllSearchTests.class.getName());
         suite.addTestSuite(BinarySearchTests.class);
         suite.addTestSuite(CategorySearchTests.class);
+        suite.addTestSuite(CategorySignaturesTests.class);
         suite.addTestSuite(DeclarationInferencingTests.class);
         suite.addTestSuite(DGMInferencingTests.class);
         suite.addTestSuite(FieldReferenceSearchTests.class);
@@ -39,8 +40,12 @@ public class AllSearchTests {
         suite.addTestSuite(LocalVariableReferenceSearchTests.class);
         suite.addTestSuite(MethodReferenceSearchTests.class);
         suite.addTestSuite(OperatorOverloadingInferencingTests.class);
+        suite.addTestSuite(ParallelDelegatedSearchTests.class);
         suite.addTestSuite(StaticInferencingTests.class);
+        suite.addTestSuite(SupplementalIndexerTests.class);
+        suite.addTestSuite(SupplementalReferenceCacheTests.class);
         suite.addTestSuite(SyntheticAccessorInferencingTests.class);
+        suite.addTestSuite(TypeLookupStatisticsTests.class);
         suite.addTestSuite(TypeReferenceSearchTests.class);
         return suite;
     }
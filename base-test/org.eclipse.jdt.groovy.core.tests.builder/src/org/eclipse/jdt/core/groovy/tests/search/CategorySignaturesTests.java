@@ -0,0 +1,117 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.search;
+
+import groovy.lang.GroovySystem;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.GenericsType;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.runtime.DefaultGroovyMethods;
+import org.codehaus.groovy.runtime.EncodingGroovyMethods;
+import org.eclipse.jdt.groovy.search.CategorySignatureWriter;
+import org.eclipse.jdt.groovy.search.CategorySignatures;
+
+/**
+ * Class nodes of category classes built from a snapshot must have the same
+ * members as those built by reflection.
+ */
+public class CategorySignaturesTests extends TestCase {
+
+    public CategorySignaturesTests(String name) {
+        super(name);
+    }
+
+    private static CategorySignatures snapshotOf(Class<?>... categories) throws Exception {
+        StringWriter out = new StringWriter();
+        List<Class<?>> classes = new ArrayList<Class<?>>();
+        Collections.addAll(classes, categories);
+        CategorySignatureWriter.write(out, GroovySystem.getVersion(), classes);
+        return CategorySignatures.read(new StringReader(out.toString()), DefaultGroovyMethods.class.getClassLoader());
+    }
+
+    private static List<String> signatures(ClassNode node) {
+        List<String> signatures = new ArrayList<String>();
+        for (MethodNode method : node.getMethods()) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(method.getModifiers()).append(' ');
+            if (method.getGenericsTypes() != null) {
+                for (GenericsType gt : method.getGenericsTypes()) {
+                    sb.append(gt).append(' ');
+                }
+            }
+            sb.append(method.getReturnType().toString(false)).append(' ').append(method.getName()).append('(');
+            for (Parameter parameter : method.getParameters()) {
+                sb.append(parameter.getType().toString(false));
+                for (AnnotationNode annotation : parameter.getAnnotations()) {
+                    sb.append(" @").append(annotation.getClassNode().getName()).append(annotation.getMembers().keySet());
+                }
+                sb.append(',');
+            }
+            sb.append(')');
+            for (AnnotationNode annotation : method.getAnnotations()) {
+                sb.append(" @").append(annotation.getClassNode().getName());
+            }
+            signatures.add(sb.toString());
+        }
+        Collections.sort(signatures);
+        return signatures;
+    }
+
+    public void testSameMethodsAsReflection() throws Exception {
+        CategorySignatures snapshot = snapshotOf(DefaultGroovyMethods.class);
+        assertEquals(GroovySystem.getVersion(), snapshot.getVersion());
+
+        ClassNode fromSnapshot = snapshot.makeClassNode(DefaultGroovyMethods.class);
+        ClassNode fromReflection = new ClassNode(DefaultGroovyMethods.class);
+
+        assertEquals(signatures(fromReflection), signatures(fromSnapshot));
+        assertEquals(fromReflection.getFields().size(), fromSnapshot.getFields().size());
+        assertEquals(fromReflection.getDeclaredConstructors().size(), fromSnapshot.getDeclaredConstructors().size());
+        assertEquals(fromReflection.getUnresolvedSuperClass().getName(), fromSnapshot.getUnresolvedSuperClass().getName());
+    }
+
+    public void testGenericMethod() throws Exception {
+        ClassNode fromSnapshot = snapshotOf(DefaultGroovyMethods.class).makeClassNode(DefaultGroovyMethods.class);
+        MethodNode find = null;
+        for (MethodNode method : fromSnapshot.getMethods("find")) {
+            if (method.getParameters().length == 2 && method.getParameters()[0].getType().getName().equals("java.util.Collection")) {
+                find = method;
+            }
+        }
+        assertNotNull("Should have found DGM.find(Collection, Closure)", find);
+        assertSame(fromSnapshot, find.getDeclaringClass());
+        assertEquals("T", find.getReturnType().getUnresolvedName());
+        assertTrue(find.getReturnType().isGenericsPlaceHolder());
+        assertEquals("T", find.getParameters()[0].getType().getGenericsTypes()[0].getName());
+    }
+
+    public void testClassMissingFromSnapshot() throws Exception {
+        ClassNode fromSnapshot = snapshotOf(DefaultGroovyMethods.class).makeClassNode(EncodingGroovyMethods.class);
+        // initialized by reflection instead
+        assertEquals(signatures(new ClassNode(EncodingGroovyMethods.class)), signatures(fromSnapshot));
+    }
+}
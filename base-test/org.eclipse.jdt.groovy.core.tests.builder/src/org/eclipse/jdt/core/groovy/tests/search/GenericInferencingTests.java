@@ -21,15 +21,26 @@ import java.util.List;
 
 import junit.framework.Test;
 
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.GenericsType;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IProblemRequestor;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.groovy.tests.compiler.ReconcilerUtils;
 import org.eclipse.jdt.core.tests.util.GroovyUtils;
+import org.eclipse.jdt.groovy.search.GenericsCache;
+import org.eclipse.jdt.groovy.search.ITypeRequestor;
+import org.eclipse.jdt.groovy.search.TypeLookupResult;
 
 /**
  *
@@ -1266,4 +1277,93 @@ def h = [8: 1, bb:8]
         // Discard the working copy to free up caches
         cu.discardWorkingCopy();
     }
+
+    public void testRepeatedGenericLookupsAreCached() throws Exception {
+        String contents =
+                "List<String> list = []\n" +
+                "def a = list.get(0)\n" +
+                "def b = list.get(0)\n";
+        GroovyCompilationUnit unit = createUnit("Search", contents);
+        GenericsRequestor requestor = new GenericsRequestor("get");
+        factory.createVisitor(unit).visitCompilationUnit(requestor);
+
+        assertEquals(2, requestor.types.size());
+        assertEquals("java.lang.String", requestor.types.get(0).getName());
+        assertEquals("java.lang.String", requestor.types.get(1).getName());
+        assertNotSame("Expecting every lookup to get its own copy of the resolved type", requestor.types.get(0), requestor.types.get(1));
+        assertTrue("Expecting lookups from the generics cache", requestor.cache.getHits() > 0);
+    }
+
+    public void testCachedGenericLookupsAreNotModified() throws Exception {
+        String contents =
+                "List<Closure> list = []\n" +
+                "def a = list.get(0)\n" +
+                "def b = list.get(0)\n";
+        GroovyCompilationUnit unit = createUnit("Search", contents);
+        GenericsRequestor requestor = new GenericsRequestor("get") {
+            @Override
+            public VisitStatus acceptASTNode(ASTNode node, TypeLookupResult result, IJavaElement enclosingElement) {
+                VisitStatus status = super.acceptASTNode(node, result, enclosingElement);
+                if (types.size() == 1 && result.type == types.get(0)) {
+                    // what the inferencing visitor does to the type of a closure it visits
+                    org.eclipse.jdt.groovy.core.util.GroovyUtils.updateClosureWithInferredTypes(result.type, ClassHelper.STRING_TYPE, new Parameter[0]);
+                }
+                return status;
+            }
+        };
+        factory.createVisitor(unit).visitCompilationUnit(requestor);
+
+        assertEquals(2, requestor.types.size());
+        assertEquals("java.lang.String", requestor.types.get(0).getGenericsTypes()[0].getType().getName());
+        GenericsType[] generics = requestor.types.get(1).getGenericsTypes();
+        assertTrue("Expecting the cached type to be unaffected by changes to a handed out copy",
+            generics == null || !"java.lang.String".equals(generics[0].getType().getName()));
+        assertTrue("Expecting lookups from the generics cache", requestor.cache.getHits() > 0);
+    }
+
+    public void testGenericInferenceCacheHits() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Map<String, List<Integer>> map = [:]\n");
+        for (int i = 0; i < 50; i += 1) {
+            sb.append("def groups" + i + " = map.values().collect { it.collect { n -> n.intValue() } }.groupBy { it.size() }\n");
+            sb.append("def sum" + i + " = map.get('" + i + "').inject(0) { acc, n -> acc + n.intValue() }\n");
+            sb.append("def keys" + i + " = map.keySet().iterator().next().toUpperCase()\n");
+        }
+        sb.append("def last = map.keySet().iterator().next()\n");
+        String contents = sb.toString();
+        GroovyCompilationUnit unit = createUnit("Search", contents);
+
+        GenericsRequestor requestor = new GenericsRequestor("toUpperCase");
+        factory.createVisitor(unit).visitCompilationUnit(requestor);
+
+        assertEquals(50, requestor.types.size());
+        assertEquals("java.lang.String", requestor.types.get(49).getName());
+        int start = contents.lastIndexOf("next");
+        assertType(contents, start, start + "next".length(), "java.lang.String");
+        assertTrue("Expecting most lookups from the generics cache, but had " + requestor.cache.getHits() + " hits and " +
+            requestor.cache.getMisses() + " misses", requestor.cache.getHits() > requestor.cache.getMisses());
+    }
+
+    /**
+     * Collects the types of the named method calls.
+     */
+    private static class GenericsRequestor implements ITypeRequestor {
+        final String name;
+        final List<ClassNode> types = new ArrayList<ClassNode>();
+        GenericsCache cache;
+
+        GenericsRequestor(String name) {
+            this.name = name;
+        }
+
+        public VisitStatus acceptASTNode(ASTNode node, TypeLookupResult result, IJavaElement enclosingElement) {
+            if (result.scope != null) {
+                cache = result.scope.getGenericsCache();
+            }
+            if (node instanceof ConstantExpression && name.equals(((ConstantExpression) node).getValue())) {
+                types.add(result.type);
+            }
+            return VisitStatus.CONTINUE;
+        }
+    }
 }
@@ -17,6 +17,10 @@ package org.eclipse.jdt.core.groovy.tests.search;
 
 import junit.framework.Test;
 
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.transform.stc.StaticTypesMarker;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.jdt.core.tests.util.GroovyUtils;
 
 /**
@@ -217,4 +221,93 @@ public class Groovy20InferencingTests extends AbstractInferencingTest {
         int end = start + "args".length();
         assertType(contents, start, end, "java.lang.String");
     }
+
+    public void testTypeCheckerResultsUsed() throws Exception {
+        if (GroovyUtils.GROOVY_LEVEL < 20 ) {
+            return;
+        }
+        String contents =
+                "import groovy.transform.CompileStatic\n" +
+                "class CompilingStatic {\n" +
+                "    @CompileStatic\n" +
+                "    def foo() {\n" +
+                "        def val = 'abc'\n" +
+                "        val = val.length()\n" +
+                "        val\n" +
+                "    }\n" +
+                "    def bar() {\n" +
+                "        def other = 'abc'\n" +
+                "        other\n" +
+                "    }\n" +
+                "}";
+        int start = contents.lastIndexOf("val");
+        int end = start + "val".length();
+        assertType(contents, start, end, "java.lang.Integer");
+
+        GroovyCompilationUnit unit = createUnit("Search", contents);
+        SearchRequestor requestor = doVisit(start, end, unit, false);
+        assertNotNull("Type checker should have run on annotated method", requestor.node.getNodeMetaData(StaticTypesMarker.INFERRED_TYPE));
+
+        start = contents.lastIndexOf("other");
+        requestor = doVisit(start, start + "other".length(), unit, false);
+        assertNull("Type checker should not have run on method without annotation", requestor.node.getNodeMetaData(StaticTypesMarker.INFERRED_TYPE));
+    }
+
+    public void testTypeCheckerResultsInSkippedClass() throws Exception {
+        if (GroovyUtils.GROOVY_LEVEL < 20 ) {
+            return;
+        }
+        String contents =
+                "import groovy.transform.CompileStatic\n" +
+                "import groovy.transform.TypeChecked\n" +
+                "import groovy.transform.TypeCheckingMode\n" +
+                "@TypeChecked(TypeCheckingMode.SKIP)\n" +
+                "class CompilingStatic {\n" +
+                "    @CompileStatic\n" +
+                "    def foo() {\n" +
+                "        def val = 'abc'\n" +
+                "        val = val.length()\n" +
+                "        val\n" +
+                "    }\n" +
+                "    def bar() {\n" +
+                "        def other = 'abc'\n" +
+                "        other\n" +
+                "    }\n" +
+                "}";
+        int start = contents.lastIndexOf("val");
+        int end = start + "val".length();
+        assertType(contents, start, end, "java.lang.Integer");
+
+        GroovyCompilationUnit unit = createUnit("Search", contents);
+        SearchRequestor requestor = doVisit(start, end, unit, false);
+        assertNotNull("Type checker should have run on annotated method of skipped class", requestor.node.getNodeMetaData(StaticTypesMarker.INFERRED_TYPE));
+
+        start = contents.lastIndexOf("other");
+        requestor = doVisit(start, start + "other".length(), unit, false);
+        assertNull("Type checker should not have run on method of skipped class", requestor.node.getNodeMetaData(StaticTypesMarker.INFERRED_TYPE));
+    }
+
+    public void testTypeCheckerMethodTarget() throws Exception {
+        if (GroovyUtils.GROOVY_LEVEL < 20 ) {
+            return;
+        }
+        String contents =
+                "import groovy.transform.CompileStatic\n" +
+                "class CompilingStatic {\n" +
+                "    String bar(String s) { s }\n" +
+                "    String bar(int i) { null }\n" +
+                "    @CompileStatic\n" +
+                "    def foo() {\n" +
+                "        bar(1).trim()\n" +
+                "    }\n" +
+                "}";
+        int start = contents.lastIndexOf("bar");
+        int end = start + "bar".length();
+        assertType(contents, start, end, "java.lang.String");
+        assertDeclaration(contents, start, end, "CompilingStatic", "bar", DeclarationKind.METHOD);
+
+        SearchRequestor requestor = doVisit(start, end, createUnit("Search", contents), false);
+        MethodNode target = (MethodNode) requestor.result.declaration;
+        assertEquals(ClassHelper.int_TYPE, target.getParameters()[0].getType());
+    }
 }
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import org.codehaus.jdt.groovy.integration.internal.ParallelDelegatedSearch;
+import org.codehaus.jdt.groovy.integration.internal.ParallelDelegatedSearch.FileSearch;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchRequestor;
+
+/**
+ * Tests the batch search of {@link ParallelDelegatedSearch} with several search threads.
+ */
+public class ParallelDelegatedSearchTests extends TestCase {
+
+    private static final int THREADS = 4;
+
+    private static final int MATCHES_PER_FILE = 3;
+
+    private final AtomicInteger started = new AtomicInteger();
+
+    private final OffsetRequestor requestor = new OffsetRequestor();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        System.setProperty(ParallelDelegatedSearch.THREADS_PROPERTY, String.valueOf(THREADS));
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        System.clearProperty(ParallelDelegatedSearch.THREADS_PROPERTY);
+        super.tearDown();
+    }
+
+    public void testEnabled() throws Exception {
+        assertTrue(ParallelDelegatedSearch.isEnabled());
+        System.clearProperty(ParallelDelegatedSearch.THREADS_PROPERTY);
+        assertFalse(ParallelDelegatedSearch.isEnabled());
+    }
+
+    public void testMatchOrder() throws Exception {
+        final int count = 20;
+        // later files finish first
+        boolean[] performed = ParallelDelegatedSearch.search(new SlowFileSearch(count) {
+            @Override
+            boolean isSearched(int index) {
+                return index % 5 != 0;
+            }
+        }, count, requestor, new NullProgressMonitor());
+
+        assertEquals(count, started.get());
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < count; i += 1) {
+            assertEquals("File " + i, i % 5 != 0, performed[i]);
+            for (int j = 0; j < MATCHES_PER_FILE; j += 1) {
+                expected.add(offset(i, j));
+            }
+        }
+        assertEquals(expected, requestor.offsets);
+        for (Thread thread : requestor.threads) {
+            assertSame("Requestor should only be called from the searching thread", Thread.currentThread(), thread);
+        }
+    }
+
+    public void testCancellation() throws Exception {
+        final int count = 50;
+        final IProgressMonitor monitor = new NullProgressMonitor();
+        SearchRequestor canceling = new SearchRequestor() {
+            @Override
+            public void acceptSearchMatch(SearchMatch match) throws CoreException {
+                requestor.acceptSearchMatch(match);
+                monitor.setCanceled(true);
+            }
+        };
+        try {
+            ParallelDelegatedSearch.search(new SlowFileSearch(count), count, canceling, monitor);
+            fail("Expecting the search to be canceled");
+        } catch (OperationCanceledException e) {
+            // expected
+        }
+        // let the files that were being searched finish
+        Thread.sleep(500);
+
+        assertTrue("Expecting the remaining files not to be searched, but " + started.get() + " were", started.get() <= 2 * THREADS + 1);
+        for (int i = 0; i < requestor.offsets.size(); i += 1) {
+            assertEquals("Expecting only the matches of the first file", offset(0, i), requestor.offsets.get(i).intValue());
+        }
+    }
+
+    public void testRuntimeException() throws Exception {
+        final int count = 50;
+        final IllegalStateException failure = new IllegalStateException();
+        try {
+            ParallelDelegatedSearch.search(new SlowFileSearch(count) {
+                @Override
+                boolean isSearched(int index) {
+                    if (index == 3) {
+                        throw failure;
+                    }
+                    return true;
+                }
+            }, count, requestor, new NullProgressMonitor());
+            fail("Expecting the exception of the search to be rethrown");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+        Thread.sleep(500);
+
+        assertTrue("Expecting the remaining files not to be searched, but " + started.get() + " were", started.get() <= 3 + 2 * THREADS + 1);
+        assertEquals("Expecting only the matches of the files before the failure", 3 * MATCHES_PER_FILE, requestor.offsets.size());
+    }
+
+    public void testCoreException() throws Exception {
+        final CoreException failure = new CoreException(new Status(IStatus.ERROR, "org.eclipse.jdt.groovy.core.tests.builder", "search failed"));
+        try {
+            ParallelDelegatedSearch.search(new FileSearch() {
+                public boolean search(int index, SearchRequestor buffer) throws CoreException {
+                    started.incrementAndGet();
+                    if (index == 2) {
+                        throw failure;
+                    }
+                    buffer.acceptSearchMatch(match(index, 0));
+                    return true;
+                }
+            }, 10, requestor, new NullProgressMonitor());
+            fail("Expecting the exception of the search to be rethrown");
+        } catch (RuntimeException e) {
+            assertSame(failure, e.getCause());
+        }
+
+        assertEquals("Expecting only the matches of the files before the failure", 2, requestor.offsets.size());
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static int offset(int file, int match) {
+        return file * 100 + match;
+    }
+
+    private static SearchMatch match(int file, int match) {
+        return new SearchMatch(null, SearchMatch.A_ACCURATE, offset(file, match), 1, null, null);
+    }
+
+    /**
+     * Reports {@link #MATCHES_PER_FILE} matches per file, taking longer for the earlier files.
+     */
+    private class SlowFileSearch implements FileSearch {
+        private final int count;
+
+        SlowFileSearch(int count) {
+            this.count = count;
+        }
+
+        public boolean search(int index, SearchRequestor buffer) throws CoreException {
+            started.incrementAndGet();
+            boolean searched = isSearched(index);
+            for (int j = 0; j < MATCHES_PER_FILE; j += 1) {
+                try {
+                    Thread.sleep((count - index) * 5 / MATCHES_PER_FILE + 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                buffer.acceptSearchMatch(match(index, j));
+            }
+            return searched;
+        }
+
+        boolean isSearched(int index) {
+            return true;
+        }
+    }
+
+    /**
+     * Records the offsets of the matches in the order they are reported, and the threads that reported them.
+     */
+    private static class OffsetRequestor extends SearchRequestor {
+        final List<Integer> offsets = new ArrayList<Integer>();
+        final List<Thread> threads = new ArrayList<Thread>();
+
+        @Override
+        public void acceptSearchMatch(SearchMatch match) throws CoreException {
+            offsets.add(match.getOffset());
+            threads.add(Thread.currentThread());
+        }
+    }
+}
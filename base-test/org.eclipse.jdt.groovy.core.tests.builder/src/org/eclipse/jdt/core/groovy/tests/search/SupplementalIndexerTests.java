@@ -0,0 +1,119 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.search;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import junit.framework.TestCase;
+
+import org.codehaus.groovy.activator.GroovyActivator;
+import org.codehaus.jdt.groovy.integration.internal.BinaryGroovySupplementalIndexer;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.util.Util;
+
+/**
+ * The references found by the {@link BinaryGroovySupplementalIndexer} must be
+ * the names that appear in the UTF-8 constants of a class file, split at dots.
+ */
+public class SupplementalIndexerTests extends TestCase {
+
+    public SupplementalIndexerTests(String name) {
+        super(name);
+    }
+
+    private static List<byte[]> groovyAllClassFiles() throws Exception {
+        List<byte[]> classFiles = new ArrayList<byte[]>();
+        ZipFile zip = new ZipFile(new File(GroovyActivator.GROOVY_ALL_JAR_URL.getFile()));
+        try {
+            for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements();) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class")) {
+                    classFiles.add(Util.getZipEntryByteContent(entry, zip));
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return classFiles;
+    }
+
+    /**
+     * Decodes every UTF-8 constant, as the indexer used to.
+     */
+    private static List<char[]> decodeAndSplit(ClassFileReader reader) {
+        int[] constantPoolOffsets = reader.getConstantPoolOffsets();
+        List<char[]> refs = new ArrayList<char[]>();
+        for (int i = 1; i < constantPoolOffsets.length; i += 1) {
+            if (reader.u1At(constantPoolOffsets[i]) == ClassFileConstants.Utf8Tag) {
+                char[] chars = reader.utf8At(constantPoolOffsets[i] + 3, reader.u2At(constantPoolOffsets[i] + 1));
+                if (isName(chars)) {
+                    for (char[] segment : CharOperation.splitOn('.', chars)) {
+                        refs.add(segment);
+                    }
+                }
+            }
+        }
+        return refs;
+    }
+
+    private static boolean isName(char[] chars) {
+        if (chars.length == 0 || chars[0] == '$' || !(chars[0] == '.' || Character.isJavaIdentifierStart(chars[0]))) {
+            return false;
+        }
+        for (int i = 1; i < chars.length; i += 1) {
+            if (chars[i] == '$' || !(chars[i] == '.' || Character.isJavaIdentifierPart(chars[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Set<String> toSet(List<char[]> refs) {
+        Set<String> set = new HashSet<String>();
+        for (char[] ref : refs) {
+            if (ref.length > 0) {
+                set.add(new String(ref));
+            }
+        }
+        return set;
+    }
+
+    public void testSameReferencesAsDecoding() throws Exception {
+        BinaryGroovySupplementalIndexer indexer = new BinaryGroovySupplementalIndexer();
+        int decoded = 0, scanned = 0;
+        for (byte[] contents : groovyAllClassFiles()) {
+            ClassFileReader reader = new ClassFileReader(contents, null);
+            List<char[]> refs = indexer.extractNamedReferences(contents, reader);
+            List<char[]> decodedRefs = decodeAndSplit(reader);
+            Set<String> names = toSet(refs);
+            assertEquals(toSet(decodedRefs), names);
+            assertEquals("Should not have duplicate or empty references", refs.size(), names.size());
+            decoded += decodedRefs.size();
+            scanned += refs.size();
+        }
+        // every reference returned is a char[] allocated for it, so duplicates must not be copied out again
+        assertTrue("Expecting fewer references than decoding: " + scanned + " >= " + decoded, scanned < decoded);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.search;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import junit.framework.TestCase;
+
+import org.codehaus.jdt.groovy.integration.internal.SupplementalReferenceCache;
+
+/**
+ * Tests that the references kept by the {@link SupplementalReferenceCache}
+ * are shared by jars with the same content, and only by those.
+ */
+public class SupplementalReferenceCacheTests extends TestCase {
+
+    private static final List<String> REFS = Arrays.asList("java.lang.String", "groovy.lang.Closure");
+
+    private File dir;
+    private File cacheDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        dir = File.createTempFile("supplementalReferences", "");
+        dir.delete();
+        cacheDir = new File(dir, "cache");
+        cacheDir.mkdirs();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        delete(dir);
+        super.tearDown();
+    }
+
+    public void testHitOnIdenticalJar() throws Exception {
+        File jar = writeJar("first.jar", "content");
+        File copy = writeJar("copy.jar", "content");
+        cache(jar);
+
+        SupplementalReferenceCache cache = new SupplementalReferenceCache(cacheDir);
+        assertEquals(REFS, toList(cache.get(copy.getAbsolutePath() + "|p/A.class")));
+        assertEquals(REFS, toList(cache.get(jar.getAbsolutePath() + "|p/A.class")));
+        assertNull(cache.get(jar.getAbsolutePath() + "|p/B.class"));
+    }
+
+    public void testMissAfterChange() throws Exception {
+        File jar = writeJar("first.jar", "content");
+        cache(jar);
+        writeJar("first.jar", "changed content");
+
+        SupplementalReferenceCache cache = new SupplementalReferenceCache(cacheDir);
+        assertNull(cache.get(jar.getAbsolutePath() + "|p/A.class"));
+    }
+
+    public void testPrune() throws Exception {
+        File old = new File(cacheDir, "old.refs");
+        File recent = new File(cacheDir, "recent.refs");
+        old.createNewFile();
+        recent.createNewFile();
+        old.setLastModified(System.currentTimeMillis() - 31 * 24L * 60 * 60 * 1000);
+        recent.setLastModified(System.currentTimeMillis() - 29 * 24L * 60 * 60 * 1000);
+
+        new SupplementalReferenceCache(cacheDir);
+        assertFalse("Expecting unused file to be deleted", old.exists());
+        assertTrue("Expecting recently used file to be kept", recent.exists());
+    }
+
+    public void testPartialFile() throws Exception {
+        File jar = writeJar("first.jar", "content");
+        cache(jar);
+        File file = getCacheFile();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(raf.length() - 3);
+        } finally {
+            raf.close();
+        }
+
+        assertReadAgain(jar);
+    }
+
+    public void testCorruptFile() throws Exception {
+        File jar = writeJar("first.jar", "content");
+        cache(jar);
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(getCacheFile()));
+        try {
+            out.writeInt(1);
+            out.writeInt(1);
+            out.writeUTF("p/A.class");
+            out.writeInt(-1);
+        } finally {
+            out.close();
+        }
+
+        assertReadAgain(jar);
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Asserts that the references of the jar are not known, and that they are written again when they are found.
+     */
+    private void assertReadAgain(File jar) throws Exception {
+        SupplementalReferenceCache cache = new SupplementalReferenceCache(cacheDir);
+        assertNull(cache.get(jar.getAbsolutePath() + "|p/A.class"));
+        cache.put(jar.getAbsolutePath() + "|p/A.class", toCharArrays(REFS));
+        cache.flush();
+
+        cache = new SupplementalReferenceCache(cacheDir);
+        assertEquals(REFS, toList(cache.get(jar.getAbsolutePath() + "|p/A.class")));
+    }
+
+    private void cache(File jar) {
+        SupplementalReferenceCache cache = new SupplementalReferenceCache(cacheDir);
+        assertNull(cache.get(jar.getAbsolutePath() + "|p/A.class"));
+        cache.put(jar.getAbsolutePath() + "|p/A.class", toCharArrays(REFS));
+        cache.flush();
+        getCacheFile();
+    }
+
+    private File getCacheFile() {
+        File[] files = cacheDir.listFiles();
+        assertEquals("Expecting one file in the cache", 1, files.length);
+        return files[0];
+    }
+
+    private File writeJar(String name, String content) throws IOException {
+        File jar = new File(dir, name);
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+        try {
+            out.putNextEntry(new ZipEntry("p/A.class"));
+            out.write(content.getBytes("UTF-8"));
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+        return jar;
+    }
+
+    private static List<char[]> toCharArrays(List<String> refs) {
+        List<char[]> chars = new ArrayList<char[]>();
+        for (String ref : refs) {
+            chars.add(ref.toCharArray());
+        }
+        return chars;
+    }
+
+    private static List<String> toList(char[][] refs) {
+        assertNotNull("Expecting cached references", refs);
+        List<String> strings = new ArrayList<String>();
+        for (char[] ref : refs) {
+            strings.add(new String(ref));
+        }
+        return strings;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.search;
+
+import junit.framework.Test;
+
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jdt.groovy.search.CategoryTypeLookup;
+import org.eclipse.jdt.groovy.search.SimpleTypeLookup;
+import org.eclipse.jdt.groovy.search.TypeLookupStatistics;
+
+/**
+ * Type lookups must only be asked about the expressions they apply to, and
+ * every call must be counted while statistics are collected.
+ */
+public class TypeLookupStatisticsTests extends AbstractInferencingTest {
+
+    public static Test suite() {
+        return buildTestSuite(TypeLookupStatisticsTests.class);
+    }
+
+    public TypeLookupStatisticsTests(String name) {
+        super(name);
+    }
+
+    private boolean wasEnabled;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        wasEnabled = TypeLookupStatistics.getDefault().isEnabled();
+        TypeLookupStatistics.getDefault().clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        TypeLookupStatistics.getDefault().setEnabled(wasEnabled);
+        TypeLookupStatistics.getDefault().clear();
+        super.tearDown();
+    }
+
+    private static TypeLookupStatistics.Entry entryOf(Class<?> lookup) {
+        for (TypeLookupStatistics.Entry e : TypeLookupStatistics.getDefault().getEntries()) {
+            if (e.name.equals(lookup.getName())) {
+                return e;
+            }
+        }
+        fail("No statistics for " + lookup.getName() + " in\n" + TypeLookupStatistics.getDefault());
+        return null;
+    }
+
+    public void testCategoryLookupOnlyAskedAboutNames() throws Exception {
+        TypeLookupStatistics.getDefault().setEnabled(true);
+        GroovyCompilationUnit unit = createUnit("Search", "def list = [1, 2, 3]\nlist.size() + list.sum()\n");
+        doVisit(-1, -1, unit, false);
+
+        TypeLookupStatistics.Entry category = entryOf(CategoryTypeLookup.class);
+        TypeLookupStatistics.Entry simple = entryOf(SimpleTypeLookup.class);
+        // list, size, sum and the constants are names; the list, the calls and the sum are not
+        assertTrue("Should have asked the category lookup about names", category.getCalls() > 0);
+        assertTrue("Should have skipped the category lookup for lists, calls and binary expressions", category.getSkips() > 0);
+        assertTrue("Should have found DGM methods in categories", category.getAnswers() > 0);
+        // the simple lookup applies to everything, so it answers whatever the category lookup was not asked about
+        assertEquals(0, simple.getSkips());
+        assertTrue(simple.getCalls() >= category.getSkips());
+        assertEquals(simple.getCalls(), simple.getAnswers());
+    }
+
+    public void testNothingCountedWhenDisabled() throws Exception {
+        TypeLookupStatistics.getDefault().setEnabled(false);
+        GroovyCompilationUnit unit = createUnit("Search", "def list = [1, 2, 3]\nlist.size()\n");
+        doVisit(-1, -1, unit, false);
+
+        assertTrue(TypeLookupStatistics.getDefault().getEntries().isEmpty());
+    }
+}
@@ -15,9 +15,6 @@
  */
 package org.codehaus.groovy.antlr;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * A simple buffer that provides line/col access to chunks of source code
  * held within itself.
@@ -28,27 +25,73 @@ import java.util.List;
  * @version $Revision: 7922 $
  */
 public class SourceBuffer {
-    private final List<StringBuilder> lines;
-    private StringBuilder current;
-    // GRECLIPSE: start
-    private final List<Integer> lineEndings;
-
-    // GRECLIPSE-805 Support for unicode escape sequences
-    private UnicodeEscapingReader unescaper;
-    // end
+    // GRECLIPSE edit -- keep the text in one array and the line structure in primitive arrays
+    /** Characters written so far, or the complete source if it was supplied up front. */
+    private char[] chars;
+    private int count;
+    /** Index into {@link #chars} where each line starts. */
+    private int[] lineStarts = new int[64];
+    /** Offset into the original source where each line starts (i.e. accounting for unicode escapes). */
+    private int[] lineEndings = new int[64];
+    private int lineCount = 1;
+    private boolean prevWasCarriageReturn;
+    private final boolean complete;
+    // GRECLIPSE-805: Support for unicode escape sequences
+    private UnicodeEscapingReader unescaper = new NoEscaper();
+    // GRECLIPSE end
 
     public SourceBuffer() {
-        lines = new ArrayList<StringBuilder>();
-        //lines.add(new StringBuffer()); // dummy row for position [0] in the List
-        // GRECLIPSE: start
-        lineEndings = new ArrayList<Integer>();
-        lineEndings.add(0);
-        unescaper = new NoEscaper();
-        // end
-        current = new StringBuilder();
-        lines.add(current);
+        // GRECLIPSE edit
+        chars = new char[1024];
+        complete = false;
+        // GRECLIPSE end
+    }
+
+    // GRECLIPSE add
+    /**
+     * Creates a buffer over the complete source. The array is not copied, so it must not be modified while
+     * the buffer is in use. Line endings are computed up front in one pass and {@link #write(int)} becomes
+     * a no-op. Snippets are taken from the source as is, so any unicode escapes appear verbatim.
+     */
+    public SourceBuffer(char[] source) {
+        chars = source;
+        count = source.length;
+        complete = true;
+        for (int i = 0; i < count; i += 1) {
+            char c = source[i];
+            if (c == '\r' && i + 1 < count && source[i + 1] == '\n') {
+                i += 1;
+            }
+            if (c == '\n' || c == '\r') {
+                addLine(i + 1, i + 1);
+            }
+        }
+    }
+
+    /**
+     * @return the source this buffer was created over or {@code null} if it is filled as the source is read
+     */
+    public char[] getSource() {
+        return complete ? chars : null;
+    }
+
+    private void addLine(int start, int ending) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = grow(lineStarts);
+            lineEndings = grow(lineEndings);
+        }
+        lineStarts[lineCount] = start;
+        lineEndings[lineCount] = ending;
+        lineCount += 1;
     }
 
+    private static int[] grow(int[] array) {
+        int[] larger = new int[array.length * 2];
+        System.arraycopy(array, 0, larger, 0, array.length);
+        return larger;
+    }
+    // GRECLIPSE end
+
     /**
      * Obtains a snippet of the source code within the bounds specified
      * @param start (inclusive line/ inclusive column)
@@ -59,7 +102,7 @@ public class SourceBuffer {
         // preconditions
         if (start == null || end == null) { return null; } // no text to return
         if (start.equals(end)) { return null; } // no text to return
-        if (lines.size() == 1 && current.length() == 0) { return null; } // buffer hasn't been filled yet
+        if (count == 0) { return null; } // buffer hasn't been filled yet
 
         // working variables
         int startLine = start.getLine();
@@ -72,13 +115,15 @@ public class SourceBuffer {
         if (endLine < 1) { endLine = 1;}
         if (startColumn < 1) { startColumn = 1;}
         if (endColumn < 1) { endColumn = 1;}
-        if (startLine > lines.size()) { startLine = lines.size(); }
-        if (endLine > lines.size()) { endLine = lines.size(); }
+        if (startLine > lineCount) { startLine = lineCount; }
+        if (endLine > lineCount) { endLine = lineCount; }
 
         // obtain the snippet from the buffer within specified bounds
-        StringBuffer snippet = new StringBuffer();
+        StringBuilder snippet = new StringBuilder();
         for (int i = startLine - 1; i < endLine;i++) {
-            String line = (lines.get(i)).toString();
+            int lineStart = lineStarts[i];
+            int lineEnd = (i + 1 < lineCount ? lineStarts[i + 1] : count);
+            String line = new String(chars, lineStart, lineEnd - lineStart);
             if (startLine == endLine) {
                 // reset any out of bounds requests (again)
                 if (startColumn > line.length()) { startColumn = line.length();}
@@ -108,64 +153,48 @@ public class SourceBuffer {
      * Writes the specified character into the buffer
      * @param c
      */
-    // GRECLIPSE: start
-    /*{
     public void write(int c) {
-        if (c != -1) {
-            current.append((char)c);
-        }
-        if (c == '\n') {
-            current = new StringBuffer();
-            lines.add(current);
+        // GRECLIPSE edit
+        if (complete) {
+            return;
         }
-    } 
-    }*/
-    // newcode:
-    public void setUnescaper(UnicodeEscapingReader unicodeEscapingReader) {
-        this.unescaper = unicodeEscapingReader;
-    }
-    
-    private boolean prevWasCarriageReturn = false;
-    private int col = 0;
-    // FIXASC tidy this up, looks slow
-    public void write(int c) {
         if (c != -1) {
-        	col++;
-            current.append((char)c);
+            if (count == chars.length) {
+                char[] larger = new char[count * 2];
+                System.arraycopy(chars, 0, larger, 0, count);
+                chars = larger;
+            }
+            chars[count++] = (char) c;
         }
         if (c == '\n') {
-        	if (!prevWasCarriageReturn) {
-	            current = new StringBuilder();
-	            lines.add(current);
-	            lineEndings.add(col + unescaper.getUnescapedUnicodeOffsetCount());
-        	} else {
-        		// \r\n was found
-        		// back out previous line and add a \n to the line
-        		current = new StringBuilder();
-        		lines.get(lines.size()-1).append('\n');
-        		lineEndings.remove(lineEndings.size()-1);
-        		lineEndings.add(col + unescaper.getUnescapedUnicodeOffsetCount());
-        	}
+            if (prevWasCarriageReturn) {
+                // \r\n was found; back out the line started after the \r
+                lineCount -= 1;
+            }
+            addLine(count, count + unescaper.getUnescapedUnicodeOffsetCount());
         }
         // handle carriage returns as well as newlines
         if (c == '\r') {
-        	current = new StringBuilder();
-        	lines.add(current);
-        	lineEndings.add(col + unescaper.getUnescapedUnicodeOffsetCount());
-        	// this may be a \r\n, but may not be
-        	prevWasCarriageReturn = true;
+            addLine(count, count + unescaper.getUnescapedUnicodeOffsetCount());
+            // this may be a \r\n, but may not be
+            prevWasCarriageReturn = true;
         } else {
-        	prevWasCarriageReturn = false;
+            prevWasCarriageReturn = false;
         }
+        // GRECLIPSE end
     }
-    
+
+    // GRECLIPSE add
     public LocationSupport getLocationSupport() {
-    	lineEndings.add(col + unescaper.getUnescapedUnicodeOffsetCount()); // last line ends where the data runs out
-    	int[] lineEndingsArray = new int[lineEndings.size()];
-    	for (int i=0,max=lineEndings.size();i<max;i++) {
-    		lineEndingsArray[i] = lineEndings.get(i).intValue();
-    	}
-    	return new LocationSupport(lineEndingsArray);
+        int[] lineEndingsArray = new int[lineCount + 1];
+        System.arraycopy(lineEndings, 0, lineEndingsArray, 0, lineCount);
+        // last line ends where the data runs out
+        lineEndingsArray[lineCount] = (complete ? count : count + unescaper.getUnescapedUnicodeOffsetCount());
+        return new LocationSupport(lineEndingsArray);
+    }
+
+    public void setUnescaper(UnicodeEscapingReader unicodeEscapingReader) {
+        this.unescaper = unicodeEscapingReader;
     }
-    // end
+    // GRECLIPSE end
 }
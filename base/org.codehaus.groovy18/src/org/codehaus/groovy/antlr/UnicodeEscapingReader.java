@@ -36,6 +36,10 @@ import groovyjarjarantlr.TokenStreamException;
 public class UnicodeEscapingReader extends Reader {
 
     private final Reader reader;
+    // GRECLIPSE add
+    private final char[] source;
+    private int index;
+    // GRECLIPSE end
     private CharScanner lexer;
     private boolean hasNextChar = false;
     private int nextChar;
@@ -66,6 +70,9 @@ public class UnicodeEscapingReader extends Reader {
     public UnicodeEscapingReader(Reader reader,SourceBuffer sourceBuffer) {
         this.reader = reader;
         this.sourceBuffer = sourceBuffer;
+        // GRECLIPSE add -- read straight from the source array when the buffer has it
+        this.source = (sourceBuffer != null ? sourceBuffer.getSource() : null);
+        // GRECLIPSE end
         // GRECLIPSE
         if (sourceBuffer != null) {
             sourceBuffer.setUnescaper(this);
@@ -114,14 +121,14 @@ public class UnicodeEscapingReader extends Reader {
             previousLine = lexer.getLine();
         }
         
-        int c = reader.read();
+        int c = readChar();
         if (c != '\\') {
             write(c);
             return c;
         }
 
         // Have one backslash, continue if next char is 'u'
-        c = reader.read();
+        c = readChar();
         if (c != 'u') {
             hasNextChar = true;
             nextChar = c;
@@ -133,7 +140,7 @@ public class UnicodeEscapingReader extends Reader {
         int numberOfUChars = 0;
         do {
             numberOfUChars++;
-            c = reader.read();
+            c = readChar();
         } while (c == 'u');
 
         // Get first hex digit
@@ -143,7 +150,7 @@ public class UnicodeEscapingReader extends Reader {
 
         // Must now be three more hex digits
         for (int i = 0; i < 3; i++) {
-            c = reader.read();
+            c = readChar();
             checkHexDigit(c);
             charNum.append((char) c);
         }
@@ -155,6 +162,14 @@ public class UnicodeEscapingReader extends Reader {
 
         return rv;
     }
+    // GRECLIPSE add
+    private int readChar() throws IOException {
+        if (source != null) {
+            return index < source.length ? source[index++] : -1;
+        }
+        return reader.read();
+    }
+    // GRECLIPSE end
     private void write(int c) {
         if (sourceBuffer != null) {sourceBuffer.write(c);}
     }
@@ -21,6 +21,7 @@ import org.codehaus.groovy.classgen.GeneratorContext;
 import org.codehaus.groovy.control.*;
 import org.codehaus.groovy.control.messages.SimpleMessage;
 import org.codehaus.groovy.control.messages.WarningMessage;
+import org.codehaus.groovy.eclipse.CompilationProfile;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.groovy.syntax.SyntaxException;
@@ -63,6 +64,9 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
     private Map<ASTNode, List<ASTTransformation>> transforms;
     private Map<Class<? extends ASTTransformation>, ASTTransformation> transformInstances;
     private static CompilationUnit compUnit;
+    // GRECLIPSE: start
+    private CompilationProfile profile;
+    // end
     private static Set<String> globalTransformNames = new HashSet<String>();
 
     private ASTTransformationVisitor(CompilePhase phase) {
@@ -147,6 +151,9 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 			}
                 		}
                 		long etime = System.nanoTime(); 
+                		if (profile != null) {
+                		    profile.addTransform(snt.getClass().getName(), etime - stime);
+                		}
                 		if (GroovyLogManager.manager.hasLoggers()) {
                 			try {
 	                			GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Local transform "+snt.getClass().getName()+" on "+classNode.getName()+":"+node[1]+" = "+((etime-stime)/1000000)+"ms");
@@ -211,6 +218,9 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     compilationUnit.addPhaseOperation(new CompilationUnit.PrimaryClassNodeOperation() {
                         public void call(SourceUnit source, GeneratorContext context, ClassNode classNode) throws CompilationFailedException {
                             visitor.source = source;
+                            // GRECLIPSE: start
+                            visitor.profile = compilationUnit.getProfile();
+                            // end
                             visitor.visitClass(classNode);
                         }
                     }, phase.getPhaseNumber());
@@ -371,7 +381,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
     }
     // GRECLIPSE: end
 
-    private static void addPhaseOperationsForGlobalTransforms(CompilationUnit compilationUnit, 
+    private static void addPhaseOperationsForGlobalTransforms(final CompilationUnit compilationUnit, 
             Map<String, URL> transformNames, boolean isFirstScan) {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         for (Map.Entry<String, URL> entry : transformNames.entrySet()) {
@@ -415,6 +425,10 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     			}
                     		}
                             long etime = System.nanoTime(); 
+                            CompilationProfile profile = compilationUnit.getProfile();
+                            if (profile != null) {
+                                profile.addTransform(instance.getClass().getName(), etime - stime);
+                            }
                     		if (GroovyLogManager.manager.hasLoggers()) {
                     			long timetaken = (etime-stime)/1000000;
                     			if (timetaken>0) {
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.greclipse;
+
+import java.io.CharArrayReader;
+import java.io.Reader;
+import java.net.URI;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.io.AbstractReaderSource;
+
+/**
+ * Like a {@link org.codehaus.groovy.control.io.StringReaderSource}, but reads the char[] that JDT hands out for a
+ * compilation unit, so the source is not copied into a String first.
+ */
+public class CharArrayReaderSource extends AbstractReaderSource {
+
+    private final char[] contents;
+
+    public CharArrayReaderSource(char[] contents, CompilerConfiguration configuration) {
+        super(configuration);
+        this.contents = contents;
+    }
+
+    public Reader getReader() {
+        return new CharArrayReader(contents);
+    }
+
+    /**
+     * @return null, since the source text has no location of its own (only part of the interface since Groovy 2.3)
+     */
+    public URI getURI() {
+        return null;
+    }
+}
@@ -189,7 +189,10 @@ public class AntlrParserPlugin extends ASTHelper implements ParserPlugin, Groovy
 
 
     public /*final*/ Reduction parseCST(final SourceUnit sourceUnit, Reader reader) throws CompilationFailedException {
-        final SourceBuffer sourceBuffer = new SourceBuffer();
+        // GRECLIPSE edit -- lex straight from the source array when it is available
+        char[] contents = sourceUnit.getContents();
+        final SourceBuffer sourceBuffer = (contents != null ? new SourceBuffer(contents) : new SourceBuffer());
+        // GRECLIPSE end
         transformCSTIntoAST(sourceUnit, reader, sourceBuffer);
         processAST();
         return outputAST(sourceUnit,sourceBuffer);
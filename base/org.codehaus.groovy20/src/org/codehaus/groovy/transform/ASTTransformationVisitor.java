@@ -52,6 +52,7 @@ import org.codehaus.groovy.control.Phases;
 import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.control.messages.SimpleMessage;
 import org.codehaus.groovy.control.messages.WarningMessage;
+import org.codehaus.groovy.eclipse.CompilationProfile;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.groovy.syntax.SyntaxException;
@@ -173,6 +174,10 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 			}
                 		}
                 		long etime = System.nanoTime();
+                		CompilationProfile profile = context.getCompilationUnit().getProfile();
+                		if (profile != null) {
+                		    profile.addTransform(snt.getClass().getName(), etime - stime);
+                		}
                 		if (GroovyLogManager.manager.hasLoggers()) {
                 			try {
 	                			GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Local transform "+snt.getClass().getName()+" on "+classNode.getName()+":"+node[1]+" = "+((etime-stime)/1000000)+"ms");
@@ -416,7 +421,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
     }
     // GRECLIPSE: end
 
-    private static void addPhaseOperationsForGlobalTransforms(CompilationUnit compilationUnit,
+    private static void addPhaseOperationsForGlobalTransforms(final CompilationUnit compilationUnit,
             Map<String, URL> transformNames, boolean isFirstScan) {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         for (Map.Entry<String, URL> entry : transformNames.entrySet()) {
@@ -463,6 +468,10 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     			}
                     		}
                             long etime = System.nanoTime();
+                            CompilationProfile profile = compilationUnit.getProfile();
+                            if (profile != null) {
+                                profile.addTransform(instance.getClass().getName(), etime - stime);
+                            }
                     		if (GroovyLogManager.manager.hasLoggers()) {
                     			long timetaken = (etime-stime)/1000000;
                     			if (timetaken>0) {
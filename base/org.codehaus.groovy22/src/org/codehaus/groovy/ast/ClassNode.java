@@ -566,6 +566,9 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
     }
 
     public List<ConstructorNode> getDeclaredConstructors() {
+        // GRECLIPSE add -- let the redirect target (i.e. JDTClassNode) initialize its constructors on demand
+        if (redirect!=null) return redirect().getDeclaredConstructors();
+        // GRECLIPSE end
         if (!redirect().lazyInitDone) redirect().lazyClassInit();
         final ClassNode r = redirect();
         if (r.constructors == null)
@@ -823,6 +826,9 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
      * @return the method matching the given name and parameters or null
      */
     public FieldNode getDeclaredField(String name) {
+        // GRECLIPSE add -- let the redirect target (i.e. JDTClassNode) initialize its fields on demand
+        if (redirect!=null) return redirect().getDeclaredField(name);
+        // GRECLIPSE end
         if (!redirect().lazyInitDone) redirect().lazyClassInit();
         ClassNode r = redirect ();
         if (r.fieldIndex == null)
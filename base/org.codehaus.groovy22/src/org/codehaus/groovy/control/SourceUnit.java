@@ -404,5 +404,12 @@ public class SourceUnit extends ProcessingUnit {
 	public void setComments(List<Comment> comments) {
 		this.comments = comments;
 	}
+    /**
+     * @return the source text if it is already held in memory, so the parser can read it without copying;
+     *         {@code null} otherwise
+     */
+    public char[] getContents() {
+        return null;
+    }
     // end
 }
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the time that Groovy compilation units spend in each phase, in each
+ * phase operation, in each AST transform and on each source file.  Times add
+ * up, so one profile can collect the compilations of several units.
+ * <p>
+ * Operations run one after the other within a phase, so the time of a phase is
+ * the sum of the times of its operations.  Transforms run within operations and
+ * operations run over files, so their times overlap with those of operations.
+ */
+@SuppressWarnings("nls")
+public class CompilationProfile {
+
+    /**
+     * The time recorded for one phase, operation, transform or file.
+     */
+    public static class Entry {
+        /** phase of an operation, null for anything else */
+        public final String phase;
+        public final String name;
+        private long nanos;
+        private int count;
+
+        Entry(String phase, String name) {
+            this.phase = phase;
+            this.name = name;
+        }
+
+        Entry(Entry that) {
+            this(that.phase, that.name);
+            this.nanos = that.nanos;
+            this.count = that.count;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getMillis() {
+            return nanos / 1000000;
+        }
+
+        /**
+         * @return the number of times that time was recorded, e.g. the number of classes an operation ran on
+         */
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private static final Comparator<Entry> SLOWEST_FIRST = new Comparator<Entry>() {
+        public int compare(Entry e1, Entry e2) {
+            return e1.nanos < e2.nanos ? 1 : e1.nanos > e2.nanos ? -1 : 0;
+        }
+    };
+
+    // the phases and operations are kept in the order they ran in
+    private final Map<String, Entry> phases = new LinkedHashMap<String, Entry>();
+    private final Map<String, Entry> operations = new LinkedHashMap<String, Entry>();
+    private final Map<String, Entry> transforms = new LinkedHashMap<String, Entry>();
+    private final Map<String, Entry> files = new LinkedHashMap<String, Entry>();
+
+    public synchronized void addOperation(String phase, String operation, long nanos) {
+        add(phases, null, phase, nanos, 1);
+        add(operations, phase, operation, nanos, 1);
+    }
+
+    public synchronized void addTransform(String transform, long nanos) {
+        add(transforms, null, transform, nanos, 1);
+    }
+
+    public synchronized void addFile(String file, long nanos) {
+        add(files, null, file, nanos, 1);
+    }
+
+    /**
+     * Adds the times of another profile to this one.
+     */
+    public void add(CompilationProfile that) {
+        if (that == this) {
+            return;
+        }
+        List<Entry> phases = that.getPhases(), operations = that.getOperations(), transforms = that.getTransforms(), files = that.getFiles();
+        synchronized (this) {
+            for (Entry e : phases) {
+                add(this.phases, null, e.name, e.nanos, e.count);
+            }
+            for (Entry e : operations) {
+                add(this.operations, e.phase, e.name, e.nanos, e.count);
+            }
+            for (Entry e : transforms) {
+                add(this.transforms, null, e.name, e.nanos, e.count);
+            }
+            for (Entry e : files) {
+                add(this.files, null, e.name, e.nanos, e.count);
+            }
+        }
+    }
+
+    private static void add(Map<String, Entry> entries, String phase, String name, long nanos, int count) {
+        String key = (phase == null ? name : phase + '\u0000' + name);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(phase, name);
+            entries.put(key, entry);
+        }
+        entry.nanos += nanos;
+        entry.count += count;
+    }
+
+    public synchronized boolean isEmpty() {
+        return phases.isEmpty();
+    }
+
+    public synchronized void clear() {
+        phases.clear();
+        operations.clear();
+        transforms.clear();
+        files.clear();
+    }
+
+    /**
+     * @return copies of the phase times, in the order the phases ran in
+     */
+    public synchronized List<Entry> getPhases() {
+        return copy(phases);
+    }
+
+    /**
+     * @return copies of the operation times, in the order the operations ran in
+     */
+    public synchronized List<Entry> getOperations() {
+        return copy(operations);
+    }
+
+    /**
+     * @return copies of the transform times, slowest first
+     */
+    public synchronized List<Entry> getTransforms() {
+        return slowestFirst(copy(transforms));
+    }
+
+    /**
+     * @return copies of the file times, slowest first
+     */
+    public synchronized List<Entry> getFiles() {
+        return slowestFirst(copy(files));
+    }
+
+    private static List<Entry> copy(Map<String, Entry> entries) {
+        List<Entry> copy = new ArrayList<Entry>(entries.size());
+        for (Entry e : entries.values()) {
+            copy.add(new Entry(e));
+        }
+        return copy;
+    }
+
+    private static List<Entry> slowestFirst(List<Entry> entries) {
+        Collections.sort(entries, SLOWEST_FIRST);
+        return entries;
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Writes the profile as a JSON object with the arrays <code>phases</code>,
+     * <code>operations</code>, <code>transforms</code> and <code>files</code>;
+     * every element has a <code>name</code>, the total <code>nanos</code> and a
+     * <code>count</code>.  Operations also have a <code>phase</code>.
+     */
+    public void writeJSON(Writer out) throws IOException {
+        out.write("{\n");
+        writeJSON(out, "phases", getPhases());
+        out.write(",\n");
+        writeJSON(out, "operations", getOperations());
+        out.write(",\n");
+        writeJSON(out, "transforms", getTransforms());
+        out.write(",\n");
+        writeJSON(out, "files", getFiles());
+        out.write("\n}\n");
+    }
+
+    private static void writeJSON(Writer out, String name, List<Entry> entries) throws IOException {
+        out.write("  \"" + name + "\": [");
+        for (int i = 0, n = entries.size(); i < n; i += 1) {
+            Entry e = entries.get(i);
+            out.write(i == 0 ? "\n    {" : ",\n    {");
+            if (e.phase != null) {
+                out.write("\"phase\": " + quote(e.phase) + ", ");
+            }
+            out.write("\"name\": " + quote(e.name) + ", \"nanos\": " + e.nanos + ", \"count\": " + e.count + "}");
+        }
+        out.write(entries.isEmpty() ? "]" : "\n  ]");
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0, n = s.length(); i < n; i += 1) {
+            char c = s.charAt(i);
+            switch (c) {
+            case '"':
+            case '\\':
+                sb.append('\\').append(c);
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            default:
+                if (c < ' ') {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * @return a report of the profile with one line per phase, operation,
+     *         transform and file
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        report(sb, "Phases", getPhases());
+        report(sb, "Operations", getOperations());
+        report(sb, "Transforms", getTransforms());
+        report(sb, "Files", getFiles());
+        return sb.toString();
+    }
+
+    private static void report(StringBuilder sb, String title, List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        sb.append(title).append(":\n");
+        for (Entry e : entries) {
+            sb.append(String.format("%8dms %6dx  ", e.getMillis(), e.count));
+            if (e.phase != null) {
+                sb.append(e.phase).append(": ");
+            }
+            sb.append(e.name).append('\n');
+        }
+    }
+}
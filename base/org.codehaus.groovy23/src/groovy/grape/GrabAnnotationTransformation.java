@@ -44,6 +44,7 @@ import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilePhase;
 import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.control.io.StringReaderSource;
+import org.codehaus.greclipse.CharArrayReaderSource;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.codehaus.groovy.tools.GrapeUtil;
 import org.codehaus.groovy.transform.ASTTransformation;
@@ -263,7 +264,10 @@ public class GrabAnnotationTransformation extends ClassCodeVisitorSupport implem
                         URI sourceURI = null;
                         // Since we use the data: scheme for StringReaderSources (which are fairly common)
                         // and those are not hierarchical we can't use them for making an absolute URI.
-                        if (!(getSourceUnit().getSource() instanceof StringReaderSource)) {
+                        // GRECLIPSE edit
+                        //if (!(getSourceUnit().getSource() instanceof StringReaderSource)) {
+                        if (!(getSourceUnit().getSource() instanceof StringReaderSource) && !(getSourceUnit().getSource() instanceof CharArrayReaderSource)) {
+                        // GRECLIPSE end
                             // Otherwise let's trust the source to know where it is from.
                             // And actually InputStreamReaderSource doesn't know what to do and so returns null.
                             sourceURI = getSourceUnit().getSource().getURI();
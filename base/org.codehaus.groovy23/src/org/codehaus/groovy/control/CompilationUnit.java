@@ -28,6 +28,7 @@ import org.codehaus.groovy.control.io.ReaderSource;
 import org.codehaus.groovy.control.messages.ExceptionMessage;
 import org.codehaus.groovy.control.messages.Message;
 import org.codehaus.groovy.control.messages.SimpleMessage;
+import org.codehaus.groovy.eclipse.CompilationProfile;
 import org.codehaus.groovy.syntax.SyntaxException;
 import org.codehaus.groovy.tools.GroovyClass;
 import org.codehaus.groovy.transform.ASTTransformationVisitor;
@@ -41,6 +42,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Field;
 import java.net.URL;
 import java.security.CodeSource;
 import java.util.*;
@@ -550,6 +552,20 @@ public class CompilationUnit extends ProcessingUnit {
     public void setProgressListener(ProgressListener listener) {
     	this.listener = listener;
     }
+
+    private CompilationProfile profile;
+
+    public CompilationProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Sets the profile that collects the time spent in each phase, phase
+     * operation, transform and source file, or null to stop profiling.
+     */
+    public void setProfile(CompilationProfile profile) {
+        this.profile = profile;
+    }
     private ProgressListener listener;
     // end
 
@@ -642,6 +658,9 @@ public class CompilationUnit extends ProcessingUnit {
     }
     
     private void doPhaseOperation(Object operation) {
+        // GRECLIPSE: start
+        long startTime = (profile != null ? System.nanoTime() : 0L);
+        // end
         if (operation instanceof PrimaryClassNodeOperation) {
             applyToPrimaryClassNodes((PrimaryClassNodeOperation) operation);
         } else if (operation instanceof SourceUnitOperation) {
@@ -649,8 +668,47 @@ public class CompilationUnit extends ProcessingUnit {
         } else {
             applyToGeneratedGroovyClasses((GroovyClassOperation) operation);
         }
+        // GRECLIPSE: start
+        if (profile != null) {
+            profile.addOperation(getPhaseDescription(), getOperationName(operation), System.nanoTime() - startTime);
+        }
+        // end
     }
 
+    // GRECLIPSE: start
+    private Map<Object, String> operationNames;
+
+    /**
+     * Names an operation after the field of this unit that holds it, or else after its class.
+     */
+    private String getOperationName(Object operation) {
+        if (operationNames == null) {
+            operationNames = new IdentityHashMap<Object, String>();
+            for (Field field : CompilationUnit.class.getDeclaredFields()) {
+                Class<?> type = field.getType();
+                if (SourceUnitOperation.class.isAssignableFrom(type) || PrimaryClassNodeOperation.class.isAssignableFrom(type) ||
+                        GroovyClassOperation.class.isAssignableFrom(type)) {
+                    try {
+                        field.setAccessible(true);
+                        Object value = field.get(this);
+                        if (value != null) {
+                            operationNames.put(value, field.getName());
+                        }
+                    } catch (Exception e) {
+                        // fall back on the class name
+                    }
+                }
+            }
+        }
+        String name = operationNames.get(operation);
+        if (name == null) {
+            name = operation.getClass().getName();
+            name = name.substring(name.lastIndexOf('.') + 1);
+        }
+        return name;
+    }
+    // end
+
     private void recordPhaseOpsInAllOtherPhases(int currPhase) {
         // apart from current phase, push new operations for every other phase in the master phase ops list
         for (int ph = Phases.INITIALIZATION; ph <= Phases.ALL; ph++) {
@@ -1015,8 +1073,14 @@ public class CompilationUnit extends ProcessingUnit {
             SourceUnit source = sources.get(name);
 	            if ((source.phase < phase) || (source.phase == phase && !source.phaseComplete)) {
 	                try {
+	                    // GRECLIPSE: start
+	                    long startTime = (profile != null ? System.nanoTime() : 0L);
+	                    // end
 	                    body.call(source);
 	                    // GRECLIPSE: start
+	                    if (profile != null) {
+	                        profile.addFile(name, System.nanoTime() - startTime);
+	                    }
 	                    if (phase==Phases.CONVERSION && getProgressListener()!=null && body==phaseOperations[phase].getLast()) {
 	                    	getProgressListener().parseComplete(phase,name);
 	                    }
@@ -1214,7 +1278,15 @@ public class CompilationUnit extends ProcessingUnit {
                         iterator.next();
                         offset++;
                     }
+                    // GRECLIPSE: start
+                    long startTime = (profile != null ? System.nanoTime() : 0L);
+                    // end
                     body.call(context, new GeneratorContext(this.ast, offset), classNode); 
+                    // GRECLIPSE: start
+                    if (profile != null && context != null) {
+                        profile.addFile(context.getName(), System.nanoTime() - startTime);
+                    }
+                    // end
                 }
             } catch (CompilationFailedException e) {
                 // fall through, getErrorReporter().failIfErrors() will trigger
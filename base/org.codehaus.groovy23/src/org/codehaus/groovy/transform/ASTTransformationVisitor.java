@@ -23,6 +23,7 @@ import org.codehaus.groovy.classgen.GeneratorContext;
 import org.codehaus.groovy.control.*;
 import org.codehaus.groovy.control.messages.SimpleMessage;
 import org.codehaus.groovy.control.messages.WarningMessage;
+import org.codehaus.groovy.eclipse.CompilationProfile;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.groovy.syntax.SyntaxException;
@@ -158,6 +159,10 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                 			}
                 		}
                 		long etime = System.nanoTime(); 
+                		CompilationProfile profile = context.getCompilationUnit().getProfile();
+                		if (profile != null) {
+                		    profile.addTransform(snt.getClass().getName(), etime - stime);
+                		}
                 		if (GroovyLogManager.manager.hasLoggers()) {
                 			try {
 	                			GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,"Local transform "+snt.getClass().getName()+" on "+classNode.getName()+":"+node[1]+" = "+((etime-stime)/1000000)+"ms");
@@ -419,7 +424,7 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
     }
     // GRECLIPSE: end
     
-    private static void addPhaseOperationsForGlobalTransforms(CompilationUnit compilationUnit, 
+    private static void addPhaseOperationsForGlobalTransforms(final CompilationUnit compilationUnit, 
             Map<String, URL> transformNames, boolean isFirstScan) {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         for (Map.Entry<String, URL> entry : transformNames.entrySet()) {
@@ -467,6 +472,10 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     			}
                     		}
                             long etime = System.nanoTime(); 
+                            CompilationProfile profile = compilationUnit.getProfile();
+                            if (profile != null) {
+                                profile.addTransform(instance.getClass().getName(), etime - stime);
+                            }
                     		if (GroovyLogManager.manager.hasLoggers()) {
                     			long timetaken = (etime-stime)/1000000;
                     			if (timetaken>0) {
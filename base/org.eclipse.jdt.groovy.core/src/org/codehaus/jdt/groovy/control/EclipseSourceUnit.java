@@ -21,6 +21,7 @@ import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.ErrorCollector;
 import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.greclipse.CharArrayReaderSource;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
 import org.eclipse.core.resources.IFile;
 
@@ -35,12 +36,26 @@ public class EclipseSourceUnit extends SourceUnit {
 
     final private IFile file;
     final public JDTResolver resolver;
+    final private char[] contents;
 
     public EclipseSourceUnit(IFile resource, String filepath, String string, CompilerConfiguration groovyCompilerConfig,
             GroovyClassLoader classLoader, ErrorCollector errorCollector, JDTResolver resolver) {
         super(filepath, string, groovyCompilerConfig, classLoader, errorCollector);
         this.file = resource;
         this.resolver = resolver;
+        this.contents = null;
+    }
+
+    /**
+     * The parser reads the given contents directly; the array must not be modified afterwards.
+     */
+    public EclipseSourceUnit(IFile resource, String filepath, char[] contents, CompilerConfiguration groovyCompilerConfig,
+            GroovyClassLoader classLoader, ErrorCollector errorCollector, JDTResolver resolver) {
+        super(filepath, new CharArrayReaderSource(contents, groovyCompilerConfig), groovyCompilerConfig, classLoader,
+                errorCollector);
+        this.file = resource;
+        this.resolver = resolver;
+        this.contents = contents;
     }
 
     /**
@@ -50,6 +65,11 @@ public class EclipseSourceUnit extends SourceUnit {
         return file;
     }
 
+    @Override
+    public char[] getContents() {
+        return contents;
+    }
+
     @Override
     public void convert() throws CompilationFailedException {
         super.convert();
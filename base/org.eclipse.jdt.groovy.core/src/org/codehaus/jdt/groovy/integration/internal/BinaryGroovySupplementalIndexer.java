@@ -16,10 +16,10 @@
 package org.codehaus.jdt.groovy.integration.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.codehaus.jdt.groovy.integration.ISupplementalIndexer;
-import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
 
@@ -29,44 +29,193 @@ import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
  */
 public class BinaryGroovySupplementalIndexer implements ISupplementalIndexer {
 
+    private static final ThreadLocal<ReferenceScanner> SCANNER = new ThreadLocal<ReferenceScanner>() {
+        @Override
+        protected ReferenceScanner initialValue() {
+            return new ReferenceScanner();
+        }
+    };
+
+    public List<char[]> extractNamedReferences(byte[] contents, ClassFileReader reader, String documentPath) {
+        SupplementalReferenceCache cache = documentPath != null ? SupplementalReferenceCache.getDefault() : null;
+        if (cache == null) {
+            return extractNamedReferences(contents, reader);
+        }
+        char[][] cached = cache.get(documentPath);
+        if (cached != null) {
+            return Arrays.asList(cached);
+        }
+        List<char[]> refs = extractNamedReferences(contents, reader);
+        cache.put(documentPath, refs);
+        return refs;
+    }
+
     public List<char[]> extractNamedReferences(byte[] contents, ClassFileReader reader) {
+        // the reader is created on the contents, so its constant pool offsets are offsets into them
         int[] constantPoolOffsets = reader.getConstantPoolOffsets();
-        int constantPoolCount = constantPoolOffsets.length;
+        ReferenceScanner scanner = SCANNER.get();
+        scanner.reset();
         List<char[]> refs = new ArrayList<char[]>();
-        for (int i = 1; i < constantPoolCount; i++) {
-            int tag = reader.u1At(constantPoolOffsets[i]);
-            switch (tag) {
-                case ClassFileConstants.Utf8Tag:
-                    char[] strConst = extractStringConstant(constantPoolOffsets, reader, i);
-                    if (isValidId(strConst)) {
-                        char[][] splits = CharOperation.splitOn('.', strConst);
-                        for (char[] split : splits) {
-                            refs.add(split);
-                        }
-                    }
+        for (int i = 1, n = constantPoolOffsets.length; i < n; i += 1) {
+            int offset = constantPoolOffsets[i];
+            if (contents[offset] == ClassFileConstants.Utf8Tag) {
+                int length = ((contents[offset + 1] & 0xFF) << 8) | (contents[offset + 2] & 0xFF);
+                scanner.scan(contents, offset + 3, length, refs);
             }
         }
         return refs;
     }
 
-    private boolean isValidId(char[] strConst) {
-        if (strConst == null || strConst.length == 0) {
-            return false;
+    /**
+     * Finds the dotted names among the UTF-8 constants of a class file.  A
+     * constant is decoded only as far as it is made of identifier characters
+     * and dots; descriptors, signatures and most string literals are rejected
+     * at their first character.  The segments of a name are decoded into a
+     * buffer that is reused for every constant, and a segment is copied out
+     * only the first time it is seen in the class.
+     */
+    private static class ReferenceScanner {
+
+        /** ASCII characters that may start a name */
+        private static final boolean[] START = new boolean[0x80];
+
+        /** ASCII characters that may appear in a name */
+        private static final boolean[] PART = new boolean[0x80];
+
+        static {
+            for (char c = 0; c < 0x80; c += 1) {
+                START[c] = isNameStart(c);
+                PART[c] = isNamePart(c);
+            }
+        }
+
+        private static boolean isNameStart(char c) {
+            return c != '$' && (c == '.' || Character.isJavaIdentifierStart(c));
+        }
+
+        private static boolean isNamePart(char c) {
+            return c != '$' && (c == '.' || Character.isJavaIdentifierPart(c));
+        }
+
+        private char[] buffer = new char[256];
+
+        /** open addressed set of the segments found in the current class */
+        private char[][] seen = new char[256][];
+
+        private int seenCount;
+
+        void reset() {
+            if (seenCount > 0) {
+                Arrays.fill(seen, null);
+                seenCount = 0;
+            }
+        }
+
+        /**
+         * Adds the segments of the modified UTF-8 constant at the given offset to the references, if it is a name.
+         */
+        void scan(byte[] bytes, int start, int length, List<char[]> refs) {
+            if (length == 0) {
+                return;
+            }
+            if (buffer.length < length) {
+                buffer = new char[Math.max(length, buffer.length * 2)];
+            }
+            char[] chars = buffer;
+            int count = 0;
+            for (int p = start, end = start + length; p < end;) {
+                int b = bytes[p] & 0xFF;
+                char c;
+                if (b < 0x80) {
+                    if (!(count == 0 ? START[b] : PART[b])) {
+                        return;
+                    }
+                    c = (char) b;
+                    p += 1;
+                } else {
+                    if ((b & 0xE0) == 0xC0 && p + 1 < end) {
+                        c = (char) (((b & 0x1F) << 6) | (bytes[p + 1] & 0x3F));
+                        p += 2;
+                    } else if ((b & 0xF0) == 0xE0 && p + 2 < end) {
+                        c = (char) (((b & 0x0F) << 12) | ((bytes[p + 1] & 0x3F) << 6) | (bytes[p + 2] & 0x3F));
+                        p += 3;
+                    } else {
+                        return;
+                    }
+                    if (!(count == 0 ? isNameStart(c) : isNamePart(c))) {
+                        return;
+                    }
+                }
+                chars[count++] = c;
+            }
+
+            int segmentStart = 0;
+            for (int i = 0; i <= count; i += 1) {
+                if (i == count || chars[i] == '.') {
+                    if (i > segmentStart) {
+                        char[] segment = addSegment(chars, segmentStart, i);
+                        if (segment != null) {
+                            refs.add(segment);
+                        }
+                    }
+                    segmentStart = i + 1;
+                }
+            }
         }
-        if (!(Character.isJavaIdentifierStart(strConst[0]) || strConst[0] == '.') || strConst[0] == '$') {
-            return false;
+
+        /**
+         * @return a copy of the segment, or null if it has been seen before in this class
+         */
+        private char[] addSegment(char[] chars, int start, int end) {
+            int hash = 0;
+            for (int i = start; i < end; i += 1) {
+                hash = 31 * hash + chars[i];
+            }
+            int mask = seen.length - 1;
+            int index = hash & mask;
+            for (char[] existing; (existing = seen[index]) != null; index = (index + 1) & mask) {
+                if (equals(existing, chars, start, end)) {
+                    return null;
+                }
+            }
+            char[] segment = new char[end - start];
+            System.arraycopy(chars, start, segment, 0, segment.length);
+            seen[index] = segment;
+            if (++seenCount * 2 > seen.length) {
+                rehash();
+            }
+            return segment;
         }
-        for (int i = 1; i < strConst.length; i++) {
-            if (!(Character.isJavaIdentifierPart(strConst[i]) || strConst[i] == '.') || strConst[i] == '$') {
+
+        private static boolean equals(char[] segment, char[] chars, int start, int end) {
+            if (segment.length != end - start) {
                 return false;
             }
+            for (int i = 0; i < segment.length; i += 1) {
+                if (segment[i] != chars[start + i]) {
+                    return false;
+                }
+            }
+            return true;
         }
-        return true;
-    }
 
-    private char[] extractStringConstant(int[] constantPoolOffsets, ClassFileReader reader, int index) {
-        int strlen = reader.u2At(constantPoolOffsets[index] + 1); // / +1 for the tag type
-        int strstart = constantPoolOffsets[index] + 3; // +1 for the tag type and +2 for the strlen
-        return reader.utf8At(strstart, strlen);
+        private void rehash() {
+            char[][] old = seen;
+            seen = new char[old.length * 2][];
+            int mask = seen.length - 1;
+            for (char[] segment : old) {
+                if (segment != null) {
+                    int hash = 0;
+                    for (char c : segment) {
+                        hash = 31 * hash + c;
+                    }
+                    int index = hash & mask;
+                    while (seen[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    seen[index] = segment;
+                }
+            }
+        }
     }
 }
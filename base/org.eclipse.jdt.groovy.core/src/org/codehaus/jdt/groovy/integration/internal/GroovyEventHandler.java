@@ -26,6 +26,7 @@ public class GroovyEventHandler implements EventHandler {
     //
     // "cleanOutputFolders" - called when a clean occurs (either when forced or when part of a full build)
     // "close" - called when a java project is closed
+    // "batchCompilationFinished" - called by the batch compiler when a compilation is finished (no java project)
     public void handle(JavaProject javaProject, String event) {
         if (event.equals("cleanOutputFolders")) {
             if (javaProject != null) {
@@ -37,6 +38,8 @@ public class GroovyEventHandler implements EventHandler {
                 GroovyParser.closeClassLoader(projectName);
                 GroovyParser.tidyCache(projectName);
             }
+        } else if (event.equals("batchCompilationFinished")) {
+            GroovyParser.writeBatchProfiles();
         }
     }
 }
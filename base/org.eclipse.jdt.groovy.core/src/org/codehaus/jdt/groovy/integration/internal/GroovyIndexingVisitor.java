@@ -50,6 +50,12 @@ import org.eclipse.jdt.internal.core.util.Util;
  */
 public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
 
+    /**
+     * Recorded as a reference by every groovy script so that scripts can be found from the index without opening their
+     * compilation units. It cannot clash with a real reference since it is not a valid groovy or java identifier.
+     */
+    public static final char[] SCRIPT_MARKER = "groovy-script".toCharArray();
+
     private ISourceElementRequestor requestor;
 
     // used for GRECLIPSE-741, remove when issue is solved
@@ -182,6 +188,9 @@ public class GroovyIndexingVisitor extends ClassCodeVisitorSupport {
 
     @Override
     public void visitClass(ClassNode node) {
+        if (node.isScript()) {
+            requestor.acceptUnknownReference(SCRIPT_MARKER, node.getStart());
+        }
         if (!node.isSynthetic()) {
             handleType(node, false, false);
             handleType(node.getSuperClass(), false, true);
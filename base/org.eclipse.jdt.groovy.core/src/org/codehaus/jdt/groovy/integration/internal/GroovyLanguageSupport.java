@@ -202,6 +202,11 @@ public class GroovyLanguageSupport implements LanguageSupport {
         return false;
     }
 
+    public boolean[] maybePerformDelegatedSearch(PossibleMatch[] possibleMatches, int start, int length, SearchPattern pattern,
+            SearchRequestor requestor, IProgressMonitor monitor) {
+        return ParallelDelegatedSearch.search(this, possibleMatches, start, length, pattern, requestor, monitor);
+    }
+
     public EventHandler getEventHandler() {
         // FIXASC could be une singleton?
         return new GroovyEventHandler();
@@ -58,6 +58,9 @@ public class MultiplexingParser extends Parser {
 
     @Override
     public void reset() {
+        if (groovyParser != null) {
+            groovyParser.reportProfile();
+        }
         groovyParser = null;
     }
 }
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.integration.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.SearchRequestor;
+import org.eclipse.jdt.groovy.search.BufferingSearchRequestor;
+import org.eclipse.jdt.internal.core.search.matching.PossibleMatch;
+
+/**
+ * Runs the delegated searches of a batch of possible matches on a small pool of
+ * threads.  Each file is searched into its own {@link BufferingSearchRequestor}
+ * and the buffers are flushed on the calling thread, strictly in the order of the
+ * possible matches, so the real requestor sees the same sequence of callbacks as
+ * with a sequential search and is never called concurrently.
+ * <p>
+ * Only a few files are searched ahead of the one being reported, which bounds the
+ * number of buffered matches and module nodes held at any time.
+ * <p>
+ * Disabled unless the <code>greclipse.search.threads</code> system property is
+ * greater than 1.
+ */
+public class ParallelDelegatedSearch {
+
+    public static final String THREADS_PROPERTY = "greclipse.search.threads";
+
+    /** how often the progress monitor is checked for cancellation while waiting on a file */
+    private static final long POLL_MILLIS = 100;
+
+    private static ExecutorService executor;
+
+    private static int executorThreads;
+
+    private ParallelDelegatedSearch() {
+        // static methods only
+    }
+
+    /**
+     * Searches one file of a batch.
+     */
+    public interface FileSearch {
+        /**
+         * Called on a worker thread.
+         *
+         * @param index index of the file in the batch
+         * @param requestor buffers the matches of the file until it is reported
+         * @return true iff the file was searched
+         */
+        boolean search(int index, SearchRequestor requestor) throws CoreException;
+    }
+
+    private static int getThreads() {
+        return Integer.getInteger(THREADS_PROPERTY, 1).intValue();
+    }
+
+    public static boolean isEnabled() {
+        return getThreads() > 1;
+    }
+
+    private static synchronized ExecutorService getExecutor(int threads) {
+        if (executor == null || executorThreads != threads) {
+            if (executor != null) {
+                // searches that are still using it keep their tasks
+                executor.shutdown();
+            }
+            executorThreads = threads;
+            executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "Groovy delegated search " + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * @return for each possible match of the batch, true iff its search was performed; or null
+     *         if parallel search is disabled, in which case the caller should search each file
+     * @throws OperationCanceledException if the monitor was canceled before all files were searched
+     */
+    static boolean[] search(final GroovyLanguageSupport support, final PossibleMatch[] possibleMatches, final int start, int length,
+            final SearchPattern pattern, SearchRequestor requestor, IProgressMonitor monitor) {
+        if (!isEnabled()) {
+            return null;
+        }
+        final List<Integer> indices = new ArrayList<Integer>(length);
+        for (int i = 0; i < length; i += 1) {
+            if (possibleMatches[start + i].isInterestingSourceFile()) {
+                indices.add(i);
+            }
+        }
+        boolean[] searched = search(new FileSearch() {
+            public boolean search(int index, SearchRequestor buffer) {
+                return support.maybePerformDelegatedSearch(possibleMatches[start + indices.get(index)], pattern, buffer);
+            }
+        }, indices.size(), requestor, monitor);
+        boolean[] performed = new boolean[length];
+        for (int i = 0; i < searched.length; i += 1) {
+            performed[indices.get(i)] = searched[i];
+        }
+        return performed;
+    }
+
+    /**
+     * Searches the files of a batch on the worker threads and reports their matches to the requestor on the
+     * calling thread, file by file in index order.  An exception thrown by a search is rethrown on the calling
+     * thread, wrapped in a RuntimeException if it is checked, and stops the search of the remaining files.
+     *
+     * @param count number of files in the batch
+     * @return for each file, true iff it was searched
+     * @throws OperationCanceledException if the monitor was canceled before all files were searched
+     */
+    public static boolean[] search(final FileSearch fileSearch, int count, SearchRequestor requestor, IProgressMonitor monitor) {
+        int threads = Math.max(getThreads(), 1);
+        // number of files that may be searched ahead of the one being reported
+        int window = 2 * threads;
+        long begin = System.currentTimeMillis();
+        boolean[] performed = new boolean[count];
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(count);
+        List<BufferingSearchRequestor> buffers = new ArrayList<BufferingSearchRequestor>(count);
+        for (int consumed = 0; consumed < count; consumed += 1) {
+            while (futures.size() < count && futures.size() - consumed < window) {
+                final int index = futures.size();
+                final BufferingSearchRequestor buffer = new BufferingSearchRequestor(requestor);
+                buffers.add(buffer);
+                futures.add(getExecutor(threads).submit(new Callable<Boolean>() {
+                    public Boolean call() throws CoreException {
+                        if (cancelled.get()) {
+                            return Boolean.FALSE;
+                        }
+                        return Boolean.valueOf(fileSearch.search(index, buffer));
+                    }
+                }));
+            }
+            Boolean result;
+            try {
+                result = await(futures.get(consumed), monitor);
+            } catch (RuntimeException e) {
+                cancelled.set(true);
+                cancelRemaining(futures, consumed);
+                throw e;
+            } catch (Error e) {
+                cancelled.set(true);
+                cancelRemaining(futures, consumed);
+                throw e;
+            }
+            performed[consumed] = result.booleanValue();
+            buffers.get(consumed).flush();
+            // let the matches and buffers of reported files be collected
+            futures.set(consumed, null);
+            buffers.set(consumed, null);
+        }
+        if (GroovyLogManager.manager.hasLoggers()) {
+            GroovyLogManager.manager.log(TraceCategory.DEFAULT, "Searched " + count + " Groovy files on " + threads +
+                    " threads in " + (System.currentTimeMillis() - begin) + "ms");
+        }
+        return performed;
+    }
+
+    private static Boolean await(Future<Boolean> future, IProgressMonitor monitor) {
+        while (true) {
+            if (monitor != null && monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            try {
+                return future.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // check the monitor again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationCanceledException();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    private static void cancelRemaining(List<Future<Boolean>> futures, int from) {
+        for (int i = from; i < futures.size(); i += 1) {
+            Future<Boolean> future = futures.get(i);
+            if (future != null) {
+                // files being searched finish on their own, their buffers are dropped
+                future.cancel(false);
+            }
+        }
+    }
+}
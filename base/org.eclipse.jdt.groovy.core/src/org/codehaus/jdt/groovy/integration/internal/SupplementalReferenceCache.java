@@ -0,0 +1,328 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.integration.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.jdt.groovy.core.Activator;
+
+/**
+ * Keeps the references that the {@link BinaryGroovySupplementalIndexer} finds
+ * in the class files of a jar, so that they are not extracted again when the
+ * same jar is indexed again (after the index was discarded, or because another
+ * project refers to a copy of it in a different location).
+ * <p>
+ * The references of a jar are stored in a file in the state location of the
+ * plugin that is named after a hash of the jar's entries (names, CRCs and
+ * sizes), so jars with the same content share one file.  A jar is indexed one
+ * entry at a time, so only the references of the jar that is being indexed are
+ * kept in memory; they are written out when the indexer moves on to another
+ * jar and when the plugin stops.  Files that have not been used for
+ * {@link #MAX_UNUSED_DAYS} days are deleted.
+ */
+public class SupplementalReferenceCache {
+
+    public static final boolean ENABLED = Boolean.valueOf(System.getProperty("greclipse.supplementalIndexCache", "true"));
+
+    /** version of the file format, and of the references stored in it */
+    private static final int FORMAT = 1;
+
+    private static final String SUFFIX = ".refs";
+
+    private static final int MAX_UNUSED_DAYS = 30;
+
+    private static final char JAR_SEPARATOR = '|';
+
+    private static SupplementalReferenceCache instance;
+
+    private final File directory;
+
+    /** path of the jar whose references are in {@link #references} */
+    private String jarPath;
+
+    /** file of the jar whose references are in {@link #references}, or null if they are not cached */
+    private File file;
+
+    /** entry name to references */
+    private final Map<String, char[][]> references = new HashMap<String, char[][]>();
+
+    private boolean dirty;
+
+    /**
+     * Use {@link #getDefault()} to get the cache of the plugin.
+     *
+     * @param directory existing directory that keeps the files of the cache; files in it that have not been used for
+     *        {@link #MAX_UNUSED_DAYS} days are deleted
+     */
+    public SupplementalReferenceCache(File directory) {
+        this.directory = directory;
+        prune();
+    }
+
+    /**
+     * @return the cache, or null if it is disabled or the plugin is not running
+     */
+    public static synchronized SupplementalReferenceCache getDefault() {
+        if (instance == null && ENABLED) {
+            Activator activator = Activator.getDefault();
+            if (activator != null) {
+                File directory = activator.getStateLocation().append("supplementalReferences").toFile();
+                if (directory.isDirectory() || directory.mkdirs()) {
+                    instance = new SupplementalReferenceCache(directory);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Writes out the references of the last jar and forgets the cache.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.flush();
+            instance = null;
+        }
+    }
+
+    /**
+     * @param documentPath path of the indexed class file, <code>jar|entry</code> if it is in a jar
+     * @return the references of the class file, or null if they are not known
+     */
+    public synchronized char[][] get(String documentPath) {
+        int separator = documentPath.indexOf(JAR_SEPARATOR);
+        if (separator < 0) {
+            return null;
+        }
+        select(documentPath.substring(0, separator));
+        return file != null ? references.get(documentPath.substring(separator + 1)) : null;
+    }
+
+    /**
+     * @param documentPath path of the indexed class file, <code>jar|entry</code> if it is in a jar
+     */
+    public synchronized void put(String documentPath, List<char[]> refs) {
+        int separator = documentPath.indexOf(JAR_SEPARATOR);
+        if (separator < 0) {
+            return;
+        }
+        select(documentPath.substring(0, separator));
+        if (file != null) {
+            references.put(documentPath.substring(separator + 1), refs.toArray(new char[refs.size()][]));
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes out the references of the current jar, if any were added.
+     */
+    public synchronized void flush() {
+        if (!dirty || file == null) {
+            return;
+        }
+        dirty = false;
+        File temp = new File(directory, file.getName() + ".tmp");
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                out.writeInt(FORMAT);
+                out.writeInt(references.size());
+                for (Map.Entry<String, char[][]> entry : references.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    char[][] refs = entry.getValue();
+                    out.writeInt(refs.length);
+                    for (char[] ref : refs) {
+                        out.writeUTF(new String(ref));
+                    }
+                }
+            } finally {
+                out.close();
+            }
+            file.delete();
+            if (!temp.renameTo(file)) {
+                temp.delete();
+            }
+        } catch (IOException e) {
+            log("Could not write " + file + ": " + e);
+            temp.delete();
+        }
+    }
+
+    /**
+     * Makes the given jar the current one, loading its references if it has been indexed before.
+     */
+    private void select(String path) {
+        if (path.equals(jarPath)) {
+            return;
+        }
+        flush();
+        jarPath = path;
+        file = null;
+        references.clear();
+
+        File jar = resolve(path);
+        if (jar == null) {
+            return;
+        }
+        try {
+            file = new File(directory, hash(jar) + SUFFIX);
+        } catch (IOException e) {
+            // not a readable jar, so there is nothing to share
+            return;
+        }
+        if (file.isFile()) {
+            try {
+                load();
+                file.setLastModified(System.currentTimeMillis());
+                log("Loaded the references of " + references.size() + " class files of " + path);
+            } catch (IOException e) {
+                log("Could not read " + file + ": " + e);
+                references.clear();
+            }
+        }
+    }
+
+    private void load() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != FORMAT) {
+                return;
+            }
+            int entries = readCount(in, Integer.MAX_VALUE);
+            for (int i = 0; i < entries; i += 1) {
+                String name = in.readUTF();
+                // the references of a class file come from its constant pool
+                char[][] refs = new char[readCount(in, 0xFFFF)][];
+                for (int j = 0; j < refs.length; j += 1) {
+                    refs[j] = in.readUTF().toCharArray();
+                }
+                references.put(name, refs);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static int readCount(DataInputStream in, int max) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > max) {
+            throw new IOException("Invalid count " + count);
+        }
+        return count;
+    }
+
+    /**
+     * @param path absolute path of the jar in the file system, or path of a jar in the workspace
+     */
+    private static File resolve(String path) {
+        File jar = new File(path);
+        if (jar.isFile()) {
+            return jar;
+        }
+        try {
+            IResource resource = ResourcesPlugin.getWorkspace().getRoot().findMember(new Path(path));
+            IPath location = resource != null ? resource.getLocation() : null;
+            if (location != null) {
+                jar = location.toFile();
+                if (jar.isFile()) {
+                    return jar;
+                }
+            }
+        } catch (IllegalStateException e) {
+            // workspace is closed
+        }
+        return null;
+    }
+
+    /**
+     * @return hex digest of the central directory of the jar, which changes whenever the contents of an entry do
+     */
+    private static String hash(File jar) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e.getMessage());
+        }
+        ZipFile zip = new ZipFile(jar);
+        try {
+            byte[] buffer = new byte[16];
+            for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements();) {
+                ZipEntry entry = entries.nextElement();
+                digest.update(entry.getName().getBytes("UTF-8"));
+                writeLong(buffer, 0, entry.getCrc());
+                writeLong(buffer, 8, entry.getSize());
+                digest.update(buffer);
+            }
+        } finally {
+            zip.close();
+        }
+        digest.update((byte) FORMAT);
+
+        StringBuilder sb = new StringBuilder(40);
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static void writeLong(byte[] buffer, int offset, long value) {
+        for (int i = 7; i >= 0; i -= 1) {
+            buffer[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private void prune() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        long oldest = System.currentTimeMillis() - MAX_UNUSED_DAYS * 24L * 60 * 60 * 1000;
+        for (File f : files) {
+            if (f.lastModified() < oldest) {
+                f.delete();
+            }
+        }
+    }
+
+    private static void log(String message) {
+        if (GroovyLogManager.manager.hasLoggers()) {
+            GroovyLogManager.manager.log(TraceCategory.DEFAULT, message);
+        }
+    }
+}
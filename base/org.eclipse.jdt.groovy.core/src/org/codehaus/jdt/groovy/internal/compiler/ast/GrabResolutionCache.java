@@ -0,0 +1,238 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import groovy.grape.Grape;
+import groovy.grape.GrapeEngine;
+import groovy.lang.GroovyClassLoader;
+
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
+
+/**
+ * Remembers the outcome of {@code @Grab} resolution for one project so that reconciling a script does not go through
+ * Ivy on every keystroke. Each distinct set of coordinates is resolved once, from the local grape cache only, and the
+ * resulting jars are loaded by one shared class loader per distinct set of coordinates that a compilation unit grabs.
+ * <p>
+ * The cache lives as long as the project's transform loader (see {@link GroovyParser}), so it is discarded on a clean,
+ * a full build, a classpath change or when the project is closed. Only successful resolutions are remembered; coordinates
+ * that are not in the local grape cache are tried again by the next reconcile, so they resolve once a build has
+ * downloaded them. Builds are not affected: they still resolve (and download) through the regular grape engine.
+ *
+ * @see GroovyParser.GrapeAwareGroovyClassLoader
+ */
+public class GrabResolutionCache {
+
+    // same as Grape.AUTO_DOWNLOAD_SETTING, which not every supported groovy version has
+    private static final String AUTO_DOWNLOAD_SETTING = "autoDownload";
+
+    /** Coordinates (plus excludes) to the jars they resolved to. */
+    private final Map<String, Resolution> resolutions = new HashMap<String, Resolution>();
+
+    /** Ordered coordinate sets to the loader for the union of their jars. */
+    private final Map<List<String>, GroovyClassLoader> loaders = new HashMap<List<String>, GroovyClassLoader>();
+
+    private final ClassLoader parent;
+
+    public GrabResolutionCache(ClassLoader parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * @return the jars of the given coordinates, resolved from the local grape cache; failures are not remembered
+     */
+    public synchronized Resolution resolve(String key, GrapeEngine engine, Map<String, Object> args, Map<?, ?>[] dependencies) {
+        Resolution resolution = resolutions.get(key);
+        if (resolution == null) {
+            if (GroovyLogManager.manager.hasLoggers()) {
+                GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM, "Resolving grab from local cache: " + key);
+            }
+            Map<String, Object> resolveArgs = new HashMap<String, Object>(args);
+            resolveArgs.put(AUTO_DOWNLOAD_SETTING, Boolean.FALSE);
+            try {
+                URI[] uris = engine.resolve(resolveArgs, dependencies);
+                resolution = new Resolution(uris != null ? uris : new URI[0], null);
+            } catch (RuntimeException e) {
+                return new Resolution(null, e);
+            }
+            resolutions.put(key, resolution);
+        }
+        return resolution;
+    }
+
+    synchronized GroovyClassLoader getLoader(List<String> keys) {
+        GroovyClassLoader loader = loaders.get(keys);
+        if (loader == null) {
+            loader = new GroovyClassLoader(parent);
+            Set<URI> uris = new LinkedHashSet<URI>();
+            for (String key : keys) {
+                Resolution resolution = resolutions.get(key);
+                if (resolution != null && resolution.uris != null) {
+                    for (URI uri : resolution.uris) {
+                        uris.add(uri);
+                    }
+                }
+            }
+            for (URI uri : uris) {
+                try {
+                    loader.addURL(uri.toURL());
+                } catch (MalformedURLException e) {
+                    // not a jar that can be loaded from
+                }
+            }
+            loaders.put(new ArrayList<String>(keys), loader);
+        }
+        return loader;
+    }
+
+    public synchronized void close() {
+        for (GroovyClassLoader loader : loaders.values()) {
+            GroovyParser.close(loader);
+        }
+        loaders.clear();
+        resolutions.clear();
+    }
+
+    /**
+     * @return a key that identifies the given grab request independent of the class loader and of map ordering
+     */
+    public static String keyFor(Map<String, Object> args, Map<?, ?>[] dependencies) {
+        StringBuilder key = new StringBuilder();
+        for (Map<?, ?> dependency : dependencies) {
+            key.append(new TreeMap<Object, Object>(dependency));
+        }
+        Object excludes = args.get("excludes");
+        if (excludes != null) {
+            key.append(" excludes ").append(excludes);
+        }
+        return key.toString();
+    }
+
+    //--------------------------------------------------------------------------
+
+    public static class Resolution {
+        public final URI[] uris;
+        public final RuntimeException failure;
+
+        Resolution(URI[] uris, RuntimeException failure) {
+            this.uris = uris;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * Sends grabs made on behalf of a reconciling {@link GroovyParser.GrapeAwareGroovyClassLoader} through the loader's
+     * cache. All other grabs go to the original engine unchanged.
+     */
+    static class CachingGrapeEngine implements GrapeEngine {
+
+        private final GrapeEngine delegate;
+
+        CachingGrapeEngine(GrapeEngine delegate) {
+            this.delegate = delegate;
+        }
+
+        @SuppressWarnings("unchecked")
+        public Object grab(Map args, Map... dependencies) {
+            Object loader = args.get("classLoader");
+            if (loader instanceof GroovyParser.GrapeAwareGroovyClassLoader) {
+                GroovyParser.GrapeAwareGroovyClassLoader gagc = (GroovyParser.GrapeAwareGroovyClassLoader) loader;
+                GrabResolutionCache cache = gagc.grabCache;
+                if (cache != null) {
+                    String key = keyFor(args, dependencies);
+                    Resolution resolution = cache.resolve(key, delegate, args, dependencies);
+                    if (resolution.failure != null) {
+                        throw resolution.failure;
+                    }
+                    gagc.addGrab(key);
+                    return null;
+                }
+            }
+            return delegate.grab(args, dependencies);
+        }
+
+        public Object grab(String endorsedModule) {
+            return delegate.grab(endorsedModule);
+        }
+
+        public Object grab(Map args) {
+            return delegate.grab(args);
+        }
+
+        public Map<String, Map<String, List<String>>> enumerateGrapes() {
+            return delegate.enumerateGrapes();
+        }
+
+        public URI[] resolve(Map args, Map... dependencies) {
+            return delegate.resolve(args, dependencies);
+        }
+
+        public URI[] resolve(Map args, List depsInfo, Map... dependencies) {
+            return delegate.resolve(args, depsInfo, dependencies);
+        }
+
+        public Map[] listDependencies(ClassLoader classLoader) {
+            return delegate.listDependencies(classLoader);
+        }
+
+        public void addResolver(Map<String, Object> args) {
+            delegate.addResolver(args);
+        }
+    }
+
+    /**
+     * Wraps the grape engine with a {@link CachingGrapeEngine} while reconciles that use a grab cache are compiling, and
+     * puts the original engine back when the last of them is done; the engine instance is only reachable from
+     * subclasses of {@link Grape}. Grabs made by anyone else in the meantime go to the original engine unchanged.
+     */
+    static class Installer extends Grape {
+        private static int users;
+        private static GrapeEngine original;
+        private static CachingGrapeEngine installed;
+
+        static synchronized void acquire() {
+            if (users++ == 0) {
+                GrapeEngine engine = Grape.getInstance();
+                if (engine != null && !(engine instanceof CachingGrapeEngine)) {
+                    original = engine;
+                    installed = new CachingGrapeEngine(engine);
+                    instance = installed;
+                }
+            }
+        }
+
+        static synchronized void release() {
+            if (--users == 0 && installed != null) {
+                // someone may have replaced the engine in the meantime
+                if (instance == installed) {
+                    instance = original;
+                }
+                original = null;
+                installed = null;
+            }
+        }
+    }
+}
@@ -209,11 +209,20 @@ public class GroovyCompilationUnitDeclaration extends CompilationUnitDeclaration
         // Our replacement error collector doesn't cause an exception, instead they are checked for post 'compile'
         try {
             ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            // grabs of a reconcile are served from the project's grab cache, through the grape engine
+            boolean cachingGrabs = groovyCompilationUnit.getClassLoader() instanceof GroovyParser.GrapeAwareGroovyClassLoader &&
+                    ((GroovyParser.GrapeAwareGroovyClassLoader) groovyCompilationUnit.getClassLoader()).grabCache != null;
+            if (cachingGrabs) {
+                GrabResolutionCache.Installer.acquire();
+            }
             try {
                 Thread.currentThread().setContextClassLoader(groovyCompilationUnit.getTransformLoader());
                 groovyCompilationUnit.compile(phase);
             } finally {
                 Thread.currentThread().setContextClassLoader(cl);
+                if (cachingGrabs) {
+                    GrabResolutionCache.Installer.release();
+                }
             }
             if (groovySourceUnit.getErrorCollector().hasErrors()) {
                 recordProblems(groovySourceUnit.getErrorCollector().getErrors());
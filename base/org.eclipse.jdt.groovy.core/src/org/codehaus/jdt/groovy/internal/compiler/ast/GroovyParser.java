@@ -16,16 +16,19 @@
 package org.codehaus.jdt.groovy.internal.compiler.ast;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.jar.JarFile;
 
 import groovy.lang.GroovyClassLoader;
@@ -40,6 +43,7 @@ import org.codehaus.groovy.control.ErrorCollector;
 import org.codehaus.groovy.control.Phases;
 import org.codehaus.groovy.control.SourceUnit;
 import org.codehaus.groovy.control.customizers.CompilationCustomizer;
+import org.codehaus.groovy.eclipse.CompilationProfile;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.jdt.groovy.control.EclipseSourceUnit;
@@ -63,6 +67,7 @@ import org.eclipse.jdt.internal.compiler.lookup.LookupEnvironment;
 import org.eclipse.jdt.internal.compiler.problem.ProblemReporter;
 import org.eclipse.jdt.internal.core.builder.BatchImageBuilder;
 import org.eclipse.jdt.internal.core.builder.BuildNotifier;
+import org.eclipse.jdt.internal.core.util.Util;
 
 /**
  * The mapping layer between the groovy parser and the JDT. This class communicates with the groovy parser and translates results
@@ -90,20 +95,46 @@ public class GroovyParser {
      * on a call to build a parser then it is reused. If it does not match then a new loader is created and stored (storing it
      * orphans the previously cached one). When either a full build or a clean or project close occurs, we also discard the loader
      * instances associated with the project.
+     *
+     * Projects may be built and reconciled concurrently, so a loader is only ever created, replaced or discarded for the project
+     * that asks for it, while holding the lock of that project. Discarding the loaders of all projects (for traits, see
+     * GroovyCompilationUnitDeclaration) only marks them stale; a stale loader is replaced the next time its project asks for one,
+     * so that compilations already running in other projects keep the loader they started with.
+     */
+
+    private static final ConcurrentMap<String, PathLoaderPair> projectToLoaderCache = new ConcurrentHashMap<String, PathLoaderPair>();
+    private static final ConcurrentMap<String, Object> projectLocks = new ConcurrentHashMap<String, Object>();
+    private static final ConcurrentMap<String, ScriptFolderSelector> scriptFolderSelectorCache = new ConcurrentHashMap<String, ScriptFolderSelector>();
+
+    /*
+     * When builds are profiled, the compilation unit of each build records the time spent in each phase, phase operation,
+     * transform and file. When the build is done with the parser, the profile is logged together with the total of the profiled
+     * builds of its project since the project was last cleaned. A batch compilation is profiled when the -groovyProfile:<file>
+     * option is given, and its profile is written to that file when the compilation is finished.
      */
 
-    private static Map<String, PathLoaderPair> projectToLoaderCache = Collections
-            .synchronizedMap(new HashMap<String, PathLoaderPair>());
-    private static Map<String, ScriptFolderSelector> scriptFolderSelectorCache = Collections
-            .synchronizedMap(new HashMap<String, ScriptFolderSelector>());
+    public static volatile boolean profileBuilds = Boolean.valueOf(System.getProperty("greclipse.compilationProfile", "false"));
+
+    private static final ConcurrentMap<String, CompilationProfile> projectProfiles = new ConcurrentHashMap<String, CompilationProfile>();
+    private static final ConcurrentMap<String, CompilationProfile> batchProfiles = new ConcurrentHashMap<String, CompilationProfile>();
+
+    /**
+     * @return the times of all profiled builds of the project since it was last cleaned, or null if none was profiled
+     */
+    public static CompilationProfile getProjectProfile(String projectName) {
+        return projectProfiles.get(projectName);
+    }
 
     static class PathLoaderPair {
         String classpath;
         GroovyClassLoader groovyClassLoader;
+        GrabResolutionCache grabCache;
+        volatile boolean stale;
 
         PathLoaderPair(String classpath) {
             this.classpath = classpath;
             this.groovyClassLoader = new GroovyClassLoader(createConfigureLoader(classpath));
+            this.grabCache = new GrabResolutionCache(groovyClassLoader);
         }
     }
 
@@ -144,27 +175,53 @@ public class GroovyParser {
         }
     }
 
+    private static Object lockFor(String projectName) {
+        Object lock = projectLocks.get(projectName);
+        if (lock == null) {
+            Object newLock = new Object();
+            lock = projectLocks.putIfAbsent(projectName, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
     /**
      * Remove all cached classloaders for this project
      */
     public static void tidyCache(String projectName) {
-        // This will orphan the loader on the heap
-        projectToLoaderCache.remove(projectName);
-        scriptFolderSelectorCache.remove(projectName);
+        synchronized (lockFor(projectName)) {
+            // This will orphan the loader on the heap
+            PathLoaderPair pathLoaderPair = projectToLoaderCache.remove(projectName);
+            if (pathLoaderPair != null) {
+                pathLoaderPair.grabCache.close();
+            }
+            scriptFolderSelectorCache.remove(projectName);
+            projectProfiles.remove(projectName);
+        }
     }
 
     public static void closeClassLoader(String projectName) {
-        PathLoaderPair pathLoaderPair = projectToLoaderCache.get(projectName);
-        if (pathLoaderPair != null) {
-            close(pathLoaderPair.groovyClassLoader);
+        synchronized (lockFor(projectName)) {
+            PathLoaderPair pathLoaderPair = projectToLoaderCache.get(projectName);
+            if (pathLoaderPair != null) {
+                close(pathLoaderPair.groovyClassLoader);
+                pathLoaderPair.grabCache.close();
+            }
         }
     }
 
     /**
      * Clears cached class loaders for all caches. It helps to fix problems with cached trait helper classes.
+     * <p>
+     * The loaders are only marked stale, since other projects may be compiling with them; each is replaced the next time that its
+     * project needs a loader.
      */
     static void tidyCache() {
-        projectToLoaderCache.clear();
+        for (PathLoaderPair pathLoaderPair : projectToLoaderCache.values()) {
+            pathLoaderPair.stale = true;
+        }
     }
 
     // public GroovyParser(CompilerOptions options, ProblemReporter problemReporter) {
@@ -181,6 +238,19 @@ public class GroovyParser {
 
     private GroovyClassLoader gclForBatch = null;
 
+    /**
+     * @return the grab cache that goes with the project's transform loader, if grabs should be served from it
+     */
+    private GrabResolutionCache getGrabCacheFor(GroovyClassLoader gcl) {
+        if (isReconcile && projectName != null && gcl != null) {
+            PathLoaderPair pathAndLoader = projectToLoaderCache.get(projectName);
+            if (pathAndLoader != null && pathAndLoader.groovyClassLoader == gcl) {
+                return pathAndLoader.grabCache;
+            }
+        }
+        return null;
+    }
+
     private GroovyClassLoader getLoaderFor(String path) {
         GroovyClassLoader gcl = null;
         if (projectName == null && path == null) {
@@ -223,24 +293,31 @@ public class GroovyParser {
             if (projectName == null) {
                 // throw new IllegalStateException("Cannot build without knowing project name");
             } else {
-                PathLoaderPair pathAndLoader = projectToLoaderCache.get(projectName);
-                if (pathAndLoader == null) {
-                    if (GroovyLogManager.manager.hasLoggers()) {
-                        GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,
-                                "Classpath for GroovyClassLoader (used to discover transforms): " + path);
-                    }
-                    pathAndLoader = new PathLoaderPair(path);
-                    projectToLoaderCache.put(projectName, pathAndLoader);
-                } else {
-                    if (!path.equals(pathAndLoader.classpath)) {
-                        // classpath change detected
-                        // System.out.println("Classpath change detected for " + projectName);
+                synchronized (lockFor(projectName)) {
+                    PathLoaderPair pathAndLoader = projectToLoaderCache.get(projectName);
+                    if (pathAndLoader == null) {
+                        if (GroovyLogManager.manager.hasLoggers()) {
+                            GroovyLogManager.manager.log(TraceCategory.AST_TRANSFORM,
+                                    "Classpath for GroovyClassLoader (used to discover transforms): " + path);
+                        }
                         pathAndLoader = new PathLoaderPair(path);
                         projectToLoaderCache.put(projectName, pathAndLoader);
+                    } else if (pathAndLoader.stale) {
+                        pathAndLoader.grabCache.close();
+                        pathAndLoader = new PathLoaderPair(path);
+                        projectToLoaderCache.put(projectName, pathAndLoader);
+                    } else {
+                        if (!path.equals(pathAndLoader.classpath)) {
+                            // classpath change detected
+                            // System.out.println("Classpath change detected for " + projectName);
+                            pathAndLoader.grabCache.close();
+                            pathAndLoader = new PathLoaderPair(path);
+                            projectToLoaderCache.put(projectName, pathAndLoader);
+                        }
                     }
+                    // System.out.println("Using loader with path " + pathAndLoader.classpath);
+                    gcl = pathAndLoader.groovyClassLoader;
                 }
-                // System.out.println("Using loader with path " + pathAndLoader.classpath);
-                gcl = pathAndLoader.groovyClassLoader;
             }
         }
         return gcl;
@@ -276,8 +353,10 @@ public class GroovyParser {
         // Basic grab support: the design here is that a special classloader is created that will be augmented
         // with URLs when grab processing is running. This classloader is used as a last resort when resolving
         // types and is *only* called if a grab has occurred somewhere during compilation.
-        // Currently it is not cached but created each time - we'll have to decide if there is a need to cache
-        GrapeAwareGroovyClassLoader grabbyLoader = new GrapeAwareGroovyClassLoader(gcl);
+        // The loader itself is created each time, but when reconciling, grabs are resolved once per project
+        // (see GrabResolutionCache) and the grabbed jars are loaded through a loader shared by all units that
+        // grab the same coordinates
+        GrapeAwareGroovyClassLoader grabbyLoader = new GrapeAwareGroovyClassLoader(gcl, getGrabCacheFor(gcl));
         this.groovyCompilationUnit = makeCompilationUnit(grabbyLoader, gcl, isReconcile, allowTransforms);
         this.groovyCompilationUnit.tweak(isReconcile);
         this.groovyCompilationUnit.removeOutputPhaseOperation();
@@ -294,7 +373,7 @@ public class GroovyParser {
         }
         // this.lookupEnvironment = lookupEnvironment;
         this.problemReporter = problemReporter;
-        this.resolver = new JDTResolver(groovyCompilationUnit);
+        this.resolver = new JDTResolver(groovyCompilationUnit, projectName);
         // groovyCompilationUnit.setClassLoader(gcl);
         groovyCompilationUnit.setResolveVisitor(resolver);
     }
@@ -305,8 +384,19 @@ public class GroovyParser {
 
         public boolean grabbed = false; // set to true if any grabbing is done
 
+        /** When not null, grabs are served from this cache instead of being added to this loader. */
+        final GrabResolutionCache grabCache;
+
+        private List<String> grabKeys;
+        private ClassLoader grabLoader;
+
         public GrapeAwareGroovyClassLoader(ClassLoader parent) {
+            this(parent, null);
+        }
+
+        GrapeAwareGroovyClassLoader(ClassLoader parent, GrabResolutionCache grabCache) {
             super(parent != null ? parent : Thread.currentThread().getContextClassLoader());
+            this.grabCache = grabCache;
         }
 
         @Override
@@ -315,6 +405,49 @@ public class GroovyParser {
             this.grabbed = true;
             super.addURL(url);
         }
+
+        synchronized void addGrab(String key) {
+            if (grabKeys == null) {
+                grabKeys = new ArrayList<String>();
+            }
+            if (!grabKeys.contains(key)) {
+                grabKeys.add(key);
+                grabLoader = null;
+            }
+            this.grabbed = true;
+        }
+
+        private synchronized ClassLoader getGrabLoader() {
+            if (grabLoader == null && grabKeys != null) {
+                grabLoader = grabCache.getLoader(grabKeys);
+            }
+            return grabLoader;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            try {
+                return super.findClass(name);
+            } catch (ClassNotFoundException e) {
+                ClassLoader loader = getGrabLoader();
+                if (loader == null) {
+                    throw e;
+                }
+                return loader.loadClass(name);
+            }
+        }
+
+        @Override
+        public URL findResource(String name) {
+            URL url = super.findResource(name);
+            if (url == null) {
+                ClassLoader loader = getGrabLoader();
+                if (loader != null) {
+                    url = loader.getResource(name);
+                }
+            }
+            return url;
+        }
     }
 
     // // FIXASC perf ok?
@@ -439,7 +572,7 @@ public class GroovyParser {
             }
         }
 
-        SourceUnit groovySourceUnit = new EclipseSourceUnit(eclipseFile, filepath, new String(sourceCode),
+        SourceUnit groovySourceUnit = new EclipseSourceUnit(eclipseFile, filepath, sourceCode,
                 groovyCompilationUnit.getConfiguration(), groovyCompilationUnit.getClassLoader(), errorCollector, this.resolver);
         groovySourceUnit.isReconcile = isReconcile;
         GroovyCompilationUnitDeclaration gcuDeclaration = new GroovyCompilationUnitDeclaration(problemReporter, compilationResult,
@@ -476,7 +609,10 @@ public class GroovyParser {
             ScriptFolderSelector scriptFolderSelector = scriptFolderSelectorCache.get(projectName);
             if (scriptFolderSelector == null) {
                 scriptFolderSelector = new ScriptFolderSelector(ResourcesPlugin.getWorkspace().getRoot().getProject(projectName));
-                scriptFolderSelectorCache.put(projectName, scriptFolderSelector);
+                ScriptFolderSelector existing = scriptFolderSelectorCache.putIfAbsent(projectName, scriptFolderSelector);
+                if (existing != null) {
+                    scriptFolderSelector = existing;
+                }
             }
             if (scriptFolderSelector.isScript(eclipseFile)) {
                 gcuDeclaration.tagAsScript();
@@ -537,13 +673,73 @@ public class GroovyParser {
         }
     }
 
+    /**
+     * Reports the times recorded by the compilation unit of this parser, if it is profiled, and starts the profile afresh.
+     */
+    public void reportProfile() {
+        CompilationProfile profile = groovyCompilationUnit.getProfile();
+        if (profile == null || profile.isEmpty()) {
+            return;
+        }
+        if (projectName != null) {
+            CompilationProfile projectProfile = addProfile(projectProfiles, projectName, profile);
+            if (GroovyLogManager.manager.hasLoggers()) {
+                GroovyLogManager.manager.log(TraceCategory.COMPILER, "Compilation profile of " + projectName + ":\n" + profile +
+                        "\nCompilation profile of all builds of " + projectName + " since it was cleaned:\n" + projectProfile);
+            }
+        } else if (GroovyLogManager.manager.hasLoggers()) {
+            GroovyLogManager.manager.log(TraceCategory.COMPILER, "Compilation profile of batch compilation:\n" + profile);
+        }
+        if (compilerOptions.groovyCompilationProfile != null) {
+            // the compiler resets its parser more than once per compilation
+            addProfile(batchProfiles, compilerOptions.groovyCompilationProfile, profile);
+        }
+        profile.clear();
+    }
+
+    private static CompilationProfile addProfile(ConcurrentMap<String, CompilationProfile> profiles, String key, CompilationProfile profile) {
+        CompilationProfile total = profiles.get(key);
+        if (total == null) {
+            total = new CompilationProfile();
+            CompilationProfile existing = profiles.putIfAbsent(key, total);
+            if (existing != null) {
+                total = existing;
+            }
+        }
+        total.add(profile);
+        return total;
+    }
+
+    /**
+     * Writes the profiles of the finished batch compilations to the files given with their -groovyProfile:<file> option.
+     */
+    public static void writeBatchProfiles() {
+        for (String fileName : batchProfiles.keySet()) {
+            CompilationProfile profile = batchProfiles.remove(fileName);
+            if (profile == null) {
+                continue;
+            }
+            try {
+                Writer out = new OutputStreamWriter(new FileOutputStream(fileName), "UTF-8");
+                try {
+                    profile.writeJSON(out);
+                } finally {
+                    out.close();
+                }
+            } catch (IOException e) {
+                Util.log(e, "Could not write the compilation profile to " + fileName);
+            }
+        }
+    }
+
     public void reset() {
+        reportProfile();
         GroovyClassLoader gcl = getLoaderFor(gclClasspath);
-        GrapeAwareGroovyClassLoader grabbyLoader = new GrapeAwareGroovyClassLoader(gcl);
+        GrapeAwareGroovyClassLoader grabbyLoader = new GrapeAwareGroovyClassLoader(gcl, getGrabCacheFor(gcl));
         boolean allowTransforms = this.groovyCompilationUnit.allowTransforms;
         boolean isReconcile = this.groovyCompilationUnit.isReconcile;
         this.groovyCompilationUnit = makeCompilationUnit(grabbyLoader, gcl, isReconcile, allowTransforms);
-        this.resolver = new JDTResolver(groovyCompilationUnit);
+        this.resolver = new JDTResolver(groovyCompilationUnit, projectName);
         this.groovyCompilationUnit.setResolveVisitor(resolver);
     }
 
@@ -600,6 +796,9 @@ public class GroovyParser {
         }
         // Grails: end
         it.tweak(isReconcile);
+        if (!isReconcile && (profileBuilds || compilerOptions.groovyCompilationProfile != null)) {
+            it.setProfile(new CompilationProfile());
+        }
         return it;
     }
 
@@ -16,6 +16,7 @@
 package org.codehaus.jdt.groovy.internal.compiler.ast;
 
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -65,6 +66,7 @@ import org.eclipse.jdt.internal.compiler.lookup.ReferenceBinding;
 import org.eclipse.jdt.internal.compiler.lookup.SourceTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.SyntheticMethodBinding;
 import org.eclipse.jdt.internal.compiler.lookup.TypeBinding;
+import org.eclipse.jdt.internal.compiler.lookup.TypeConstants;
 import org.eclipse.jdt.internal.compiler.lookup.TypeVariableBinding;
 
 /**
@@ -96,8 +98,15 @@ public class JDTClassNode extends ClassNode implements JDTNode {
     private int bits = 0;
     private static final int ANNOTATIONS_INITIALIZED = 0x0001;
     private static final int PROPERTIES_INITIALIZED = 0x0002;
+    private static final int MEMBERS_INITIALIZED = 0x0004;
+    private static final int CONSTRUCTORS_INITIALIZED = 0x0008;
+    private static final int METHODS_VERIFIED = 0x0010;
     private TypeDeclaration groovyDecl = null;
 
+    // Book-keeping for members initialized by name; discarded once all members are initialized
+    private Set<String> initializedMethodNames = new HashSet<String>();
+    private Set<String> initializedFieldNames = new HashSet<String>();
+
     static final ClassNode unboundWildcard; // represents plain old '?'
 
     static final GenericsType genericsTypeUnboundWildcard;
@@ -229,64 +238,174 @@ public class JDTClassNode extends ClassNode implements JDTNode {
                 interfaces[i] = resolver.convertToClassNode(superInterfaceBindings[i]);
             }
             setInterfaces(interfaces);
-            initializeMembers();
+
+            if (jdtBinding instanceof SourceTypeBinding) {
+                SourceTypeBinding sourceType = (SourceTypeBinding) jdtBinding;
+                if (sourceType.scope != null) {
+                    TypeDeclaration typeDecl = sourceType.scope.referenceContext;
+                    if (typeDecl instanceof GroovyTypeDeclaration) {
+                        groovyDecl = typeDecl;
+                    }
+                }
+            }
+            // fields, constructors and methods are initialized on demand; see ensureMethodsInitialized(String) etc.
         } finally {
             beingInitialized = false;
         }
     }
 
-    private void initializeMembers() {
-        if (jdtBinding instanceof SourceTypeBinding) {
-            SourceTypeBinding sourceType = (SourceTypeBinding) jdtBinding;
-            if (sourceType.scope != null) {
-                TypeDeclaration typeDecl = sourceType.scope.referenceContext;
-                if (typeDecl instanceof GroovyTypeDeclaration) {
-                    groovyDecl = typeDecl;
+    //--------------------------------------------------------------------------
+    // Members are converted from their bindings lazily. A lookup by name (getDeclaredMethods(String), getDeclaredField(String))
+    // only converts the bindings with that name; the full set is converted only when all methods or fields are requested.
+
+    // The code in ClassNode seems set up to get member information *always* from the end of the 'redirect' chain.
+    // So, the redirect target should be responsible for its own members initialisation. If we initialize members here
+    // again, when redirect target is already initialised then we will be adding duplicated methods to the redirect target.
+
+    @Override
+    public List<MethodNode> getDeclaredMethods(String name) {
+        if (redirect == null) {
+            lazyClassInit();
+            ensureMethodsInitialized(name);
+        }
+        return super.getDeclaredMethods(name);
+    }
+
+    @Override
+    public List<MethodNode> getMethods() {
+        if (redirect == null) {
+            lazyClassInit();
+            ensureMembersInitialized();
+        }
+        return super.getMethods();
+    }
+
+    @Override
+    public FieldNode getDeclaredField(String name) {
+        if (redirect == null) {
+            lazyClassInit();
+            ensureFieldInitialized(name);
+        }
+        return super.getDeclaredField(name);
+    }
+
+    @Override
+    public List<FieldNode> getFields() {
+        if (redirect == null) {
+            lazyClassInit();
+            ensureMembersInitialized();
+        }
+        return super.getFields();
+    }
+
+    @Override
+    public List<ConstructorNode> getDeclaredConstructors() {
+        if (redirect == null) {
+            lazyClassInit();
+            ensureConstructorsInitialized();
+        }
+        return super.getDeclaredConstructors();
+    }
+
+    private void ensureMethodsInitialized(String name) {
+        synchronized (lazyInitLock) {
+            if ((bits & MEMBERS_INITIALIZED) != 0 || initializedMethodNames.contains(name)) {
+                return;
+            }
+            initializedMethodNames.add(name);
+            char[] selector = name.toCharArray();
+            for (MethodBinding binding : getMethodBindings(selector)) {
+                if (!binding.isConstructor()) {
+                    addMethod(methodBindingToMethodNode(binding));
                 }
             }
         }
+    }
 
-        // We do this here rather than at the start of the method because
-        // the preceding code sets 'groovyDecl', later used to 'initializeProperties'.
+    private void ensureFieldInitialized(String name) {
+        synchronized (lazyInitLock) {
+            if ((bits & MEMBERS_INITIALIZED) != 0 || initializedFieldNames.contains(name)) {
+                return;
+            }
+            initializedFieldNames.add(name);
+            FieldBinding binding = getGenericType().getField(name.toCharArray(), true);
+            if (binding != null) {
+                addField(fieldBindingToFieldNode(binding, groovyDecl));
+            }
+        }
+    }
+
+    private void ensureConstructorsInitialized() {
+        synchronized (lazyInitLock) {
+            if ((bits & CONSTRUCTORS_INITIALIZED) != 0) {
+                return;
+            }
+            bits |= CONSTRUCTORS_INITIALIZED;
+            for (MethodBinding binding : getMethodBindings(TypeConstants.INIT)) {
+                if (binding.isConstructor()) {
+                    addConstructor(constructorBindingToConstructorNode(binding));
+                }
+            }
+        }
+    }
 
-        // From this point onward... the code is only about initializing fields, constructors and methods.
-        if (redirect != null) {
-            // The code in ClassNode seems set up to get field information *always* from the end of the 'redirect' chain.
-            // So, the redirect target should be responsible for its own members initialisation.
+    /**
+     * Converts all remaining methods and fields. Those already converted by name are kept (so that nodes handed out earlier
+     * stay valid); they simply precede the others in the member lists.
+     */
+    private void ensureMembersInitialized() {
+        synchronized (lazyInitLock) {
+            if ((bits & MEMBERS_INITIALIZED) != 0) {
+                return;
+            }
+            ensureConstructorsInitialized();
 
-            // If we initialize members here again, when redirect target is already
-            // initialised then we will be adding duplicated methods to the redirect target.
+            for (MethodBinding binding : getMethodBindings(null)) {
+                if (!binding.isConstructor() && !initializedMethodNames.contains(new String(binding.selector))) {
+                    addMethod(methodBindingToMethodNode(binding));
+                }
+            }
 
-            return;
+            FieldBinding[] fieldBindings = getGenericType().fields();
+            if (fieldBindings != null) {
+                for (int i = 0; i < fieldBindings.length; i++) {
+                    if (!initializedFieldNames.contains(new String(fieldBindings[i].name))) {
+                        addField(fieldBindingToFieldNode(fieldBindings[i], groovyDecl));
+                    }
+                }
+            }
+
+            bits |= MEMBERS_INITIALIZED;
+            initializedMethodNames = null;
+            initializedFieldNames = null;
         }
+    }
 
-        MethodBinding[] bindings = null;
+    private ReferenceBinding getGenericType() {
         if (jdtBinding instanceof ParameterizedTypeBinding) {
-            ReferenceBinding genericType = ((ParameterizedTypeBinding) jdtBinding).genericType();
-            bindings = genericType.methods();
-        } else {
-            bindings = jdtBinding.methods();
+            return ((ParameterizedTypeBinding) jdtBinding).genericType();
         }
+        return jdtBinding;
+    }
+
+    /**
+     * @param selector the method name of interest, or {@code null} for all methods
+     * @return the declared, infrastructure and synthetic method bindings of this type that have the given name
+     */
+    private List<MethodBinding> getMethodBindings(char[] selector) {
+        List<MethodBinding> result = new ArrayList<MethodBinding>();
+
+        MethodBinding[] bindings = (selector == null ? getGenericType().methods() : getGenericType().getMethods(selector));
         if (bindings != null) {
-            for (int i = 0; i < bindings.length; i++) {
-                if (bindings[i].isConstructor()) {
-                    ConstructorNode cNode = constructorBindingToConstructorNode(bindings[i]);
-                    addConstructor(cNode);
-                } else {
-                    MethodNode mNode = methodBindingToMethodNode(bindings[i]);
-                    addMethod(mNode);
-                }
+            for (MethodBinding binding : bindings) {
+                result.add(binding);
             }
         }
         if (jdtBinding instanceof BinaryTypeBinding) {
             MethodBinding[] infraBindings = ((BinaryTypeBinding) jdtBinding).infraMethods();
-            for (int i = 0; i < infraBindings.length; i++) {
-                if (infraBindings[i].isConstructor()) {
-                    ConstructorNode cNode = constructorBindingToConstructorNode(infraBindings[i]);
-                    addConstructor(cNode);
-                } else {
-                    MethodNode mNode = methodBindingToMethodNode(infraBindings[i]);
-                    addMethod(mNode);
+            for (MethodBinding binding : infraBindings) {
+                if (selector == null || CharOperation.equals(selector, binding.selector)) {
+                    result.add(binding);
                 }
             }
         }
@@ -294,40 +413,27 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         // different return type (interface I { A foo(); } class C implements I { AA foo(); } - this needs a method 'A foo()' in C.
         if (jdtBinding instanceof SourceTypeBinding) {
             SourceTypeBinding jdtSourceTypeBinding = (SourceTypeBinding) jdtBinding;
-            ClassScope classScope = jdtSourceTypeBinding.scope;
-            // a null scope indicates it has already been 'cleaned up' so nothing to do (CUDeclaration.cleanUp())
-            if (classScope != null) {
-                CompilationUnitScope cuScope = classScope.compilationUnitScope();
-                LookupEnvironment environment = classScope.environment();
-                MethodVerifier verifier = environment.methodVerifier();
-                cuScope.verifyMethods(verifier);
+            if ((bits & METHODS_VERIFIED) == 0) {
+                bits |= METHODS_VERIFIED;
+                ClassScope classScope = jdtSourceTypeBinding.scope;
+                // a null scope indicates it has already been 'cleaned up' so nothing to do (CUDeclaration.cleanUp())
+                if (classScope != null) {
+                    CompilationUnitScope cuScope = classScope.compilationUnitScope();
+                    LookupEnvironment environment = classScope.environment();
+                    MethodVerifier verifier = environment.methodVerifier();
+                    cuScope.verifyMethods(verifier);
+                }
             }
-            SyntheticMethodBinding[] syntheticMethodBindings = ((SourceTypeBinding) jdtBinding).syntheticMethods();
+            SyntheticMethodBinding[] syntheticMethodBindings = jdtSourceTypeBinding.syntheticMethods();
             if (syntheticMethodBindings != null) {
-                for (int i = 0; i < syntheticMethodBindings.length; i++) {
-                    if (syntheticMethodBindings[i].isConstructor()) {
-                        ConstructorNode cNode = constructorBindingToConstructorNode(bindings[i]);
-                        addConstructor(cNode);
-                    } else {
-                        MethodNode mNode = methodBindingToMethodNode(syntheticMethodBindings[i]);
-                        addMethod(mNode);
+                for (SyntheticMethodBinding binding : syntheticMethodBindings) {
+                    if (selector == null || CharOperation.equals(selector, binding.selector)) {
+                        result.add(binding);
                     }
                 }
             }
         }
-
-        FieldBinding[] fieldBindings = null;
-        if (jdtBinding instanceof ParameterizedTypeBinding) {
-            fieldBindings = ((ParameterizedTypeBinding) jdtBinding).genericType().fields();
-        } else {
-            fieldBindings = jdtBinding.fields();
-        }
-        if (fieldBindings != null) {
-            for (int i = 0; i < fieldBindings.length; i++) {
-                FieldNode fNode = fieldBindingToFieldNode(fieldBindings[i], groovyDecl);
-                addField(fNode);
-            }
-        }
+        return result;
     }
 
     @Override
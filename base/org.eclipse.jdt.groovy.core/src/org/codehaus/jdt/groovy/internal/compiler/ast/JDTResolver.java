@@ -62,35 +62,37 @@ public class JDTResolver extends ResolveVisitor {
     // For resolver debugging
     private static final boolean debug = false;
 
-    // Arbitrary selection of common types
-    private static Map<String, ClassNode> commonTypes = new HashMap<String, ClassNode>();
+    // Arbitrary selection of common types; read-only once initialized, so resolvers of concurrent builds can share it
+    private static final Map<String, ClassNode> commonTypes;
 
     // So that testcases can quiz a resolver instance
-    public static boolean recordInstances = false;
+    public static volatile boolean recordInstances = false;
     public static List<JDTResolver> instances = null;
 
     static {
-        commonTypes.put("java.lang.Object", ClassHelper.OBJECT_TYPE);
-        commonTypes.put("java.lang.String", ClassHelper.STRING_TYPE);
-        commonTypes.put("java.lang.Class", ClassHelper.CLASS_Type);
-
-        commonTypes.put("java.lang.Boolean", ClassHelper.Boolean_TYPE);
-        commonTypes.put("java.lang.Byte", ClassHelper.Byte_TYPE);
-        commonTypes.put("java.lang.Character", ClassHelper.Character_TYPE);
-        commonTypes.put("java.lang.Double", ClassHelper.Double_TYPE);
-        commonTypes.put("java.lang.Float", ClassHelper.Float_TYPE);
-        commonTypes.put("java.lang.Integer", ClassHelper.Integer_TYPE);
-        commonTypes.put("java.lang.Long", ClassHelper.Long_TYPE);
-        commonTypes.put("java.lang.Short", ClassHelper.Short_TYPE);
-
-        commonTypes.put("boolean", ClassHelper.boolean_TYPE);
-        commonTypes.put("byte", ClassHelper.byte_TYPE);
-        commonTypes.put("char", ClassHelper.char_TYPE);
-        commonTypes.put("double", ClassHelper.double_TYPE);
-        commonTypes.put("float", ClassHelper.float_TYPE);
-        commonTypes.put("int", ClassHelper.int_TYPE);
-        commonTypes.put("long", ClassHelper.long_TYPE);
-        commonTypes.put("short", ClassHelper.short_TYPE);
+        Map<String, ClassNode> types = new HashMap<String, ClassNode>();
+        types.put("java.lang.Object", ClassHelper.OBJECT_TYPE);
+        types.put("java.lang.String", ClassHelper.STRING_TYPE);
+        types.put("java.lang.Class", ClassHelper.CLASS_Type);
+
+        types.put("java.lang.Boolean", ClassHelper.Boolean_TYPE);
+        types.put("java.lang.Byte", ClassHelper.Byte_TYPE);
+        types.put("java.lang.Character", ClassHelper.Character_TYPE);
+        types.put("java.lang.Double", ClassHelper.Double_TYPE);
+        types.put("java.lang.Float", ClassHelper.Float_TYPE);
+        types.put("java.lang.Integer", ClassHelper.Integer_TYPE);
+        types.put("java.lang.Long", ClassHelper.Long_TYPE);
+        types.put("java.lang.Short", ClassHelper.Short_TYPE);
+
+        types.put("boolean", ClassHelper.boolean_TYPE);
+        types.put("byte", ClassHelper.byte_TYPE);
+        types.put("char", ClassHelper.char_TYPE);
+        types.put("double", ClassHelper.double_TYPE);
+        types.put("float", ClassHelper.float_TYPE);
+        types.put("int", ClassHelper.int_TYPE);
+        types.put("long", ClassHelper.long_TYPE);
+        types.put("short", ClassHelper.short_TYPE);
+        commonTypes = Collections.unmodifiableMap(types);
     }
 
     // By recording what is currently in progress in terms of creation, we avoid recursive problems (like Enum<E extends Enum<E>>)
@@ -108,33 +110,69 @@ public class JDTResolver extends ResolveVisitor {
     // Cache from bindings to JDTClassNodes to avoid unnecessary JDTClassNode creation
     private Map<Binding, JDTClassNode> nodeCache = Collections.synchronizedMap(new WeakHashMap<Binding, JDTClassNode>());
 
+    // name of the project whose units this resolver resolves, or null if not known
+    private final String projectName;
+
     public JDTResolver(CompilationUnit groovyCompilationUnit) {
+        this(groovyCompilationUnit, null);
+    }
+
+    public JDTResolver(CompilationUnit groovyCompilationUnit, String projectName) {
         super(groovyCompilationUnit);
+        this.projectName = projectName;
         if (recordInstances) {
-            if (instances == null) {
-                instances = new ArrayList<JDTResolver>();
+            synchronized (JDTResolver.class) {
+                if (instances == null) {
+                    instances = Collections.synchronizedList(new ArrayList<JDTResolver>());
+                }
+                instances.add(this);
             }
-            instances.add(this);
         }
     }
 
+    public String getProjectName() {
+        return projectName;
+    }
+
+    /**
+     * @return number of type nodes this resolver has created and still holds
+     */
+    public int getCachedNodeCount() {
+        return nodeCache.size();
+    }
+
     public static JDTClassNode getCachedNode(JDTResolver instance, String name) {
-        for (Map.Entry<Binding, JDTClassNode> nodeFromCache : instance.nodeCache.entrySet()) {
-            String nodename = new String(nodeFromCache.getKey().readableName());
-            if (nodename.equals(name)) {
-                return nodeFromCache.getValue();
+        synchronized (instance.nodeCache) {
+            for (Map.Entry<Binding, JDTClassNode> nodeFromCache : instance.nodeCache.entrySet()) {
+                String nodename = new String(nodeFromCache.getKey().readableName());
+                if (nodename.equals(name)) {
+                    return nodeFromCache.getValue();
+                }
             }
         }
         return null;
     }
 
     public static JDTClassNode getCachedNode(String name) {
-        for (JDTResolver resolver : instances) {
-            for (Map.Entry<Binding, JDTClassNode> nodeFromCache : resolver.nodeCache.entrySet()) {
-                String nodename = new String(nodeFromCache.getKey().readableName());
-                System.out.println(nodename);
-                if (nodename.equals(name)) {
-                    return nodeFromCache.getValue();
+        return getCachedNode((String) null, name);
+    }
+
+    /**
+     * @param projectName name of the project whose resolvers are searched, or null to search the resolvers of all projects
+     */
+    public static JDTClassNode getCachedNode(String projectName, String name) {
+        if (instances == null) {
+            return null;
+        }
+        JDTResolver[] resolvers;
+        synchronized (instances) {
+            resolvers = instances.toArray(new JDTResolver[instances.size()]);
+        }
+        for (JDTResolver resolver : resolvers) {
+            if (projectName == null || projectName.equals(resolver.projectName)) {
+                JDTClassNode node = getCachedNode(resolver, name);
+                if (node != null) {
+                    return node;
                 }
             }
         }
@@ -202,7 +202,7 @@ public class GroovyClassFileWorkingCopy extends GroovyCompilationUnit {
      */
     @Override
     protected void maybeCacheModuleNode(PerWorkingCopyInfo perWorkingCopyInfo,
-            GroovyCompilationUnitDeclaration compilationUnitDeclaration) {
+            GroovyCompilationUnitDeclaration compilationUnitDeclaration, boolean structureOnly) {
         if (compilationUnitDeclaration != null) {
             moduleNode = compilationUnitDeclaration.getModuleNode();
             moduleNode.setDescription(this.name);
@@ -213,7 +213,7 @@ public class GroovyClassFileWorkingCopy extends GroovyCompilationUnit {
                 resolver = null;
             }
 
-            moduleNodeInfo = new ModuleNodeInfo(moduleNode, resolver);
+            moduleNodeInfo = new ModuleNodeInfo(moduleNode, resolver, structureOnly);
         }
     }
 
@@ -226,9 +226,27 @@ public class GroovyClassFileWorkingCopy extends GroovyCompilationUnit {
                 Util.log(e);
             }
         }
+        resolveModuleNode();
         return moduleNodeInfo;
     }
 
+    /**
+     * The structure of the class file is built without resolving its module node. Resolve it the first time that it is asked for.
+     */
+    private void resolveModuleNode() {
+        if (moduleNodeInfo != null && moduleNodeInfo.structureOnly) {
+            Boolean wasResolveRequested = resolveRequested.get();
+            resolveRequested.set(Boolean.TRUE);
+            try {
+                openWhenClosed(createElementInfo(), false, new NullProgressMonitor());
+            } catch (JavaModelException e) {
+                Util.log(e);
+            } finally {
+                resolveRequested.set(wasResolveRequested);
+            }
+        }
+    }
+
     @Override
     public ModuleNodeInfo getNewModuleInfo() {
         if (moduleNodeInfo == null) {
@@ -248,6 +266,7 @@ public class GroovyClassFileWorkingCopy extends GroovyCompilationUnit {
     public ModuleNode getModuleNode() {
         // ensure moduleNode is initialized
         getPerWorkingCopyInfo();
+        resolveModuleNode();
         return moduleNode;
     }
 
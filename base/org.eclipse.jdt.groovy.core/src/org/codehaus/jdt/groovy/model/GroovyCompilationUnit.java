@@ -120,12 +120,16 @@ public class GroovyCompilationUnit extends CompilationUnit {
      *         working copy. Also will be null if a problem occurs
      */
     public ModuleNodeInfo getModuleInfo(boolean force) {
+        // the caller wants the resolved module node, so any structure built from here on is resolved right away
+        Boolean wasResolveRequested = resolveRequested.get();
+        resolveRequested.set(Boolean.TRUE);
         try {
             if (!isConsistent()) {
                 makeConsistent(null);
             }
             boolean becameWorkingCopy = false;
-            ModuleNodeMapper.getInstance().lock();
+            PerWorkingCopyInfo staleInfo = null;
+            ModuleNodeMapper.getInstance().lock(getJavaProject().getElementName());
             // discard the working copy after finishing
             // if there was no working copy to begin with
             try {
@@ -135,7 +139,11 @@ public class GroovyCompilationUnit extends CompilationUnit {
                 }
                 PerWorkingCopyInfo info = getPerWorkingCopyInfo();
                 if (info != null) {
-                    return ModuleNodeMapper.getInstance().get(info);
+                    ModuleNodeInfo moduleInfo = ModuleNodeMapper.getInstance().get(info);
+                    if (moduleInfo != null ? !moduleInfo.structureOnly : !ModuleNodeMapper.getInstance().isCompact(info)) {
+                        return moduleInfo;
+                    }
+                    staleInfo = info;
                 }
             } finally {
                 try {
@@ -143,25 +151,59 @@ public class GroovyCompilationUnit extends CompilationUnit {
                         discardWorkingCopy();
                     }
                 } finally {
-                    ModuleNodeMapper.getInstance().unlock();
+                    ModuleNodeMapper.getInstance().unlock(getJavaProject().getElementName());
                 }
             }
+            if (staleInfo != null) {
+                // module node was compacted or never resolved; build again (outside of the lock, since the build stores the new
+                // module node)
+                openWhenClosed(createElementInfo(), false, new NullProgressMonitor());
+                return ModuleNodeMapper.getInstance().get(staleInfo);
+            }
         } catch (JavaModelException e) {
             Util.log(e, "Exception thrown when trying to get Groovy module node for " + this.getElementName());
+        } finally {
+            resolveRequested.set(wasResolveRequested);
         }
         // return null if not found. Means that there was a problem with build structure
         return null;
     }
 
+    /**
+     * Drops the module node of this working copy, keeping only the names and
+     * source ranges of its declarations.  The module node is parsed again the
+     * next time that it is asked for.  Meant for working copies whose editor is
+     * not visible.
+     *
+     * @return true iff a module node was dropped
+     */
+    public boolean compactModuleNode() {
+        PerWorkingCopyInfo info = getPerWorkingCopyInfo();
+        return info != null && ModuleNodeMapper.getInstance().compact(info);
+    }
+
+    /**
+     * @return the declarations that were kept when the module node of this
+     *         working copy was compacted, or null if it is not compact
+     */
+    public ModuleNodeMapper.CompactModuleInfo getCompactModuleInfo() {
+        PerWorkingCopyInfo info = getPerWorkingCopyInfo();
+        return info != null ? ModuleNodeMapper.getInstance().getCompact(info) : null;
+    }
+
     /**
      * Gets the module node for this compilation unit. Bypasses the cached module node and creates a new one, which is then placed
      * in the cache
      */
     public ModuleNodeInfo getNewModuleInfo() {
+        Boolean wasResolveRequested = resolveRequested.get();
+        resolveRequested.set(Boolean.TRUE);
         try {
             openWhenClosed(createElementInfo(), false/* or should it be true... ? */, new NullProgressMonitor());
         } catch (JavaModelException e) {
             Util.log(e, "Exception thrown when trying to get Groovy module node for " + this.getElementName());
+        } finally {
+            resolveRequested.set(wasResolveRequested);
         }
         return getModuleInfo(true);
     }
@@ -169,7 +211,7 @@ public class GroovyCompilationUnit extends CompilationUnit {
     @Override
     public void discardWorkingCopy() throws JavaModelException {
         // GRECLIPSE-804 must synchronize
-        ModuleNodeMapper.getInstance().lock();
+        ModuleNodeMapper.getInstance().lock(getJavaProject().getElementName());
         try {
             PerWorkingCopyInfo info = getPerWorkingCopyInfo();
             if (workingCopyInfoWillBeDiscarded(info)) {
@@ -177,7 +219,7 @@ public class GroovyCompilationUnit extends CompilationUnit {
             }
             super.discardWorkingCopy();
         } finally {
-            ModuleNodeMapper.getInstance().unlock();
+            ModuleNodeMapper.getInstance().unlock(getJavaProject().getElementName());
         }
     }
 
@@ -201,6 +243,18 @@ public class GroovyCompilationUnit extends CompilationUnit {
         }
     }
 
+    /**
+     * Set while the module node of a unit is being asked for, so that buildStructure resolves the unit even though neither
+     * problems nor bindings were requested
+     */
+    static ThreadLocal<Boolean> resolveRequested = new ThreadLocal<Boolean>();
+
+    /**
+     * If true (the default), buildStructure stops after parsing and building the declarations of units that nobody asked problems,
+     * bindings or a module node for. Their module node is cached as structure only and resolved when it is first asked for.
+     */
+    private static final boolean structureOnlyReconcile = Boolean.valueOf(System.getProperty("greclipse.structureOnlyReconcile", "true"));
+
     @Override
     protected boolean buildStructure(OpenableElementInfo info, IProgressMonitor pm, Map newElements, IResource underlyingResource)
             throws JavaModelException {
@@ -246,6 +300,10 @@ public class GroovyCompilationUnit extends CompilationUnit {
 
             boolean computeProblems = perWorkingCopyInfo != null && perWorkingCopyInfo.isActive() &&
                     project != null && JavaProject.hasJavaNature(project.getProject());
+            // structure only reconcile: background working copies (search, refactoring, class files) need declarations but
+            // no resolution; their module node is resolved later if asked for (see getModuleInfo)
+            boolean resolve = computeProblems || createAST || resolveBindings || problems != null || !structureOnlyReconcile ||
+                    Boolean.TRUE.equals(resolveRequested.get());
             IProblemFactory problemFactory = new DefaultProblemFactory();
 
             // compiler options
@@ -311,7 +369,8 @@ public class GroovyCompilationUnit extends CompilationUnit {
                 // this buildStructure for each one. The 'full' parse (with bindings) is only required for
                 // the top most (regardless of the computeProblems setting) and so we track how many recursive
                 // calls we have made - if we are at depth 2 we do what JDT was going to do (the quick thing).
-                if (computeProblems || depth.get() < 2) {
+                boolean structureOnly = !(computeProblems || (resolve && depth.get() < 2));
+                if (!structureOnly) {
                     if (problems == null) {
                         // report problems to the problem requestor
                         problems = new HashMap<String, CategorizedProblem[]>();
@@ -344,7 +403,7 @@ public class GroovyCompilationUnit extends CompilationUnit {
 
                 // GROOVY
                 // if this is a working copy, then we have more work to do
-                maybeCacheModuleNode(perWorkingCopyInfo, compilationUnitDeclaration);
+                maybeCacheModuleNode(perWorkingCopyInfo, compilationUnitDeclaration, structureOnly);
 
                 // create the DOM AST from the compiler AST
                 if (createAST) {
@@ -400,7 +459,15 @@ public class GroovyCompilationUnit extends CompilationUnit {
      */
     protected void maybeCacheModuleNode(JavaModelManager.PerWorkingCopyInfo perWorkingCopyInfo,
             GroovyCompilationUnitDeclaration compilationUnitDeclaration) {
-        ModuleNodeMapper.getInstance().maybeCacheModuleNode(perWorkingCopyInfo, compilationUnitDeclaration);
+        maybeCacheModuleNode(perWorkingCopyInfo, compilationUnitDeclaration, false);
+    }
+
+    /**
+     * @param structureOnly true if the declaration was only parsed and its module node has not been resolved
+     */
+    protected void maybeCacheModuleNode(JavaModelManager.PerWorkingCopyInfo perWorkingCopyInfo,
+            GroovyCompilationUnitDeclaration compilationUnitDeclaration, boolean structureOnly) {
+        ModuleNodeMapper.getInstance().maybeCacheModuleNode(perWorkingCopyInfo, compilationUnitDeclaration, structureOnly);
     }
 
     /*
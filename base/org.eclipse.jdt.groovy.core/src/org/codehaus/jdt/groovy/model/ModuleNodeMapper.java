@@ -19,9 +19,29 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ConstructorNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
 import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.ConstructorCallExpression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.StaticMethodCallExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -42,19 +62,90 @@ import org.eclipse.jdt.internal.core.util.Util;
  *          This class stores module nodes for groovy compilation units This class is not meant to be accessed externally.
  *
  *          One module node is stored per working copy of a unit
+ *
+ *          The module nodes of each project are kept and locked separately, so that working copies of different projects can be
+ *          reconciled and built at the same time.
  */
 public class ModuleNodeMapper {
 
     public static class ModuleNodeInfo {
 
         public ModuleNodeInfo(ModuleNode module, JDTResolver resolver) {
+            this(module, resolver, false);
+        }
+
+        public ModuleNodeInfo(ModuleNode module, JDTResolver resolver, boolean structureOnly) {
             this.module = module;
             this.resolver = resolver;
+            this.structureOnly = structureOnly;
         }
 
         public final ModuleNode module;
         public CompilationResult result;
         public final JDTResolver resolver;
+
+        /** true if the module node was only parsed, ie- its types and expressions have not been resolved */
+        public final boolean structureOnly;
+    }
+
+    /**
+     * What is kept of a {@link ModuleNodeInfo} after it has been compacted: the
+     * names and source ranges of the declarations of the module, but none of the
+     * AST and none of the resolver state.  The full info is recreated by parsing
+     * the working copy again the next time that it is asked for.  Callers that
+     * only need to know which declaration encloses an offset, such as the
+     * outline, hovers and navigation of a hidden editor, can ask this index
+     * instead of the module node and so avoid that parse.
+     */
+    public static class CompactModuleInfo {
+
+        CompactModuleInfo(List<String> names, List<int[]> ranges, long fullSize) {
+            this.names = names.toArray(new String[names.size()]);
+            this.starts = new int[ranges.size()];
+            this.ends = new int[ranges.size()];
+            for (int i = 0; i < ranges.size(); i += 1) {
+                starts[i] = ranges.get(i)[0];
+                ends[i] = ranges.get(i)[1];
+            }
+            this.fullSize = fullSize;
+        }
+
+        private final String[] names;
+        private final int[] starts;
+        private final int[] ends;
+
+        /** estimated size of the info that was dropped */
+        public final long fullSize;
+
+        /**
+         * @return qualified names of the types, methods and fields of the module, in source order
+         */
+        public String[] getDeclarations() {
+            return names.clone();
+        }
+
+        /**
+         * @return qualified name of the innermost declaration that encloses the offset, or null
+         */
+        public String getDeclarationAt(int offset) {
+            String result = null;
+            int width = Integer.MAX_VALUE;
+            for (int i = 0; i < names.length; i += 1) {
+                if (starts[i] <= offset && offset < ends[i] && ends[i] - starts[i] < width) {
+                    result = names[i];
+                    width = ends[i] - starts[i];
+                }
+            }
+            return result;
+        }
+
+        long estimateSize() {
+            long size = OBJECT_SIZE + 3 * ARRAY_SIZE + names.length * 8L;
+            for (String name : names) {
+                size += ARRAY_SIZE + name.length() * 2L;
+            }
+            return size;
+        }
     }
 
     private static final ModuleNodeMapper INSTANCE = new ModuleNodeMapper();
@@ -63,17 +154,48 @@ public class ModuleNodeMapper {
         return INSTANCE;
     }
 
-    private final ReentrantLock lock = new ReentrantLock(true);
+    /**
+     * The module nodes of the working copies of one project.
+     */
+    private static class ProjectModules {
+        final ReentrantLock lock = new ReentrantLock(true);
 
-    private final Map<PerWorkingCopyInfo, ModuleNodeInfo> infoToModuleMap = new HashMap<PerWorkingCopyInfo, ModuleNodeInfo>();
+        final Map<PerWorkingCopyInfo, ModuleNodeInfo> infoToModuleMap = new HashMap<PerWorkingCopyInfo, ModuleNodeInfo>();
+
+        /** working copies whose module nodes have been dropped by {@link ModuleNodeMapper#compact(PerWorkingCopyInfo)} */
+        final Map<PerWorkingCopyInfo, CompactModuleInfo> infoToCompactMap = new HashMap<PerWorkingCopyInfo, CompactModuleInfo>();
+    }
+
+    /** project name to the module nodes of its working copies */
+    private final ConcurrentMap<String, ProjectModules> projectModules = new ConcurrentHashMap<String, ProjectModules>();
+
+    private ProjectModules modulesOf(String projectName) {
+        ProjectModules modules = projectModules.get(projectName);
+        if (modules == null) {
+            ProjectModules newModules = new ProjectModules();
+            modules = projectModules.putIfAbsent(projectName, newModules);
+            if (modules == null) {
+                modules = newModules;
+            }
+        }
+        return modules;
+    }
+
+    private ProjectModules modulesOf(PerWorkingCopyInfo info) {
+        return modulesOf(info.getWorkingCopy().getJavaProject().getElementName());
+    }
 
     void store(PerWorkingCopyInfo key, ModuleNodeInfo val) {
-        lock.lock();
+        ProjectModules modules = modulesOf(key);
+        modules.lock.lock();
         try {
-            sweepAndPurgeModuleNodes();
-            infoToModuleMap.put(key, val);
+            sweepAndPurgeModuleNodes(modules);
+            if (modules.infoToCompactMap.remove(key) != null && GroovyLogManager.manager.hasLoggers()) {
+                GroovyLogManager.manager.log(TraceCategory.COMPILER, "Rehydrated module node of " + key.getWorkingCopy().getElementName());
+            }
+            modules.infoToModuleMap.put(key, val);
         } finally {
-            lock.unlock();
+            modules.lock.unlock();
         }
     }
 
@@ -93,68 +215,276 @@ public class ModuleNodeMapper {
     }
 
     ModuleNode getModule(PerWorkingCopyInfo info) {
-        lock.lock();
+        ModuleNodeInfo moduleNodeInfo = get(info);
+        return moduleNodeInfo != null ? moduleNodeInfo.module : null;
+    }
+
+    ModuleNodeInfo get(PerWorkingCopyInfo info) {
+        ProjectModules modules = modulesOf(info);
+        modules.lock.lock();
         try {
-            ModuleNodeInfo moduleNodeInfo = get(info);
-            return moduleNodeInfo != null ? moduleNodeInfo.module : null;
+            sweepAndPurgeModuleNodes(modules);
+            return modules.infoToModuleMap.get(info);
         } finally {
-            lock.unlock();
+            modules.lock.unlock();
         }
     }
 
-    ModuleNodeInfo get(PerWorkingCopyInfo info) {
-        lock.lock();
+    JDTResolver getResolver(PerWorkingCopyInfo info) {
+        ModuleNodeInfo moduleNodeInfo = get(info);
+        return moduleNodeInfo != null ? moduleNodeInfo.resolver : null;
+    }
+
+    ModuleNode remove(PerWorkingCopyInfo info) {
+        ProjectModules modules = modulesOf(info);
+        modules.lock.lock();
         try {
-            sweepAndPurgeModuleNodes();
-            return infoToModuleMap.get(info);
+            sweepAndPurgeModuleNodes(modules);
+            modules.infoToCompactMap.remove(info);
+            ModuleNodeInfo removed = modules.infoToModuleMap.remove(info);
+            return removed != null ? removed.module : null;
         } finally {
-            lock.unlock();
+            modules.lock.unlock();
         }
     }
 
-    JDTResolver getResolver(PerWorkingCopyInfo info) {
-        lock.lock();
+    /**
+     * Drops the module node and resolver of the working copy, keeping only its
+     * declarations and their source ranges.  Meant for working copies that are
+     * open in an editor that is not visible; the module node is parsed again the
+     * next time that it is asked for.
+     *
+     * @return true iff a module node was dropped
+     */
+    boolean compact(PerWorkingCopyInfo info) {
+        ProjectModules modules = modulesOf(info);
+        modules.lock.lock();
         try {
-            ModuleNodeInfo moduleNodeInfo = get(info);
-            return moduleNodeInfo != null ? moduleNodeInfo.resolver : null;
+            ModuleNodeInfo moduleNodeInfo = modules.infoToModuleMap.remove(info);
+            if (moduleNodeInfo == null) {
+                return false;
+            }
+            long fullSize = estimateSize(moduleNodeInfo);
+            CompactModuleInfo compactInfo = compact(moduleNodeInfo.module, fullSize);
+            modules.infoToCompactMap.put(info, compactInfo);
+            if (GroovyLogManager.manager.hasLoggers()) {
+                GroovyLogManager.manager.log(TraceCategory.COMPILER, "Compacted module node of " + info.getWorkingCopy().getElementName()
+                        + " : ~" + fullSize + " bytes -> ~" + compactInfo.estimateSize() + " bytes");
+            }
+            return true;
         } finally {
-            lock.unlock();
+            modules.lock.unlock();
         }
     }
 
-    ModuleNode remove(PerWorkingCopyInfo info) {
-        lock.lock();
+    boolean isCompact(PerWorkingCopyInfo info) {
+        ProjectModules modules = modulesOf(info);
+        modules.lock.lock();
         try {
-            sweepAndPurgeModuleNodes();
-            ModuleNodeInfo removed = infoToModuleMap.remove(info);
-            return removed != null ? removed.module : null;
+            return modules.infoToCompactMap.containsKey(info);
         } finally {
-            lock.unlock();
+            modules.lock.unlock();
         }
     }
 
+    CompactModuleInfo getCompact(PerWorkingCopyInfo info) {
+        ProjectModules modules = modulesOf(info);
+        modules.lock.lock();
+        try {
+            return modules.infoToCompactMap.get(info);
+        } finally {
+            modules.lock.unlock();
+        }
+    }
+
+    private static CompactModuleInfo compact(ModuleNode module, long fullSize) {
+        List<String> names = new ArrayList<String>();
+        List<int[]> ranges = new ArrayList<int[]>();
+        for (ClassNode type : module.getClasses()) {
+            addDeclaration(type.getName(), type, names, ranges);
+            for (FieldNode field : type.getFields()) {
+                addDeclaration(type.getName() + '.' + field.getName(), field, names, ranges);
+            }
+            for (ConstructorNode constructor : type.getDeclaredConstructors()) {
+                addDeclaration(type.getName() + '.' + type.getNameWithoutPackage(), constructor, names, ranges);
+            }
+            for (MethodNode method : type.getMethods()) {
+                addDeclaration(type.getName() + '.' + method.getName(), method, names, ranges);
+            }
+        }
+        return new CompactModuleInfo(names, ranges, fullSize);
+    }
+
+    private static void addDeclaration(String name, ASTNode node, List<String> names, List<int[]> ranges) {
+        // generated members have no source range
+        if (node.getEnd() > 0) {
+            names.add(name);
+            ranges.add(new int[] { node.getStart(), node.getEnd() });
+        }
+    }
+
+    // rough retained sizes on a 64-bit VM with compressed references; node metadata and source positions included
+    private static final long OBJECT_SIZE = 16, ARRAY_SIZE = 16, NODE_SIZE = 72, DECLARATION_SIZE = 400, CACHED_TYPE_SIZE = 600;
+
+    /**
+     * @return estimated number of bytes retained by the module node and resolver of the info
+     */
+    static long estimateSize(ModuleNodeInfo info) {
+        NodeCounter counter = new NodeCounter();
+        for (ClassNode type : info.module.getClasses()) {
+            counter.visitClass(type);
+        }
+        long size = OBJECT_SIZE + counter.declarations * DECLARATION_SIZE + counter.nodes * NODE_SIZE;
+        if (info.resolver != null) {
+            size += info.resolver.getCachedNodeCount() * CACHED_TYPE_SIZE;
+        }
+        return size;
+    }
+
+    private static class NodeCounter extends ClassCodeVisitorSupport {
+        int declarations, nodes;
+
+        @Override
+        protected SourceUnit getSourceUnit() {
+            return null;
+        }
+
+        @Override
+        public void visitClass(ClassNode node) {
+            declarations += 1;
+            super.visitClass(node);
+        }
+
+        @Override
+        public void visitField(FieldNode node) {
+            declarations += 1;
+            super.visitField(node);
+        }
+
+        @Override
+        protected void visitConstructorOrMethod(MethodNode node, boolean isConstructor) {
+            declarations += 1;
+            super.visitConstructorOrMethod(node, isConstructor);
+        }
+
+        @Override
+        protected void visitStatement(Statement statement) {
+            nodes += 1;
+        }
+
+        @Override
+        public void visitMethodCallExpression(MethodCallExpression call) {
+            nodes += 1;
+            super.visitMethodCallExpression(call);
+        }
+
+        @Override
+        public void visitStaticMethodCallExpression(StaticMethodCallExpression call) {
+            nodes += 1;
+            super.visitStaticMethodCallExpression(call);
+        }
+
+        @Override
+        public void visitConstructorCallExpression(ConstructorCallExpression call) {
+            nodes += 1;
+            super.visitConstructorCallExpression(call);
+        }
+
+        @Override
+        public void visitPropertyExpression(PropertyExpression expression) {
+            nodes += 1;
+            super.visitPropertyExpression(expression);
+        }
+
+        @Override
+        public void visitBinaryExpression(BinaryExpression expression) {
+            nodes += 1;
+            super.visitBinaryExpression(expression);
+        }
+
+        @Override
+        public void visitClosureExpression(ClosureExpression expression) {
+            nodes += 1;
+            super.visitClosureExpression(expression);
+        }
+
+        @Override
+        public void visitVariableExpression(VariableExpression expression) {
+            nodes += 1;
+            super.visitVariableExpression(expression);
+        }
+
+        @Override
+        public void visitConstantExpression(ConstantExpression expression) {
+            nodes += 1;
+            super.visitConstantExpression(expression);
+        }
+    }
+
+    /**
+     * @return one line per working copy with its state (full or compact), the
+     *         estimated number of bytes retained for it and its path
+     */
+    public static String getMemoryReport() {
+        StringBuilder sb = new StringBuilder();
+        long total = 0;
+        for (ProjectModules modules : INSTANCE.projectModules.values()) {
+            modules.lock.lock();
+            try {
+                for (Map.Entry<PerWorkingCopyInfo, ModuleNodeInfo> entry : modules.infoToModuleMap.entrySet()) {
+                    long size = estimateSize(entry.getValue());
+                    total += size;
+                    sb.append("full    ").append(size).append('\t').append(entry.getKey().getWorkingCopy().getPath()).append('\n');
+                }
+                for (Map.Entry<PerWorkingCopyInfo, CompactModuleInfo> entry : modules.infoToCompactMap.entrySet()) {
+                    long size = entry.getValue().estimateSize();
+                    total += size;
+                    sb.append("compact ").append(size).append('\t').append(entry.getKey().getWorkingCopy().getPath()).append('\n');
+                }
+            } finally {
+                modules.lock.unlock();
+            }
+        }
+        sb.append("total   ").append(total).append('\n');
+        return sb.toString();
+    }
+
     /**
      * Cache the module node if this is a working copy.
      */
     protected void maybeCacheModuleNode(
         final JavaModelManager.PerWorkingCopyInfo perWorkingCopyInfo,
         final GroovyCompilationUnitDeclaration compilationUnitDeclaration) {
+        maybeCacheModuleNode(perWorkingCopyInfo, compilationUnitDeclaration, false);
+    }
+
+    /**
+     * Cache the module node if this is a working copy.
+     *
+     * @param structureOnly true if the module node was only parsed
+     */
+    protected void maybeCacheModuleNode(
+        final JavaModelManager.PerWorkingCopyInfo perWorkingCopyInfo,
+        final GroovyCompilationUnitDeclaration compilationUnitDeclaration,
+        final boolean structureOnly) {
 
+        if (perWorkingCopyInfo == null || compilationUnitDeclaration == null) {
+            return;
+        }
+        ReentrantLock lock = modulesOf(perWorkingCopyInfo).lock;
         if (lock.tryLock()) {
             try {
-                if (perWorkingCopyInfo != null && compilationUnitDeclaration != null) {
-                    ModuleNode module = compilationUnitDeclaration.getModuleNode();
-                    if (module != null) {
-                        JDTResolver resolver = null;
-                        if (shouldStoreResovler()) {
-                            resolver = (JDTResolver) compilationUnitDeclaration.getCompilationUnit().getResolveVisitor();
-                        }
-
-                        ModuleNodeInfo info = new ModuleNodeInfo(module, resolver);
-                        info.result = compilationUnitDeclaration.compilationResult();
-
-                        store(perWorkingCopyInfo, info);
+                ModuleNode module = compilationUnitDeclaration.getModuleNode();
+                if (module != null) {
+                    JDTResolver resolver = null;
+                    if (shouldStoreResovler()) {
+                        resolver = (JDTResolver) compilationUnitDeclaration.getCompilationUnit().getResolveVisitor();
                     }
+
+                    ModuleNodeInfo info = new ModuleNodeInfo(module, resolver, structureOnly);
+                    info.result = compilationUnitDeclaration.compilationResult();
+
+                    store(perWorkingCopyInfo, info);
                 }
             } finally {
                 lock.unlock();
@@ -164,7 +494,7 @@ public class ModuleNodeMapper {
             new Job("Cache module node") {
                 @Override
                 protected IStatus run(IProgressMonitor monitor) {
-                    maybeCacheModuleNode(perWorkingCopyInfo, compilationUnitDeclaration);
+                    maybeCacheModuleNode(perWorkingCopyInfo, compilationUnitDeclaration, structureOnly);
                     return Status.OK_STATUS;
                 }
             }.schedule();
@@ -172,24 +502,34 @@ public class ModuleNodeMapper {
     }
 
     public static boolean isEmpty() {
-        return INSTANCE.infoToModuleMap.isEmpty();
+        return size() == 0;
     }
 
     public static int size() {
-        return INSTANCE.infoToModuleMap.size();
+        int size = 0;
+        for (ProjectModules modules : INSTANCE.projectModules.values()) {
+            size += modules.infoToModuleMap.size();
+        }
+        return size;
+    }
+
+    void sweepAndPurgeModuleNodes() {
+        for (ProjectModules modules : projectModules.values()) {
+            sweepAndPurgeModuleNodes(modules);
+        }
     }
 
     // GRECLIPSE-804 check to see that the stored nodes are correct
     // provide info to stdout if not and purge any stale elements
-    void sweepAndPurgeModuleNodes() {
-        lock.lock();
+    private void sweepAndPurgeModuleNodes(ProjectModules modules) {
+        modules.lock.lock();
         try {
             if (System.getProperty("groovy.eclipse.model.purge") == null) {
                 return;
             }
 
             List<PerWorkingCopyInfo> toPurge = new ArrayList<PerWorkingCopyInfo>();
-            for (PerWorkingCopyInfo info : infoToModuleMap.keySet()) {
+            for (PerWorkingCopyInfo info : modules.infoToModuleMap.keySet()) {
                 int useCount = ((Integer) ReflectionUtils.getPrivateField(PerWorkingCopyInfo.class, "useCount", info)).intValue();
                 if (useCount <= 0) {
                     String message = "Bad module node map entry: " + info.getWorkingCopy().getElementName();
@@ -201,21 +541,32 @@ public class ModuleNodeMapper {
                 }
             }
 
+            for (PerWorkingCopyInfo info : modules.infoToCompactMap.keySet()) {
+                int useCount = ((Integer) ReflectionUtils.getPrivateField(PerWorkingCopyInfo.class, "useCount", info)).intValue();
+                if (useCount <= 0) {
+                    toPurge.add(info);
+                }
+            }
+
             if (toPurge.size() > 0) {
                 for (PerWorkingCopyInfo info : toPurge) {
-                    infoToModuleMap.remove(info);
+                    modules.infoToModuleMap.remove(info);
+                    modules.infoToCompactMap.remove(info);
                 }
             }
         } finally {
-            lock.unlock();
+            modules.lock.unlock();
         }
     }
 
-    public void lock() {
-        lock.lock();
+    /**
+     * Locks the module nodes of the working copies of the given project.
+     */
+    public void lock(String projectName) {
+        modulesOf(projectName).lock.lock();
     }
 
-    public void unlock() {
-        lock.unlock();
+    public void unlock(String projectName) {
+        modulesOf(projectName).lock.unlock();
     }
 }
@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import org.codehaus.jdt.groovy.integration.internal.SupplementalReferenceCache;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ProjectScope;
 import org.eclipse.core.runtime.Plugin;
@@ -63,6 +64,7 @@ public class Activator extends Plugin {
     }
 
     public void stop(BundleContext context) throws Exception {
+        SupplementalReferenceCache.shutdown();
         plugin = null;
         super.stop(context);
     }
@@ -34,7 +34,7 @@ import org.eclipse.jdt.groovy.search.TypeLookupResult.TypeConfidence;
  * @created Nov 20, 2009 A simplified type lookup that targets the general case where a provider wants to add initialization to a
  *          class and add new methods/fields to certain types of objects
  */
-public abstract class AbstractSimplifiedTypeLookup implements ITypeLookupExtension {
+public abstract class AbstractSimplifiedTypeLookup implements ITypeLookupExtension, ITypeLookupApplicability {
 
     public static class TypeAndDeclaration {
         public TypeAndDeclaration(ClassNode type, ASTNode declaration) {
@@ -102,6 +102,18 @@ public abstract class AbstractSimplifiedTypeLookup implements ITypeLookupExtensi
                 || currentExpression.getText().length() != currentExpression.getLength();
     }
 
+    /**
+     * Names are only looked up for constants, strings and variables. Descendants that have nothing to contribute to a compilation
+     * unit can answer no kinds at all.
+     */
+    public Class<?>[] getApplicableExpressionKinds() {
+        return new Class<?>[] {ConstantExpression.class, GStringExpression.class, VariableExpression.class};
+    }
+
+    public boolean appliesToReceiver(ClassNode objectExpressionType, boolean isStaticObjectExpression) {
+        return true;
+    }
+
     // not called, but must be implemented
     public final TypeLookupResult lookupType(Expression node, VariableScope scope, ClassNode objectExpressionType) {
         return lookupType(node, scope, objectExpressionType, false);
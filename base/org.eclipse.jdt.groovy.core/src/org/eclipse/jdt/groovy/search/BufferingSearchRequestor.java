@@ -0,0 +1,81 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.search.SearchMatch;
+import org.eclipse.jdt.core.search.SearchRequestor;
+import org.eclipse.jdt.internal.core.util.Util;
+
+/**
+ * Collects the matches of one search on a worker thread, so that they can be
+ * handed to the real requestor later, from the searching thread and in a
+ * deterministic order.  {@link SearchRequestor}s are not expected to be thread
+ * safe and must never be called concurrently.
+ */
+public class BufferingSearchRequestor extends SearchRequestor {
+
+    private final SearchRequestor delegate;
+
+    private final List<SearchMatch> matches = new ArrayList<SearchMatch>();
+
+    public BufferingSearchRequestor(SearchRequestor delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return the requestor that the matches will eventually be sent to
+     */
+    public SearchRequestor getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the requestor itself, or the requestor it buffers matches for
+     */
+    public static SearchRequestor unwrap(SearchRequestor requestor) {
+        while (requestor instanceof BufferingSearchRequestor) {
+            requestor = ((BufferingSearchRequestor) requestor).delegate;
+        }
+        return requestor;
+    }
+
+    @Override
+    public synchronized void acceptSearchMatch(SearchMatch match) {
+        matches.add(match);
+    }
+
+    /**
+     * Sends the matches collected so far to the delegate, in the order they were found.
+     */
+    public void flush() {
+        List<SearchMatch> toSend;
+        synchronized (this) {
+            toSend = new ArrayList<SearchMatch>(matches);
+            matches.clear();
+        }
+        for (SearchMatch match : toSend) {
+            try {
+                delegate.acceptSearchMatch(match);
+            } catch (CoreException e) {
+                Util.log(e, "Error reporting search match " + match);
+            }
+        }
+    }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.search;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the snapshot of category class signatures read by {@link CategorySignatures}.
+ * Run by the build of each <code>org.codehaus.groovyXX</code> plugin, with that plugin's
+ * Groovy jar on the class path:
+ *
+ * <pre>
+ * java -cp groovy-all.jar:. org.eclipse.jdt.groovy.search.CategorySignatureWriter snapshot/category-signatures.txt
+ * </pre>
+ *
+ * Only depends on the JDK, so that it can be compiled and run before the plugins are built.
+ * <p>
+ * The snapshot is a UTF-8 text file of tab separated lines.  The first line holds the
+ * Groovy version.  Each category class starts with a <code>class</code> line followed by
+ * the lines of its super class, interfaces, annotations, fields, constructors and methods,
+ * in the order {@link java.lang.Class} reports them.  Types are written as JVM descriptors
+ * (the erasure) followed by <code>|</code> and a JVM generic signature when they have one.
+ * Annotations are written as <code>@type(member=value;...)</code> with the values that the
+ * Groovy VM plugin keeps: constants (prefixed by their descriptor, <code>s</code> for
+ * strings), classes (<code>c</code>) and arrays (<code>[a,b]</code>).  Text is escaped with
+ * <code>%XX</code>.
+ */
+public class CategorySignatureWriter {
+
+    /** same classes as {@link VariableScope#ALL_DEFAULT_CATEGORIES}; those not in the Groovy version are skipped */
+    static final String[] DEFAULT_CATEGORIES = {
+        "org.codehaus.groovy.runtime.StringGroovyMethods",
+        "org.codehaus.groovy.runtime.ResourceGroovyMethods",
+        "org.codehaus.groovy.runtime.IOGroovyMethods",
+        "org.codehaus.groovy.runtime.EncodingGroovyMethods",
+        "org.codehaus.groovy.runtime.ProcessGroovyMethods",
+        "org.codehaus.groovy.runtime.SwingGroovyMethods",
+        "org.codehaus.groovy.runtime.XmlGroovyMethods",
+        "org.codehaus.groovy.runtime.DateGroovyMethods",
+        "org.codehaus.groovy.runtime.DefaultGroovyStaticMethods",
+        "org.codehaus.groovy.runtime.DefaultGroovyMethods"
+    };
+
+    static final String VERSION = "version";
+    static final String CLASS = "class";
+    static final String SUPER = "super";
+    static final String INTERFACES = "interfaces";
+    static final String ANNOTATIONS = "annotations";
+    static final String FIELD = "field";
+    static final String CONSTRUCTOR = "constructor";
+    static final String METHOD = "method";
+
+    static final List<Class<?>> PRIMITIVE_TYPES = Arrays.<Class<?>>asList(boolean.class, byte.class, char.class,
+            short.class, int.class, long.class, float.class, double.class, void.class);
+    static final String PRIMITIVE_DESCRIPTORS = "ZBCSIJFDV";
+
+    /** characters with a meaning in the snapshot format */
+    private static final String RESERVED = "%\t\r\n@()[];,=|";
+
+    private final Writer out;
+
+    private CategorySignatureWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * @param args the file to write, optionally followed by the names of the category classes
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: CategorySignatureWriter <file> [<category class>...]");
+            System.exit(1);
+        }
+        List<String> names = new ArrayList<String>();
+        for (int i = 1; i < args.length; i += 1) {
+            names.add(args[i]);
+        }
+        if (names.isEmpty()) {
+            for (String name : DEFAULT_CATEGORIES) {
+                names.add(name);
+            }
+        }
+        ClassLoader loader = CategorySignatureWriter.class.getClassLoader();
+        List<Class<?>> categories = new ArrayList<Class<?>>();
+        for (String name : names) {
+            try {
+                categories.add(Class.forName(name, false, loader));
+            } catch (ClassNotFoundException e) {
+                // not in this version of Groovy
+            }
+        }
+        String version = (String) Class.forName("groovy.lang.GroovySystem", true, loader).getMethod("getVersion").invoke(null);
+
+        File file = new File(args[0]);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+        try {
+            write(writer, version, categories);
+        } finally {
+            writer.close();
+        }
+        System.out.println("Wrote signatures of " + categories.size() + " category classes of Groovy " + version + " to " + file);
+    }
+
+    public static void write(Writer out, String version, List<Class<?>> categories) throws IOException {
+        CategorySignatureWriter writer = new CategorySignatureWriter(out);
+        writer.line(VERSION, escape(version));
+        for (Class<?> category : categories) {
+            writer.writeClass(category);
+        }
+        out.flush();
+    }
+
+    private void writeClass(Class<?> clazz) throws IOException {
+        line(CLASS, clazz.getName());
+        if (clazz.getSuperclass() != null) {
+            line(SUPER, slot(clazz.getGenericSuperclass(), clazz.getSuperclass()));
+        }
+        Type[] genericInterfaces = clazz.getGenericInterfaces();
+        Class<?>[] interfaces = clazz.getInterfaces();
+        if (interfaces.length > 0) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < interfaces.length; i += 1) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(slot(genericInterfaces.length == interfaces.length ? genericInterfaces[i] : interfaces[i], interfaces[i]));
+            }
+            line(INTERFACES, sb.toString());
+        }
+        if (clazz.getAnnotations().length > 0) {
+            line(ANNOTATIONS, annotations(clazz.getAnnotations()));
+        }
+        for (Field f : clazz.getDeclaredFields()) {
+            line(FIELD, String.valueOf(f.getModifiers()), f.getName(), slot(f.getGenericType(), f.getType()),
+                    annotations(f.getAnnotations()));
+        }
+        for (Constructor<?> ctor : clazz.getDeclaredConstructors()) {
+            List<String> parts = new ArrayList<String>();
+            parts.add(String.valueOf(ctor.getModifiers()));
+            parts.add(slots(ctor.getGenericExceptionTypes(), ctor.getExceptionTypes()));
+            parameters(parts, ctor.getGenericParameterTypes(), ctor.getParameterTypes(), ctor.getParameterAnnotations());
+            line(CONSTRUCTOR, parts.toArray(new String[parts.size()]));
+        }
+        for (Method m : clazz.getDeclaredMethods()) {
+            List<String> parts = new ArrayList<String>();
+            parts.add(String.valueOf(m.getModifiers()));
+            parts.add(m.getName());
+            parts.add(m.isSynthetic() ? "1" : "0");
+            parts.add(typeParameters(m.getTypeParameters()));
+            parts.add(slot(m.getGenericReturnType(), m.getReturnType()));
+            parts.add(annotations(m.getAnnotations()));
+            parts.add(slots(m.getGenericExceptionTypes(), m.getExceptionTypes()));
+            parameters(parts, m.getGenericParameterTypes(), m.getParameterTypes(), m.getParameterAnnotations());
+            line(METHOD, parts.toArray(new String[parts.size()]));
+        }
+    }
+
+    private void line(String kind, String... parts) throws IOException {
+        out.write(kind);
+        for (String part : parts) {
+            out.write('\t');
+            out.write(part);
+        }
+        out.write('\n');
+    }
+
+    private static void parameters(List<String> parts, Type[] types, Class<?>[] classes, Annotation[][] annotations) {
+        boolean generic = (types.length == classes.length);
+        for (int i = 0; i < classes.length; i += 1) {
+            parts.add(slot(generic ? types[i] : classes[i], classes[i]));
+            parts.add(i < annotations.length ? annotations(annotations[i]) : "");
+        }
+    }
+
+    //--------------------------------------------------------------------------
+    // types
+
+    /**
+     * @return the descriptor of the erasure, followed by the generic signature if the type is not a plain class
+     */
+    private static String slot(Type type, Class<?> erasure) {
+        StringBuilder sb = new StringBuilder();
+        descriptor(sb, erasure);
+        if (!(type instanceof Class)) {
+            sb.append('|');
+            signature(sb, type);
+        }
+        return sb.toString();
+    }
+
+    private static String slots(Type[] types, Class<?>[] classes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < classes.length; i += 1) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(slot(types.length == classes.length ? types[i] : classes[i], classes[i]));
+        }
+        return sb.toString();
+    }
+
+    private static void descriptor(StringBuilder sb, Class<?> c) {
+        if (c.isArray()) {
+            sb.append('[');
+            descriptor(sb, c.getComponentType());
+        } else if (c.isPrimitive()) {
+            sb.append(PRIMITIVE_DESCRIPTORS.charAt(PRIMITIVE_TYPES.indexOf(c)));
+        } else {
+            sb.append('L').append(c.getName().replace('.', '/')).append(';');
+        }
+    }
+
+    private static void signature(StringBuilder sb, Type type) {
+        if (type instanceof Class) {
+            descriptor(sb, (Class<?>) type);
+        } else if (type instanceof ParameterizedType) {
+            ParameterizedType pt = (ParameterizedType) type;
+            sb.append('L').append(((Class<?>) pt.getRawType()).getName().replace('.', '/'));
+            Type[] args = pt.getActualTypeArguments();
+            if (args.length > 0) {
+                sb.append('<');
+                for (Type arg : args) {
+                    signature(sb, arg);
+                }
+                sb.append('>');
+            }
+            sb.append(';');
+        } else if (type instanceof GenericArrayType) {
+            sb.append('[');
+            signature(sb, ((GenericArrayType) type).getGenericComponentType());
+        } else if (type instanceof TypeVariable) {
+            sb.append('T').append(((TypeVariable<?>) type).getName()).append(';');
+        } else if (type instanceof WildcardType) {
+            WildcardType wt = (WildcardType) type;
+            if (wt.getLowerBounds().length > 0) {
+                sb.append('-');
+                signature(sb, wt.getLowerBounds()[0]);
+            } else if (wt.getUpperBounds().length == 0 || wt.getUpperBounds()[0] == Object.class) {
+                sb.append('*');
+            } else {
+                sb.append('+');
+                signature(sb, wt.getUpperBounds()[0]);
+            }
+        } else {
+            throw new IllegalArgumentException("unknown type: " + type);
+        }
+    }
+
+    private static String typeParameters(TypeVariable<?>[] tvs) {
+        if (tvs.length == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("<");
+        for (TypeVariable<?> tv : tvs) {
+            sb.append(tv.getName());
+            for (Type bound : tv.getBounds()) {
+                sb.append(':');
+                signature(sb, bound);
+            }
+        }
+        return sb.append('>').toString();
+    }
+
+    //--------------------------------------------------------------------------
+    // annotations
+
+    private static String annotations(Annotation[] annotations) {
+        StringBuilder sb = new StringBuilder();
+        for (Annotation annotation : annotations) {
+            Class<? extends Annotation> type = annotation.annotationType();
+            if (type == Retention.class || type == Target.class) {
+                // only found on annotation types
+                continue;
+            }
+            sb.append('@').append(type.getName()).append('(');
+            boolean first = true;
+            for (Method member : type.getDeclaredMethods()) {
+                Object value;
+                try {
+                    value = member.invoke(annotation);
+                } catch (Exception e) {
+                    continue;
+                }
+                String text = value(value);
+                if (text == null) {
+                    continue;
+                }
+                if (!first) {
+                    sb.append(';');
+                }
+                first = false;
+                sb.append(member.getName()).append('=').append(text);
+            }
+            sb.append(')');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the encoded value, or null for values that the Groovy VM plugin drops (enums, annotations)
+     */
+    private static String value(Object value) {
+        if (value instanceof String) {
+            return "s" + escape((String) value);
+        }
+        if (value instanceof Boolean) {
+            return "Z" + (((Boolean) value).booleanValue() ? "1" : "0");
+        }
+        if (value instanceof Character) {
+            return "C" + (int) ((Character) value).charValue();
+        }
+        if (value instanceof Byte) {
+            return "B" + value;
+        }
+        if (value instanceof Short) {
+            return "S" + value;
+        }
+        if (value instanceof Integer) {
+            return "I" + value;
+        }
+        if (value instanceof Long) {
+            return "J" + value;
+        }
+        if (value instanceof Float) {
+            return "F" + value;
+        }
+        if (value instanceof Double) {
+            return "D" + value;
+        }
+        if (value instanceof Class) {
+            return "c" + escape(((Class<?>) value).getName());
+        }
+        if (value != null && value.getClass().isArray()) {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0, n = Array.getLength(value); i < n; i += 1) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                String element = value(Array.get(value, i));
+                sb.append(element != null ? element : "n");
+            }
+            return sb.append(']').toString();
+        }
+        return null;
+    }
+
+    private static String escape(String text) {
+        StringBuilder sb = null;
+        for (int i = 0, n = text.length(); i < n; i += 1) {
+            char c = text.charAt(i);
+            if (RESERVED.indexOf(c) >= 0) {
+                if (sb == null) {
+                    sb = new StringBuilder(text.length() + 8);
+                    sb.append(text, 0, i);
+                }
+                sb.append('%').append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb != null ? sb.toString() : text;
+    }
+}
@@ -0,0 +1,641 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.search;
+
+import groovy.lang.GroovySystem;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Array;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.GenericsType;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.ClassExpression;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.ListExpression;
+import org.codehaus.groovy.ast.stmt.ReturnStatement;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.groovy.runtime.DefaultGroovyMethods;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Signatures of the default category classes (DGM and friends), read from a
+ * snapshot that the build of each <code>org.codehaus.groovyXX</code> plugin
+ * writes with {@link CategorySignatureWriter}.
+ * <p>
+ * Category classes declare well over a thousand methods, and building their
+ * class nodes by reflection (parsing generic signatures and annotations of
+ * every method) makes the first inferencing request after startup noticeably
+ * slow.  The class nodes made by {@link #make(Class)} build the same members
+ * from the snapshot when they are first asked for them, and fall back to
+ * reflection if the snapshot is missing, is for another version of Groovy or
+ * does not know the class.
+ */
+public class CategorySignatures {
+
+    /** location of the snapshot in the Groovy bundle */
+    static final String SNAPSHOT_PATH = "snapshot/category-signatures.txt";
+
+    public static final boolean ENABLED = Boolean.valueOf(System.getProperty("greclipse.categorySnapshot", "true"));
+
+    private static CategorySignatures defaultSignatures;
+
+    private static boolean defaultLoaded;
+
+    private final String version;
+
+    private final ClassLoader loader;
+
+    /** category class name to the lines of the snapshot that describe its members */
+    private final Map<String, List<String[]>> members;
+
+    private final Map<String, Class<?>> classes = new HashMap<String, Class<?>>();
+
+    private CategorySignatures(String version, ClassLoader loader, Map<String, List<String[]>> members) {
+        this.version = version;
+        this.loader = loader;
+        this.members = members;
+    }
+
+    /**
+     * @return a class node for the category class whose members come from the
+     *         snapshot of the Groovy bundle, which is read on first use
+     */
+    public static ClassNode make(Class<?> category) {
+        return new CategoryClassNode(category, null);
+    }
+
+    /**
+     * @return a class node for the category class whose members come from this snapshot
+     */
+    public ClassNode makeClassNode(Class<?> category) {
+        return new CategoryClassNode(category, this);
+    }
+
+    /**
+     * @return the snapshot of the Groovy bundle, or null if there is none for the running version of Groovy
+     */
+    static synchronized CategorySignatures getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            if (ENABLED) {
+                defaultSignatures = loadDefault();
+            }
+        }
+        return defaultSignatures;
+    }
+
+    private static CategorySignatures loadDefault() {
+        long start = System.currentTimeMillis();
+        URL url = null;
+        try {
+            Bundle bundle = FrameworkUtil.getBundle(DefaultGroovyMethods.class);
+            if (bundle != null) {
+                url = bundle.getEntry(SNAPSHOT_PATH);
+            }
+        } catch (LinkageError e) {
+            // not running in OSGi
+        }
+        if (url == null) {
+            log("No snapshot of category signatures, category classes are initialized by reflection");
+            return null;
+        }
+        try {
+            Reader reader = new InputStreamReader(url.openStream(), "UTF-8");
+            try {
+                CategorySignatures signatures = read(reader, DefaultGroovyMethods.class.getClassLoader());
+                if (!GroovySystem.getVersion().equals(signatures.version)) {
+                    log("Snapshot of category signatures is for Groovy " + signatures.version + ", not " + GroovySystem.getVersion());
+                    return null;
+                }
+                log("Read snapshot of category signatures in " + (System.currentTimeMillis() - start) + "ms");
+                return signatures;
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            log("Could not read snapshot of category signatures: " + e);
+            return null;
+        } catch (RuntimeException e) {
+            log("Could not read snapshot of category signatures: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link CategorySignatureWriter}.  Classes are only
+     * parsed when their class nodes are initialized.
+     *
+     * @param loader loads the classes that the signatures refer to
+     */
+    public static CategorySignatures read(Reader in, ClassLoader loader) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        String version = null;
+        Map<String, List<String[]>> members = new HashMap<String, List<String[]>>();
+        List<String[]> current = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.length() == 0) {
+                continue;
+            }
+            String[] parts = line.split("\t", -1);
+            if (CategorySignatureWriter.VERSION.equals(parts[0])) {
+                version = unescape(parts[1]);
+            } else if (CategorySignatureWriter.CLASS.equals(parts[0])) {
+                current = new ArrayList<String[]>();
+                members.put(parts[1], current);
+            } else if (current != null) {
+                current.add(parts);
+            }
+        }
+        return new CategorySignatures(version, loader, members);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    private static void log(String message) {
+        if (GroovyLogManager.manager.hasLoggers()) {
+            GroovyLogManager.manager.log(TraceCategory.DEFAULT, message);
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Category class node that takes its members from a snapshot instead of reflection.
+     */
+    private static class CategoryClassNode extends ClassNode {
+
+        /** null for the snapshot of the Groovy bundle */
+        private final CategorySignatures signatures;
+
+        CategoryClassNode(Class<?> category, CategorySignatures signatures) {
+            super(category);
+            this.signatures = signatures;
+        }
+
+        @Override
+        public void lazyClassInit() {
+            synchronized (lazyInitLock) {
+                if (lazyInitDone) {
+                    return;
+                }
+                CategorySignatures snapshot = (signatures != null ? signatures : getDefault());
+                if (snapshot != null) {
+                    long start = System.currentTimeMillis();
+                    try {
+                        if (snapshot.configure(this)) {
+                            lazyInitDone = true;
+                            log("Initialized " + getName() + " from snapshot in " + (System.currentTimeMillis() - start) + "ms");
+                            return;
+                        }
+                    } catch (Exception e) {
+                        log("Could not initialize " + getName() + " from snapshot: " + e);
+                    } catch (LinkageError e) {
+                        log("Could not initialize " + getName() + " from snapshot: " + e);
+                    }
+                }
+                super.lazyClassInit();
+            }
+        }
+    }
+
+    /**
+     * Adds the members of the snapshot to the class node, the way the VM plugin
+     * of Groovy adds them by reflection.  Nothing is added unless all of them
+     * could be read.
+     *
+     * @return false if the snapshot does not know the class
+     */
+    boolean configure(ClassNode node) throws ClassNotFoundException {
+        List<String[]> lines = members.get(node.getName());
+        if (lines == null) {
+            return false;
+        }
+        ClassNode superClass = null;
+        ClassNode[] interfaces = ClassNode.EMPTY_ARRAY;
+        List<AnnotationNode> annotations = new ArrayList<AnnotationNode>();
+        List<FieldNode> fields = new ArrayList<FieldNode>();
+        List<Object[]> constructors = new ArrayList<Object[]>();
+        List<MethodNode> methods = new ArrayList<MethodNode>();
+        synchronized (classes) {
+            for (String[] parts : lines) {
+                String kind = parts[0];
+                if (CategorySignatureWriter.SUPER.equals(kind)) {
+                    superClass = makeClassNode(parts[1]);
+                } else if (CategorySignatureWriter.INTERFACES.equals(kind)) {
+                    interfaces = makeClassNodes(parts[1]);
+                } else if (CategorySignatureWriter.ANNOTATIONS.equals(kind)) {
+                    annotations.addAll(makeAnnotations(parts[1]));
+                } else if (CategorySignatureWriter.FIELD.equals(kind)) {
+                    FieldNode field = new FieldNode(parts[2], Integer.parseInt(parts[1]), makeClassNode(parts[3]), node, null);
+                    addAnnotations(field, parts[4]);
+                    fields.add(field);
+                } else if (CategorySignatureWriter.CONSTRUCTOR.equals(kind)) {
+                    constructors.add(new Object[] {Integer.valueOf(parts[1]), makeParameters(parts, 3), makeClassNodes(parts[2])});
+                } else if (CategorySignatureWriter.METHOD.equals(kind)) {
+                    ClassNode returnType = makeClassNode(parts[5]);
+                    Parameter[] parameters = makeParameters(parts, 8);
+                    MethodNode method = new MethodNode(parts[2], Integer.parseInt(parts[1]), returnType, parameters,
+                            makeClassNodes(parts[7]), null);
+                    method.setSynthetic("1".equals(parts[3]));
+                    // as for methods without a default value
+                    method.setCode(new ReturnStatement(ConstantExpression.NULL));
+                    method.setAnnotationDefault(true);
+                    addAnnotations(method, parts[6]);
+                    method.setGenericsTypes(makeTypeParameters(parts[4]));
+                    methods.add(method);
+                }
+            }
+        }
+        for (FieldNode field : fields) {
+            node.addField(field);
+        }
+        for (MethodNode method : methods) {
+            node.addMethod(method);
+        }
+        for (Object[] constructor : constructors) {
+            node.addConstructor(((Integer) constructor[0]).intValue(), (Parameter[]) constructor[1], (ClassNode[]) constructor[2], null);
+        }
+        if (superClass != null) {
+            node.setUnresolvedSuperClass(superClass);
+        }
+        node.setInterfaces(interfaces);
+        for (AnnotationNode annotation : annotations) {
+            node.addAnnotation(annotation);
+        }
+        return true;
+    }
+
+    //--------------------------------------------------------------------------
+    // types
+
+    /** the parts of a generic signature, mirroring java.lang.reflect.Type */
+    private static class ParameterizedTypeSig {
+        Class<?> raw;
+        List<Object> arguments = new ArrayList<Object>();
+    }
+
+    private static class ArrayTypeSig {
+        Object component;
+    }
+
+    private static class TypeVariableSig {
+        String name;
+    }
+
+    private static class WildcardTypeSig {
+        Object upper;
+        Object lower;
+    }
+
+    /** position in a signature that is being parsed */
+    private static class Cursor {
+        final String text;
+        int pos;
+
+        Cursor(String text) {
+            this.text = text;
+        }
+
+        char peek() {
+            return text.charAt(pos);
+        }
+
+        char next() {
+            return text.charAt(pos++);
+        }
+
+        String upTo(char end) {
+            int index = text.indexOf(end, pos);
+            String result = text.substring(pos, index);
+            pos = index + 1;
+            return result;
+        }
+    }
+
+    private Class<?> loadClass(String name) throws ClassNotFoundException {
+        Class<?> c = classes.get(name);
+        if (c == null) {
+            c = Class.forName(name, false, loader);
+            classes.put(name, c);
+        }
+        return c;
+    }
+
+    /**
+     * @return a {@link Class}, or one of the signature classes above
+     */
+    private Object parseType(Cursor cursor) throws ClassNotFoundException {
+        char c = cursor.next();
+        switch (c) {
+        case 'L':
+            int start = cursor.pos;
+            while (cursor.peek() != ';' && cursor.peek() != '<') {
+                cursor.pos += 1;
+            }
+            Class<?> raw = loadClass(cursor.text.substring(start, cursor.pos).replace('/', '.'));
+            if (cursor.next() == ';') {
+                return raw;
+            }
+            ParameterizedTypeSig parameterized = new ParameterizedTypeSig();
+            parameterized.raw = raw;
+            while (cursor.peek() != '>') {
+                parameterized.arguments.add(parseTypeArgument(cursor));
+            }
+            cursor.pos += 2; // '>' and ';'
+            return parameterized;
+        case 'T':
+            TypeVariableSig variable = new TypeVariableSig();
+            variable.name = cursor.upTo(';');
+            return variable;
+        case '[':
+            Object component = parseType(cursor);
+            if (component instanceof Class) {
+                return Array.newInstance((Class<?>) component, 0).getClass();
+            }
+            ArrayTypeSig array = new ArrayTypeSig();
+            array.component = component;
+            return array;
+        default:
+            int index = CategorySignatureWriter.PRIMITIVE_DESCRIPTORS.indexOf(c);
+            if (index < 0) {
+                throw new IllegalArgumentException("Bad signature: " + cursor.text);
+            }
+            return CategorySignatureWriter.PRIMITIVE_TYPES.get(index);
+        }
+    }
+
+    private Object parseTypeArgument(Cursor cursor) throws ClassNotFoundException {
+        WildcardTypeSig wildcard;
+        switch (cursor.peek()) {
+        case '*':
+            cursor.pos += 1;
+            wildcard = new WildcardTypeSig();
+            wildcard.upper = Object.class;
+            return wildcard;
+        case '+':
+            cursor.pos += 1;
+            wildcard = new WildcardTypeSig();
+            wildcard.upper = parseType(cursor);
+            return wildcard;
+        case '-':
+            cursor.pos += 1;
+            wildcard = new WildcardTypeSig();
+            wildcard.upper = Object.class;
+            wildcard.lower = parseType(cursor);
+            return wildcard;
+        default:
+            return parseType(cursor);
+        }
+    }
+
+    // the following follow org.codehaus.groovy.vmplugin.v5.Java5
+
+    private ClassNode makeClassNode(String slot) throws ClassNotFoundException {
+        int bar = slot.indexOf('|');
+        Object erasure = parseType(new Cursor(bar < 0 ? slot : slot.substring(0, bar)));
+        ClassNode back = ClassHelper.make((Class<?>) erasure);
+        if (bar >= 0) {
+            ClassNode front = configureType(parseType(new Cursor(slot.substring(bar + 1))));
+            front.setRedirect(back);
+            return front;
+        }
+        return back.getPlainNodeReference();
+    }
+
+    private ClassNode[] makeClassNodes(String slots) throws ClassNotFoundException {
+        if (slots.length() == 0) {
+            return ClassNode.EMPTY_ARRAY;
+        }
+        String[] parts = slots.split(",");
+        ClassNode[] nodes = new ClassNode[parts.length];
+        for (int i = 0; i < parts.length; i += 1) {
+            nodes[i] = makeClassNode(parts[i]);
+        }
+        return nodes;
+    }
+
+    /**
+     * @param from index of the first parameter type; each type is followed by the parameter's annotations
+     */
+    private Parameter[] makeParameters(String[] parts, int from) throws ClassNotFoundException {
+        int count = (parts.length - from) / 2;
+        if (count == 0) {
+            return Parameter.EMPTY_ARRAY;
+        }
+        Parameter[] parameters = new Parameter[count];
+        for (int i = 0; i < count; i += 1) {
+            parameters[i] = new Parameter(makeClassNode(parts[from + 2 * i]), "param" + i);
+            addAnnotations(parameters[i], parts[from + 2 * i + 1]);
+        }
+        return parameters;
+    }
+
+    private ClassNode configureType(Object type) {
+        if (type instanceof WildcardTypeSig) {
+            ClassNode ref = ClassHelper.makeWithoutCaching(Object.class, false);
+            ref.setGenericsTypes(new GenericsType[] {configureWildcardType((WildcardTypeSig) type)});
+            return ref;
+        } else if (type instanceof ParameterizedTypeSig) {
+            ParameterizedTypeSig parameterized = (ParameterizedTypeSig) type;
+            ClassNode base = configureType(parameterized.raw);
+            if (!parameterized.arguments.isEmpty()) {
+                GenericsType[] gts = new GenericsType[parameterized.arguments.size()];
+                for (int i = 0; i < gts.length; i += 1) {
+                    Object argument = parameterized.arguments.get(i);
+                    if (argument instanceof WildcardTypeSig) {
+                        gts[i] = configureWildcardType((WildcardTypeSig) argument);
+                    } else {
+                        gts[i] = new GenericsType(configureType(argument));
+                    }
+                }
+                base.setGenericsTypes(gts);
+            }
+            return base;
+        } else if (type instanceof ArrayTypeSig) {
+            return configureType(((ArrayTypeSig) type).component).makeArray();
+        } else if (type instanceof TypeVariableSig) {
+            return configureTypeVariableReference(((TypeVariableSig) type).name);
+        } else {
+            Class<?> c = (Class<?>) type;
+            return c.isPrimitive() ? ClassHelper.make(c) : ClassHelper.makeWithoutCaching(c, false);
+        }
+    }
+
+    private GenericsType configureWildcardType(WildcardTypeSig wildcard) {
+        ClassNode base = ClassHelper.makeWithoutCaching("?");
+        base.setRedirect(ClassHelper.OBJECT_TYPE);
+        ClassNode lower = (wildcard.lower != null ? configureType(wildcard.lower) : null);
+        GenericsType gt = new GenericsType(base, new ClassNode[] {configureType(wildcard.upper)}, lower);
+        gt.setWildcard(true);
+        return gt;
+    }
+
+    private static ClassNode configureTypeVariableReference(String name) {
+        ClassNode cn = ClassHelper.makeWithoutCaching(name);
+        cn.setGenericsPlaceHolder(true);
+        ClassNode cn2 = ClassHelper.makeWithoutCaching(name);
+        cn2.setGenericsPlaceHolder(true);
+        cn.setGenericsTypes(new GenericsType[] {new GenericsType(cn2)});
+        cn.setRedirect(ClassHelper.OBJECT_TYPE);
+        return cn;
+    }
+
+    /**
+     * @param text type parameters as written by the writer: <code>&lt;T:bound:bound U:bound&gt;</code>
+     */
+    private GenericsType[] makeTypeParameters(String text) throws ClassNotFoundException {
+        if (text.length() == 0) {
+            return null;
+        }
+        List<GenericsType> gts = new ArrayList<GenericsType>();
+        Cursor cursor = new Cursor(text);
+        cursor.pos = 1; // '<'
+        while (cursor.peek() != '>') {
+            String name = cursor.upTo(':');
+            List<ClassNode> bounds = new ArrayList<ClassNode>();
+            bounds.add(configureType(parseType(cursor)));
+            while (cursor.peek() == ':') {
+                cursor.pos += 1;
+                bounds.add(configureType(parseType(cursor)));
+            }
+            ClassNode base = configureTypeVariableReference(name);
+            ClassNode redirect = base.redirect();
+            base.setRedirect(null);
+            GenericsType gt = new GenericsType(base, bounds.toArray(new ClassNode[bounds.size()]), null);
+            gt.setName(base.getName());
+            gt.setPlaceholder(true);
+            base.setRedirect(redirect);
+            gts.add(gt);
+        }
+        return gts.toArray(new GenericsType[gts.size()]);
+    }
+
+    //--------------------------------------------------------------------------
+    // annotations
+
+    private void addAnnotations(AnnotatedNode node, String text) throws ClassNotFoundException {
+        if (text.length() > 0) {
+            for (AnnotationNode annotation : makeAnnotations(text)) {
+                node.addAnnotation(annotation);
+            }
+        }
+    }
+
+    private List<AnnotationNode> makeAnnotations(String text) throws ClassNotFoundException {
+        List<AnnotationNode> annotations = new ArrayList<AnnotationNode>(2);
+        Cursor cursor = new Cursor(text);
+        while (cursor.pos < text.length()) {
+            cursor.pos += 1; // '@'
+            AnnotationNode annotation = new AnnotationNode(ClassHelper.make(loadClass(cursor.upTo('('))));
+            while (cursor.peek() != ')') {
+                String member = cursor.upTo('=');
+                annotation.setMember(member, makeValue(cursor));
+                if (cursor.peek() == ';') {
+                    cursor.pos += 1;
+                }
+            }
+            cursor.pos += 1; // ')'
+            annotations.add(annotation);
+        }
+        return annotations;
+    }
+
+    private Expression makeValue(Cursor cursor) throws ClassNotFoundException {
+        char kind = cursor.next();
+        if (kind == 'n') {
+            return null;
+        }
+        if (kind == '[') {
+            ListExpression list = new ListExpression();
+            while (cursor.peek() != ']') {
+                list.addExpression(makeValue(cursor));
+                if (cursor.peek() == ',') {
+                    cursor.pos += 1;
+                }
+            }
+            cursor.pos += 1; // ']'
+            return list;
+        }
+        int start = cursor.pos;
+        while (cursor.pos < cursor.text.length() && "),;]".indexOf(cursor.peek()) < 0) {
+            cursor.pos += 1;
+        }
+        String value = unescape(cursor.text.substring(start, cursor.pos));
+        switch (kind) {
+        case 's':
+            return new ConstantExpression(value);
+        case 'c':
+            return new ClassExpression(ClassHelper.makeWithoutCaching(loadClass(value)));
+        case 'Z':
+            return new ConstantExpression(Boolean.valueOf("1".equals(value)));
+        case 'C':
+            return new ConstantExpression(Character.valueOf((char) Integer.parseInt(value)));
+        case 'B':
+            return new ConstantExpression(Byte.valueOf(value));
+        case 'S':
+            return new ConstantExpression(Short.valueOf(value));
+        case 'I':
+            return new ConstantExpression(Integer.valueOf(value));
+        case 'J':
+            return new ConstantExpression(Long.valueOf(value));
+        case 'F':
+            return new ConstantExpression(Float.valueOf(value));
+        case 'D':
+            return new ConstantExpression(Double.valueOf(value));
+        default:
+            throw new IllegalArgumentException("Bad annotation value: " + cursor.text);
+        }
+    }
+
+    private static String unescape(String text) {
+        int index = text.indexOf('%');
+        if (index < 0) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        sb.append(text, 0, index);
+        for (int i = index, n = text.length(); i < n; i += 1) {
+            char c = text.charAt(i);
+            if (c == '%' && i + 2 < n) {
+                sb.append((char) Integer.parseInt(text.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
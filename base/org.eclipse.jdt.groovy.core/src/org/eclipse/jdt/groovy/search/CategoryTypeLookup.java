@@ -41,7 +41,16 @@ import org.eclipse.jdt.groovy.search.TypeLookupResult.TypeConfidence;
  * @author Andrew Eisenberg
  * @created Oct 25, 2009
  */
-public class CategoryTypeLookup implements ITypeLookup {
+public class CategoryTypeLookup implements ITypeLookupApplicability {
+
+    public Class<?>[] getApplicableExpressionKinds() {
+        return new Class<?>[] {ConstantExpression.class, VariableExpression.class};
+    }
+
+    public boolean appliesToReceiver(ClassNode objectExpressionType, boolean isStaticObjectExpression) {
+        // the default categories apply to everything
+        return true;
+    }
 
     /**
      * Looks up method calls to see if they are declared in any current categories
@@ -89,7 +98,7 @@ public class CategoryTypeLookup implements ITypeLookup {
                 Parameter[] params = methodNode.getParameters();
                 if (params != null && params.length > 0 && isAssignableFrom(normalizedType, params[0].getType())) {
                     ClassNode declaringClass = methodNode.getDeclaringClass();
-                    ClassNode returnType = SimpleTypeLookup.typeFromDeclaration(methodNode, currentType);
+                    ClassNode returnType = SimpleTypeLookup.typeFromDeclaration(methodNode, currentType, scope);
                     TypeConfidence confidence = getConfidence(declaringClass);
                     if (confidence == TypeConfidence.LOOSELY_INFERRED) {
                         confidence = checkParameters(params, scope.getMethodCallArgumentTypes());
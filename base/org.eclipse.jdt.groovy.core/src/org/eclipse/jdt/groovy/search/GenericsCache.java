@@ -0,0 +1,134 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.search;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.GenericsType;
+
+/**
+ * Memoizes generics resolution for one run of the {@link TypeInferencingVisitorWithRequestor}. Parameterized receiver
+ * types are reduced to an interned signature (eg- <code>java.util.List&lt;E=java.lang.String&gt;</code>), so that all
+ * structurally equal parameterizations of a file share one {@link GenericsMapper} per declaring type and one resolved
+ * type per member.
+ * <p>
+ * The resolved types are kept as private snapshots and every lookup gets its own clone of one, since callers such as
+ * <code>GroovyUtils.updateClosureWithInferredTypes</code> modify the types they are given.
+ */
+public class GenericsCache {
+
+    /** parameterizations deeper than this are not told apart; same limit as {@link VariableScope#clone(ClassNode)} */
+    private static final int MAX_DEPTH = 10;
+
+    private final Map<String, String> signatures = new HashMap<String, String>();
+
+    /** (receiver signature, declaring type name) to mapper */
+    private final Map<String, GenericsMapper> mappers = new HashMap<String, GenericsMapper>();
+
+    /** declaration to (receiver signature to resolved type) */
+    private final Map<ASTNode, Map<String, ClassNode>> memberTypes = new IdentityHashMap<ASTNode, Map<String, ClassNode>>();
+
+    private int hits, misses;
+
+    /**
+     * @param declaration field, method, property or expression that declares a member of the receiver's hierarchy
+     * @param resolvedType unredirected receiver type that has its generics parameterized
+     * @return the type of the declaration with the receiver's type parameters substituted
+     */
+    ClassNode getMemberType(ASTNode declaration, ClassNode resolvedType) {
+        String receiver = signature(resolvedType);
+        Map<String, ClassNode> types = memberTypes.get(declaration);
+        if (types == null) {
+            types = new HashMap<String, ClassNode>(4);
+            memberTypes.put(declaration, types);
+        }
+        ClassNode type = types.get(receiver);
+        if (type == null) {
+            misses += 1;
+            type = SimpleTypeLookup.resolveTypeOfDeclaration(declaration, resolvedType, this, receiver);
+            types.put(receiver, type);
+        } else {
+            hits += 1;
+        }
+        return VariableScope.clone(type);
+    }
+
+    GenericsMapper getMapper(ClassNode resolvedType, String receiver, ClassNode declaringType) {
+        String key = receiver + "->" + declaringType.getName();
+        GenericsMapper mapper = mappers.get(key);
+        if (mapper == null) {
+            mapper = GenericsMapper.gatherGenerics(resolvedType, declaringType);
+            mappers.put(key, mapper);
+        }
+        return mapper;
+    }
+
+    /**
+     * @return number of member type lookups answered from this cache
+     */
+    public int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of member type lookups that had to be resolved
+     */
+    public int getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the interned signature of the given type's parameterization
+     */
+    String signature(ClassNode type) {
+        StringBuilder sb = new StringBuilder();
+        appendSignature(type, sb, 0);
+        String signature = sb.toString();
+        String interned = signatures.get(signature);
+        if (interned == null) {
+            signatures.put(signature, signature);
+            interned = signature;
+        }
+        return interned;
+    }
+
+    // only the names and types of the generics take part in resolution (see GenericsMapper.resolveParameter)
+    private static void appendSignature(ClassNode type, StringBuilder sb, int depth) {
+        if (type == null) {
+            return;
+        }
+        sb.append(type.getName());
+        GenericsType[] gts = type.getGenericsTypes();
+        if (gts != null && depth < MAX_DEPTH) {
+            sb.append('<');
+            for (int i = 0; i < gts.length; i += 1) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                if (gts[i].isWildcard()) {
+                    sb.append('?');
+                }
+                sb.append(gts[i].getName()).append('=');
+                appendSignature(gts[i].getType(), sb, depth + 1);
+            }
+            sb.append('>');
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.search;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.expr.Expression;
+
+/**
+ * An extension to the {@link ITypeLookup} interface for lookups that only answer for some kinds of expressions or some receiver
+ * types. The inferencing visitor does not call such a lookup for expressions it does not apply to. We use an extension interface
+ * because we do not want to break backwards compatibility with existing third party implementors of {@link ITypeLookup}.
+ */
+public interface ITypeLookupApplicability extends ITypeLookup {
+    /**
+     * Called after {@link #initialize} and remembered for the rest of the inferencing visit.
+     *
+     * @return the {@link Expression} classes that this lookup can answer for (subclasses included), or null if it can answer for
+     *         any kind of expression
+     */
+    Class<?>[] getApplicableExpressionKinds();
+
+    /**
+     * Called before each expression lookup that passed the {@link #getApplicableExpressionKinds() kind} check.
+     *
+     * @param objectExpressionType the type of the object expression of the enclosing property or method call, or null if the
+     *        expression is not qualified
+     * @param isStaticObjectExpression true iff the objectExpressionType is not null and it is referring to the static instance of
+     *        the class declaration
+     * @return false if this lookup cannot answer for expressions on this receiver
+     */
+    boolean appliesToReceiver(ClassNode objectExpressionType, boolean isStaticObjectExpression);
+}
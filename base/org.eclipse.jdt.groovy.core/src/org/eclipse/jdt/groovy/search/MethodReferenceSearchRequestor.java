@@ -332,7 +332,7 @@ public class MethodReferenceSearchRequestor implements ITypeRequestor {
      * complaints in the refactoring wizard of "possible matches"
      */
     private boolean shouldAlwaysBeAccurate() {
-        return requestor.getClass().getPackage().getName().indexOf("refactoring") != -1;
+        return BufferingSearchRequestor.unwrap(requestor).getClass().getPackage().getName().indexOf("refactoring") != -1;
     }
 
     private ClassNode removeArray(ClassNode declaration) {
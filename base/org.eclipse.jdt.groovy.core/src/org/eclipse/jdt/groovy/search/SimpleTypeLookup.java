@@ -344,7 +344,7 @@ public class SimpleTypeLookup implements ITypeLookupExtension {
         }
 
         if (declaration != null) {
-            type = typeFromDeclaration(declaration, declaringType);
+            type = typeFromDeclaration(declaration, declaringType, scope);
             realDeclaringType = declaringTypeFromDeclaration(declaration, declaringType);
         } else if ("this".equals(name)) {
             // Fix for 'this' as property of ClassName
@@ -445,7 +445,7 @@ public class SimpleTypeLookup implements ITypeLookupExtension {
             declaringType = getMorePreciseType(declaringType, variableInfo);
             newConfidence = TypeConfidence.findLessPrecise(confidence, INFERRED);
         } else if (accessedVar instanceof DynamicVariable) {
-            type = typeFromDeclaration(decl, declaringType);
+            type = typeFromDeclaration(decl, declaringType, scope);
         }
 
         return new TypeLookupResult(type, declaringType, decl, newConfidence, scope);
@@ -486,6 +486,25 @@ public class SimpleTypeLookup implements ITypeLookupExtension {
      * @return class node with generics replaced by actual types
      */
     static ClassNode typeFromDeclaration(ASTNode declaration, ClassNode resolvedType) {
+        return resolveTypeOfDeclaration(declaration, resolvedType, null, null);
+    }
+
+    /**
+     * Like {@link #typeFromDeclaration(ASTNode, ClassNode)}, but answers repeated lookups of the same declaration on the
+     * same parameterization from the {@link GenericsCache} of the given scope.
+     */
+    static ClassNode typeFromDeclaration(ASTNode declaration, ClassNode resolvedType, VariableScope scope) {
+        if (scope == null) {
+            return typeFromDeclaration(declaration, resolvedType);
+        }
+        return scope.getGenericsCache().getMemberType(declaration, resolvedType);
+    }
+
+    /**
+     * @param cache cache to take the generics mapper from, or null
+     * @param receiver signature of resolvedType in the cache
+     */
+    static ClassNode resolveTypeOfDeclaration(ASTNode declaration, ClassNode resolvedType, GenericsCache cache, String receiver) {
         ClassNode typeOfDeclaration, declaringType = declaringTypeFromDeclaration(declaration, resolvedType);
         if (declaration instanceof PropertyNode) {
             FieldNode field = ((PropertyNode) declaration).getField();
@@ -513,7 +532,12 @@ public class SimpleTypeLookup implements ITypeLookupExtension {
         // now try to resolve generics
         // travel up the hierarchy and look for more generics
         // also look for generics on methods...(not doing this yet...)
-        GenericsMapper mapper = GenericsMapper.gatherGenerics(resolvedType, declaringType.redirect());
+        if (cache != null && typeOfDeclaration.getGenericsTypes() == null) {
+            // nothing to substitute
+            return VariableScope.clone(typeOfDeclaration);
+        }
+        GenericsMapper mapper = (cache != null ? cache.getMapper(resolvedType, receiver, declaringType.redirect())
+                : GenericsMapper.gatherGenerics(resolvedType, declaringType.redirect()));
         ClassNode resolvedTypeOfDeclaration = VariableScope.resolveTypeParameterization(mapper,
                 VariableScope.clone(typeOfDeclaration));
         return resolvedTypeOfDeclaration;
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.Variable;
+import org.codehaus.groovy.ast.expr.ConstantExpression;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.expr.MethodCallExpression;
+import org.codehaus.groovy.ast.expr.PropertyExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.groovy.transform.stc.ExtensionMethodNode;
+import org.codehaus.groovy.transform.stc.StaticTypeCheckingVisitor;
+import org.codehaus.groovy.transform.stc.StaticTypesMarker;
+import org.eclipse.jdt.groovy.search.TypeLookupResult.TypeConfidence;
+import org.eclipse.jdt.groovy.search.VariableScope.VariableInfo;
+
+/**
+ * Runs the Groovy static type checker over the members of a module that are
+ * annotated with <code>@CompileStatic</code> or <code>@TypeChecked</code>, so
+ * that the {@link TypeInferencingVisitorWithRequestor} can take the types of
+ * local variables and the targets of method calls from the checker instead of
+ * asking every {@link ITypeLookup}.  Reconciling only goes as far as resolving
+ * the module, and the checker runs in a later phase, so it is run here once per
+ * module node.  Its results stay on the nodes for as long as the module node is
+ * cached.
+ * <p>
+ * Type checking errors are not reported; the builder reports them.
+ */
+public class StaticTypeCheckerResults {
+
+    public static final boolean ENABLED = Boolean.valueOf(System.getProperty("greclipse.stcReconcile", "true"));
+
+    private static final String COMPILE_STATIC = "groovy.transform.CompileStatic";
+
+    private static final String TYPE_CHECKED = "groovy.transform.TypeChecked";
+
+    /** module metadata, whether any member of the module has been type checked */
+    private static final Object CHECKED_KEY = StaticTypeCheckerResults.class;
+
+    private StaticTypeCheckerResults() {
+    }
+
+    /**
+     * Type checks the annotated members of the module, unless that was done before.
+     *
+     * @return the results of the type checker, or null if no member of the module is statically type checked
+     */
+    public static StaticTypeCheckerResults forModule(ModuleNode module) {
+        if (!ENABLED || module == null || module.getContext() == null) {
+            return null;
+        }
+        Boolean checked;
+        // modules are shared between the visitors of one unit, which may run concurrently
+        synchronized (module) {
+            checked = (Boolean) module.getNodeMetaData(CHECKED_KEY);
+            if (checked == null) {
+                checked = Boolean.valueOf(typeCheck(module));
+                module.setNodeMetaData(CHECKED_KEY, checked);
+            }
+        }
+        return checked.booleanValue() ? new StaticTypeCheckerResults() : null;
+    }
+
+    private static boolean typeCheck(ModuleNode module) {
+        long start = System.currentTimeMillis();
+        int count = 0;
+        for (ClassNode classNode : module.getClasses()) {
+            AnnotationNode annotation = findTypeCheckingAnnotation(classNode);
+            if (annotation != null && !isSkipped(annotation)) {
+                if (typeCheck(module.getContext(), classNode, null)) {
+                    count += 1;
+                }
+                continue;
+            }
+            // annotated methods override a skipped class
+            List<MethodNode> methods = new ArrayList<MethodNode>(classNode.getMethods());
+            methods.addAll(classNode.getDeclaredConstructors());
+            for (MethodNode method : methods) {
+                annotation = findTypeCheckingAnnotation(method);
+                if (annotation != null && !isSkipped(annotation) && typeCheck(module.getContext(), classNode, method)) {
+                    count += 1;
+                }
+            }
+        }
+        if (count > 0 && GroovyLogManager.manager.hasLoggers()) {
+            GroovyLogManager.manager.log(TraceCategory.DEFAULT, "Type checked " + count + " members of " +
+                    module.getContext().getName() + " in " + (System.currentTimeMillis() - start) + "ms");
+        }
+        return count > 0;
+    }
+
+    /**
+     * @param method the method to check, or null to check the whole class
+     */
+    private static boolean typeCheck(SourceUnit source, ClassNode classNode, MethodNode method) {
+        try {
+            StaticTypeCheckingVisitor visitor = new StaticTypeCheckingVisitor(source, classNode);
+            if (method == null) {
+                visitor.visitClass(classNode);
+            } else {
+                visitor.setMethodsToBeVisited(Collections.singleton(method));
+                visitor.visitMethod(method);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            logFailure(classNode, e);
+        } catch (LinkageError e) {
+            logFailure(classNode, e);
+        } catch (AssertionError e) {
+            // GroovyBugError
+            logFailure(classNode, e);
+        }
+        return false;
+    }
+
+    private static void logFailure(ClassNode classNode, Throwable t) {
+        if (GroovyLogManager.manager.hasLoggers()) {
+            GroovyLogManager.manager.log(TraceCategory.DEFAULT, "Could not type check " + classNode.getName() + ": " + t);
+        }
+    }
+
+    private static AnnotationNode findTypeCheckingAnnotation(AnnotatedNode node) {
+        for (AnnotationNode annotation : node.getAnnotations()) {
+            String name = annotation.getClassNode().getName();
+            if (COMPILE_STATIC.equals(name) || TYPE_CHECKED.equals(name)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    /** <code>@TypeChecked(TypeCheckingMode.SKIP)</code> */
+    private static boolean isSkipped(AnnotationNode annotation) {
+        Expression mode = annotation.getMember("value");
+        if (mode instanceof PropertyExpression) {
+            return "SKIP".equals(((PropertyExpression) mode).getPropertyAsString());
+        }
+        return mode != null && mode.getText().endsWith("SKIP");
+    }
+
+    /**
+     * @param node expression being visited
+     * @param enclosingExpression the complete expression that the node belongs to, if any
+     * @return the type the checker inferred for a local variable or the target of a method call, or null if the
+     *         lookups have to be asked
+     */
+    TypeLookupResult lookupType(Expression node, ASTNode enclosingExpression, VariableScope scope) {
+        if (node instanceof VariableExpression) {
+            Variable accessed = ((VariableExpression) node).getAccessedVariable();
+            // fields, properties and dynamic variables need the declaration lookups do
+            if (accessed instanceof Parameter || accessed instanceof VariableExpression) {
+                Object type = node.getNodeMetaData(StaticTypesMarker.INFERRED_TYPE);
+                if (type instanceof ClassNode) {
+                    VariableInfo info = scope.lookupName(accessed.getName());
+                    ClassNode declaringType = info != null ? info.declaringType : VariableScope.OBJECT_CLASS_NODE;
+                    return new TypeLookupResult((ClassNode) type, declaringType, (ASTNode) accessed, TypeConfidence.INFERRED, scope);
+                }
+            }
+        } else if (node instanceof ConstantExpression && enclosingExpression instanceof MethodCallExpression &&
+                ((MethodCallExpression) enclosingExpression).getMethod() == node) {
+            MethodCallExpression call = (MethodCallExpression) enclosingExpression;
+            Object target = call.getNodeMetaData(StaticTypesMarker.DIRECT_METHOD_CALL_TARGET);
+            // extension methods are reported as their category methods by the lookups
+            if (target instanceof MethodNode && !(target instanceof ExtensionMethodNode)) {
+                MethodNode method = (MethodNode) target;
+                Object type = call.getNodeMetaData(StaticTypesMarker.INFERRED_TYPE);
+                return new TypeLookupResult(type instanceof ClassNode ? (ClassNode) type : method.getReturnType(),
+                        method.getDeclaringClass(), method, TypeConfidence.EXACT, scope);
+            }
+        }
+        return null;
+    }
+}
@@ -261,6 +261,21 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
     // Later on, should do some ordering of results
     private final ITypeLookup[] lookups;
 
+    /**
+     * For each kind of expression, whether each of the {@link #lookups} applies to it.
+     */
+    private final Map<Class<?>, boolean[]> applicableLookups = new HashMap<Class<?>, boolean[]>();
+
+    /**
+     * Expression lookup counts of each of the {@link #lookups} during this visit, or null if {@link TypeLookupStatistics} are not
+     * being collected.
+     */
+    private LookupCounts[] lookupCounts;
+
+    private static class LookupCounts {
+        long calls, skips, answers, nanos;
+    }
+
     private ITypeRequestor requestor;
     private IJavaElement enclosingElement;
     private ASTNode enclosingDeclarationNode;
@@ -297,6 +312,9 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
 
     private final JDTResolver resolver;
 
+    /** types inferred by the static type checker for <code>@CompileStatic</code> and <code>@TypeChecked</code> members */
+    private StaticTypeCheckerResults staticTypes;
+
     private final AssignmentStorer assignmentStorer = new AssignmentStorer();
 
     private ClassNode inferredStaticMethodType;
@@ -317,6 +335,8 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
         ModuleNodeInfo info = createModuleNode(unit);
         this.enclosingDeclarationNode = info != null ? info.module : null;
         this.resolver = info != null ? info.resolver : null;
+        // modules that only have their structure are not resolved, so they cannot be type checked
+        this.staticTypes = info != null && !info.structureOnly ? StaticTypeCheckerResults.forModule(info.module) : null;
         this.lookups = lookups;
         scopes = new Stack<VariableScope>();
         completeExpressionStack = new Stack<ASTNode>();
@@ -342,6 +362,13 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
             }
             lookup.initialize(unit, topLevelScope);
         }
+        applicableLookups.clear();
+        if (TypeLookupStatistics.getDefault().isEnabled()) {
+            lookupCounts = new LookupCounts[lookups.length];
+            for (int i = 0; i < lookups.length; i += 1) {
+                lookupCounts[i] = new LookupCounts();
+            }
+        }
 
         try {
             visitPackage(((ModuleNode) enclosingDeclarationNode).getPackage());
@@ -366,6 +393,13 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
                 e.printStackTrace();
             }
         }
+        if (lookupCounts != null) {
+            for (int i = 0; i < lookups.length; i += 1) {
+                LookupCounts counts = lookupCounts[i];
+                TypeLookupStatistics.getDefault().add(lookups[i], counts.calls, counts.skips, counts.answers, counts.nanos);
+            }
+            lookupCounts = null;
+        }
         if (DEBUG) {
             postVisitSanityCheck();
         }
@@ -2037,18 +2071,43 @@ assert primaryExprType != null && dependentExprType != null;
     }
 
     private TypeLookupResult lookupExpressionType(Expression node, ClassNode objectExprType, boolean isStatic, VariableScope scope) {
+        if (staticTypes != null) {
+            TypeLookupResult result = staticTypes.lookupType(node, completeExpressionStack.isEmpty() ? null : completeExpressionStack.peek(), scope);
+            if (result != null) {
+                return result;
+            }
+        }
+        boolean[] applicable = getApplicableLookups(node.getClass());
         TypeLookupResult result = null;
-        for (ITypeLookup lookup : lookups) {
+        for (int i = 0; i < lookups.length; i += 1) {
+            ITypeLookup lookup = lookups[i];
+            if (!applicable[i] || (lookup instanceof ITypeLookupApplicability &&
+                    !((ITypeLookupApplicability) lookup).appliesToReceiver(objectExprType, isStatic))) {
+                if (lookupCounts != null) {
+                    lookupCounts[i].skips += 1;
+                }
+                continue;
+            }
+            long start = (lookupCounts != null ? System.nanoTime() : 0);
             TypeLookupResult candidate;
             if (lookup instanceof ITypeLookupExtension) {
                 candidate = ((ITypeLookupExtension) lookup).lookupType(node, scope, objectExprType, isStatic);
             } else {
                 candidate = lookup.lookupType(node, scope, objectExprType);
             }
+            if (lookupCounts != null) {
+                LookupCounts counts = lookupCounts[i];
+                counts.nanos += System.nanoTime() - start;
+                counts.calls += 1;
+                if (candidate != null) {
+                    counts.answers += 1;
+                }
+            }
             if (candidate != null) {
                 if (result == null || result.confidence.isLessPreciseThan(candidate.confidence)) {
                     result = candidate;
                 }
+                // anything better than loosely inferred (certainly EXACT) cannot be improved on by later lookups
                 if (TypeConfidence.LOOSELY_INFERRED.isLessPreciseThan(result.confidence)) {
                     break;
                 }
@@ -2065,6 +2124,33 @@ assert primaryExprType != null && dependentExprType != null;
         return result;
     }
 
+    /**
+     * @return for each of the {@link #lookups}, whether it may answer for expressions of the given class
+     */
+    private boolean[] getApplicableLookups(Class<?> expressionClass) {
+        boolean[] applicable = applicableLookups.get(expressionClass);
+        if (applicable == null) {
+            applicable = new boolean[lookups.length];
+            for (int i = 0; i < lookups.length; i += 1) {
+                applicable[i] = true;
+                if (lookups[i] instanceof ITypeLookupApplicability) {
+                    Class<?>[] kinds = ((ITypeLookupApplicability) lookups[i]).getApplicableExpressionKinds();
+                    if (kinds != null) {
+                        applicable[i] = false;
+                        for (Class<?> kind : kinds) {
+                            if (kind.isAssignableFrom(expressionClass)) {
+                                applicable[i] = true;
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+            applicableLookups.put(expressionClass, applicable);
+        }
+        return applicable;
+    }
+
     /**
      * Finds argument types of the current method call. Returns null if not a method call.
      */
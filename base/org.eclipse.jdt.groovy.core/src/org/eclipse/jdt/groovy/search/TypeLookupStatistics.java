@@ -0,0 +1,158 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts how often each kind of {@link ITypeLookup} is asked for the type of an expression and how much time it takes to answer,
+ * so that slow lookups (usually from third party extensions) can be found. The counts of an inferencing visit are added when the
+ * visit is done.
+ * <p>
+ * Statistics are only collected while enabled; they are enabled by the Groovy event console or by
+ * <code>-Dgreclipse.typeLookupStatistics=true</code>.
+ */
+@SuppressWarnings("nls")
+public class TypeLookupStatistics {
+
+    private static final TypeLookupStatistics DEFAULT = new TypeLookupStatistics();
+
+    public static TypeLookupStatistics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * The counts of one kind of lookup.
+     */
+    public static class Entry {
+        /** class name of the lookup */
+        public final String name;
+        private long calls;
+        private long skips;
+        private long answers;
+        private long nanos;
+
+        Entry(String name) {
+            this.name = name;
+        }
+
+        Entry(Entry that) {
+            this(that.name);
+            this.calls = that.calls;
+            this.skips = that.skips;
+            this.answers = that.answers;
+            this.nanos = that.nanos;
+        }
+
+        /**
+         * @return the number of expressions the lookup was asked about
+         */
+        public long getCalls() {
+            return calls;
+        }
+
+        /**
+         * @return the number of expressions the lookup was not asked about because it does not apply to them
+         */
+        public long getSkips() {
+            return skips;
+        }
+
+        /**
+         * @return the number of calls that returned a type
+         */
+        public long getAnswers() {
+            return answers;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getMillis() {
+            return nanos / 1000000;
+        }
+    }
+
+    private static final Comparator<Entry> SLOWEST_FIRST = new Comparator<Entry>() {
+        public int compare(Entry e1, Entry e2) {
+            return e1.nanos < e2.nanos ? 1 : e1.nanos > e2.nanos ? -1 : 0;
+        }
+    };
+
+    private volatile boolean enabled = Boolean.valueOf(System.getProperty("greclipse.typeLookupStatistics", "false"));
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public synchronized void add(ITypeLookup lookup, long calls, long skips, long answers, long nanos) {
+        String name = lookup.getClass().getName();
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            entry = new Entry(name);
+            entries.put(name, entry);
+        }
+        entry.calls += calls;
+        entry.skips += skips;
+        entry.answers += answers;
+        entry.nanos += nanos;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return copies of the counts of each kind of lookup, slowest first
+     */
+    public synchronized List<Entry> getEntries() {
+        List<Entry> copy = new ArrayList<Entry>(entries.size());
+        for (Entry e : entries.values()) {
+            copy.add(new Entry(e));
+        }
+        Collections.sort(copy, SLOWEST_FIRST);
+        return copy;
+    }
+
+    /**
+     * @return a report with one line per kind of lookup
+     */
+    @Override
+    public String toString() {
+        List<Entry> entries = getEntries();
+        if (entries.isEmpty()) {
+            return enabled ? "No type lookups yet\n" : "Type lookup statistics are not being collected\n";
+        }
+        StringBuilder sb = new StringBuilder("Type lookups:\n");
+        sb.append(String.format("%10s %10s %10s %10s  %s\n", "time", "calls", "skipped", "answered", "lookup"));
+        for (Entry e : entries) {
+            sb.append(String.format("%8dms %10d %10d %10d  %s\n", e.getMillis(), e.calls, e.skips, e.answers, e.name));
+        }
+        return sb.toString();
+    }
+}
@@ -369,7 +369,7 @@ public class TypeReferenceSearchRequestor implements ITypeRequestor {
      * complaints in the refactoring wizard of "possible matches"
      */
     private boolean shouldAlwaysBeAccurate() {
-        return requestor.getClass().getPackage().getName().indexOf("refactoring") != -1;
+        return BufferingSearchRequestor.unwrap(requestor).getClass().getPackage().getName().indexOf("refactoring") != -1;
     }
 
     private int getAccuracy(TypeConfidence confidence) {
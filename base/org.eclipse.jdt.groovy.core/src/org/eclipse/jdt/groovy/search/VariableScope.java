@@ -103,14 +103,14 @@ public class VariableScope {
     public static final ClassNode CLOSURE_CLASS = ClassHelper.CLOSURE_TYPE;
     public static final ClassNode GROOVY_OBJECT_SUPPORT = ClassHelper.make(GroovyObjectSupport.class);
 
-    // standard category classes
-    public static final ClassNode DGM_CLASS_NODE = ClassHelper.make(DefaultGroovyMethods.class);
-    public static final ClassNode EGM_CLASS_NODE = ClassHelper.make(EncodingGroovyMethods.class);
-    public static final ClassNode PGM_CLASS_NODE = ClassHelper.make(ProcessGroovyMethods.class);
-    public static final ClassNode SGM_CLASS_NODE = ClassHelper.make(SwingGroovyMethods.class);
-    public static final ClassNode XGM_CLASS_NODE = ClassHelper.make(XmlGroovyMethods.class);
-    public static final ClassNode DGSM_CLASS_NODE = ClassHelper.make(DefaultGroovyStaticMethods.class);
-    public static final ClassNode DATE_GM_CLASS_NODE = ClassHelper.make(DateGroovyMethods.class);
+    // standard category classes; their members come from the snapshot of the Groovy bundle
+    public static final ClassNode DGM_CLASS_NODE = CategorySignatures.make(DefaultGroovyMethods.class);
+    public static final ClassNode EGM_CLASS_NODE = CategorySignatures.make(EncodingGroovyMethods.class);
+    public static final ClassNode PGM_CLASS_NODE = CategorySignatures.make(ProcessGroovyMethods.class);
+    public static final ClassNode SGM_CLASS_NODE = CategorySignatures.make(SwingGroovyMethods.class);
+    public static final ClassNode XGM_CLASS_NODE = CategorySignatures.make(XmlGroovyMethods.class);
+    public static final ClassNode DGSM_CLASS_NODE = CategorySignatures.make(DefaultGroovyStaticMethods.class);
+    public static final ClassNode DATE_GM_CLASS_NODE = CategorySignatures.make(DateGroovyMethods.class);
 
     // only exists on Groovy 2.0
     public static ClassNode RESOURCE_GROOVY_METHODS;
@@ -118,9 +118,9 @@ public class VariableScope {
     public static ClassNode IO_GROOVY_METHODS;
     static {
         try {
-            RESOURCE_GROOVY_METHODS = ClassHelper.make(Class.forName("org.codehaus.groovy.runtime.ResourceGroovyMethods"));
-            STRING_GROOVY_METHODS = ClassHelper.make(Class.forName("org.codehaus.groovy.runtime.StringGroovyMethods"));
-            IO_GROOVY_METHODS = ClassHelper.make(Class.forName("org.codehaus.groovy.runtime.IOGroovyMethods"));
+            RESOURCE_GROOVY_METHODS = CategorySignatures.make(Class.forName("org.codehaus.groovy.runtime.ResourceGroovyMethods"));
+            STRING_GROOVY_METHODS = CategorySignatures.make(Class.forName("org.codehaus.groovy.runtime.StringGroovyMethods"));
+            IO_GROOVY_METHODS = CategorySignatures.make(Class.forName("org.codehaus.groovy.runtime.IOGroovyMethods"));
         } catch (ClassNotFoundException e) {
             RESOURCE_GROOVY_METHODS = null;
             STRING_GROOVY_METHODS = null;
@@ -276,6 +276,10 @@ public class VariableScope {
          * true iff current scope is implicit run method of script
          */
         boolean isRunMethod;
+        /**
+         * resolved generic member types of the current inferencing run
+         */
+        final GenericsCache genericsCache = new GenericsCache();
     }
 
     /**
@@ -335,6 +339,13 @@ public class VariableScope {
         return shared.wormhole;
     }
 
+    /**
+     * @return the generics resolutions shared by all scopes of the current inferencing run
+     */
+    public GenericsCache getGenericsCache() {
+        return shared.genericsCache;
+    }
+
     public ASTNode getEnclosingNode() {
         if (shared.nodeStack.size() > 1) {
             ASTNode current = shared.nodeStack.pop();
@@ -46,6 +46,8 @@ public class GroovyJDTTests {
         // Builder tests
         suite.addTest(BasicGroovyBuildTests.suite());
         suite.addTest(FullProjectTests.suite());
+        suite.addTestSuite(GrabResolutionCacheTests.class);
+        suite.addTest(ParallelBuildTests.suite());
 
         // Compiler tests
         suite.addTest(AnnotationsTests.suite());
@@ -17,8 +17,14 @@ public class MockProposalProvider1 implements IProposalProvider {
         return providerCalled;
     }
 
+    /**
+     * Milliseconds that statement and expression proposals take to compute
+     */
+    public static long delay;
+
     public static void reset() {
         providerCalled = false;
+        delay = 0;
     }
 
 
@@ -26,6 +32,13 @@ public class MockProposalProvider1 implements IProposalProvider {
             ContentAssistContext context, ClassNode completionType,
             boolean isStatic, Set<ClassNode> categories) {
         providerCalled = true;
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
         return null;
     }
 
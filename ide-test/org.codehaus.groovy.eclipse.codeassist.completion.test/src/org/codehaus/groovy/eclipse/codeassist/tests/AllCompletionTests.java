@@ -27,6 +27,7 @@ public class AllCompletionTests {
     public static Test suite() throws Exception {
         TestSuite suite = new TestSuite(AllCompletionTests.class.getName());
         suite.addTestSuite(CommandChainCompletionTests.class);
+        suite.addTestSuite(CompletionSessionTests.class);
         suite.addTestSuite(ConstructorCompletionTests.class);
         suite.addTestSuite(ContentAssistLocationTests.class);
         suite.addTestSuite(ContextInformationTests.class);
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.codeassist.tests;
+
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.codeassist.requestor.GroovyCompletionProposalComputer;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
+import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.javaeditor.JavaSourceViewer;
+import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+
+/**
+ * Tests that proposals for a growing prefix are filtered from the proposals
+ * computed earlier in the same content assist session.
+ */
+public class CompletionSessionTests extends CompletionTestCase {
+
+    private static final String CONTENTS = "def x = 'abc'\nx.to";
+
+    private GroovyCompletionProposalComputer computer;
+    private JavaEditor editor;
+    private IDocument document;
+
+    public CompletionSessionTests(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ICompilationUnit unit = create(CONTENTS);
+        fullBuild();
+        editor = (JavaEditor) EditorUtility.openInEditor(unit);
+        document = editor.getViewer().getDocument();
+        computer = new GroovyCompletionProposalComputer();
+        computer.sessionStarted();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        computer.sessionEnded();
+        super.tearDown();
+    }
+
+    public void testLongerPrefixIsFiltered() throws Exception {
+        int offset = CONTENTS.length();
+        List<ICompletionProposal> first = complete(offset);
+        proposalExists(toArray(first), "toUpperCase", 2);
+        proposalExists(toArray(first), "toLowerCase", 2);
+
+        document.replace(offset, 0, "Up");
+        List<ICompletionProposal> second = complete(offset + 2);
+        proposalExists(toArray(second), "toUpperCase", 2);
+        proposalExists(toArray(second), "toLowerCase", 0);
+        assertTrue("Proposals should have been reused", first.containsAll(second));
+
+        // shorter prefix again
+        document.replace(offset + 1, 1, "");
+        second = complete(offset + 1);
+        proposalExists(toArray(second), "toUpperCase", 2);
+        assertTrue("Proposals should have been reused", first.containsAll(second));
+    }
+
+    public void testEditOutsideIdentifierInvalidates() throws Exception {
+        int offset = CONTENTS.length();
+        List<ICompletionProposal> first = complete(offset);
+
+        document.replace(0, 0, "\n");
+        List<ICompletionProposal> second = complete(offset + 1);
+        proposalExists(toArray(second), "toUpperCase", 2);
+        for (ICompletionProposal proposal : second) {
+            assertFalse("Proposals should have been recomputed", first.contains(proposal));
+        }
+    }
+
+    public void testDeletingPrefixInvalidates() throws Exception {
+        int offset = CONTENTS.length();
+        List<ICompletionProposal> first = complete(offset);
+
+        // "x.t" is a shorter prefix than the one the proposals were computed for
+        document.replace(offset - 1, 1, "");
+        List<ICompletionProposal> second = complete(offset - 1);
+        proposalExists(toArray(second), "toUpperCase", 2);
+        for (ICompletionProposal proposal : second) {
+            assertFalse("Proposals should have been recomputed", first.contains(proposal));
+        }
+    }
+
+    public void testSessionEndInvalidates() throws Exception {
+        int offset = CONTENTS.length();
+        List<ICompletionProposal> first = complete(offset);
+
+        computer.sessionEnded();
+        computer.sessionStarted();
+        List<ICompletionProposal> second = complete(offset);
+        assertEquals(first.size(), second.size());
+        for (ICompletionProposal proposal : second) {
+            assertFalse("Proposals should have been recomputed", first.contains(proposal));
+        }
+    }
+
+    private List<ICompletionProposal> complete(int offset) {
+        JavaSourceViewer viewer = (JavaSourceViewer) editor.getViewer();
+        return computer.computeCompletionProposals(new JavaContentAssistInvocationContext(viewer, offset, editor), null);
+    }
+
+    private static ICompletionProposal[] toArray(List<ICompletionProposal> proposals) {
+        return proposals.toArray(new ICompletionProposal[proposals.size()]);
+    }
+}
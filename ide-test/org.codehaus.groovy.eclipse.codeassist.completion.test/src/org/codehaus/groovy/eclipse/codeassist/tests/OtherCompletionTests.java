@@ -17,14 +17,20 @@ package org.codehaus.groovy.eclipse.codeassist.tests;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 
 import junit.framework.ComparisonFailure;
 
 import org.codehaus.groovy.eclipse.GroovyPlugin;
 import org.codehaus.groovy.eclipse.codeassist.requestor.GroovyCompletionProposalComputer;
 import org.codehaus.groovy.eclipse.core.preferences.PreferenceConstants;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.tests.util.GroovyUtils;
+import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
+import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.javaeditor.JavaSourceViewer;
+import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 import org.eclipse.jface.text.contentassist.ICompletionProposal;
 
 /**
@@ -367,6 +373,33 @@ public class OtherCompletionTests extends CompletionTestCase {
         assertProposalOrdering(proposals, "binding");
     }
 
+    public void testCanceledContentAssist() throws Exception {
+        String script = "def x = 'abc'\nx.to";
+        ICompilationUnit groovyUnit = create(script);
+        fullBuild();
+        JavaEditor editor = (JavaEditor) EditorUtility.openInEditor(groovyUnit);
+        JavaContentAssistInvocationContext context = new JavaContentAssistInvocationContext(
+                (JavaSourceViewer) editor.getViewer(), script.length(), editor);
+        NullProgressMonitor monitor = new NullProgressMonitor();
+        monitor.setCanceled(true);
+        List<ICompletionProposal> proposals = new GroovyCompletionProposalComputer().computeCompletionProposals(context, monitor);
+        assertEquals("Canceled content assist should not wait for proposals", 0, proposals.size());
+    }
+
+    public void testNoLatencyBudget() throws Exception {
+        int budget = GroovyPlugin.getDefault().getPreferenceStore().getInt(PreferenceConstants.GROOVY_CONTENT_ASSIST_TIMEOUT);
+        GroovyPlugin.getDefault().getPreferenceStore().setValue(PreferenceConstants.GROOVY_CONTENT_ASSIST_TIMEOUT, 0);
+        try {
+            String script = "def x = 'abc'\nx.to";
+            ICompilationUnit groovyUnit = create(script);
+            fullBuild();
+            ICompletionProposal[] proposals = performContentAssist(groovyUnit, script.length(), GroovyCompletionProposalComputer.class);
+            proposalExists(proposals, "toUpperCase", 2);
+        } finally {
+            GroovyPlugin.getDefault().getPreferenceStore().setValue(PreferenceConstants.GROOVY_CONTENT_ASSIST_TIMEOUT, budget);
+        }
+    }
+
     // not working in multiline strings yet
 //    public void testGString2() throws Exception {
 //        String groovyClass =
@@ -15,11 +15,13 @@
  */
 package org.codehaus.groovy.eclipse.codeassist.tests;
 
+import org.codehaus.groovy.eclipse.GroovyPlugin;
 import org.codehaus.groovy.eclipse.codeassist.completion.mock.MockProposalFilter1;
 import org.codehaus.groovy.eclipse.codeassist.completion.mock.MockProposalFilter2;
 import org.codehaus.groovy.eclipse.codeassist.completion.mock.MockProposalProvider1;
 import org.codehaus.groovy.eclipse.codeassist.completion.mock.MockProposalProvider2;
 import org.codehaus.groovy.eclipse.codeassist.requestor.GroovyCompletionProposalComputer;
+import org.codehaus.groovy.eclipse.core.preferences.PreferenceConstants;
 import org.codehaus.groovy.eclipse.test.ui.Extender1;
 import org.codehaus.groovy.eclipse.test.ui.Extender2;
 import org.eclipse.jdt.core.ICompilationUnit;
@@ -78,4 +80,24 @@ public class ProposalProviderAndFilterTests extends CompletionTestCase {
         assertTrue("MockProposalProvider2 should have been called", MockProposalProvider2.wasProviderCalled());
         assertTrue("MockProposalFilter2 should have been called", MockProposalFilter2.wasFilterCalled());
     }
+
+    public void testSlowProviderIsCutOff() throws Exception {
+        env.addNature("Project", Extender1.NATURE1);
+        int budget = GroovyPlugin.getDefault().getPreferenceStore().getInt(PreferenceConstants.GROOVY_CONTENT_ASSIST_TIMEOUT);
+        GroovyPlugin.getDefault().getPreferenceStore().setValue(PreferenceConstants.GROOVY_CONTENT_ASSIST_TIMEOUT, 100);
+        MockProposalProvider1.delay = 1000;
+        MockProposalProvider2.delay = 1000;
+        try {
+            String contents = "println th";
+            ICompilationUnit unit = create(contents);
+            fullBuild();
+            performContentAssist(unit, getIndexOf(contents, " th"), GroovyCompletionProposalComputer.class);
+
+            // the first provider uses up the budget, so the other one must not be asked
+            assertFalse("Only one of the providers should have been called",
+                    MockProposalProvider1.wasProviderCalled() && MockProposalProvider2.wasProviderCalled());
+        } finally {
+            GroovyPlugin.getDefault().getPreferenceStore().setValue(PreferenceConstants.GROOVY_CONTENT_ASSIST_TIMEOUT, budget);
+        }
+    }
 }
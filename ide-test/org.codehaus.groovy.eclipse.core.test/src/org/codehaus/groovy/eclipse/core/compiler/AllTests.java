@@ -23,6 +23,7 @@ public class AllTests {
         TestSuite suite = new TestSuite(AllTests.class.getName());
         suite.addTestSuite(AstPositionTests.class);
         suite.addTestSuite(ErrorRecoveryTests.class);
+        suite.addTestSuite(GroovyCompilerAdapterTests.class);
         suite.addTestSuite(UnrecoverableErrorTests.class);
         return suite;
     }
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.core.compiler;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.ant.core.AntRunner;
+
+/**
+ * Tests that the Ant compiler adapter deletes the class files of removed
+ * Groovy sources, and only of those, and leaves those of unchanged sources
+ * alone.
+ */
+public class GroovyCompilerAdapterTests extends TestCase {
+
+    private File dir;
+    private File src;
+    private File bin;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        dir = File.createTempFile("groovyAnt", "");
+        dir.delete();
+        src = new File(dir, "src");
+        bin = new File(dir, "bin");
+        src.mkdirs();
+        bin.mkdirs();
+        FileUtils.writeStringToFile(new File(dir, "build.xml"),
+            "<project default='compile'>\n" +
+            "  <target name='compile'>\n" +
+            "    <javac srcdir='src' destdir='bin' excludes='${excludes}' classpath='${groovy.jar}' source='1.5' target='1.5'\n" +
+            "        compiler='org.codehaus.groovy.eclipse.ant.GroovyCompilerAdapter' includeantruntime='false'/>\n" +
+            "  </target>\n" +
+            "</project>\n", "UTF-8");
+        // the adapter is only called if there is a Java file to compile
+        writeSource("p/Main.java", "package p; public class Main {}");
+        writeSource("p/A.groovy", "package p; class A { def c = { 1 } }");
+        writeSource("p/B.groovy", "package p; class B { def c = { 2 } }");
+        compile("");
+        assertClassFiles("p/A.class", "p/A$_closure1.class", "p/B.class", "p/B$_closure1.class");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+        super.tearDown();
+    }
+
+    public void testDeletedSource() throws Exception {
+        new File(src, "p/B.groovy").delete();
+        compile("");
+
+        assertClassFiles("p/A.class", "p/A$_closure1.class");
+        assertNoClassFiles("p/B.class", "p/B$_closure1.class");
+    }
+
+    public void testRenamedSource() throws Exception {
+        new File(src, "p/B.groovy").delete();
+        writeSource("p/C.groovy", "package p; class C { def c = { 3 } }");
+        compile("");
+
+        assertClassFiles("p/A.class", "p/A$_closure1.class", "p/C.class", "p/C$_closure1.class");
+        assertNoClassFiles("p/B.class", "p/B$_closure1.class");
+    }
+
+    public void testExcludedSource() throws Exception {
+        compile("p/B.groovy");
+        assertClassFiles("p/A.class", "p/A$_closure1.class", "p/B.class", "p/B$_closure1.class");
+
+        // the manifest still knows its class files
+        new File(src, "p/B.groovy").delete();
+        compile("");
+        assertNoClassFiles("p/B.class", "p/B$_closure1.class");
+    }
+
+    public void testUnchangedSource() throws Exception {
+        writeSource("p/Foo.groovy", "package p; class Foo { def c = { 4 } }\nclass Bar {}");
+        // the compile time is rounded down to the second, so keep the source clear of it
+        long past = System.currentTimeMillis() - 60000;
+        new File(src, "p/Foo.groovy").setLastModified(past);
+        compile("");
+        String[] classFiles = { "p/Foo.class", "p/Foo$_closure1.class", "p/Bar.class" };
+        assertClassFiles(classFiles);
+
+        // make a rewrite show up even on file systems with coarse timestamps
+        long[] timestamps = new long[classFiles.length];
+        for (int i = 0; i < classFiles.length; i += 1) {
+            File file = new File(bin, classFiles[i]);
+            file.setLastModified(past);
+            timestamps[i] = file.lastModified();
+        }
+        String entry = getManifestEntry("p/Foo.groovy");
+        assertTrue(entry, entry.contains("p/Bar.class"));
+
+        compile("");
+        for (int i = 0; i < classFiles.length; i += 1) {
+            assertEquals("Not expecting " + classFiles[i] + " to be written again", timestamps[i], new File(bin, classFiles[i]).lastModified());
+        }
+        assertEquals(entry, getManifestEntry("p/Foo.groovy"));
+    }
+
+    //--------------------------------------------------------------------------
+
+    private void writeSource(String path, String contents) throws Exception {
+        FileUtils.writeStringToFile(new File(src, path), contents, "UTF-8");
+    }
+
+    private void compile(String excludes) throws Exception {
+        // keep the Java file stale so that the compiler is called every time
+        new File(src, "p/Main.java").setLastModified(System.currentTimeMillis() + 60000);
+
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put("excludes", excludes);
+        properties.put("groovy.jar", CompilerUtils.getExportedGroovyAllJar().getPath());
+        AntRunner runner = new AntRunner();
+        runner.setBuildFileLocation(new File(dir, "build.xml").getAbsolutePath());
+        runner.addUserProperties(properties);
+        runner.run();
+    }
+
+    /**
+     * @return the line of the class file manifest that records the source
+     */
+    private String getManifestEntry(String source) throws Exception {
+        for (Object line : FileUtils.readLines(new File(dir, "bin.groovyclasses"), "UTF-8")) {
+            if (((String) line).contains('\t' + source + '\t')) {
+                return (String) line;
+            }
+        }
+        fail("Expecting " + source + " in the class file manifest");
+        return null;
+    }
+
+    private void assertClassFiles(String... classFiles) {
+        for (String classFile : classFiles) {
+            assertTrue("Expecting " + classFile, new File(bin, classFile).isFile());
+        }
+    }
+
+    private void assertNoClassFiles(String... classFiles) {
+        for (String classFile : classFiles) {
+            assertFalse("Not expecting " + classFile, new File(bin, classFile).exists());
+        }
+    }
+}
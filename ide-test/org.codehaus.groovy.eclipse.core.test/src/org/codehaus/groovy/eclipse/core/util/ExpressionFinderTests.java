@@ -17,6 +17,7 @@ package org.codehaus.groovy.eclipse.core.util;
 
 import junit.framework.TestCase;
 
+import org.codehaus.groovy.eclipse.core.ISourceBuffer;
 import org.codehaus.groovy.eclipse.core.impl.StringSourceBuffer;
 
 public class ExpressionFinderTests extends TestCase {
@@ -317,6 +318,101 @@ public class ExpressionFinderTests extends TestCase {
         doFind("new File('.').canon");
     }
 
+    public void testPeekDoesNotLexTwice() throws Exception {
+        String test = "foo.bar(1).baz";
+        TokenWindow window = new TokenWindow(new StringSourceBuffer(test));
+        assertEquals(test, new ExpressionFinder().findForCompletions(window, test.length() - 1));
+        int lexed = window.getLexedCount();
+        assertTrue("Every token should have been lexed once, but was: " + lexed, lexed <= 6);
+        assertTrue(window.getReusedCount() > 0);
+    }
+
+    public void testSharedWindowWhileTyping() throws Exception {
+        EditableBuffer buffer = new EditableBuffer("def x = 10\n// a comment.\nlist.collect { it }\n    .findAll { it > 1 }\n    ?.");
+        TokenWindow window = new TokenWindow(buffer);
+        ExpressionFinder finder = new ExpressionFinder();
+        for (char c : "toStri".toCharArray()) {
+            buffer.append(c, window);
+            int offset = buffer.length() - 1;
+            String expected = finder.findForCompletions(new StringSourceBuffer(buffer.toString()), offset);
+            assertEquals(expected, finder.findForCompletions(window, offset));
+        }
+        assertEquals("list.collect { it }\n    .findAll { it > 1 }\n    ?.toStri", finder.findForCompletions(window, buffer.length() - 1));
+    }
+
+    /**
+     * Compares lexing with one window shared by consecutive requests against
+     * lexing from scratch for each request, while typing at the end of a long
+     * method chain.
+     */
+    public void testSharedWindowOnLongMethodChain() throws Exception {
+        StringBuilder chain = new StringBuilder("builder");
+        for (int i = 0; i < 2000; i += 1) {
+            chain.append(i % 10 == 0 ? "\n    ." : ".").append("call").append(i).append("(arg").append(i).append(", 'x')");
+        }
+        chain.append('.');
+        String typed = "somethingLong";
+        ExpressionFinder finder = new ExpressionFinder();
+
+        EditableBuffer buffer = new EditableBuffer(chain.toString());
+        TokenWindow shared = new TokenWindow(buffer);
+        int freshLexed = 0;
+        for (char c : typed.toCharArray()) {
+            buffer.append(c, shared);
+            TokenWindow fresh = new TokenWindow(buffer);
+            String expected = finder.findForCompletions(fresh, buffer.length() - 1);
+            freshLexed += fresh.getLexedCount();
+            assertEquals(expected, finder.findForCompletions(shared, buffer.length() - 1));
+        }
+
+        assertEquals(chain + typed, finder.findForCompletions(shared, buffer.length() - 1));
+        assertTrue("Shared window should lex each token of the chain only once, but lexed " + shared.getLexedCount() +
+            " tokens against " + freshLexed + " without sharing", shared.getLexedCount() * typed.length() / 2 < freshLexed);
+    }
+
+    /**
+     * A buffer that can be typed into; keeps a {@link TokenWindow} over it up to date.
+     */
+    private static class EditableBuffer implements ISourceBuffer {
+        private final StringBuilder contents;
+
+        EditableBuffer(String contents) {
+            this.contents = new StringBuilder(contents);
+        }
+
+        void append(char c, TokenWindow window) {
+            if (window != null) {
+                window.invalidate(contents.length());
+            }
+            contents.append(c);
+        }
+
+        public char charAt(int offset) {
+            return contents.charAt(offset);
+        }
+
+        public int length() {
+            return contents.length();
+        }
+
+        public CharSequence subSequence(int start, int end) {
+            return contents.subSequence(start, end);
+        }
+
+        public int[] toLineColumn(int offset) {
+            return new StringSourceBuffer(contents.toString()).toLineColumn(offset);
+        }
+
+        public int toOffset(int line, int column) {
+            return new StringSourceBuffer(contents.toString()).toOffset(line, column);
+        }
+
+        @Override
+        public String toString() {
+            return contents.toString();
+        }
+    }
+
     public void testProblem() throws Exception {
         // this used to throw an exception, but should not
         ExpressionFinder finder = new ExpressionFinder();
@@ -15,15 +15,26 @@
  */
 package org.codehaus.groovy.eclipse.dsl.tests;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
 import org.codehaus.groovy.eclipse.dsl.DSLDStore;
 import org.codehaus.groovy.eclipse.dsl.DSLPreferences;
+import org.codehaus.groovy.eclipse.dsl.contributions.IContributionElement;
+import org.codehaus.groovy.eclipse.dsl.contributions.IContributionGroup;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.BindingSet;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.IPointcut;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.CurrentTypePointcut;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.FileExtensionPointcut;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.FileNamePointcut;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.FindFieldPointcut;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.SourceFolderOfFilePointcut;
 import org.eclipse.core.resources.IStorage;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
@@ -246,6 +257,59 @@ public class DSLStoreTests extends AbstractDSLInferencingTest {
 
     }
 
+    @SuppressWarnings("deprecation")
+    public void testSubStoresSharedPerFolderAndExtension() throws Exception {
+        IStorage storage = project.getFile("dsl0.dsld");
+        IPointcut groovyFiles = new FileExtensionPointcut(storage, "fileExtension");
+        groovyFiles.addArgument("groovy");
+        IPointcut srcFolder = new SourceFolderOfFilePointcut(storage, "sourceFolderOfCurrentFile");
+        srcFolder.addArgument("src");
+        IPointcut fileA = new FileNamePointcut(storage, "fileName");
+        fileA.addArgument("A.groovy");
+
+        final List<IPointcut> matched = new ArrayList<IPointcut>();
+        DSLDStore store = new DSLDStore();
+        for (final IPointcut pointcut : new IPointcut[] { groovyFiles, srcFolder }) {
+            store.addContributionGroup(pointcut, new IContributionGroup() {
+                public List<IContributionElement> getContributions(GroovyDSLDContext pattern, BindingSet matches) {
+                    matched.add(pointcut);
+                    return Collections.emptyList();
+                }
+            });
+        }
+
+        GroovyDSLDContext a = new GroovyDSLDContext(new String[0], "src/p/A.groovy", "src");
+        GroovyDSLDContext b = new GroovyDSLDContext(new String[0], "src/q/B.groovy", "src");
+        GroovyDSLDContext c = new GroovyDSLDContext(new String[0], "src/p/C.gsp", "src");
+        GroovyDSLDContext d = new GroovyDSLDContext(new String[0], "test/p/A.groovy", "test");
+        assertSame("Files of a source folder with the same extension should share a sub-store", store.getSubStore(a), store.getSubStore(b));
+        assertNotSame(store.getSubStore(a), store.getSubStore(c));
+
+        assertEquals(Arrays.asList(groovyFiles, srcFolder), findContributions(store, a, matched));
+        assertEquals(Arrays.asList(srcFolder), findContributions(store, c, matched));
+        assertEquals(Arrays.asList(groovyFiles), findContributions(store, d, matched));
+
+        // a pointcut on the file name must be matched for each file
+        DSLDStore subStore = store.getSubStore(a);
+        store.addContributionGroup(fileA, new IContributionGroup() {
+            public List<IContributionElement> getContributions(GroovyDSLDContext pattern, BindingSet matches) {
+                matched.add(null);
+                return Collections.emptyList();
+            }
+        });
+        assertNotSame("Sub-stores should be recomputed when the store changes", subStore, store.getSubStore(a));
+        assertEquals(Arrays.asList(groovyFiles, srcFolder, null), findContributions(store, a, matched));
+        assertEquals(Arrays.asList(groovyFiles, srcFolder), findContributions(store, b, matched));
+        assertEquals(Arrays.asList(groovyFiles, srcFolder), findContributions(store, b, matched));
+        assertEquals(Arrays.asList(groovyFiles, srcFolder, null), findContributions(store, a, matched));
+    }
+
+    private static List<IPointcut> findContributions(DSLDStore store, GroovyDSLDContext pattern, List<IPointcut> matched) {
+        matched.clear();
+        store.getSubStore(pattern).findContributions(pattern, Collections.<String>emptySet());
+        return new ArrayList<IPointcut>(matched);
+    }
+
     public void testDisabledOfFile() throws Exception {
         createDsls("currentType().accept { }", "fields().accept { }");
         assertDSLStore(2,
@@ -15,6 +15,8 @@
  */
 package org.codehaus.groovy.eclipse.test.actions
 
+import org.codehaus.groovy.eclipse.refactoring.actions.BatchOrganizeGroovyImports
+import org.codehaus.groovy.eclipse.refactoring.actions.TypeNameSnapshot
 import org.eclipse.jdt.core.tests.util.GroovyUtils
 
 /**
@@ -1068,5 +1070,31 @@ final class OrganizeImportsTest extends AbstractOrganizeImportsTest {
         doContentsCompareTest(contents, contents)
     }
 
+    void testBatchOrganize() {
+        def units = [
+            testProject.createUnit('main', 'A.groovy', 'FirstClass f'),
+            testProject.createUnit('main', 'B.groovy', 'def x(SecondClass s) { }'),
+            testProject.createUnit('main', 'C.groovy', 'List l = []')
+        ]
+        testProject.waitForIndexer()
+
+        def edits = new BatchOrganizeGroovyImports(units, new NoChoiceQuery(), 2).calculateMissingImports(null)
+
+        assertEquals(units, edits.keySet() as List)
+        assertTrue(edits[units[0]].toString().contains('import other.FirstClass'))
+        assertTrue(edits[units[1]].toString().contains('import other.SecondClass'))
+        assertNull(edits[units[2]])
+    }
+
+    void testTypeNameSnapshot() {
+        testProject.waitForIndexer()
+        def snapshot = TypeNameSnapshot.create(testProject.javaProject, null)
+
+        assertTrue(snapshot.isFor(testProject.javaProject))
+        assertEquals(['other.FirstClass'], snapshot.getCandidates('FirstClass')*.fullyQualifiedName)
+        assertEquals(['other2.FourthClass', 'other3.FourthClass', 'other4.FourthClass'] as Set, snapshot.getCandidates('FourthClass')*.fullyQualifiedName as Set)
+        assertTrue(snapshot.getCandidates('NoSuchType').empty)
+    }
+
     // TODO: Ensure imports come below header comment for class in the default package.
 }
@@ -20,6 +20,7 @@ import java.net.URL;
 
 import org.apache.commons.io.IOUtils;
 import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.eclipse.debug.ui.ValidBreakpointLocationFinder;
 import org.codehaus.groovy.eclipse.test.EclipseTestCase;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
@@ -170,6 +171,19 @@ public class BreakpointLocationTests extends EclipseTestCase {
         doBreakpointTest(23);
     }
     
+    public void testLocationsAreComputedOncePerModule() throws Exception {
+        ModuleNode module = unit.getModuleNode();
+        assertSame(ValidBreakpointLocationFinder.getLocations(module), ValidBreakpointLocationFinder.getLocations(module));
+
+        for (int line = 1; line <= document.getNumberOfLines(); line++) {
+            ASTNode node = new ValidBreakpointLocationFinder(line).findValidBreakpointLocation(module);
+            if (node != null) {
+                assertTrue("Breakpoint for line " + line + " should not move up to line " + node.getLineNumber(),
+                        node.getLineNumber() >= line);
+            }
+        }
+    }
+
     private void doBreakpointTest(int i) throws Exception {
         int location = document.get().indexOf("// " + i)-3;
         int line = document.getLineOfOffset(location)+1;  
@@ -17,6 +17,7 @@ package org.codehaus.groovy.eclipse.test.debug;
 
 import java.io.File;
 import java.net.URL;
+import java.util.List;
 import java.util.Map;
 
 import junit.framework.AssertionFailedError;
@@ -186,6 +187,40 @@ public class GroovyLauncherShortcutTests extends EclipseTestCase {
         }
     }
 
+    public void testFindAllScripts() throws Exception {
+        createGroovyCompilationUnit("Launch.groovy", "print 'test me'");
+        createGroovyCompilationUnit("pack", "Other.groovy", "class Other { def foo() { return 'hi!' } }");
+        createGroovyCompilationUnit("pack", "Script2.groovy", "new Other().foo()");
+        testProject.waitForIndexer();
+
+        // the first search may open the units while the index gets its script markers
+        for (int i = 0; i < 2; i += 1) {
+            List<IType> scripts = testProject.getGroovyProjectFacade().findAllScripts();
+            assertEquals(2, scripts.size());
+            assertTrue(scripts.contains(testProject.getJavaProject().findType("Launch")));
+            assertTrue(scripts.contains(testProject.getJavaProject().findType("pack.Script2")));
+            testProject.waitForIndexer();
+        }
+    }
+
+    public void testFindAllRunnableTypes() throws Exception {
+        createGroovyCompilationUnit("Launch.groovy", "print 'test me'");
+        createGroovyCompilationUnit("pack", "Other.groovy", "class Other { static void main(String[] args) { } }");
+        createGroovyCompilationUnit("pack", "NotRunnable.groovy", "class NotRunnable { void main(String[] args) { } }");
+        createJavaCompilationUnit("JavaMain.java", "class JavaMain { public static void main(String[] args) { } }");
+        createJavaCompilationUnit("JavaOther.java", "class JavaOther { }");
+        testProject.waitForIndexer();
+
+        for (int i = 0; i < 2; i += 1) {
+            List<IType> types = testProject.getGroovyProjectFacade().findAllRunnableTypes();
+            assertEquals(3, types.size());
+            assertTrue(types.contains(testProject.getJavaProject().findType("Launch")));
+            assertTrue(types.contains(testProject.getJavaProject().findType("pack.Other")));
+            assertTrue(types.contains(testProject.getJavaProject().findType("JavaMain")));
+            testProject.waitForIndexer();
+        }
+    }
+
     // This test might fail on windows
     // test that the classpath generation occurs as expected
     public void testClasspathGeneration1() throws Exception {
@@ -83,6 +83,42 @@ public class GroovyPartitionScannerTests extends TestCase {
                 0, IJavaPartitions.JAVA_DOC);
     }
 
+    public void testDollarSlashy() throws Exception {
+        tryString("$/a$/b\n$$/$", 0, GroovyPartitionScanner.GROOVY_MULTILINE_STRINGS);
+    }
+
+    public void testUnclosedDollarSlashy() throws Exception {
+        tryString("$/a\n", 0, null);
+    }
+
+    public void testSingleLineComment() throws Exception {
+        String contents = "def x // blah\nx";
+        IDocument doc = new Document(contents);
+        scanner.setRange(doc, 0, contents.length());
+        assertNextToken(null, 0, 6);
+        assertNextToken(IJavaPartitions.JAVA_SINGLE_LINE_COMMENT, 6, 8);
+        assertNextToken(null, 14, 1);
+        assertTrue(scanner.nextToken().isEOF());
+    }
+
+    public void testResumeInsidePartition() throws Exception {
+        String contents = "x = '''abc\ndef''' + 'y'";
+        IDocument doc = new Document(contents);
+        // resume in the middle of the multiline string, the scanner starts over at its delimiter
+        scanner.setPartialRange(doc, 9, contents.length() - 9, GroovyPartitionScanner.GROOVY_MULTILINE_STRINGS, 4);
+        assertNextToken(GroovyPartitionScanner.GROOVY_MULTILINE_STRINGS, 4, 13);
+        assertNextToken(null, 17, 3);
+        assertNextToken(IJavaPartitions.JAVA_STRING, 20, 3);
+        assertTrue(scanner.nextToken().isEOF());
+    }
+
+    private void assertNextToken(String expectedContentType, int expectedOffset, int expectedLength) {
+        IToken token = scanner.nextToken();
+        assertEquals(expectedContentType, token.getData());
+        assertEquals(expectedOffset, scanner.getTokenOffset());
+        assertEquals(expectedLength, scanner.getTokenLength());
+    }
+
     private void tryString(String string, int start, String expectedContentType) {
         IDocument doc = new Document(string);
         scanner.setRange(doc, start, string.length());
@@ -34,6 +34,7 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaSourceViewer;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.internal.Workbench;
 
@@ -246,6 +247,58 @@ public class OutlineExtenderTests extends EclipseTestCase {
         assertEquals(3, ((IField) children[3]).getNameRange().getLength());
     }
 
+    public void testGroovyScriptOutlineDiffed() throws Exception {
+        String contents =
+            "def aaa = 1\n" +
+            "def bbb = 2\n" +
+            "String blah() {  }";
+        GroovyOutlinePage outline = openFile("Script", contents);
+
+        OCompilationUnit unit = outline.getOutlineCompilationUnit();
+        IJavaElement[] children = unit.getChildren();
+        assertEquals("Wrong number of children", 3, children.length);
+        IJavaElement aaa = children[0], bbb = children[1];
+
+        // nothing changed
+        outline.refresh();
+        assertEquals(0, unit.getChangedElements().length);
+        assertSame(aaa, unit.getChildren()[0]);
+
+        // change a value; no outline element displays differently
+        GroovyCompilationUnit gunit = unit.getUnit();
+        IDocument document = getGroovyEditor(gunit).getViewer().getDocument();
+        document.replace(contents.indexOf('1'), 1, "100");
+        gunit.reconcile(true, null);
+        outline.refresh();
+        children = unit.getChildren();
+        assertEquals(0, unit.getChangedElements().length);
+        assertSame(aaa, children[0]);
+        assertSame(bbb, children[1]);
+        assertEquals(document.get().indexOf("bbb"), ((IField) bbb).getNameRange().getOffset());
+
+        // change a type; only that element is replaced
+        document.replace(document.get().indexOf("def bbb"), 3, "String");
+        gunit.reconcile(true, null);
+        outline.refresh();
+        children = unit.getChildren();
+        assertSame(aaa, children[0]);
+        assertNotSame(bbb, children[1]);
+        assertEquals("QString;", ((IField) children[1]).getTypeSignature());
+        assertEquals(1, unit.getChangedElements().length);
+        assertSame(children[1], unit.getChangedElements()[0]);
+
+        // add an element; the top level is refreshed
+        document.replace(0, 0, "def ccc = 3\n");
+        gunit.reconcile(true, null);
+        outline.refresh();
+        children = unit.getChildren();
+        assertEquals("Wrong number of children", 4, children.length);
+        assertEquals("ccc", children[0].getElementName());
+        assertSame(aaa, children[1]);
+        assertEquals(1, unit.getChangedElements().length);
+        assertSame(unit, unit.getChangedElements()[0]);
+    }
+
     public void testStructureUnknown() throws Exception {
         String contents = "class X {  }\n int o( \n}";
         GroovyOutlinePage outline = openFile("Problem", contents);
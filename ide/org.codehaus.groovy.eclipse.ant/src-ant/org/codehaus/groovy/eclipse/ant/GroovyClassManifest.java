@@ -0,0 +1,159 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.ant;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records which class files were produced from each Groovy source file by the
+ * {@link GroovyCompilerAdapter}.  A Groovy file may produce any number of class
+ * files (several classes in one script, inner classes, closures, trait helpers)
+ * and none of them needs to be named after the file, so the source and class
+ * file names alone cannot tell whether a file is up to date.
+ * <p>
+ * The manifest is a text file next to the destination directory, with one
+ * line per source file: the source directory, the path of the source relative
+ * to it, the time it was last compiled and the paths of its class files
+ * relative to the destination directory, separated by tabs.
+ */
+class GroovyClassManifest {
+
+    static final String SUFFIX = ".groovyclasses";
+
+    static class Entry {
+        final long compiledAt;
+        final List<String> classFiles;
+
+        Entry(long compiledAt, List<String> classFiles) {
+            this.compiledAt = compiledAt;
+            this.classFiles = classFiles;
+        }
+    }
+
+    private final File file;
+
+    /** source directory to (relative source path to entry) */
+    private final Map<String, Map<String, Entry>> entries = new TreeMap<String, Map<String, Entry>>();
+
+    private boolean dirty;
+
+    private GroovyClassManifest(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the manifest of the given destination directory, empty if it has not been written yet
+     */
+    static GroovyClassManifest load(File destDir) throws IOException {
+        GroovyClassManifest manifest = new GroovyClassManifest(new File(destDir.getParentFile(), destDir.getName() + SUFFIX));
+        if (manifest.file.isFile()) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifest.file), "UTF-8"));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split("\t");
+                    if (parts.length < 3) {
+                        continue;
+                    }
+                    List<String> classFiles = new ArrayList<String>(parts.length - 3);
+                    for (int i = 3; i < parts.length; i += 1) {
+                        classFiles.add(parts[i]);
+                    }
+                    try {
+                        manifest.sources(parts[0]).put(parts[1], new Entry(Long.parseLong(parts[2]), classFiles));
+                    } catch (NumberFormatException e) {
+                        // ignore the line, its source will be compiled again
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return manifest;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    Entry get(File srcDir, String source) {
+        return sources(srcDir.getAbsolutePath()).get(source);
+    }
+
+    void put(File srcDir, String source, Entry entry) {
+        sources(srcDir.getAbsolutePath()).put(source, entry);
+        dirty = true;
+    }
+
+    Entry remove(File srcDir, String source) {
+        Entry entry = sources(srcDir.getAbsolutePath()).remove(source);
+        dirty |= (entry != null);
+        return entry;
+    }
+
+    /**
+     * @return the relative paths of the sources of the given directory that are in the manifest
+     */
+    List<String> getSources(File srcDir) {
+        return new ArrayList<String>(sources(srcDir.getAbsolutePath()).keySet());
+    }
+
+    void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+        try {
+            for (Map.Entry<String, Map<String, Entry>> dir : entries.entrySet()) {
+                for (Map.Entry<String, Entry> source : dir.getValue().entrySet()) {
+                    writer.write(dir.getKey());
+                    writer.write('\t');
+                    writer.write(source.getKey());
+                    writer.write('\t');
+                    writer.write(String.valueOf(source.getValue().compiledAt));
+                    for (String classFile : source.getValue().classFiles) {
+                        writer.write('\t');
+                        writer.write(classFile);
+                    }
+                    writer.newLine();
+                }
+            }
+        } finally {
+            writer.close();
+        }
+        dirty = false;
+    }
+
+    private Map<String, Entry> sources(String srcDir) {
+        Map<String, Entry> sources = entries.get(srcDir);
+        if (sources == null) {
+            sources = new TreeMap<String, Entry>();
+            entries.put(srcDir, sources);
+        }
+        return sources;
+    }
+}
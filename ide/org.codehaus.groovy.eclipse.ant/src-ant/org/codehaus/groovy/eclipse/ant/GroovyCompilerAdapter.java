@@ -16,16 +16,24 @@
 package org.codehaus.groovy.eclipse.ant;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.DirectoryScanner;
+import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.Javac;
 import org.apache.tools.ant.taskdefs.MatchingTask;
 import org.apache.tools.ant.taskdefs.compilers.CompilerAdapter;
 import org.apache.tools.ant.util.FileNameMapper;
 import org.apache.tools.ant.util.SourceFileScanner;
 import org.eclipse.jdt.core.JDTCompilerAdapter;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException;
 
 /**
  * @author Andrew Eisenberg
@@ -33,6 +41,12 @@ import org.eclipse.jdt.core.JDTCompilerAdapter;
  */
 public class GroovyCompilerAdapter extends JDTCompilerAdapter implements CompilerAdapter {
 
+    /** the class files produced by each Groovy source, or null if there is no destination directory */
+    private GroovyClassManifest manifest;
+
+    /** the Groovy files being compiled, by source directory and path relative to it */
+    private final Map<File, Map<String, File>> compiledSources = new HashMap<File, Map<String, File>>();
+
     @Override
     public void setJavac(Javac javac) {
         super.setJavac(javac);
@@ -58,7 +72,16 @@ public class GroovyCompilerAdapter extends JDTCompilerAdapter implements Compile
     protected File[] getGroovyFiles(Javac javac) {
         String[] list = javac.getSrcdir().list();
         File destDir = javac.getDestdir();
-        File[] sourceFiles = new File[0];
+        manifest = null;
+        compiledSources.clear();
+        if (destDir != null) {
+            try {
+                manifest = GroovyClassManifest.load(destDir);
+            } catch (IOException e) {
+                javac.log("Could not read " + e.getMessage() + ", falling back to file name mapping", Project.MSG_WARN);
+            }
+        }
+        List<File> sourceFiles = new ArrayList<File>();
         for (int i = 0; i < list.length; i++) {
             File srcDir = javac.getProject().resolveFile(list[i]);
             if (!srcDir.exists()) {
@@ -69,17 +92,177 @@ public class GroovyCompilerAdapter extends JDTCompilerAdapter implements Compile
             DirectoryScanner ds = getDirectoryScanner(srcDir, javac);
             String[] files = ds.getIncludedFiles();
 
+            // sources that were compiled before are decided by the class files they produced
+            List<String> unknownFiles = new ArrayList<String>();
+            for (String file : files) {
+                if (!file.endsWith(".groovy")) {
+                    continue;
+                }
+                String source = file.replace(File.separatorChar, '/');
+                GroovyClassManifest.Entry entry = manifest != null ? manifest.get(srcDir, source) : null;
+                if (entry == null) {
+                    unknownFiles.add(file);
+                } else if (isStale(new File(srcDir, file), entry, destDir)) {
+                    addSource(srcDir, source, new File(srcDir, file), sourceFiles);
+                }
+            }
+            if (manifest != null) {
+                deleteRemovedSources(javac, srcDir, destDir);
+            }
+
             GroovyFileNameMapper m = new GroovyFileNameMapper();
             SourceFileScanner sfs = new SourceFileScanner(javac);
-            File[] moreFiles = sfs.restrictAsFiles(files, srcDir, destDir, m);
+            File[] moreFiles = sfs.restrictAsFiles(unknownFiles.toArray(new String[unknownFiles.size()]), srcDir, destDir, m);
             if (moreFiles != null) {
-                File[] origFiles = sourceFiles;
-                sourceFiles = new File[origFiles.length + moreFiles.length];
-                System.arraycopy(origFiles, 0, sourceFiles, 0, origFiles.length);
-                System.arraycopy(moreFiles, 0, sourceFiles, origFiles.length, moreFiles.length);
+                for (File moreFile : moreFiles) {
+                    String source = moreFile.getAbsolutePath().substring(srcDir.getAbsolutePath().length() + 1);
+                    addSource(srcDir, source.replace(File.separatorChar, '/'), moreFile, sourceFiles);
+                }
+            }
+        }
+        saveManifest(javac);
+        return sourceFiles.toArray(new File[sourceFiles.size()]);
+    }
+
+    private void addSource(File srcDir, String source, File file, List<File> sourceFiles) {
+        sourceFiles.add(file);
+        Map<String, File> sources = compiledSources.get(srcDir);
+        if (sources == null) {
+            sources = new HashMap<String, File>();
+            compiledSources.put(srcDir, sources);
+        }
+        sources.put(source, file);
+    }
+
+    private static boolean isStale(File sourceFile, GroovyClassManifest.Entry entry, File destDir) {
+        if (sourceFile.lastModified() > entry.compiledAt) {
+            return true;
+        }
+        for (String classFile : entry.classFiles) {
+            if (!new File(destDir, classFile).isFile()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes the class files of the sources in the manifest that are no longer in the source directory.  Sources
+     * that are only excluded from this compile keep their class files.
+     */
+    private void deleteRemovedSources(Javac javac, File srcDir, File destDir) {
+        for (String source : manifest.getSources(srcDir)) {
+            if (!new File(srcDir, source).exists()) {
+                GroovyClassManifest.Entry entry = manifest.remove(srcDir, source);
+                javac.log("Deleting " + entry.classFiles.size() + " class files of removed source " + source, Project.MSG_VERBOSE);
+                for (String classFile : entry.classFiles) {
+                    new File(destDir, classFile).delete();
+                }
+            }
+        }
+    }
+
+    private void saveManifest(Javac javac) {
+        if (manifest != null) {
+            try {
+                manifest.save();
+            } catch (IOException e) {
+                javac.log("Could not write " + manifest.getFile() + ": " + e.getMessage(), Project.MSG_WARN);
+            }
+        }
+    }
+
+    @Override
+    public boolean execute() throws BuildException {
+        // class files are matched by their time stamp, which may be rounded to the second
+        long compileStart = System.currentTimeMillis();
+        compileStart -= compileStart % 1000;
+        boolean result = super.execute();
+        if (result && manifest != null && !compiledSources.isEmpty()) {
+            recordClassFiles(compileStart);
+            saveManifest(attributes);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the class files written by this compile and records them in the manifest under the Groovy source named by
+     * their <code>SourceFile</code> attribute.  Class files that a recompiled source no longer produces are deleted.
+     */
+    private void recordClassFiles(long compileStart) {
+        // class files only tell the path of their source relative to its source directory
+        Map<String, File> srcDirs = new HashMap<String, File>();
+        Map<String, String> bySimpleName = new HashMap<String, String>();
+        for (Map.Entry<File, Map<String, File>> sources : compiledSources.entrySet()) {
+            for (String source : sources.getValue().keySet()) {
+                // the same path in several source directories can not be told apart
+                srcDirs.put(source, srcDirs.containsKey(source) ? null : sources.getKey());
+                String simpleName = source.substring(source.lastIndexOf('/') + 1);
+                // ambiguous names are only matched by package
+                bySimpleName.put(simpleName, bySimpleName.containsKey(simpleName) ? null : source);
+            }
+        }
+        Map<String, List<String>> produced = new HashMap<String, List<String>>();
+        for (String source : srcDirs.keySet()) {
+            produced.put(source, new ArrayList<String>());
+        }
+        List<File> classFiles = new ArrayList<File>();
+        collectClassFiles(destDir, compileStart, classFiles);
+        String destPath = destDir.getAbsolutePath();
+        for (File classFile : classFiles) {
+            try {
+                ClassFileReader reader = ClassFileReader.read(classFile);
+                char[] sourceFileName = reader.sourceFileName();
+                if (sourceFileName == null) {
+                    continue;
+                }
+                String typeName = new String(reader.getName());
+                String simpleName = new String(sourceFileName);
+                int slash = typeName.lastIndexOf('/');
+                String source = slash < 0 ? simpleName : typeName.substring(0, slash + 1) + simpleName;
+                if (!produced.containsKey(source)) {
+                    // the source is not in the directory of its package
+                    source = bySimpleName.get(simpleName);
+                }
+                if (source != null && produced.containsKey(source)) {
+                    String path = classFile.getAbsolutePath().substring(destPath.length() + 1);
+                    produced.get(source).add(path.replace(File.separatorChar, '/'));
+                }
+            } catch (ClassFormatException e) {
+                // not produced by the compiler
+            } catch (IOException e) {
+                attributes.log("Could not read " + classFile + ": " + e.getMessage(), Project.MSG_VERBOSE);
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : produced.entrySet()) {
+            File srcDir = srcDirs.get(entry.getKey());
+            if (srcDir == null) {
+                // left to the file name mapping
+                continue;
+            }
+            GroovyClassManifest.Entry previous = manifest.get(srcDir, entry.getKey());
+            if (previous != null) {
+                for (String classFile : previous.classFiles) {
+                    if (!entry.getValue().contains(classFile)) {
+                        new File(destDir, classFile).delete();
+                    }
+                }
+            }
+            manifest.put(srcDir, entry.getKey(), new GroovyClassManifest.Entry(compileStart, entry.getValue()));
+        }
+    }
+
+    private static void collectClassFiles(File dir, long since, List<File> classFiles) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    collectClassFiles(file, since, classFiles);
+                } else if (file.getName().endsWith(".class") && file.lastModified() >= since) {
+                    classFiles.add(file);
+                }
             }
         }
-        return sourceFiles;
     }
 
     private DirectoryScanner getDirectoryScanner(File srcDir, Javac javac) {
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.codeassist;
+
+import java.lang.ref.WeakReference;
+
+import org.codehaus.groovy.eclipse.core.util.TokenWindow;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+
+/**
+ * A {@link TokenWindow} over an editor document.  The window of the last
+ * completion request is kept, so that the next request on the same line of the
+ * same document reuses the tokens in front of the caret instead of lexing them
+ * again.  Typing at the caret only invalidates the tokens from the edit on.
+ */
+public class DocumentTokenWindow extends TokenWindow implements IDocumentListener {
+
+    /** weak, so that the window lives only as long as its document (which references it as a listener) */
+    private static WeakReference<DocumentTokenWindow> lastWindow;
+
+    private final IDocument document;
+
+    private final int line;
+
+    private DocumentTokenWindow(IDocument document, int line) {
+        super(new DocumentSourceBuffer(document));
+        this.document = document;
+        this.line = line;
+        document.addDocumentListener(this);
+    }
+
+    /**
+     * @return the window of the previous request if it was for the same line of
+     *         the document, otherwise a new window that replaces it
+     */
+    public static synchronized DocumentTokenWindow forOffset(IDocument document, int offset) {
+        int line;
+        try {
+            line = document.getLineOfOffset(offset);
+        } catch (BadLocationException e) {
+            line = -1;
+        }
+        DocumentTokenWindow window = lastWindow != null ? lastWindow.get() : null;
+        if (window != null && window.document == document && window.line == line && line >= 0) {
+            return window;
+        }
+        if (window != null) {
+            window.dispose();
+        }
+        window = new DocumentTokenWindow(document, line);
+        lastWindow = new WeakReference<DocumentTokenWindow>(window);
+        return window;
+    }
+
+    public void dispose() {
+        document.removeDocumentListener(this);
+        invalidate(0);
+    }
+
+    public void documentAboutToBeChanged(DocumentEvent event) {
+        invalidate(event.getOffset());
+    }
+
+    public void documentChanged(DocumentEvent event) {
+    }
+}
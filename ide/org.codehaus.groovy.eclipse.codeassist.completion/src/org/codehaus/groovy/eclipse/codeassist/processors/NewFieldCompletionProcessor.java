@@ -129,7 +129,7 @@ public class NewFieldCompletionProcessor extends AbstractGroovyCompletionProcess
 
     public List<ICompletionProposal> generateProposals(IProgressMonitor monitor) {
         ContentAssistContext context = getContext();
-        List<String> unimplementedFieldNames = getAllSuggestedFieldNames(context);
+        List<String> unimplementedFieldNames = getAllSuggestedFieldNames(context, monitor);
         List<ICompletionProposal> proposals = new LinkedList<ICompletionProposal>();
         IType enclosingType = context.getEnclosingType();
         if (enclosingType != null) {
@@ -179,11 +179,14 @@ public class NewFieldCompletionProcessor extends AbstractGroovyCompletionProcess
      * @param context
      * @return
      */
-    private List<String> getAllSuggestedFieldNames(ContentAssistContext context) {
+    private List<String> getAllSuggestedFieldNames(ContentAssistContext context, IProgressMonitor monitor) {
         List<String> allNewFieldNames = new LinkedList<String>();
         try {
             List<IProposalProvider> providers = ProposalProviderRegistry.getRegistry().getProvidersFor(context.unit);
             for (IProposalProvider provider : providers) {
+                if (monitor.isCanceled()) {
+                    break;
+                }
                 List<String> newFieldNames = provider.getNewFieldProposals(context);
                 if (newFieldNames != null) {
                     allNewFieldNames.addAll(newFieldNames);
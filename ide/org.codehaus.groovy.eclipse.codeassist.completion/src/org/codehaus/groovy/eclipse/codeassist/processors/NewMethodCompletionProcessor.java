@@ -74,6 +74,9 @@ public class NewMethodCompletionProcessor extends AbstractGroovyCompletionProces
         try {
             List<IProposalProvider> providers = ProposalProviderRegistry.getRegistry().getProvidersFor(context.unit);
             for (IProposalProvider provider : providers) {
+                if (monitor.isCanceled()) {
+                    break;
+                }
                 List<MethodNode> newProposals = provider.getNewMethodProposals(context);
                 if (newProposals != null) {
                     for (MethodNode methodNode : newProposals) {
@@ -17,6 +17,7 @@
 package org.codehaus.groovy.eclipse.codeassist.processors;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -93,7 +94,10 @@ public class StatementAndExpressionCompletionProcessor extends
         // keep track of the number of array accesses that must be dereferenced
         private int derefCount = 0;
 
-        public ExpressionCompletionRequestor() {
+        private final IProgressMonitor monitor;
+
+        public ExpressionCompletionRequestor(IProgressMonitor monitor) {
+            this.monitor = monitor;
             // remember the rightmost part of the LHS of a
             // binary expression
             ASTNode maybeLHS = getContext().getPerceivedCompletionNode();
@@ -122,6 +126,11 @@ public class StatementAndExpressionCompletionProcessor extends
         public VisitStatus acceptASTNode(ASTNode node, TypeLookupResult result,
                 IJavaElement enclosingElement) {
 
+            // content assist is out of time
+            if (monitor.isCanceled()) {
+                return VisitStatus.STOP_VISIT;
+            }
+
             // check to see if the enclosing element does not enclose the nodeToLookFor
             if (!interestingElement(enclosingElement)) {
                 return VisitStatus.CANCEL_MEMBER;
@@ -341,12 +350,15 @@ public class StatementAndExpressionCompletionProcessor extends
         TypeInferencingVisitorFactory factory = new TypeInferencingVisitorFactory();
         ContentAssistContext context = getContext();
         TypeInferencingVisitorWithRequestor visitor = factory.createVisitor(context.unit);
-        ExpressionCompletionRequestor requestor = new ExpressionCompletionRequestor();
+        ExpressionCompletionRequestor requestor = new ExpressionCompletionRequestor(monitor);
 
         // if completion node is null, then it is likely because of a syntax error
         if (completionNode != null) {
             visitor.visitCompilationUnit(requestor);
         }
+        if (monitor.isCanceled()) {
+            return Collections.emptyList();
+        }
         ClassNode completionType;
         boolean isStatic;
         List<IGroovyProposal> groovyProposals = new LinkedList<IGroovyProposal>();
@@ -363,17 +375,17 @@ public class StatementAndExpressionCompletionProcessor extends
                 if ("java.lang.Class".equals(completionType.getName())) {
                     // Add proposals for static members
                     ClassNode type = ((ClassExpression) context.completionNode).getType();
-                    proposalCreatorLoop(context, requestor, type, isStatic, groovyProposals, creators, false);
+                    proposalCreatorLoop(context, requestor, type, isStatic, groovyProposals, creators, false, monitor);
                 }
             }
-            proposalCreatorLoop(context, requestor, completionType, isStatic, groovyProposals, creators, false);
+            proposalCreatorLoop(context, requestor, completionType, isStatic, groovyProposals, creators, false, monitor);
             if (ContentAssistLocation.STATEMENT == context.location) {
                 ClassNode closureThis = requestor.currentScope.getThis();
                 if (closureThis != null && !closureThis.equals(completionType)) {
                     // inside of a closure
                     // must also add content assist for this (previously did the
                     // delegate)
-                    proposalCreatorLoop(context, requestor, closureThis, isStatic, groovyProposals, creators, true);
+                    proposalCreatorLoop(context, requestor, closureThis, isStatic, groovyProposals, creators, true, monitor);
                 }
             }
         } else {
@@ -416,6 +428,9 @@ public class StatementAndExpressionCompletionProcessor extends
                     : createTopLevelScope(completionType);
             List<IProposalProvider> providers = ProposalProviderRegistry.getRegistry().getProvidersFor(context.unit);
             for (IProposalProvider provider : providers) {
+                if (monitor.isCanceled()) {
+                    break;
+                }
                 try {
                     List<IGroovyProposal> otherProposals = provider
                             .getStatementAndExpressionProposals(context,
@@ -463,6 +478,9 @@ public class StatementAndExpressionCompletionProcessor extends
         List<ICompletionProposal> javaProposals = new ArrayList<ICompletionProposal>(groovyProposals.size());
         JavaContentAssistInvocationContext javaContext = getJavaContext();
         for (IGroovyProposal groovyProposal : groovyProposals) {
+            if (monitor.isCanceled()) {
+                break;
+            }
             try {
                 IJavaCompletionProposal javaProposal = groovyProposal.createJavaProposal(context, javaContext);
                 if (javaProposal != null) {
@@ -480,8 +498,11 @@ public class StatementAndExpressionCompletionProcessor extends
 
     private void proposalCreatorLoop(ContentAssistContext context, ExpressionCompletionRequestor requestor,
             ClassNode completionType, boolean isStatic, List<IGroovyProposal> groovyProposals, IProposalCreator[] creators,
-            boolean isClosureThis) {
+            boolean isClosureThis, IProgressMonitor monitor) {
         for (IProposalCreator creator : creators) {
+            if (monitor.isCanceled()) {
+                return;
+            }
             if (isClosureThis && !creator.redoForLoopClosure()) {
                 // avoid duplicate DGMs by not proposing category proposals
                 // twice
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.codeassist.requestor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.groovy.eclipse.codeassist.ProposalUtils;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+import org.eclipse.jface.text.contentassist.ICompletionProposalExtension2;
+
+/**
+ * Remembers the complete proposal list computed for one identifier so that
+ * typing more characters of that identifier while the content assist popup is
+ * open can be answered by filtering the list instead of finding the completion
+ * node, inferring the receiver type and running the proposal creators again.
+ * <p>
+ * The completion node and the receiver type follow from the text in front of
+ * the identifier, so the session stays usable only as long as every edit to the
+ * document falls inside the identifier and inserts identifier characters.  Any
+ * other edit invalidates it for good.
+ */
+public class CompletionSession implements IDocumentListener {
+
+    private final GroovyCompilationUnit unit;
+    private final IDocument document;
+
+    /** offset of the first character of the identifier being completed */
+    private final int prefixStart;
+
+    /** the identifier text the proposals were computed for */
+    private final String prefix;
+
+    /** offset just past the last character of the identifier; follows edits */
+    private int identifierEnd;
+
+    /** incremented for each edit outside of the identifier */
+    private int outsideEdits;
+
+    private final List<ICompletionProposal> proposals;
+
+    private CompletionSession(ContentAssistContext context, IDocument document, int prefixStart, int identifierEnd,
+            List<ICompletionProposal> proposals) {
+        this.unit = context.unit;
+        this.document = document;
+        this.prefixStart = prefixStart;
+        this.prefix = context.completionExpression;
+        this.identifierEnd = identifierEnd;
+        this.proposals = new ArrayList<ICompletionProposal>(proposals);
+        document.addDocumentListener(this);
+    }
+
+    /**
+     * @return a new session over the given proposals or {@code null} if the
+     *         proposals for a longer prefix at this location would not be a
+     *         subset of them
+     */
+    public static CompletionSession create(ContentAssistContext context, IDocument document, List<ICompletionProposal> proposals) {
+        String prefix = context.completionExpression;
+        // method context proposals and "new Type" completions do not complete a simple identifier
+        if (context.location == ContentAssistLocation.METHOD_CONTEXT || !isIdentifier(prefix)) {
+            return null;
+        }
+        // types are only proposed once something has been typed (see TypeCompletionProcessor)
+        if (prefix.length() == 0 && !context.fullCompletionExpression.contains(".")) {
+            return null;
+        }
+        int prefixStart = context.completionLocation - prefix.length();
+        try {
+            if (prefixStart < 0 || !prefix.equals(document.get(prefixStart, prefix.length()))) {
+                return null;
+            }
+            int identifierEnd = context.completionLocation;
+            while (identifierEnd < document.getLength() && Character.isJavaIdentifierPart(document.getChar(identifierEnd))) {
+                identifierEnd += 1;
+            }
+            return new CompletionSession(context, document, prefixStart, identifierEnd, proposals);
+        } catch (BadLocationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return {@code true} iff completing at the given offset is completing a
+     *         longer (or the same) prefix of the identifier this session was
+     *         created for
+     */
+    public boolean isValidFor(GroovyCompilationUnit unit, IDocument document, int offset) {
+        if (outsideEdits > 0 || !this.unit.equals(unit) || this.document != document) {
+            return false;
+        }
+        if (offset < prefixStart + prefix.length() || offset > identifierEnd) {
+            return false;
+        }
+        try {
+            return document.get(prefixStart, offset - prefixStart).startsWith(prefix);
+        } catch (BadLocationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Filters the cached proposals by the prefix that ends at the given offset.
+     * Proposals decide for themselves, the same way the popup filters them while
+     * it is open; anything else is matched by its display string.
+     */
+    public List<ICompletionProposal> getProposals(int offset) {
+        String currentPrefix;
+        try {
+            currentPrefix = document.get(prefixStart, offset - prefixStart);
+        } catch (BadLocationException e) {
+            return Collections.emptyList();
+        }
+        List<ICompletionProposal> filtered = new ArrayList<ICompletionProposal>(proposals.size());
+        for (ICompletionProposal proposal : proposals) {
+            boolean matches;
+            if (proposal instanceof ICompletionProposalExtension2) {
+                matches = ((ICompletionProposalExtension2) proposal).validate(document, offset, null);
+            } else {
+                matches = ProposalUtils.looselyMatches(currentPrefix, proposal.getDisplayString());
+            }
+            if (matches) {
+                filtered.add(proposal);
+            }
+        }
+        return filtered;
+    }
+
+    public int getProposalCount() {
+        return proposals.size();
+    }
+
+    public void dispose() {
+        document.removeDocumentListener(this);
+    }
+
+    public void documentAboutToBeChanged(DocumentEvent event) {
+        int start = event.getOffset(), end = start + event.getLength();
+        if (start >= prefixStart && end <= identifierEnd && isIdentifier(event.getText())) {
+            identifierEnd += (event.getText() == null ? 0 : event.getText().length()) - event.getLength();
+        } else {
+            outsideEdits += 1;
+        }
+    }
+
+    public void documentChanged(DocumentEvent event) {
+    }
+
+    private static boolean isIdentifier(String text) {
+        if (text != null) {
+            for (int i = 0, n = text.length(); i < n; i += 1) {
+                if (!Character.isJavaIdentifierPart(text.charAt(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -7,8 +7,10 @@ import java.util.List;
 import java.util.Map;
 
 import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.GroovyPlugin;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.groovy.eclipse.codeassist.DocumentSourceBuffer;
+import org.codehaus.groovy.eclipse.codeassist.DocumentTokenWindow;
 import org.codehaus.groovy.eclipse.codeassist.factories.ConstructorCompletionProcessorFactory;
 import org.codehaus.groovy.eclipse.codeassist.factories.ExpressionCompletionProcessorFactory;
 import org.codehaus.groovy.eclipse.codeassist.factories.GetSetMethodCompletionProcessorFactory;
@@ -26,12 +28,15 @@ import org.codehaus.groovy.eclipse.codeassist.processors.IProposalFilterExtensio
 import org.codehaus.groovy.eclipse.codeassist.processors.ProposalProviderRegistry;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.codehaus.groovy.eclipse.core.ISourceBuffer;
+import org.codehaus.groovy.eclipse.core.preferences.PreferenceConstants;
 import org.codehaus.groovy.eclipse.core.util.ExpressionFinder;
 import org.codehaus.groovy.eclipse.core.util.ParseException;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.codehaus.jdt.groovy.model.ModuleNodeMapper.ModuleNodeInfo;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.groovy.search.ITypeResolver;
@@ -117,6 +122,11 @@ public class GroovyCompletionProposalComputer implements IJavaCompletionProposal
     }
 
 
+    /**
+     * proposals of the last completion; reused while only the completed identifier is edited
+     */
+    private CompletionSession session;
+
     public GroovyCompletionProposalComputer() {
     }
 
@@ -142,6 +152,17 @@ public class GroovyCompletionProposalComputer implements IJavaCompletionProposal
 
         GroovyCompilationUnit gunit = (GroovyCompilationUnit) unit;
 
+        IDocument document = context.getDocument();
+        if (session != null && session.isValidFor(gunit, document, context.getInvocationOffset())) {
+            List<ICompletionProposal> proposals = session.getProposals(context.getInvocationOffset());
+            if (event != null) {
+                GroovyLogManager.manager.log(TraceCategory.CONTENT_ASSIST,
+                        "Filtered " + proposals.size() + " of " + session.getProposalCount() + " cached proposals");
+                GroovyLogManager.manager.logEnd(event, TraceCategory.CONTENT_ASSIST);
+            }
+            return proposals;
+        }
+
         ModuleNodeInfo moduleInfo = gunit.getModuleInfo(true);
         if (moduleInfo == null) {
             if (GroovyLogManager.manager.hasLoggers()) {
@@ -151,30 +172,13 @@ public class GroovyCompletionProposalComputer implements IJavaCompletionProposal
             return Collections.EMPTY_LIST;
         }
 
-        IDocument document = context.getDocument();
         ContentAssistContext assistContext = createContentAssistContext(gunit, context.getInvocationOffset(), document);
         List<ICompletionProposal> proposals = new ArrayList<ICompletionProposal>();
         if (assistContext != null) {
+            boolean complete = true;
             List<IGroovyCompletionProcessorFactory> factories = locationFactoryMap.get(assistContext.location);
             if (factories != null) {
-                SearchableEnvironment nameEnvironment = createSearchableEnvironment(javaContext);
-
-                try {
-                    for (IGroovyCompletionProcessorFactory factory : factories) {
-                        IGroovyCompletionProcessor processor =
-                            factory.createProcessor(assistContext, javaContext, nameEnvironment);
-                        if (processor != null) {
-                            if (processor instanceof ITypeResolver) {
-                                ((ITypeResolver) processor).setResolverInformation(moduleInfo.module, moduleInfo.resolver);
-                            }
-                            proposals.addAll(processor.generateProposals(monitor));
-                        }
-                    }
-                } finally {
-                    if (nameEnvironment != null) {
-                        nameEnvironment.cleanup();
-                    }
-                }
+                complete = runProcessors(factories, assistContext, javaContext, moduleInfo, monitor, proposals);
             }
 
             // extra filtering and sorting provided by third parties
@@ -193,6 +197,12 @@ public class GroovyCompletionProposalComputer implements IJavaCompletionProposal
             } catch (CoreException e) {
                 GroovyCore.logException("Exception accessing proposal provider registry", e);
             }
+
+            disposeSession();
+            // a partial result can not answer longer prefixes
+            if (complete) {
+                session = CompletionSession.create(assistContext, document, proposals);
+            }
         }
 
         if (event != null) {
@@ -202,6 +212,59 @@ public class GroovyCompletionProposalComputer implements IJavaCompletionProposal
         return proposals;
     }
 
+    /**
+     * Runs the processors of the given factories one after another and adds
+     * their proposals in factory order.  Once the latency budget (see
+     * {@link PreferenceConstants#GROOVY_CONTENT_ASSIST_TIMEOUT}) is used up or
+     * the monitor is canceled, the running processor is canceled through its
+     * progress monitor and the remaining processors are skipped.  The built-in
+     * processors poll that monitor while inferring types, searching for types
+     * and asking proposal providers, and the type searches stop by throwing
+     * {@link OperationCanceledException}.
+     *
+     * @return {@code true} iff every processor contributed all its proposals
+     */
+    private boolean runProcessors(List<IGroovyCompletionProcessorFactory> factories, ContentAssistContext assistContext,
+            JavaContentAssistInvocationContext javaContext, ModuleNodeInfo moduleInfo, IProgressMonitor monitor,
+            List<ICompletionProposal> proposals) {
+        long budget = GroovyPlugin.getDefault().getPreferenceStore().getInt(PreferenceConstants.GROOVY_CONTENT_ASSIST_TIMEOUT);
+        ProcessorMonitor processorMonitor = new ProcessorMonitor(monitor,
+                budget > 0 ? System.currentTimeMillis() + budget : Long.MAX_VALUE);
+        SearchableEnvironment nameEnvironment = createSearchableEnvironment(javaContext);
+        try {
+            for (IGroovyCompletionProcessorFactory factory : factories) {
+                if (processorMonitor.isCanceled()) {
+                    if (GroovyLogManager.manager.hasLoggers()) {
+                        GroovyLogManager.manager.log(TraceCategory.CONTENT_ASSIST,
+                                "Skipped " + factory.getClass().getSimpleName() + " after " + budget + "ms");
+                    }
+                    return false;
+                }
+                IGroovyCompletionProcessor processor = factory.createProcessor(assistContext, javaContext, nameEnvironment);
+                if (processor != null) {
+                    if (processor instanceof ITypeResolver) {
+                        ((ITypeResolver) processor).setResolverInformation(moduleInfo.module, moduleInfo.resolver);
+                    }
+                    try {
+                        proposals.addAll(processor.generateProposals(processorMonitor));
+                    } catch (OperationCanceledException e) {
+                        if (GroovyLogManager.manager.hasLoggers()) {
+                            GroovyLogManager.manager.log(TraceCategory.CONTENT_ASSIST,
+                                    "Canceled " + factory.getClass().getSimpleName() + " after " + budget + "ms");
+                        }
+                        return false;
+                    }
+                }
+            }
+            // the last processor may have stopped early
+            return !processorMonitor.isCanceled();
+        } finally {
+            if (nameEnvironment != null) {
+                nameEnvironment.cleanup();
+            }
+        }
+    }
+
     /**
      * Make public to allow for testing
      *
@@ -264,8 +327,7 @@ public class GroovyCompletionProposalComputer implements IJavaCompletionProposal
     protected String findCompletionText(IDocument doc, int offset) {
         try{
             if (offset > 0) {
-                ISourceBuffer buffer = new DocumentSourceBuffer(doc);
-                return new ExpressionFinder().findForCompletions(buffer, offset - 1);
+                return new ExpressionFinder().findForCompletions(DocumentTokenWindow.forOffset(doc, offset - 1), offset - 1);
             }
         } catch (ParseException e) {
             // can ignore.  probably just invalid code that is being completed at
@@ -296,8 +358,37 @@ public class GroovyCompletionProposalComputer implements IJavaCompletionProposal
     }
 
     public void sessionEnded() {
+        disposeSession();
+    }
+
+    private void disposeSession() {
+        if (session != null) {
+            session.dispose();
+            session = null;
+        }
     }
 
     public void sessionStarted() {
     }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Reports cancellation once the content assist monitor is canceled or the
+     * latency budget is used up.
+     */
+    private static class ProcessorMonitor extends NullProgressMonitor {
+        private final IProgressMonitor parent;
+        private final long deadline;
+
+        ProcessorMonitor(IProgressMonitor parent, long deadline) {
+            this.parent = parent;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return super.isCanceled() || (parent != null && parent.isCanceled()) || System.currentTimeMillis() > deadline;
+        }
+    }
 }
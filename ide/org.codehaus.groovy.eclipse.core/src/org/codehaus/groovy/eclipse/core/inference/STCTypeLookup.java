@@ -31,7 +31,7 @@ import org.codehaus.groovy.ast.expr.VariableExpression;
 import org.codehaus.groovy.eclipse.core.compiler.CompilerUtils;
 import org.codehaus.groovy.transform.stc.StaticTypesMarker;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
-import org.eclipse.jdt.groovy.search.ITypeLookup;
+import org.eclipse.jdt.groovy.search.ITypeLookupApplicability;
 import org.eclipse.jdt.groovy.search.TypeLookupResult;
 import org.eclipse.jdt.groovy.search.TypeLookupResult.TypeConfidence;
 import org.eclipse.jdt.groovy.search.VariableScope;
@@ -40,7 +40,7 @@ import org.eclipse.jdt.groovy.search.VariableScope;
  * @author Andrew Eisenberg
  * @created 2013-02-25
  */
-public class STCTypeLookup implements ITypeLookup {
+public class STCTypeLookup implements ITypeLookupApplicability {
 
     // only enabled for Groovy 2.1 or greater
     private static final boolean isEnabled = CompilerUtils.getActiveGroovyBundle().getVersion().getMajor() >= 2
@@ -48,6 +48,14 @@ public class STCTypeLookup implements ITypeLookup {
 
     public void initialize(GroovyCompilationUnit unit, VariableScope topLevelScope) {}
 
+    public Class<?>[] getApplicableExpressionKinds() {
+        return isEnabled ? null : new Class<?>[0];
+    }
+
+    public boolean appliesToReceiver(ClassNode objectExpressionType, boolean isStaticObjectExpression) {
+        return true;
+    }
+
     public TypeLookupResult lookupType(Expression node, VariableScope scope, ClassNode objectExpressionType) {
         if (!isEnabled) {
             return null;
@@ -17,8 +17,10 @@ package org.codehaus.groovy.eclipse.core.model;
 
 import static org.codehaus.groovy.eclipse.core.util.ListUtil.newList;
 
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.ClassNode;
@@ -28,12 +30,16 @@ import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.ast.Parameter;
 import org.codehaus.groovy.ast.expr.DeclarationExpression;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
+import org.codehaus.groovy.eclipse.core.GroovyCoreActivator;
+import org.codehaus.jdt.groovy.integration.internal.GroovyIndexingVisitor;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.codehaus.jdt.groovy.model.GroovyNature;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
@@ -45,8 +51,19 @@ import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.Signature;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchParticipant;
+import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.internal.compiler.env.AccessRuleSet;
+import org.eclipse.jdt.internal.core.JavaModelManager;
 import org.eclipse.jdt.internal.core.SourceType;
+import org.eclipse.jdt.internal.core.search.IndexQueryRequestor;
+import org.eclipse.jdt.internal.core.search.PatternSearchJob;
+import org.eclipse.jdt.internal.core.search.indexing.IndexManager;
+import org.eclipse.jdt.internal.core.search.matching.TypeReferencePattern;
 /**
  * @author Andrew Eisenberg
  * @created May 29, 2009
@@ -232,19 +249,39 @@ public class GroovyProjectFacade {
     }
 
 
+    /**
+     * Finds the types with a runnable main method in the source folders of this project (and the projects it depends on).
+     * Scripts are answered straight from the index; of the other compilation units only those that declare a method named
+     * {@code main} are opened.
+     */
     public List<IType> findAllRunnableTypes() throws JavaModelException {
         final List<IType> results = newList();
-        IPackageFragmentRoot[] roots = project.getAllPackageFragmentRoots();
-        for (IPackageFragmentRoot root : roots) {
-            if (!root.isReadOnly()) {
-                IJavaElement[] children = root.getChildren();
-                for (IJavaElement child : children) {
-                    if (child.getElementType() == IJavaElement.PACKAGE_FRAGMENT) {
-                        ICompilationUnit[] units = ((IPackageFragment) child).getCompilationUnits();
-                        for (ICompilationUnit unit : units) {
-                            results.addAll(findAllRunnableTypes(unit));
-                        }
-                    }
+        if (!ensureScriptMarkersIndexed()) {
+            for (ICompilationUnit unit : getSourceUnits()) {
+                results.addAll(findAllRunnableTypes(unit));
+            }
+            return results;
+        }
+        IJavaSearchScope scope = createSourceScope();
+        Set<String> scripts = findIndexedDocuments(createScriptMarkerPattern(), scope);
+        Set<String> mains = findIndexedDocuments(SearchPattern.createPattern("main", IJavaSearchConstants.METHOD,
+                IJavaSearchConstants.DECLARATIONS, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE), scope);
+        for (String path : mains) {
+            ICompilationUnit unit = documentToCompilationUnit(path);
+            if (unit != null) {
+                if (scripts.contains(path)) {
+                    results.add(unit.getType(scriptName(path)));
+                } else {
+                    results.addAll(findAllRunnableTypes(unit));
+                }
+            }
+        }
+        // scripts have a generated main method that may not be in the index
+        for (String path : scripts) {
+            if (!mains.contains(path)) {
+                ICompilationUnit unit = documentToCompilationUnit(path);
+                if (unit != null) {
+                    results.add(unit.getType(scriptName(path)));
                 }
             }
         }
@@ -315,29 +352,126 @@ public class GroovyProjectFacade {
         return false;
     }
 
+    /**
+     * Finds the groovy scripts in the source folders of this project (and the projects it depends on) using the marker that
+     * {@link GroovyIndexingVisitor} records for them.  No compilation unit is opened.
+     */
     public List<IType> findAllScripts() throws JavaModelException {
         final List<IType> results = newList();
-        IPackageFragmentRoot[] roots = project.getAllPackageFragmentRoots();
-        for (IPackageFragmentRoot root : roots) {
+        if (!ensureScriptMarkersIndexed()) {
+            for (ICompilationUnit unit : getSourceUnits()) {
+                if (unit instanceof GroovyCompilationUnit) {
+                    for (IType type : unit.getTypes()) {
+                        if (isGroovyScript(type)) {
+                            results.add(type);
+                        }
+                    }
+                }
+            }
+            return results;
+        }
+        for (String path : findIndexedDocuments(createScriptMarkerPattern(), createSourceScope())) {
+            ICompilationUnit unit = documentToCompilationUnit(path);
+            if (unit instanceof GroovyCompilationUnit) {
+                results.add(unit.getType(scriptName(path)));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Indexes written before {@link GroovyIndexingVisitor} marked scripts have no markers, and nothing re-indexes files that
+     * have not changed. So the index of every groovy project is rebuilt once, and this preference (per project) records
+     * that it was.
+     */
+    private static final String SCRIPT_MARKERS_INDEXED = "groovy.scriptMarkersIndexed.";
+
+    /**
+     * @return true iff the indexes of the groovy projects whose source folders are searched have script markers; if some
+     *         may not, their indexes are rebuilt and compilation units must be opened this time
+     */
+    private boolean ensureScriptMarkersIndexed() throws JavaModelException {
+        Set<IJavaProject> projects = new LinkedHashSet<IJavaProject>();
+        for (IPackageFragmentRoot root : project.getAllPackageFragmentRoots()) {
+            if (!root.isReadOnly() && GroovyNature.hasGroovyNature(root.getJavaProject().getProject())) {
+                projects.add(root.getJavaProject());
+            }
+        }
+        boolean indexed = true;
+        GroovyCoreActivator activator = GroovyCoreActivator.getDefault();
+        for (IJavaProject javaProject : projects) {
+            String key = SCRIPT_MARKERS_INDEXED + javaProject.getElementName();
+            if (!activator.getPreference(key, false)) {
+                IndexManager indexManager = JavaModelManager.getIndexManager();
+                indexManager.removeIndex(javaProject.getPath());
+                indexManager.indexAll(javaProject.getProject());
+                activator.setPreference(key, true);
+                indexed = false;
+            }
+        }
+        return indexed;
+    }
+
+    private List<ICompilationUnit> getSourceUnits() throws JavaModelException {
+        List<ICompilationUnit> units = newList();
+        for (IPackageFragmentRoot root : project.getAllPackageFragmentRoots()) {
             if (!root.isReadOnly()) {
-                IJavaElement[] children = root.getChildren();
-                for (IJavaElement child : children) {
+                for (IJavaElement child : root.getChildren()) {
                     if (child.getElementType() == IJavaElement.PACKAGE_FRAGMENT) {
-                        ICompilationUnit[] units = ((IPackageFragment) child).getCompilationUnits();
-                        for (ICompilationUnit unit : units) {
-                            if (unit instanceof GroovyCompilationUnit) {
-                                for (IType type : unit.getTypes()) {
-                                    if (isGroovyScript(type)) {
-                                        results.add(type);
-                                    }
-                                }
-                            }
+                        for (ICompilationUnit unit : ((IPackageFragment) child).getCompilationUnits()) {
+                            units.add(unit);
                         }
                     }
                 }
             }
         }
-        return results;
+        return units;
+    }
+
+    private IJavaSearchScope createSourceScope() throws JavaModelException {
+        List<IJavaElement> roots = newList();
+        for (IPackageFragmentRoot root : project.getAllPackageFragmentRoots()) {
+            if (!root.isReadOnly()) {
+                roots.add(root);
+            }
+        }
+        return SearchEngine.createJavaSearchScope(roots.toArray(new IJavaElement[roots.size()]));
+    }
+
+    private static SearchPattern createScriptMarkerPattern() {
+        return new TypeReferencePattern(null, GroovyIndexingVisitor.SCRIPT_MARKER, SearchPattern.R_EXACT_MATCH | SearchPattern.R_CASE_SENSITIVE);
+    }
+
+    /**
+     * Queries the index only; unlike a regular search no match locating (and so no parsing) takes place.
+     *
+     * @return paths of the documents in scope that have an index entry matching the pattern
+     */
+    private static Set<String> findIndexedDocuments(SearchPattern pattern, IJavaSearchScope scope) {
+        final Set<String> paths = new LinkedHashSet<String>();
+        IndexQueryRequestor requestor = new IndexQueryRequestor() {
+            @Override
+            public boolean acceptIndexMatch(String documentPath, SearchPattern indexRecord, SearchParticipant participant, AccessRuleSet access) {
+                paths.add(documentPath);
+                return true;
+            }
+        };
+        JavaModelManager.getIndexManager().performConcurrentJob(
+                new PatternSearchJob(pattern, SearchEngine.getDefaultSearchParticipant(), scope, requestor),
+                IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
+        return paths;
+    }
+
+    private static ICompilationUnit documentToCompilationUnit(String path) {
+        IFile file = ResourcesPlugin.getWorkspace().getRoot().getFile(new Path(path));
+        return JavaCore.createCompilationUnitFrom(file);
+    }
+
+    /**
+     * @return the name of the class that the compiler generates for the script at the given path
+     */
+    private static String scriptName(String path) {
+        return new Path(path).removeFileExtension().lastSegment();
     }
 
     public boolean isGroovyScript(ICompilationUnit unit) {
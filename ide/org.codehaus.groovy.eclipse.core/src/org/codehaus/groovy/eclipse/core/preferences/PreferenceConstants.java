@@ -84,6 +84,9 @@ public interface PreferenceConstants {
     // if true use parameter guessing proposals
     public static final String GROOVY_CONTENT_PARAMETER_GUESSING = "groovy.contentassist.parameterguessing";
 
+    // milliseconds to wait for content assist processors before showing the proposals found so far; 0 waits for all of them
+    public static final String GROOVY_CONTENT_ASSIST_TIMEOUT = "groovy.contentassist.timeout";
+
     // if true, then groovy internal stack frames are de-emphasized
     public static final String GROOVY_DEBUG_FILTER_STACK = "groovy.debug.filter.stack";
 
@@ -42,9 +42,18 @@ public class ExpressionFinder {
      * @throws ParseException
      */
     public String findForCompletions(ISourceBuffer sourceBuffer, int offset) throws ParseException {
+        return findForCompletions(new TokenWindow(sourceBuffer), offset);
+    }
+
+    /**
+     * Same as {@link #findForCompletions(ISourceBuffer, int)}, but reuses the
+     * tokens already lexed in the window and keeps the ones lexed now.
+     */
+    public String findForCompletions(TokenWindow window, int offset) throws ParseException {
+        ISourceBuffer sourceBuffer = window.getBuffer();
         Token token = null;
         int endOffset = 0;
-        TokenStream stream = new TokenStream(sourceBuffer, offset);
+        TokenStream stream = new TokenStream(window, offset);
         try {
             token = stream.peek();
             if (token.type == Token.EOF) {
@@ -28,8 +28,18 @@ import org.codehaus.groovy.eclipse.core.impl.ReverseSourceBuffer;
  */
 public class TokenStream {
     private static final Token TOKEN_EOF = new Token(Token.EOF, -1, -1, null);
+    /** marks that lexing a token did not change {@link #last} */
+    private static final Token LAST_UNCHANGED = new Token(Token.EOF, -1, -1, null);
 //	private static final Token TOKEN_LINE_BREAK = new Token(Token.LINE_BREAK, -1, -1, null);
 
+    // the patterns are matched against the reversed source, starting at the current offset
+    private static final Pattern SINGLE_QUOTE = Pattern.compile("^\'.*\'");
+    private static final Pattern TRIPLE_SINGLE_QUOTE = Pattern.compile("^\'\'\'.*\'\'\'");
+    private static final Pattern DOUBLE_QUOTE = Pattern.compile("^\".*\"");
+    private static final Pattern TRIPLE_DOUBLE_QUOTE = Pattern.compile("^\"\"\".*\"\"\"");
+    private static final Pattern LINE_COMMENT = Pattern.compile(".*//");
+    private static final Pattern BLOCK_COMMENT = Pattern.compile("(?s)/\\*.*\\*/");
+
     private ISourceBuffer buffer;
 
     private int offset;
@@ -40,8 +50,19 @@ public class TokenStream {
 
     private Token next = null;
 
+    private final TokenWindow window;
+
     public TokenStream(ISourceBuffer buffer, int offset) {
-        this.buffer = buffer;
+        this(new TokenWindow(buffer), offset);
+    }
+
+    /**
+     * Creates a stream that shares the tokens it lexes with the other streams
+     * over the window.
+     */
+    public TokenStream(TokenWindow window, int offset) {
+        this.window = window;
+        this.buffer = window.getBuffer();
         this.offset = offset;
         this.ch = buffer.charAt(offset);
     }
@@ -84,6 +105,32 @@ public class TokenStream {
             return TOKEN_EOF;
         }
 
+        TokenWindow.Step step = window.get(offset);
+        if (step == null) {
+            int start = offset;
+            Token previous = last;
+            last = LAST_UNCHANGED;
+            try {
+                Token token = lex();
+                boolean setsLast = (last != LAST_UNCHANGED);
+                window.put(start, new TokenWindow.Step(token, offset, ch, next, setsLast));
+                return token;
+            } finally {
+                if (last == LAST_UNCHANGED) {
+                    last = previous;
+                }
+            }
+        }
+        offset = step.offset;
+        ch = step.ch;
+        next = step.next;
+        if (step.setsLast) {
+            last = step.token;
+        }
+        return step.token;
+    }
+
+    private Token lex() throws TokenStreamException {
         if (Character.isWhitespace(ch)) {
             skipWhite();
             if (offset == -1) {
@@ -239,11 +286,11 @@ public class TokenStream {
         Pattern singleQuote;
         Pattern tripleQuote;
         if (quote == '\'') {
-            singleQuote = Pattern.compile("^\'.*\'");
-            tripleQuote = Pattern.compile("^\'\'\'.*\'\'\'");
+            singleQuote = SINGLE_QUOTE;
+            tripleQuote = TRIPLE_SINGLE_QUOTE;
         } else {
-            singleQuote = Pattern.compile("^\".*\"");
-            tripleQuote = Pattern.compile("^\"\"\".*\"\"\"");
+            singleQuote = DOUBLE_QUOTE;
+            tripleQuote = TRIPLE_DOUBLE_QUOTE;
         }
 
         Token token = matchQuote(tripleQuote);
@@ -263,7 +310,7 @@ public class TokenStream {
     private Token matchQuote(Pattern quotePattern) {
         ISourceBuffer matchBuffer = new ReverseSourceBuffer(this.buffer, offset);
         Matcher matcher = quotePattern.matcher(matchBuffer);
-        if (matcher.find()) {
+        if (matcher.lookingAt()) {
             String match = matcher.group(0);
             int endOffset = offset + 1;
             int startOffset = offset - match.length() + 1;
@@ -291,9 +338,9 @@ public class TokenStream {
 
     private Token skipLineComment() {
         ISourceBuffer matchBuffer = new ReverseSourceBuffer(this.buffer, offset);
-        Pattern pattern = Pattern.compile(".*//");
-        Matcher matcher = pattern.matcher(matchBuffer);
-        if (matcher.find() && matcher.start()==0) {
+        // only a comment that ends the line; searching the rest of the source would be quadratic
+        Matcher matcher = LINE_COMMENT.matcher(matchBuffer);
+        if (matcher.lookingAt()) {
             String match = matcher.group(0);
             int endOffset = offset + 1;
             int startOffset = offset - match.length() + 1;
@@ -319,8 +366,7 @@ public class TokenStream {
 
     private Token scanBlockComment() {
         ISourceBuffer matchBuffer = new ReverseSourceBuffer(this.buffer, offset);
-        Pattern pattern = Pattern.compile("(?s)/\\*.*\\*/");
-        Matcher matcher = pattern.matcher(matchBuffer);
+        Matcher matcher = BLOCK_COMMENT.matcher(matchBuffer);
         if (matcher.find()) {
             String match = matcher.group(0);
             int endOffset = offset + 1;
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.core.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.codehaus.groovy.eclipse.core.ISourceBuffer;
+
+/**
+ * The tokens lexed so far by the {@link TokenStream}s over one source buffer.
+ * Lexing backwards from an offset only reads the characters at or before that
+ * offset, so a token lexed from some offset can be handed to every stream that
+ * reaches the same offset, for as long as the buffer does not change at or
+ * before it.  Tokens are lexed lazily, the first time a stream asks for them.
+ * <p>
+ * If the underlying buffer changes, {@link #invalidate(int)} must be called
+ * with the offset of the first changed character.
+ */
+public class TokenWindow {
+
+    /** the result of lexing one token from a given offset */
+    static class Step {
+        final Token token;
+        final int offset;
+        final char ch;
+        final Token next;
+        final boolean setsLast;
+
+        Step(Token token, int offset, char ch, Token next, boolean setsLast) {
+            this.token = token;
+            this.offset = offset;
+            this.ch = ch;
+            this.next = next;
+            this.setsLast = setsLast;
+        }
+    }
+
+    private final ISourceBuffer buffer;
+
+    /** lexer start offset to step */
+    private final Map<Integer, Step> steps = new HashMap<Integer, Step>();
+
+    private int lexed;
+
+    private int reused;
+
+    public TokenWindow(ISourceBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public ISourceBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Forgets the tokens that were lexed from the given offset or after it.
+     */
+    public synchronized void invalidate(int offset) {
+        for (Iterator<Integer> it = steps.keySet().iterator(); it.hasNext();) {
+            if (it.next().intValue() >= offset) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @return number of tokens that had to be lexed
+     */
+    public synchronized int getLexedCount() {
+        return lexed;
+    }
+
+    /**
+     * @return number of tokens that were answered without lexing
+     */
+    public synchronized int getReusedCount() {
+        return reused;
+    }
+
+    synchronized Step get(int offset) {
+        Step step = steps.get(offset);
+        if (step != null) {
+            reused += 1;
+        }
+        return step;
+    }
+
+    synchronized void put(int offset, Step step) {
+        lexed += 1;
+        steps.put(offset, step);
+    }
+}
@@ -21,8 +21,12 @@ import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.groovy.eclipse.dsl.contributions.IContributionElement;
 import org.codehaus.groovy.eclipse.dsl.contributions.IContributionGroup;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.AbstractPointcut;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.IPointcut;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.FileExtensionPointcut;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.ProjectNaturePointcut;
+import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.SourceFolderOfFilePointcut;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IStorage;
 import org.eclipse.jdt.internal.core.NonJavaResource;
@@ -41,9 +45,25 @@ public class DSLDStore {
     /** Maps keys (such as script names) to the pointcuts they produce. */
     private final Map<IStorage, Set<IPointcut>> keyContextMap =
         new HashMap<IStorage, Set<IPointcut>>();
+    /**
+     * Maps (project natures, source folder, file extension) to the pointcuts
+     * whose fast match is decided by those alone.  Guarded by, and cleared on
+     * any change to, {@link #pointcutContributionMap}.
+     */
+    private final Map<String, FolderAndExtensionMatches> folderAndExtensionMap =
+        new HashMap<String, FolderAndExtensionMatches>();
+
+    /** Fast match results shared by all files of a source folder with the same extension. */
+    private static class FolderAndExtensionMatches {
+        /** pointcuts that fast match every such file */
+        final DSLDStore matched = new DSLDStore();
+        /** pointcuts that must be fast matched against each file */
+        final Map<IPointcut, List<IContributionGroup>> undecided = new LinkedHashMap<IPointcut, List<IContributionGroup>>();
+    }
 
     public void addContributionGroup(IPointcut pointcut, IContributionGroup contribution) {
         synchronized (pointcutContributionMap) {
+            folderAndExtensionMap.clear();
             List<IContributionGroup> contributions = pointcutContributionMap.get(pointcut);
             if (contributions == null) {
                 contributions = new ArrayList<IContributionGroup>();
@@ -73,6 +93,7 @@ public class DSLDStore {
         }
         if (pointcuts != null) {
             synchronized (pointcutContributionMap) {
+                folderAndExtensionMap.clear();
                 for (IPointcut pointcut : pointcuts) {
                     pointcutContributionMap.remove(pointcut);
                 }
@@ -80,11 +101,18 @@ public class DSLDStore {
         }
     }
 
+    public boolean isEmpty() {
+        synchronized (pointcutContributionMap) {
+            return pointcutContributionMap.isEmpty();
+        }
+    }
+
     public void purgeAll() {
         synchronized (keyContextMap) {
             keyContextMap.clear();
         }
         synchronized (pointcutContributionMap) {
+            folderAndExtensionMap.clear();
             pointcutContributionMap.clear();
         }
     }
@@ -110,8 +138,100 @@ public class DSLDStore {
         return subStore;
     }
 
+    /**
+     * Same as {@link #createSubStore(GroovyDSLDContext)}, except that pointcuts
+     * whose fast match depends only on the project natures, the source folder
+     * and the extension of the file are matched once for all files that share
+     * them.  Checking a whole project then repeats only the file specific part
+     * of the matching for each file.
+     * <p>
+     * The returned store may be shared and must not be changed.
+     *
+     * @param pattern the pattern to match against
+     * @return a {@link DSLDStore} containing only matches against the pattern
+     */
+    public DSLDStore getSubStore(GroovyDSLDContext pattern) {
+        if (pattern.fullPathName == null || pattern.packageRootPath == null) {
+            return createSubStore(pattern);
+        }
+        synchronized (pointcutContributionMap) {
+            String key = Arrays.toString(pattern.projectNatures) + ':' + pattern.packageRootPath + ':' + extensionOf(pattern.simpleFileName);
+            FolderAndExtensionMatches matches = folderAndExtensionMap.get(key);
+            if (matches == null) {
+                matches = new FolderAndExtensionMatches();
+                for (Map.Entry<IPointcut, List<IContributionGroup>> entry : pointcutContributionMap.entrySet()) {
+                    if (!isDecidedByFolderAndExtension(entry.getKey(), pattern)) {
+                        matches.undecided.put(entry.getKey(), entry.getValue());
+                    } else if (entry.getKey().fastMatch(pattern)) {
+                        matches.matched.addAllContributions(entry.getKey(), entry.getValue());
+                    }
+                }
+                folderAndExtensionMap.put(key, matches);
+            }
+            if (matches.undecided.isEmpty()) {
+                return matches.matched;
+            }
+            DSLDStore subStore = new DSLDStore();
+            // keep the order of the pointcuts of this store
+            for (Map.Entry<IPointcut, List<IContributionGroup>> entry : pointcutContributionMap.entrySet()) {
+                List<IContributionGroup> matched = matches.matched.pointcutContributionMap.get(entry.getKey());
+                if (matched != null || (matches.undecided.containsKey(entry.getKey()) && entry.getKey().fastMatch(pattern))) {
+                    subStore.addAllContributions(entry.getKey(), entry.getValue());
+                }
+            }
+            return subStore;
+        }
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot + 1);
+    }
+
+    /**
+     * @return true iff the fast match of the pointcut gives the same answer for
+     *         every file that has the project natures, source folder and
+     *         extension of the pattern's file
+     */
+    private static boolean isDecidedByFolderAndExtension(IPointcut pointcut, GroovyDSLDContext pattern) {
+        if (pointcut instanceof ProjectNaturePointcut) {
+            return true;
+        }
+        if (pointcut instanceof FileExtensionPointcut) {
+            // "*.test.groovy" would depend on the file name
+            Object extension = ((FileExtensionPointcut) pointcut).getFirstArgument();
+            return extension instanceof String && ((String) extension).indexOf('.') < 0;
+        }
+        if (pointcut instanceof SourceFolderOfFilePointcut) {
+            // decided unless the folder reaches into the packages of the source folder
+            Object folder = ((SourceFolderOfFilePointcut) pointcut).getFirstArgument();
+            String root = pattern.packageRootPath + '/';
+            return folder instanceof String && (root.startsWith((String) folder) || !((String) folder).startsWith(root));
+        }
+        if (pointcut instanceof AbstractPointcut && usesDefaultFastMatch(pointcut)) {
+            // fast matches iff all of its pointcut arguments fast match
+            for (Object argument : ((AbstractPointcut) pointcut).getArgumentValues()) {
+                if (argument instanceof IPointcut && !isDecidedByFolderAndExtension((IPointcut) argument, pattern)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        // file names, package folders, negations and anything unknown
+        return false;
+    }
+
+    private static boolean usesDefaultFastMatch(IPointcut pointcut) {
+        try {
+            return pointcut.getClass().getMethod("fastMatch", GroovyDSLDContext.class).getDeclaringClass() == AbstractPointcut.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     public void addAllContributions(IPointcut pointcut, List<IContributionGroup> contributions) {
         synchronized (pointcutContributionMap) {
+            folderAndExtensionMap.clear();
             List<IContributionGroup> existing = pointcutContributionMap.get(pointcut);
             if (existing == null) {
                 pointcutContributionMap.put(pointcut, contributions);
@@ -72,7 +72,15 @@ public class DSLDTypeLookup extends AbstractSimplifiedTypeLookup implements ITyp
             GroovyDSLCoreActivator.logException(e);
         }
         store = contextStoreManager.getDSLDStore(unit.getJavaProject());
-        store = store.createSubStore(pattern);
+        store = store.getSubStore(pattern);
+    }
+
+    /**
+     * Not asked about any expression when no pointcut of any DSLD matches the compilation unit.
+     */
+    @Override
+    public Class<?>[] getApplicableExpressionKinds() {
+        return store == null || store.isEmpty() ? new Class<?>[0] : super.getApplicableExpressionKinds();
     }
 
     // FIXADE Should shortcut if we find a solution earlier.
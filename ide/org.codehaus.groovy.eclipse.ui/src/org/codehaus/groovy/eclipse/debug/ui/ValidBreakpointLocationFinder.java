@@ -15,6 +15,9 @@
  */
 package org.codehaus.groovy.eclipse.debug.ui;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.FieldNode;
@@ -33,43 +36,48 @@ import org.codehaus.groovy.eclipse.core.search.LexicalClassVisitor;
  * The result is the first valid location with a line number greater or equals than the given position.
  * A valid location is considered to be the last expression or statement on a given line
  *
+ * The candidate locations of a module are collected once and kept with the module node,
+ * so validating or relocating any number of breakpoints in a file costs a single pass over its AST.
  */
 public class ValidBreakpointLocationFinder {
 
-    private class VisitCompleted extends RuntimeException {
-        private static final long serialVersionUID = 1L;
-    }
-
-    private ASTNode lastValid = null;
+    private static final String LOCATIONS_KEY = ValidBreakpointLocationFinder.class.getName();
 
-    private int startLine;
+    private final int startLine;
 
     public ValidBreakpointLocationFinder(int startLine) {
         this.startLine = startLine;
     }
 
-    private void validateNode(ASTNode node) throws VisitCompleted {
-
-        // can't set a breakpoint at these locations
-        if (node.getLineNumber() == -1 || node instanceof Statement || node instanceof ClosureExpression
-                || node instanceof ClassNode || /* node instanceof MethodNode || */node instanceof FieldNode) {
-            return;
-        }
+    public ASTNode findValidBreakpointLocation(ModuleNode module) {
+        return getLocations(module).find(startLine);
+    }
 
-        if (node.getLineNumber() == startLine) {
-            lastValid = node;
-            // keep on searching until the line is over
-        } else if (node.getLineNumber() > startLine) {
-            if (lastValid == null) {
-                lastValid = node;
+    /**
+     * @return the breakpoint locations of the module, computed on first request
+     */
+    public static Locations getLocations(ModuleNode module) {
+        synchronized (module) {
+            Locations locations = (Locations) module.getNodeMetaData(LOCATIONS_KEY);
+            if (locations == null) {
+                locations = new Locations(module);
+                module.setNodeMetaData(LOCATIONS_KEY, locations);
             }
-            throw new VisitCompleted();
+            return locations;
         }
     }
 
-    public ASTNode findValidBreakpointLocation(ModuleNode module) {
-        LexicalClassVisitor visitor = new LexicalClassVisitor(module);
-        try {
+    /**
+     * The nodes of a module that a breakpoint can be put on, in lexical order, along with their line numbers.
+     */
+    public static class Locations {
+        private final ASTNode[] nodes;
+        private final int[] lines;
+        private final boolean ascending;
+
+        Locations(ModuleNode module) {
+            List<ASTNode> candidates = new ArrayList<ASTNode>();
+            LexicalClassVisitor visitor = new LexicalClassVisitor(module);
             boolean skipNext = false;
             while (visitor.hasNextNode()) {
                 ASTNode node = visitor.getNextNode();
@@ -85,11 +93,62 @@ public class ValidBreakpointLocationFinder {
                     // variable expression in a declaration expression with no
                     // initializer
                     skipNext = false;
-                } else {
-                    validateNode(node);
+                } else if (isValid(node)) {
+                    candidates.add(node);
+                }
+            }
+
+            nodes = candidates.toArray(new ASTNode[candidates.size()]);
+            lines = new int[nodes.length];
+            boolean sorted = true;
+            for (int i = 0; i < nodes.length; i += 1) {
+                lines[i] = nodes[i].getLineNumber();
+                if (i > 0 && lines[i] < lines[i - 1]) {
+                    sorted = false;
                 }
             }
-        } catch (VisitCompleted vc) {}
-        return lastValid;
+            ascending = sorted;
+        }
+
+        private static boolean isValid(ASTNode node) {
+            // can't set a breakpoint at these locations
+            return !(node.getLineNumber() == -1 || node instanceof Statement || node instanceof ClosureExpression
+                    || node instanceof ClassNode || /* node instanceof MethodNode || */node instanceof FieldNode);
+        }
+
+        /**
+         * @return the last location on the given line or, if there is none,
+         *         the first location after it
+         */
+        public ASTNode find(int line) {
+            if (ascending) {
+                // index of the first location after the line
+                int low = 0, high = lines.length;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (lines[mid] <= line) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                if (low > 0 && lines[low - 1] == line) {
+                    return nodes[low - 1];
+                }
+                return low < nodes.length ? nodes[low] : null;
+            }
+
+            // visit order and line order disagree; search the way a visit of the module would
+            ASTNode lastValid = null;
+            for (int i = 0; i < lines.length; i += 1) {
+                if (lines[i] == line) {
+                    lastValid = nodes[i];
+                    // keep on searching until the line is over
+                } else if (lines[i] > line) {
+                    return lastValid != null ? lastValid : nodes[i];
+                }
+            }
+            return lastValid;
+        }
     }
 }
@@ -126,6 +126,8 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.ui.IEditorInput;
+import org.eclipse.ui.IPartListener2;
+import org.eclipse.ui.IWorkbenchPartReference;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.actions.ActionGroup;
 import org.eclipse.ui.part.FileEditorInput;
@@ -631,10 +633,71 @@ public class GroovyEditor extends CompilationUnitEditor {
 
     private final GroovyBracketInserter groovyBracketInserter = new GroovyBracketInserter();
 
+    /**
+     * How long the editor must stay hidden before the module node of its
+     * compilation unit is dropped, so that switching between editors does not
+     * force a parse each time.
+     */
+    private static final long COMPACT_DELAY = 60000;
+
+    /**
+     * Drops the module node of the editor's compilation unit.
+     */
+    private final Job compactJob = new Job("Compact module node") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            GroovyCompilationUnit unit = getGroovyCompilationUnit();
+            if (unit != null && !monitor.isCanceled()) {
+                unit.compactModuleNode();
+            }
+            return Status.OK_STATUS;
+        }
+    };
+
+    /**
+     * Drops the module node of the editor's compilation unit once the editor
+     * has been hidden for a while and parses it again when the editor is shown.
+     */
+    private final IPartListener2 visibilityListener = new IPartListener2() {
+        public void partHidden(IWorkbenchPartReference partRef) {
+            if (partRef.getPart(false) == GroovyEditor.this) {
+                compactJob.schedule(COMPACT_DELAY);
+            }
+        }
+
+        public void partVisible(IWorkbenchPartReference partRef) {
+            if (partRef.getPart(false) == GroovyEditor.this) {
+                compactJob.cancel();
+                final GroovyCompilationUnit unit = getGroovyCompilationUnit();
+                // only parse again if the module node was actually dropped
+                if (unit != null && unit.getCompactModuleInfo() != null) {
+                    Job job = new Job("Rehydrate module node of " + unit.getElementName()) {
+                        @Override
+                        protected IStatus run(IProgressMonitor monitor) {
+                            unit.getModuleNode();
+                            return Status.OK_STATUS;
+                        }
+                    };
+                    job.setSystem(true);
+                    job.setPriority(Job.SHORT);
+                    job.schedule();
+                }
+            }
+        }
+
+        public void partActivated(IWorkbenchPartReference partRef) { }
+        public void partBroughtToTop(IWorkbenchPartReference partRef) { }
+        public void partClosed(IWorkbenchPartReference partRef) { }
+        public void partDeactivated(IWorkbenchPartReference partRef) { }
+        public void partOpened(IWorkbenchPartReference partRef) { }
+        public void partInputChanged(IWorkbenchPartReference partRef) { }
+    };
+
     public GroovyEditor() {
         super();
         setRulerContextMenuId("#GroovyCompilationUnitRulerContext");
         setEditorContextMenuId("#GroovyCompilationUnitEditorContext");
+        compactJob.setSystem(true);
     }
 
     @Override
@@ -683,6 +746,8 @@ public class GroovyEditor extends CompilationUnitEditor {
 
     @Override
     public void dispose() {
+        getSite().getPage().removePartListener(visibilityListener);
+        compactJob.cancel();
         super.dispose();
         uninstallGroovySemanticHighlighting();
 
@@ -1010,6 +1075,8 @@ public class GroovyEditor extends CompilationUnitEditor {
         }
 
         disableBracketInserter();
+
+        getSite().getPage().addPartListener(visibilityListener);
     }
 
     private void disableBracketInserter() {
@@ -28,15 +28,17 @@ import org.codehaus.groovy.eclipse.GroovyPlugin;
 import org.codehaus.groovy.eclipse.core.preferences.PreferenceConstants;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.preference.PreferenceConverter;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.TextAttribute;
 import org.eclipse.jface.text.rules.EndOfLineRule;
 import org.eclipse.jface.text.rules.ICharacterScanner;
+import org.eclipse.jface.text.rules.IPartitionTokenScanner;
 import org.eclipse.jface.text.rules.IPredicateRule;
 import org.eclipse.jface.text.rules.IRule;
 import org.eclipse.jface.text.rules.IToken;
 import org.eclipse.jface.text.rules.IWordDetector;
 import org.eclipse.jface.text.rules.MultiLineRule;
-import org.eclipse.jface.text.rules.RuleBasedPartitionScanner;
 import org.eclipse.jface.text.rules.SingleLineRule;
 import org.eclipse.jface.text.rules.Token;
 import org.eclipse.jface.text.rules.WordRule;
@@ -44,7 +46,22 @@ import org.eclipse.swt.SWT;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.RGB;
 
-public class GroovyPartitionScanner extends RuleBasedPartitionScanner {
+/**
+ * Splits Groovy source into comment and string partitions.  The scanner is a
+ * hand-written state machine rather than a set of rules tried at each character:
+ * code is skipped one character at a time until a comment or string delimiter,
+ * and the end of a partition is found by scanning for its closing delimiter.
+ * <p>
+ * A partition can be scanned again from its first character only, so when the
+ * partitioner resumes inside a partition the scanner starts over from the
+ * opening delimiter.  That lets the partitioner stop repairing as soon as the
+ * partitions it gets back match the ones it had before the edit.
+ * <p>
+ * Triple-quoted and dollar-slashy strings that are not closed, and single-line
+ * strings that are not closed before the end of the document, do not start a
+ * partition.
+ */
+public class GroovyPartitionScanner implements IPartitionTokenScanner {
 
     public final static String GROOVY_MULTILINE_STRINGS= "__groovy_multiline_string"; //$NON-NLS-1$
     /**
@@ -99,20 +116,228 @@ public class GroovyPartitionScanner extends RuleBasedPartitionScanner {
         }
     }
 
+    private static final int CODE = 0;
+    private static final int SINGLE_LINE_COMMENT = 1;
+    private static final int MULTI_LINE_COMMENT = 2;
+    private static final int JAVADOC = 3;
+    private static final int STRING = 4;
+    private static final int MULTILINE_STRING = 5;
+
+    private static final IToken[] TOKENS = {
+        new Token(null),
+        new Token(JAVA_SINGLE_LINE_COMMENT),
+        new Token(JAVA_MULTI_LINE_COMMENT),
+        new Token(JAVA_DOC),
+        new Token(JAVA_STRING),
+        new Token(GROOVY_MULTILINE_STRINGS)
+    };
+
+    private static final int BUFFER_SIZE = 2048;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    private int bufferStart, bufferEnd;
+
+    private IDocument document;
+
+    private int rangeEnd;
+
+    private int position;
+
+    private int tokenOffset, tokenLength;
+
+    /** the partition found by the last call to {@link #scanPartition(int)} */
+    private int scannedOffset = -1, scannedEnd, scannedState;
+
+    public void setRange(IDocument document, int offset, int length) {
+        setPartialRange(document, offset, length, null, offset);
+    }
+
+    public void setPartialRange(IDocument document, int offset, int length, String contentType, int partitionOffset) {
+        this.document = document;
+        this.rangeEnd = Math.min(offset + length, document.getLength());
+        this.bufferStart = this.bufferEnd = 0;
+        this.scannedOffset = -1;
+        // the state inside a partition is only known from its opening delimiter
+        if (contentType != null && partitionOffset >= 0 && partitionOffset < offset) {
+            this.position = partitionOffset;
+        } else {
+            this.position = offset;
+        }
+        this.tokenOffset = this.position;
+        this.tokenLength = 0;
+    }
+
+    public IToken nextToken() {
+        tokenOffset = position;
+        if (position >= rangeEnd) {
+            tokenLength = 0;
+            return Token.EOF;
+        }
+        int state = CODE;
+        if (scanPartition(position)) {
+            state = scannedState;
+            position = scannedEnd;
+        } else {
+            do {
+                position += 1;
+            } while (position < rangeEnd && !scanPartition(position));
+        }
+        tokenLength = position - tokenOffset;
+        return TOKENS[state];
+    }
+
+    public int getTokenOffset() {
+        return tokenOffset;
+    }
+
+    public int getTokenLength() {
+        return tokenLength;
+    }
+
     /**
-     * Creates the partitioner and sets up the appropriate rules.
+     * @return true iff a comment or string starts at the given offset, in which case its end and state are left in
+     *         {@link #scannedEnd} and {@link #scannedState}
      */
-    public GroovyPartitionScanner() {
-        super();
+    private boolean scanPartition(int offset) {
+        if (offset == scannedOffset) {
+            return true;
+        }
+        int end = -1, state = CODE;
+        int c = charAt(offset);
+        if (c == '/') {
+            int next = charAt(offset + 1);
+            if (next == '/') {
+                state = SINGLE_LINE_COMMENT;
+                end = endOfLine(offset + 2);
+            } else if (next == '*') {
+                if (isEmptyComment(offset)) {
+                    state = MULTI_LINE_COMMENT;
+                    end = offset + 4;
+                } else if (charAt(offset + 2) == '*') {
+                    state = JAVADOC;
+                    end = endOfComment(offset + 3);
+                } else {
+                    state = MULTI_LINE_COMMENT;
+                    end = endOfComment(offset + 2);
+                }
+            }
+        } else if (c == '\'' || c == '"') {
+            if (charAt(offset + 1) == c && charAt(offset + 2) == c) {
+                state = MULTILINE_STRING;
+                end = endOfMultilineString(offset + 3, (char) c);
+            }
+            // GRECLIPSE-1111 an unterminated triple quote starts a single-line string
+            if (end < 0) {
+                state = STRING;
+                end = endOfString(offset + 1, (char) c);
+            }
+        } else if (c == '$' && charAt(offset + 1) == '/') {
+            state = MULTILINE_STRING;
+            end = endOfDollarSlashyString(offset + 2);
+        }
+        if (end < 0) {
+            return false;
+        }
+        scannedOffset = offset;
+        scannedEnd = end;
+        scannedState = state;
+        return true;
+    }
+
+    /** an empty comment is a word of exactly <code>/**&#47;</code> */
+    private boolean isEmptyComment(int offset) {
+        if (charAt(offset + 2) != '*' || charAt(offset + 3) != '/') {
+            return false;
+        }
+        int next = charAt(offset + 4);
+        return next != '*' && next != '/';
+    }
+
+    /** @return the offset after the line delimiter, which belongs to the comment */
+    private int endOfLine(int offset) {
+        for (int c = charAt(offset); c != -1; c = charAt(++offset)) {
+            if (c == '\n') {
+                return offset + 1;
+            }
+            if (c == '\r') {
+                return charAt(offset + 1) == '\n' ? offset + 2 : offset + 1;
+            }
+        }
+        return offset;
+    }
+
+    /** comments that are not closed run to the end of the document */
+    private int endOfComment(int offset) {
+        for (int c = charAt(offset); c != -1; c = charAt(++offset)) {
+            if (c == '*' && charAt(offset + 1) == '/') {
+                return offset + 2;
+            }
+        }
+        return offset;
+    }
 
-        List<IRule> rules = createRules(false);
+    private int endOfString(int offset, char quote) {
+        for (int c = charAt(offset); c != -1; c = charAt(++offset)) {
+            if (c == '\\') {
+                offset += 1;
+            } else if (c == quote) {
+                return offset + 1;
+            } else if (c == '\n' || c == '\r') {
+                return charAt(offset + 1) == '\n' && c == '\r' ? offset + 2 : offset + 1;
+            }
+        }
+        return -1;
+    }
 
+    private int endOfMultilineString(int offset, char quote) {
+        for (int c = charAt(offset); c != -1; c = charAt(++offset)) {
+            if (c == '\\') {
+                offset += 1;
+            } else if (c == quote && charAt(offset + 1) == quote && charAt(offset + 2) == quote) {
+                return offset + 3;
+            }
+        }
+        return -1;
+    }
 
-        IPredicateRule[] result= new IPredicateRule[rules.size()];
-        rules.toArray(result);
-        setPredicateRules(result);
+    private int endOfDollarSlashyString(int offset) {
+        for (int c = charAt(offset); c != -1; c = charAt(++offset)) {
+            if (c == '$') {
+                int next = charAt(offset + 1);
+                if (next == '$' || next == '/') {
+                    offset += 1; // escaped
+                }
+            } else if (c == '/' && charAt(offset + 1) == '$') {
+                return offset + 2;
+            }
+        }
+        return -1;
     }
 
+    /**
+     * @return the character at the given offset, or -1 if it is past the end of the range
+     */
+    private int charAt(int offset) {
+        if (offset >= rangeEnd) {
+            return -1;
+        }
+        if (offset < bufferStart || offset >= bufferEnd) {
+            bufferStart = offset;
+            bufferEnd = Math.min(offset + BUFFER_SIZE, rangeEnd);
+            try {
+                document.get(bufferStart, bufferEnd - bufferStart).getChars(0, bufferEnd - bufferStart, buffer, 0);
+            } catch (BadLocationException e) {
+                bufferEnd = bufferStart;
+                return -1;
+            }
+        }
+        return buffer[offset - bufferStart];
+    }
+
+    /**
+     * Rules for rule-based scanners that approximate the partitions of this scanner.
+     */
     public static List<IRule> createRules(boolean withColor) {
         IPreferenceStore store = GroovyPlugin.getDefault().getPreferenceStore();
 
@@ -16,6 +16,7 @@
 package org.codehaus.groovy.eclipse.editor.outline;
 
 import org.codehaus.groovy.eclipse.editor.GroovyEditor;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.internal.ui.IJavaHelpContextIds;
 import org.eclipse.jdt.internal.ui.JavaPlugin;
@@ -53,7 +54,14 @@ public class GroovyOutlinePage extends JavaOutlinePage {
 
         JavaOutlineViewer outlineViewer = getOutlineViewer();
         if (outlineViewer != null) {
-            outlineViewer.refresh();
+            // only refresh the parts of the tree that changed
+            for (IJavaElement element : outlineUnit.getChangedElements()) {
+                if (element == outlineUnit) {
+                    outlineViewer.refresh();
+                    break;
+                }
+                outlineViewer.refresh(element);
+            }
         }
     }
 
@@ -15,13 +15,21 @@
  */
 package org.codehaus.groovy.eclipse.editor.outline;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IField;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IParent;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.internal.core.OpenableElementInfo;
@@ -38,6 +46,15 @@ public abstract class OCompilationUnit extends GroovyCompilationUnit implements
 
     private IJavaElement[] children = null;
 
+    /** the module node that {@link #children} were computed from */
+    private ASTNode refreshedNode;
+
+    /** label relevant state of every element shown after the last refresh */
+    private Map<IJavaElement, String> signatures = new IdentityHashMap<IJavaElement, String>();
+
+    /** elements that must be refreshed in the outline viewer after the last refresh */
+    private List<IJavaElement> changedElements = new ArrayList<IJavaElement>();
+
     public OCompilationUnit(GroovyCompilationUnit unit) {
         super((PackageFragment) unit.getParent(), unit.getElementName(), unit.getOwner());
         this.unit = unit;
@@ -82,11 +99,150 @@ public abstract class OCompilationUnit extends GroovyCompilationUnit implements
     }
 
     /**
-     * refresh children
+     * refresh children.  Nothing is recomputed while the module node stays the
+     * same.  Otherwise the new children are diffed against the previous ones:
+     * elements that are equal and display the same are kept (taking on their new
+     * node), so that only elements that really changed are replaced and reported
+     * by {@link #getChangedElements()}.
      */
     protected void refresh() {
+        changedElements.clear();
         if (this.exists()) {
-            this.children = refreshChildren();
+            ASTNode node = getNode();
+            if (children != null && node != null && node == refreshedNode) {
+                return;
+            }
+            IJavaElement[] newChildren = refreshChildren();
+            Map<IJavaElement, String> newSignatures = new IdentityHashMap<IJavaElement, String>();
+            if (children == null || newChildren == null) {
+                changedElements.add(this);
+                collectSignatures(newChildren, newSignatures);
+                this.children = newChildren;
+            } else {
+                this.children = merge(this, children, newChildren, newSignatures, changedElements);
+            }
+            signatures = newSignatures;
+            refreshedNode = node;
+        }
+    }
+
+    /**
+     * @return the elements whose subtree changed during the last call to
+     *         {@link #refresh()}; contains this compilation unit if the top level
+     *         elements changed
+     */
+    public IJavaElement[] getChangedElements() {
+        return changedElements.toArray(new IJavaElement[changedElements.size()]);
+    }
+
+    private IJavaElement[] merge(IJavaElement parent, IJavaElement[] oldElements, IJavaElement[] newElements,
+            Map<IJavaElement, String> newSignatures, List<IJavaElement> changed) {
+        boolean structureChanged = (oldElements.length != newElements.length);
+        List<IJavaElement> changedChildren = new ArrayList<IJavaElement>();
+        boolean[] reused = new boolean[oldElements.length];
+        IJavaElement[] merged = new IJavaElement[newElements.length];
+        for (int i = 0; i < newElements.length; i += 1) {
+            IJavaElement newElement = newElements[i];
+            String signature = signatureOf(newElement);
+            int match = -1;
+            for (int j = 0; j < oldElements.length; j += 1) {
+                if (!reused[j] && oldElements[j].getClass() == newElement.getClass() && oldElements[j].equals(newElement)) {
+                    match = j;
+                    break;
+                }
+            }
+            if (match != i) {
+                structureChanged = true;
+            }
+            if (match < 0) {
+                merged[i] = newElement;
+                collectSignatures(new IJavaElement[] { newElement }, newSignatures);
+                continue;
+            }
+            reused[match] = true;
+            IJavaElement oldElement = oldElements[match];
+            if (!signature.equals(signatures.get(oldElement))) {
+                // displays differently; replace it
+                merged[i] = newElement;
+                changedChildren.add(newElement);
+                collectSignatures(new IJavaElement[] { newElement }, newSignatures);
+            } else {
+                merged[i] = oldElement;
+                newSignatures.put(oldElement, signature);
+                if (oldElement instanceof OType) {
+                    OType oldType = (OType) oldElement, newType = (OType) newElement;
+                    oldType.node = newType.node;
+                    List<IMember> oldChildren = oldType.getChildrenList(), newChildren = newType.getChildrenList();
+                    IJavaElement[] mergedChildren = merge(oldType, oldChildren.toArray(new IJavaElement[oldChildren.size()]),
+                            newChildren.toArray(new IJavaElement[newChildren.size()]), newSignatures, changedChildren);
+                    oldChildren.clear();
+                    for (IJavaElement child : mergedChildren) {
+                        oldChildren.add((IMember) child);
+                    }
+                } else if (oldElement instanceof OMethod) {
+                    ((OMethod) oldElement).node = ((OMethod) newElement).node;
+                } else if (oldElement instanceof OField) {
+                    ((OField) oldElement).node = ((OField) newElement).node;
+                }
+            }
+        }
+        if (structureChanged) {
+            changed.add(parent);
+        } else {
+            changed.addAll(changedChildren);
+        }
+        return merged;
+    }
+
+    private static void collectSignatures(IJavaElement[] elements, Map<IJavaElement, String> signatures) {
+        if (elements != null) {
+            for (IJavaElement element : elements) {
+                signatures.put(element, signatureOf(element));
+                if (element instanceof OType) {
+                    List<IMember> children = ((OType) element).getChildrenList();
+                    collectSignatures(children.toArray(new IJavaElement[children.size()]), signatures);
+                }
+            }
+        }
+    }
+
+    /**
+     * The parts of an element that the outline displays, other than its name.
+     * Java model elements get their children from the model rather than from
+     * {@link #refreshChildren()}, so those are included as well.
+     */
+    private static String signatureOf(IJavaElement element) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            appendSignature(element, sb);
+        } catch (JavaModelException e) {
+            GroovyCore.logException("Exception when comparing outline element " + element.getElementName(), e);
+            // never equal to a previous signature
+            sb.append(System.identityHashCode(element));
+        }
+        return sb.toString();
+    }
+
+    private static void appendSignature(IJavaElement element, StringBuilder sb) throws JavaModelException {
+        switch (element.getElementType()) {
+            case IJavaElement.FIELD:
+                sb.append(((IField) element).getTypeSignature());
+                break;
+            case IJavaElement.METHOD:
+                sb.append(((IMethod) element).getReturnType());
+                break;
+        }
+        if (element instanceof IMember) {
+            sb.append('/').append(((IMember) element).getFlags());
+        }
+        if (!(element instanceof IOJavaElement) && element instanceof IParent) {
+            sb.append('{');
+            for (IJavaElement child : ((IParent) element).getChildren()) {
+                sb.append(child.getElementType()).append(child.getElementName()).append(' ');
+                appendSignature(child, sb);
+                sb.append(';');
+            }
+            sb.append('}');
         }
     }
 
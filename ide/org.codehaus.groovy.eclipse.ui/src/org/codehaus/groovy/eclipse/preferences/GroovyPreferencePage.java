@@ -24,6 +24,7 @@ import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.preference.BooleanFieldEditor;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.RadioGroupFieldEditor;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.DisposeEvent;
@@ -121,6 +122,10 @@ public class GroovyPreferencePage extends FieldEditorOverlayPage implements IWor
         addField(new BooleanFieldEditor(PreferenceConstants.GROOVY_CONTENT_PARAMETER_GUESSING,
                 "Try to guess the most likely parameters to use for method invocations\n"
                         + "(if unchecked, then the argument name is used instead)", getFieldEditorParent()));
+        IntegerFieldEditor timeoutEditor = new IntegerFieldEditor(PreferenceConstants.GROOVY_CONTENT_ASSIST_TIMEOUT,
+                "Milliseconds to wait for slow proposals (0 to always wait)", getFieldEditorParent());
+        timeoutEditor.setValidRange(0, 60000);
+        addField(timeoutEditor);
 
 
         // default launch location for scripts
@@ -82,6 +82,7 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
         store.setDefault(PreferenceConstants.GROOVY_CONTENT_ASSIST_BRACKETS, true);
         store.setDefault(PreferenceConstants.GROOVY_CONTENT_NAMED_ARGUMENTS, false);
         store.setDefault(PreferenceConstants.GROOVY_CONTENT_PARAMETER_GUESSING, true);
+        store.setDefault(PreferenceConstants.GROOVY_CONTENT_ASSIST_TIMEOUT, 2000);
 
         store.setDefault(PreferenceConstants.GROOVY_SCRIPT_DEFAULT_WORKING_DIRECTORY, PreferenceConstants.GROOVY_SCRIPT_PROJECT_HOME);
 
@@ -143,6 +144,7 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
         store.setValue(PreferenceConstants.GROOVY_CONTENT_ASSIST_BRACKETS, true);
         store.setValue(PreferenceConstants.GROOVY_CONTENT_NAMED_ARGUMENTS, false);
         store.setValue(PreferenceConstants.GROOVY_CONTENT_PARAMETER_GUESSING, true);
+        store.setValue(PreferenceConstants.GROOVY_CONTENT_ASSIST_TIMEOUT, 2000);
 
         store.setValue(PreferenceConstants.GROOVY_SCRIPT_DEFAULT_WORKING_DIRECTORY, "proj_home");
 
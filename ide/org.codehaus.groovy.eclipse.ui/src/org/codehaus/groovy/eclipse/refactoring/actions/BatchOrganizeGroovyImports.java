@@ -0,0 +1,208 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.refactoring.actions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.codehaus.groovy.eclipse.GroovyPlugin;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.internal.corext.codemanipulation.OrganizeImportsOperation.IChooseImportQuery;
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.TextEdit;
+
+/**
+ * Organizes the imports of many groovy compilation units at once.  The type
+ * names of each project are collected once into a {@link TypeNameSnapshot}
+ * that is shared by all units of that project, and the units themselves are
+ * processed concurrently.  Edits are applied on the calling thread.
+ * <p>
+ * Nothing here requires a workbench, so this can be driven from a headless
+ * application as well as from the clean up and save actions.
+ */
+public class BatchOrganizeGroovyImports {
+
+    private final List<GroovyCompilationUnit> units;
+    private final IChooseImportQuery query;
+    private final int threads;
+
+    /**
+     * @param query answers ambiguous imports; it is called from worker threads,
+     *        but never by more than one thread at a time
+     */
+    public BatchOrganizeGroovyImports(Collection<GroovyCompilationUnit> units, IChooseImportQuery query) {
+        this(units, query, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchOrganizeGroovyImports(Collection<GroovyCompilationUnit> units, IChooseImportQuery query, int threads) {
+        this.units = new ArrayList<GroovyCompilationUnit>(units);
+        this.query = new SerializedQuery(query);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Collects the groovy compilation units contained by the given projects,
+     * source folders, packages or compilation units.
+     */
+    public static List<GroovyCompilationUnit> collectUnits(IJavaElement... elements) throws JavaModelException {
+        List<GroovyCompilationUnit> units = new ArrayList<GroovyCompilationUnit>();
+        for (IJavaElement element : elements) {
+            collectUnits(element, units);
+        }
+        return units;
+    }
+
+    private static void collectUnits(IJavaElement element, List<GroovyCompilationUnit> units) throws JavaModelException {
+        switch (element.getElementType()) {
+        case IJavaElement.JAVA_PROJECT:
+            for (IPackageFragmentRoot root : ((IJavaProject) element).getPackageFragmentRoots()) {
+                if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
+                    collectUnits(root, units);
+                }
+            }
+            break;
+        case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+            for (IJavaElement child : ((IPackageFragmentRoot) element).getChildren()) {
+                collectUnits(child, units);
+            }
+            break;
+        case IJavaElement.PACKAGE_FRAGMENT:
+            for (ICompilationUnit unit : ((IPackageFragment) element).getCompilationUnits()) {
+                collectUnits(unit, units);
+            }
+            break;
+        case IJavaElement.COMPILATION_UNIT:
+            if (element instanceof GroovyCompilationUnit && !units.contains(element)) {
+                units.add((GroovyCompilationUnit) element);
+            }
+            break;
+        }
+    }
+
+    /**
+     * Computes the import edits for every unit.  Units that have nothing to
+     * change or that could not be organized (see
+     * {@link OrganizeGroovyImports#calculateMissingImports()}) are mapped to
+     * {@code null}.
+     *
+     * @throws OperationCanceledException if the monitor is canceled
+     */
+    public Map<GroovyCompilationUnit, TextEdit> calculateMissingImports(IProgressMonitor monitor) throws JavaModelException {
+        Map<IJavaProject, TypeNameSnapshot> snapshots = new LinkedHashMap<IJavaProject, TypeNameSnapshot>();
+        for (GroovyCompilationUnit unit : units) {
+            snapshots.put(unit.getJavaProject(), null);
+        }
+
+        SubMonitor progress = SubMonitor.convert(monitor, "Organizing imports", snapshots.size() + units.size());
+        for (Map.Entry<IJavaProject, TypeNameSnapshot> entry : snapshots.entrySet()) {
+            entry.setValue(TypeNameSnapshot.create(entry.getKey(), progress.newChild(1)));
+        }
+
+        Map<GroovyCompilationUnit, Future<TextEdit>> futures = new LinkedHashMap<GroovyCompilationUnit, Future<TextEdit>>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, units.size())));
+        try {
+            for (final GroovyCompilationUnit unit : units) {
+                final TypeNameSnapshot snapshot = snapshots.get(unit.getJavaProject());
+                futures.put(unit, executor.submit(new Callable<TextEdit>() {
+                    public TextEdit call() {
+                        return new OrganizeGroovyImports(unit, query, snapshot).calculateMissingImports();
+                    }
+                }));
+            }
+
+            Map<GroovyCompilationUnit, TextEdit> edits = new LinkedHashMap<GroovyCompilationUnit, TextEdit>();
+            for (Map.Entry<GroovyCompilationUnit, Future<TextEdit>> entry : futures.entrySet()) {
+                if (progress.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                TextEdit edit = null;
+                try {
+                    edit = entry.getValue().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new OperationCanceledException();
+                } catch (ExecutionException e) {
+                    GroovyPlugin.getDefault().logException("Exception thrown when organizing imports for " + entry.getKey().getElementName(), e.getCause());
+                }
+                if (edit instanceof MultiTextEdit && edit.getChildrenSize() == 0) {
+                    edit = null;
+                }
+                edits.put(entry.getKey(), edit);
+                progress.worked(1);
+            }
+            return edits;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Computes and applies the import edits for every unit.
+     *
+     * @return the number of units that were changed
+     */
+    public int calculateAndApplyMissingImports(IProgressMonitor monitor) throws JavaModelException {
+        if (monitor == null) {
+            monitor = new NullProgressMonitor();
+        }
+        int changed = 0;
+        for (Map.Entry<GroovyCompilationUnit, TextEdit> entry : calculateMissingImports(monitor).entrySet()) {
+            if (entry.getValue() != null) {
+                entry.getKey().applyTextEdit(entry.getValue(), null);
+                changed += 1;
+            }
+        }
+        return changed;
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Ensures that a query written for the single-unit case is not entered by
+     * more than one worker thread at a time.
+     */
+    private static class SerializedQuery implements IChooseImportQuery {
+        private final IChooseImportQuery delegate;
+
+        SerializedQuery(IChooseImportQuery delegate) {
+            this.delegate = delegate;
+        }
+
+        public synchronized TypeNameMatch[] chooseImports(TypeNameMatch[][] openChoices, ISourceRange[] ranges) {
+            return delegate.chooseImports(openChoices, ranges);
+        }
+    }
+}
@@ -17,7 +17,9 @@ package org.codehaus.groovy.eclipse.refactoring.actions;
 
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.internal.corext.codemanipulation.OrganizeImportsOperation.IChooseImportQuery;
@@ -39,6 +41,32 @@ import org.eclipse.text.edits.TextEdit;
  */
 public class GroovyImportsCleanUp extends AbstractGroovyCleanUp {
 
+    /**
+     * Type names of the project being cleaned up, shared by all of its units;
+     * only collected when more than one unit is cleaned up, since the few
+     * unresolved names of a single unit (as on save) are cheaper to search
+     * directly.
+     */
+    private TypeNameSnapshot snapshot;
+
+    @Override
+    public RefactoringStatus checkPreConditions(IJavaProject project, ICompilationUnit[] compilationUnits, IProgressMonitor monitor)
+            throws CoreException {
+        RefactoringStatus result = super.checkPreConditions(project, compilationUnits, monitor);
+        if (compilationUnits.length > 1 && !result.hasFatalError()) {
+            snapshot = TypeNameSnapshot.create(project, monitor);
+        } else {
+            snapshot = null;
+        }
+        return result;
+    }
+
+    @Override
+    public RefactoringStatus checkPostConditions(IProgressMonitor monitor) throws CoreException {
+        snapshot = null;
+        return super.checkPostConditions(monitor);
+    }
+
     @Override
     public ICleanUpFix createFix(CleanUpContext context) throws CoreException {
         ICompilationUnit unit = context.getCompilationUnit();
@@ -54,7 +82,7 @@ public class GroovyImportsCleanUp extends AbstractGroovyCleanUp {
             }
         };
 
-        OrganizeGroovyImports op = new OrganizeGroovyImports((GroovyCompilationUnit) unit, query);
+        OrganizeGroovyImports op = new OrganizeGroovyImports((GroovyCompilationUnit) unit, query, snapshot);
         final TextEdit edit = op.calculateMissingImports();
         if (status == null) {
             status = new RefactoringStatus();
@@ -436,12 +436,22 @@ public class OrganizeGroovyImports {
 
     private IChooseImportQuery query;
     private final GroovyCompilationUnit unit;
+    private final TypeNameSnapshot snapshot;
     private Map<String, UnresolvedTypeData> missingTypes;
     private Map<String, ImportNode> importsSlatedForRemoval;
 
     public OrganizeGroovyImports(GroovyCompilationUnit unit, IChooseImportQuery query) {
+        this(unit, query, null);
+    }
+
+    /**
+     * @param snapshot type names shared by several organize operations on the
+     *        same project; may be {@code null} to search the index for this unit
+     */
+    public OrganizeGroovyImports(GroovyCompilationUnit unit, IChooseImportQuery query, TypeNameSnapshot snapshot) {
         this.unit = unit;
         this.query = query;
+        this.snapshot = snapshot;
     }
 
     public boolean calculateAndApplyMissingImports() throws JavaModelException {
@@ -612,7 +622,7 @@ public class OrganizeGroovyImports {
 
     private IType[] resolveMissingTypes() throws JavaModelException {
         // fill in all the potential matches
-        new TypeSearch().searchForTypes(unit, missingTypes); // TODO: This is insanely slow!
+        new TypeSearch(snapshot).searchForTypes(unit, missingTypes);
 
         List<TypeNameMatch> missingTypesNoChoiceRequired = new ArrayList<TypeNameMatch>();
         List<TypeNameMatch[]> missingTypesChoiceRequired = new ArrayList<TypeNameMatch[]>();
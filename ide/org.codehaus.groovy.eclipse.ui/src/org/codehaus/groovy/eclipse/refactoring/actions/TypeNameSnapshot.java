@@ -0,0 +1,115 @@
+/*
+ * Copyright 2009-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.refactoring.actions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.internal.corext.util.TypeNameMatchCollector;
+
+/**
+ * An immutable map of simple type name to candidate types, taken with a single
+ * index query over the search scope of a Java project.  Organizing imports for
+ * many compilation units of the same project can resolve all of their missing
+ * types against one snapshot instead of searching the index once per unit.
+ * <p>
+ * Member types are collected too, under their own simple name, just as the
+ * search of {@link TypeSearch} finds them.  Instances are safe to share between
+ * threads.
+ */
+public class TypeNameSnapshot {
+
+    private final IJavaProject project;
+    private final Map<String, List<TypeNameMatch>> typesBySimpleName;
+
+    private TypeNameSnapshot(IJavaProject project, Map<String, List<TypeNameMatch>> typesBySimpleName) {
+        this.project = project;
+        this.typesBySimpleName = typesBySimpleName;
+    }
+
+    /**
+     * Collects every type name visible from the given project.
+     */
+    public static TypeNameSnapshot create(IJavaProject project, IProgressMonitor monitor) throws JavaModelException {
+        List<TypeNameMatch> typesFound = new ArrayList<TypeNameMatch>();
+        TypeNameMatchCollector collector = new TypeNameMatchCollector(typesFound);
+        IJavaSearchScope scope = SearchEngine.createJavaSearchScope(new IJavaElement[] { project });
+        new SearchEngine().searchAllTypeNames(null, SearchPattern.R_EXACT_MATCH, null, SearchPattern.R_PREFIX_MATCH,
+            IJavaSearchConstants.TYPE, scope, collector, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+
+        Map<String, List<TypeNameMatch>> typesBySimpleName = new HashMap<String, List<TypeNameMatch>>(typesFound.size());
+        for (TypeNameMatch match : typesFound) {
+            String simpleName = match.getSimpleTypeName();
+            List<TypeNameMatch> candidates = typesBySimpleName.get(simpleName);
+            if (candidates == null) {
+                candidates = new ArrayList<TypeNameMatch>(1);
+                typesBySimpleName.put(simpleName, candidates);
+            }
+            candidates.add(match);
+        }
+        return new TypeNameSnapshot(project, typesBySimpleName);
+    }
+
+    /**
+     * @return {@code true} iff this snapshot was taken for the given project
+     */
+    public boolean isFor(IJavaProject javaProject) {
+        return project.equals(javaProject);
+    }
+
+    /**
+     * @return all candidate types with the given simple name; never {@code null}
+     */
+    public List<TypeNameMatch> getCandidates(String simpleName) {
+        List<TypeNameMatch> candidates = typesBySimpleName.get(simpleName);
+        if (candidates == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(candidates);
+    }
+
+    /**
+     * @return all candidate types for the given simple names, in the same form
+     *         a {@link TypeNameMatchCollector} would have produced them
+     */
+    public List<TypeNameMatch> getCandidates(Collection<String> simpleNames) {
+        List<TypeNameMatch> found = new ArrayList<TypeNameMatch>();
+        for (String simpleName : simpleNames) {
+            List<TypeNameMatch> candidates = typesBySimpleName.get(simpleName);
+            if (candidates != null) {
+                found.addAll(candidates);
+            }
+        }
+        return found;
+    }
+
+    public int size() {
+        return typesBySimpleName.size();
+    }
+}
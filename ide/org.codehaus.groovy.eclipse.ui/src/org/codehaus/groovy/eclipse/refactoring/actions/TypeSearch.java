@@ -39,6 +39,21 @@ import org.eclipse.jdt.internal.corext.util.TypeNameMatchCollector;
  * @author Nieraj Singh
  */
 public class TypeSearch {
+
+    private final TypeNameSnapshot snapshot;
+
+    public TypeSearch() {
+        this(null);
+    }
+
+    /**
+     * @param snapshot previously collected type names to answer searches from;
+     *        may be {@code null} to always query the search engine
+     */
+    public TypeSearch(TypeNameSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
     /**
      * Use a SearchEngine to look for the types
      * This will not find inner types, however
@@ -47,15 +62,12 @@ public class TypeSearch {
      */
     public void searchForTypes(GroovyCompilationUnit unit, Map<String, OrganizeGroovyImports.UnresolvedTypeData> missingTypes)
             throws JavaModelException {
-        char[][] allTypes = new char[missingTypes.size()][];
-        int i = 0;
-        for (String simpleName : missingTypes.keySet()) {
-            allTypes[i++] = simpleName.toCharArray();
+        final List<TypeNameMatch> typesFound;
+        if (snapshot != null && snapshot.isFor(unit.getJavaProject())) {
+            typesFound = snapshot.getCandidates(missingTypes.keySet());
+        } else {
+            typesFound = searchForTypeNames(unit, missingTypes);
         }
-        final List<TypeNameMatch> typesFound = new ArrayList<TypeNameMatch>();
-        TypeNameMatchCollector collector = new TypeNameMatchCollector(typesFound);
-        IJavaSearchScope scope = SearchEngine.createJavaSearchScope(new IJavaElement[] { unit.getJavaProject() });
-        new SearchEngine().searchAllTypeNames(null, allTypes, scope, collector, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
 
         for (TypeNameMatch match : typesFound) {
             UnresolvedTypeData data = missingTypes.get(match.getSimpleTypeName());
@@ -69,6 +81,20 @@ public class TypeSearch {
         }
     }
 
+    private static List<TypeNameMatch> searchForTypeNames(GroovyCompilationUnit unit, Map<String, UnresolvedTypeData> missingTypes)
+            throws JavaModelException {
+        char[][] allTypes = new char[missingTypes.size()][];
+        int i = 0;
+        for (String simpleName : missingTypes.keySet()) {
+            allTypes[i++] = simpleName.toCharArray();
+        }
+        List<TypeNameMatch> typesFound = new ArrayList<TypeNameMatch>();
+        TypeNameMatchCollector collector = new TypeNameMatchCollector(typesFound);
+        IJavaSearchScope scope = SearchEngine.createJavaSearchScope(new IJavaElement[] { unit.getJavaProject() });
+        new SearchEngine().searchAllTypeNames(null, allTypes, scope, collector, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
+        return typesFound;
+    }
+
     /**
      * If looking for an annotation, then filter out non-annoations,
      * otherwise everything is acceptable.
@@ -22,6 +22,9 @@ import java.util.GregorianCalendar;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.IGroovyLogger;
 import org.codehaus.groovy.eclipse.TraceCategory;
+import org.codehaus.jdt.groovy.model.ModuleNodeMapper;
+import org.eclipse.jdt.groovy.search.TypeLookupStatistics;
+import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.widgets.Composite;
@@ -46,6 +49,47 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
 
     private CloseConsoleAction fCloseConsoleAction;
 
+    private TypeLookupStatisticsAction fTypeLookupStatisticsAction;
+
+    private ModuleNodeMemoryAction fModuleNodeMemoryAction;
+
+    /** whether type lookup statistics were being collected before this page was opened */
+    private boolean fWasCollectingTypeLookups;
+
+    /**
+     * Logs how often each type lookup was asked for the type of an expression
+     * and how long it took, since the statistics were last shown.
+     */
+    private class TypeLookupStatisticsAction extends Action {
+        TypeLookupStatisticsAction() {
+            setText("Type Lookups"); //$NON-NLS-1$
+            setToolTipText("Show the calls to and time spent in each type lookup since they were last shown"); //$NON-NLS-1$
+        }
+
+        @Override
+        public void run() {
+            TypeLookupStatistics statistics = TypeLookupStatistics.getDefault();
+            log(TraceCategory.DEFAULT, statistics.toString());
+            statistics.clear();
+        }
+    }
+
+    /**
+     * Logs, for each open Groovy file, whether its module node is held in full
+     * or compacted and roughly how many bytes are retained for it.
+     */
+    private class ModuleNodeMemoryAction extends Action {
+        ModuleNodeMemoryAction() {
+            setText("Module Nodes"); //$NON-NLS-1$
+            setToolTipText("Show the estimated memory retained for the module node of each open Groovy file"); //$NON-NLS-1$
+        }
+
+        @Override
+        public void run() {
+            log(TraceCategory.DEFAULT, ModuleNodeMapper.getMemoryReport());
+        }
+    }
+
     public GroovyConsolePage(TextConsole console, IConsoleView view) {
         super(console, view);
     }
@@ -105,6 +149,9 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
     public void init(IPageSite pageSite) throws PartInitException {
         super.init(pageSite);
         GroovyLogManager.manager.addLogger(this);
+        // collect type lookup statistics while someone can ask for them
+        fWasCollectingTypeLookups = TypeLookupStatistics.getDefault().isEnabled();
+        TypeLookupStatistics.getDefault().setEnabled(true);
     }
 
     @Override
@@ -115,7 +162,10 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
             fScrollLockAction = null;
         }
         fCloseConsoleAction = null;
+        fTypeLookupStatisticsAction = null;
+        fModuleNodeMemoryAction = null;
         GroovyLogManager.manager.removeLogger(this);
+        TypeLookupStatistics.getDefault().setEnabled(fWasCollectingTypeLookups);
     }
 
     @Override
@@ -130,6 +180,8 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
         super.createActions();
         fScrollLockAction = new ScrollLockAction(getConsoleView());
         fCloseConsoleAction = new CloseConsoleAction(getConsole());
+        fTypeLookupStatisticsAction = new TypeLookupStatisticsAction();
+        fModuleNodeMemoryAction = new ModuleNodeMemoryAction();
         setAutoScroll(!fScrollLockAction.isChecked());
     }
 
@@ -144,6 +196,8 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
     protected void configureToolBar(IToolBarManager mgr) {
         super.configureToolBar(mgr);
         mgr.appendToGroup(IConsoleConstants.OUTPUT_GROUP, fScrollLockAction);
+        mgr.appendToGroup(IConsoleConstants.OUTPUT_GROUP, fTypeLookupStatisticsAction);
+        mgr.appendToGroup(IConsoleConstants.OUTPUT_GROUP, fModuleNodeMemoryAction);
         mgr.appendToGroup(IConsoleConstants.LAUNCH_GROUP, fCloseConsoleAction);
     }
 }
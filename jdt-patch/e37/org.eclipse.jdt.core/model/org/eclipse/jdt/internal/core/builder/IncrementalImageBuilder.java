@@ -11,6 +11,7 @@
 package org.eclipse.jdt.internal.core.builder; // GROOVY PATCHED
 
 import org.codehaus.jdt.groovy.integration.LanguageSupportFactory;
+import org.codehaus.jdt.groovy.internal.GroovyClassFileComparator;
 import org.eclipse.core.resources.*;
 import org.eclipse.core.runtime.*;
 
@@ -905,7 +906,13 @@ protected boolean writeClassFileCheck(IFile file, String fileName, byte[] newByt
 		String filePath = location.getSchemeSpecificPart();
 		ClassFileReader reader = new ClassFileReader(oldBytes, filePath.toCharArray());
 		// ignore local types since they're only visible inside a single method
+		// GROOVY start: ignore the members Groovy generates for its own use
+		/* old {
 		if (!(reader.isLocal() || reader.isAnonymous()) && reader.hasStructuralChanges(newBytes)) {
+		} new */
+		if (!(reader.isLocal() || reader.isAnonymous()) && reader.hasStructuralChanges(newBytes)
+				&& !(GroovyClassFileComparator.isGroovyClass(reader) && !GroovyClassFileComparator.hasStructuralChanges(reader, newBytes))) {
+		// GROOVY end
 			if (JavaBuilder.DEBUG)
 				System.out.println("Type has structural changes " + fileName); //$NON-NLS-1$
 			addDependentsOf(new Path(fileName), true);
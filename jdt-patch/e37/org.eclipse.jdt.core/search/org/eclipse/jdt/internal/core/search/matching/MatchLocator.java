@@ -1012,6 +1012,18 @@ protected void locateMatches(JavaProject javaProject, PossibleMatch[] possibleMa
 	// GROOVY start
 	boolean isInterestingProject = LanguageSupportFactory.isInterestingProject(javaProject.getProject());
 	Set alreadyMatched = new HashSet();
+	PossibleMatch[] delegatedMatches = null;
+	boolean[] delegated = isInterestingProject ? LanguageSupportFactory.maybePerformDelegatedSearch(possibleMatches, start, length, this.pattern, this.requestor, this.progressMonitor) : null;
+	if (delegated != null) {
+		// remember which possible matches the batch covered, similar matches may replace them below
+		delegatedMatches = new PossibleMatch[length];
+		System.arraycopy(possibleMatches, start, delegatedMatches, 0, length);
+		for (int i = 0; i < length; i++) {
+			if (delegated[i]) {
+				alreadyMatched.add(delegatedMatches[i]);
+			}
+		}
+	}
 	// GROOVY end
 
 	
@@ -1024,7 +1036,8 @@ protected void locateMatches(JavaProject javaProject, PossibleMatch[] possibleMa
 		for (int i = start, maxUnits = start + length; i < maxUnits; i++) {
 			PossibleMatch possibleMatch = possibleMatches[i];
 			// GROOVY start
-			if (isInterestingProject && possibleMatch.isInterestingSourceFile()) {
+			if (isInterestingProject && possibleMatch.isInterestingSourceFile()
+					&& (delegatedMatches == null || delegatedMatches[i - start] != possibleMatch)) {
 				boolean matchPerformed = LanguageSupportFactory.maybePerformDelegatedSearch(possibleMatch, this.pattern, this.requestor);
 				if (matchPerformed) {
 					alreadyMatched.add(possibleMatch);
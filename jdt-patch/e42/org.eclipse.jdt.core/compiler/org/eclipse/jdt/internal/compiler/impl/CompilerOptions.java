@@ -173,6 +173,7 @@ public class CompilerOptions {
 	public static final String OPTIONG_GroovyTransformsToRunOnReconcile = "org.eclipse.jdt.core.compiler.groovy.groovyTransformsToRunOnReconcile"; //$NON-NLS-1$
 	public static final String OPTIONG_GroovyCustomizerClassesList = "org.eclipse.jdt.core.compiler.groovy.groovyCustomizerClassesList"; //$NON-NLS-1$
 	public static final String OPTIONG_GroovyExcludeGlobalASTScan = "org.eclipse.jdt.core.compiler.groovy.groovyServiceScanExclude";  //$NON-NLS-1$
+	public static final String OPTIONG_GroovyCompilationProfile = "org.eclipse.jdt.core.compiler.groovy.compilationProfile"; //$NON-NLS-1$
 	// GROOVY end
 	
 	/**
@@ -423,6 +424,7 @@ public class CompilerOptions {
 	public String groovyProjectName = null;
 	public String groovyTransformsToRunOnReconcile = null;
 	public String groovyExcludeGlobalASTScan = null;
+	public String groovyCompilationProfile = null; // file the profile of a batch compilation is written to
 	// GROOVY end
 
 	// === Support for Null Annotations: ===
@@ -1775,6 +1777,9 @@ public class CompilerOptions {
 		if ((optionValue = optionsMap.get(OPTIONG_GroovyExcludeGlobalASTScan)) != null) {
 			this.groovyExcludeGlobalASTScan = (String)optionValue;
 		}		
+		if ((optionValue = optionsMap.get(OPTIONG_GroovyCompilationProfile)) != null) {
+			this.groovyCompilationProfile = (String)optionValue;
+		}
 		optionValue = optionsMap.get(OPTIONG_GroovyTransformsToRunOnReconcile);
 		if (optionValue!=null && ((String)optionValue).length()!=0) {
 			this.groovyTransformsToRunOnReconcile = (String)optionValue;
@@ -12,6 +12,7 @@
 package org.codehaus.jdt.groovy.integration;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
@@ -105,6 +106,11 @@ class DefaultLanguageSupport implements LanguageSupport {
 		return false;
 	}
 
+	public boolean[] maybePerformDelegatedSearch(PossibleMatch[] possibleMatches, int start, int length,
+			SearchPattern pattern, SearchRequestor requestor, IProgressMonitor monitor) {
+		return null;
+	}
+
 	public EventHandler getEventHandler() {
 		return DefaultEventHandler.instance;
 	}
@@ -12,6 +12,7 @@
 package org.codehaus.jdt.groovy.integration;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.JavaModelException;
@@ -107,6 +108,23 @@ public interface LanguageSupport {
 	 */
 	boolean maybePerformDelegatedSearch(PossibleMatch possibleMatch, SearchPattern pattern, SearchRequestor requestor);
 
+	/**
+	 * Maybe perform the searches for a batch of possible matches at once, using special
+	 * language support.  The results are sent to the SearchRequestor in the order of the
+	 * possible matches, from the calling thread.
+	 * @param possibleMatches the possible matches to look for
+	 * @param start index of the first possible match of the batch
+	 * @param length number of possible matches in the batch
+	 * @param pattern
+	 * @param requestor the requestor to send any completed search results to
+	 * @param monitor progress monitor that is checked for cancellation, may be null
+	 * @return null if the batch was not searched, in which case each possible match should
+	 *         be passed to {@link #maybePerformDelegatedSearch(PossibleMatch, SearchPattern, SearchRequestor)};
+	 *         otherwise, for each possible match of the batch, true iff its search was performed
+	 */
+	boolean[] maybePerformDelegatedSearch(PossibleMatch[] possibleMatches, int start, int length, SearchPattern pattern,
+			SearchRequestor requestor, IProgressMonitor monitor);
+
 	EventHandler getEventHandler();
 
 	void filterNonSourceMembers(BinaryType binaryType);
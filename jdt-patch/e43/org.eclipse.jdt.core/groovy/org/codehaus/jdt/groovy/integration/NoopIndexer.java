@@ -29,4 +29,11 @@ public class NoopIndexer implements ISupplementalIndexer {
 		return Collections.EMPTY_LIST;
 	}
 
+	/**
+	 * @return an empty list
+	 */
+	public List extractNamedReferences(byte[] contents, ClassFileReader reader, String documentPath) {
+		return Collections.EMPTY_LIST;
+	}
+
 }
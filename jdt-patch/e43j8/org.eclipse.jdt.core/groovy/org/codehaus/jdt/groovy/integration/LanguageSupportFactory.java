@@ -106,6 +106,11 @@ public class LanguageSupportFactory {
 	public static boolean maybePerformDelegatedSearch(PossibleMatch possibleMatch, SearchPattern pattern, SearchRequestor requestor) {
 		return getLanguageSupport().maybePerformDelegatedSearch(possibleMatch, pattern, requestor);
 	}
+
+	public static boolean[] maybePerformDelegatedSearch(PossibleMatch[] possibleMatches, int start, int length, SearchPattern pattern,
+			SearchRequestor requestor, IProgressMonitor monitor) {
+		return getLanguageSupport().maybePerformDelegatedSearch(possibleMatches, start, length, pattern, requestor, monitor);
+	}
 	
 	/**
 	 * Removes members from this binary type that are not mapped to locations in the 
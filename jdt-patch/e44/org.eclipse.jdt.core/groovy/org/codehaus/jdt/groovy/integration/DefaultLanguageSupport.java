@@ -113,6 +113,11 @@ class DefaultLanguageSupport implements LanguageSupport {
 		return false;
 	}
 
+	public boolean[] maybePerformDelegatedSearch(PossibleMatch[] possibleMatches, int start, int length,
+			SearchPattern pattern, SearchRequestor requestor, IProgressMonitor monitor) {
+		return null;
+	}
+
 	public EventHandler getEventHandler() {
 		return DefaultEventHandler.instance;
 	}
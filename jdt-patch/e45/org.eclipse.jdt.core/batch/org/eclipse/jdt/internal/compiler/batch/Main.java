@@ -1980,6 +1980,14 @@ public void configure(String[] argv) {
 					mode = INSIDE_LOG;
 					continue;
 				}
+				// GROOVY start
+				if (currentArg.startsWith("-groovyProfile:")) { //$NON-NLS-1$
+					// write the time spent in each phase, phase operation, transform and file to a JSON file
+					this.options.put(CompilerOptions.OPTIONG_GroovyCompilationProfile, currentArg.substring(15));
+					mode = DEFAULT;
+					continue;
+				}
+				// GROOVY end
 				if (currentArg.equals("-repeat")) { //$NON-NLS-1$
 					if (this.maxRepetition > 0)
 						throw new IllegalArgumentException(
@@ -4184,6 +4192,10 @@ public void performCompilation() {
 	} finally {
 		this.logger.endLoggingSources();
 	}
+	// GROOVY start
+	// the parser is reset several times per compilation, so the -groovyProfile file is written here
+	org.codehaus.jdt.groovy.integration.LanguageSupportFactory.getEventHandler().handle(null, "batchCompilationFinished"); //$NON-NLS-1$
+	// GROOVY end
 
 	if (this.extraProblems != null) {
 		loggingExtraProblems();
@@ -30,4 +30,14 @@ public interface ISupplementalIndexer {
 	 */
 	List extractNamedReferences(byte[] contents, ClassFileReader reader);
 
+	/**
+	 * Provides supplemental indexing for a class file of an index document, which allows
+	 * the references of a class file in a jar to be taken from a cache
+	 * @param contents The byte contents of the classfile
+	 * @param reader a reader for the class file
+	 * @param documentPath path of the index document, "jar|entry" for class files in jars
+	 * @return a char[] list of extra things to add to the index
+	 */
+	List extractNamedReferences(byte[] contents, ClassFileReader reader, String documentPath);
+
 }
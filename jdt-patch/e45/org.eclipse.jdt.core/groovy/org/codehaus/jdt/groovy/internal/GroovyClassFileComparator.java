@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2016 Codehaus.org, SpringSource, and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *******************************************************************************/
+package org.codehaus.jdt.groovy.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.codehaus.jdt.groovy.integration.LanguageSupportFactory;
+import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFormatException;
+import org.eclipse.jdt.internal.compiler.env.IBinaryAnnotation;
+import org.eclipse.jdt.internal.compiler.env.IBinaryElementValuePair;
+import org.eclipse.jdt.internal.compiler.env.IBinaryField;
+import org.eclipse.jdt.internal.compiler.env.IBinaryMethod;
+import org.eclipse.jdt.internal.compiler.env.IBinaryNestedType;
+import org.eclipse.jdt.internal.compiler.lookup.TagBits;
+
+/**
+ * Structural comparison of two versions of a class file produced by the Groovy
+ * compiler.  The comparison is the same as
+ * {@link ClassFileReader#hasStructuralChanges(byte[])}, except that the members
+ * Groovy generates for its own runtime (eg- <code>$getStaticMetaClass</code>,
+ * <code>$callSiteArray</code>, <code>super$1$toString</code> or the
+ * <code>__timeStamp</code> fields) and the nested closure classes are ignored.
+ * Their presence and numbering changes from one compile to the next even when
+ * the public structure of the type stays the same, and no other type can refer
+ * to them.
+ */
+public class GroovyClassFileComparator {
+
+	private static final char[] GROOVY_OBJECT = "groovy/lang/GroovyObject".toCharArray(); //$NON-NLS-1$
+
+	/** generated member names; <code>$</code> and <code>__$</code> also cover the call site, class and constant caches */
+	private static final String[] GENERATED_MEMBER_PREFIXES = { "$", "__$", "__timeStamp", "super$", "this$" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+	/** eg- <code>Foo$_run_closure1</code> or <code>Foo$_closure2</code> */
+	private static final Pattern CLOSURE_CLASS = Pattern.compile(".*\\$_(\\w*_)?closure\\d+"); //$NON-NLS-1$
+
+	// same as ClassFileReader.hasStructuralChanges
+	private static final long STRUCTURAL_TAG_BITS = TagBits.AnnotationTargetMASK | TagBits.AnnotationDeprecated
+			| TagBits.AnnotationRetentionMASK | TagBits.HierarchyHasProblems;
+
+	private GroovyClassFileComparator() {
+		// static methods only
+	}
+
+	/**
+	 * @return true iff the class file was produced from a Groovy source file
+	 */
+	public static boolean isGroovyClass(ClassFileReader reader) {
+		char[] sourceFileName = reader.sourceFileName();
+		if (sourceFileName != null && LanguageSupportFactory.isInterestingSourceFile(String.valueOf(sourceFileName))) {
+			return true;
+		}
+		char[][] interfaceNames = reader.getInterfaceNames();
+		if (interfaceNames != null) {
+			for (int i = 0; i < interfaceNames.length; i++) {
+				if (CharOperation.equals(interfaceNames[i], GROOVY_OBJECT)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param reader the previous version of the class file
+	 * @param newBytes the contents of the new version of the class file
+	 * @return true iff types that depend on this one may have to be recompiled
+	 */
+	public static boolean hasStructuralChanges(ClassFileReader reader, byte[] newBytes) {
+		try {
+			ClassFileReader newReader = new ClassFileReader(newBytes, reader.getFileName());
+			if (reader.getModifiers() != newReader.getModifiers()) {
+				return true;
+			}
+			if ((reader.getTagBits() & STRUCTURAL_TAG_BITS) != (newReader.getTagBits() & STRUCTURAL_TAG_BITS)) {
+				return true;
+			}
+			if (!CharOperation.equals(reader.getGenericSignature(), newReader.getGenericSignature())
+					|| !CharOperation.equals(reader.getSuperclassName(), newReader.getSuperclassName())
+					|| !CharOperation.equals(reader.getInterfaceNames(), newReader.getInterfaceNames())) {
+				return true;
+			}
+			return !annotationsOf(reader.getAnnotations()).equals(annotationsOf(newReader.getAnnotations()))
+					|| !memberTypesOf(reader).equals(memberTypesOf(newReader))
+					|| !fieldsOf(reader).equals(fieldsOf(newReader))
+					|| !methodsOf(reader).equals(methodsOf(newReader));
+		} catch (ClassFormatException e) {
+			return true;
+		}
+	}
+
+	private static boolean isGenerated(int modifiers, char[] name) {
+		if ((modifiers & ClassFileConstants.AccSynthetic) != 0) {
+			return true;
+		}
+		for (int i = 0; i < GENERATED_MEMBER_PREFIXES.length; i++) {
+			if (CharOperation.prefixEquals(GENERATED_MEMBER_PREFIXES[i].toCharArray(), name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<String> memberTypesOf(ClassFileReader reader) {
+		List<String> result = new ArrayList<String>();
+		IBinaryNestedType[] memberTypes = reader.getMemberTypes();
+		if (memberTypes != null) {
+			for (int i = 0; i < memberTypes.length; i++) {
+				String name = String.valueOf(memberTypes[i].getName());
+				if ((memberTypes[i].getModifiers() & ClassFileConstants.AccSynthetic) == 0 && !CLOSURE_CLASS.matcher(name).matches()) {
+					result.add(name + ' ' + memberTypes[i].getModifiers());
+				}
+			}
+		}
+		return result; // order is significant, as for Java types
+	}
+
+	private static List<String> fieldsOf(ClassFileReader reader) {
+		List<String> result = new ArrayList<String>();
+		IBinaryField[] fields = reader.getFields();
+		if (fields != null) {
+			for (int i = 0; i < fields.length; i++) {
+				IBinaryField field = fields[i];
+				if (!isGenerated(field.getModifiers(), field.getName())) {
+					StringBuffer sb = new StringBuffer();
+					sb.append(field.getModifiers()).append(' ').append(field.getName()).append(' ').append(field.getTypeName());
+					sb.append(' ').append(signatureOf(field.getGenericSignature())).append(' ').append(field.getConstant());
+					sb.append(' ').append(field.getTagBits() & TagBits.AnnotationDeprecated);
+					sb.append(annotationsOf(field.getAnnotations()));
+					result.add(sb.toString());
+				}
+			}
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private static List<String> methodsOf(ClassFileReader reader) {
+		List<String> result = new ArrayList<String>();
+		IBinaryMethod[] methods = reader.getMethods();
+		if (methods != null) {
+			for (int i = 0; i < methods.length; i++) {
+				IBinaryMethod method = methods[i];
+				if (!isGenerated(method.getModifiers(), method.getSelector()) && !method.isClinit()) {
+					StringBuffer sb = new StringBuffer();
+					sb.append(method.getModifiers()).append(' ').append(method.getSelector()).append(method.getMethodDescriptor());
+					sb.append(' ').append(signatureOf(method.getGenericSignature()));
+					char[][] exceptions = method.getExceptionTypeNames();
+					if (exceptions != null) {
+						for (int j = 0; j < exceptions.length; j++) {
+							sb.append(' ').append(exceptions[j]);
+						}
+					}
+					sb.append(' ').append(method.getTagBits() & TagBits.AnnotationDeprecated);
+					appendValue(method.getDefaultValue(), sb);
+					sb.append(annotationsOf(method.getAnnotations()));
+					result.add(sb.toString());
+				}
+			}
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private static String signatureOf(char[] genericSignature) {
+		return genericSignature == null ? "" : String.valueOf(genericSignature); //$NON-NLS-1$
+	}
+
+	private static List<String> annotationsOf(IBinaryAnnotation[] annotations) {
+		List<String> result = new ArrayList<String>();
+		if (annotations != null) {
+			for (int i = 0; i < annotations.length; i++) {
+				StringBuffer sb = new StringBuffer();
+				appendValue(annotations[i], sb);
+				result.add(sb.toString());
+			}
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private static void appendValue(Object value, StringBuffer sb) {
+		if (value instanceof IBinaryAnnotation) {
+			IBinaryAnnotation annotation = (IBinaryAnnotation) value;
+			sb.append('@').append(annotation.getTypeName()).append('(');
+			IBinaryElementValuePair[] pairs = annotation.getElementValuePairs();
+			if (pairs != null) {
+				for (int i = 0; i < pairs.length; i++) {
+					sb.append(pairs[i].getName()).append('=');
+					appendValue(pairs[i].getValue(), sb);
+					sb.append(',');
+				}
+			}
+			sb.append(')');
+		} else if (value instanceof Object[]) {
+			Object[] values = (Object[]) value;
+			sb.append('{');
+			for (int i = 0; i < values.length; i++) {
+				appendValue(values[i], sb);
+				sb.append(',');
+			}
+			sb.append('}');
+		} else {
+			sb.append(value);
+		}
+	}
+}
@@ -823,7 +823,7 @@ public class BinaryIndexer extends AbstractIndexer implements SuffixConstants {
 			// TODO would be nice to check for an "interesting project" here, but don't have access to that
 			char[] sourceFileName = reader.sourceFileName();
 			if (sourceFileName!= null && LanguageSupportFactory.isInterestingSourceFile(String.valueOf(sourceFileName))) {
-				List references = LanguageSupportFactory.getSupplementalIndexer().extractNamedReferences(contents, reader);
+				List references = LanguageSupportFactory.getSupplementalIndexer().extractNamedReferences(contents, reader, this.document.getPath());
 				for (Iterator iterator = references.iterator(); iterator.hasNext();) {
 					char[] reference = (char[]) iterator.next();
 					addNameReference(reference);